@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.benchmarks;
+
+import edu.snu.onyx.common.KeyExtractor;
+import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.compiler.frontend.beam.coder.BeamCoder;
+import edu.snu.onyx.runtime.executor.data.NonSerializedPartition;
+import edu.snu.onyx.runtime.executor.data.Partition;
+import edu.snu.onyx.runtime.executor.data.partitioner.HashPartitioner;
+import org.apache.beam.sdk.coders.ByteArrayCoder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.beam.sdk.values.KV;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates the records the benchmarks run on.
+ * Each record is a {@link KV} of an integer key and a byte array value of the given record size.
+ */
+public final class BenchmarkUtil {
+  /**
+   * The number of the records in a data set.
+   */
+  public static final int NUM_RECORDS = 1 << 15;
+  /**
+   * The number of the distinct keys in a data set.
+   */
+  public static final int NUM_KEYS = 1 << 12;
+  /**
+   * The coder of the records.
+   */
+  public static final Coder CODER = new BeamCoder(KvCoder.of(VarIntCoder.of(), ByteArrayCoder.of()));
+  /**
+   * Extracts the keys of the records.
+   */
+  public static final KeyExtractor KEY_EXTRACTOR = element -> ((KV) element).getKey();
+  private static final long SEED = 0;
+
+  /**
+   * Private constructor for utility class.
+   */
+  private BenchmarkUtil() {
+  }
+
+  /**
+   * @param recordSize the number of bytes of the value of each record.
+   * @return the records, with uniformly distributed keys.
+   */
+  public static List<KV<Integer, byte[]>> generateRecords(final int recordSize) {
+    final Random random = new Random(SEED);
+    final List<KV<Integer, byte[]>> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      final byte[] value = new byte[recordSize];
+      random.nextBytes(value);
+      records.add(KV.of(random.nextInt(NUM_KEYS), value));
+    }
+    return records;
+  }
+
+  /**
+   * @param recordSize    the number of bytes of the value of each record.
+   * @param numPartitions the number of the partitions.
+   * @return the records, hash-partitioned by their keys.
+   */
+  public static List<NonSerializedPartition<Integer>> generatePartitions(final int recordSize,
+                                                                         final int numPartitions) {
+    final List<NonSerializedPartition<Integer>> partitions = new ArrayList<>(numPartitions);
+    for (final Partition partition
+        : new HashPartitioner().partition(generateRecords(recordSize), numPartitions, KEY_EXTRACTOR)) {
+      partitions.add((NonSerializedPartition<Integer>) partition);
+    }
+    return partitions;
+  }
+
+  /**
+   * Deletes a directory and the files in it.
+   *
+   * @param directory the directory to delete.
+   * @throws IOException if fail to delete.
+   */
+  public static void deleteDirectory(final File directory) throws IOException {
+    try (final Stream<Path> paths = Files.walk(directory.toPath())) {
+      for (final Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+}
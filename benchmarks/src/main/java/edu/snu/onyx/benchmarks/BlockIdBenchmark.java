@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.benchmarks;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.executor.data.CoderManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the lookup of the coder of a block from its ID, which the block stores do for each access of a block,
+ * with the former parsing of the block ID by regular expressions as the baseline.
+ * Also benchmarks the encoding and the decoding of the control message requesting a block transfer,
+ * which carries the block as its runtime edge ID and task index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BlockIdBenchmark {
+  private static final String EXECUTOR_ID = "Executor-1";
+  private static final int TASK_INDEX = 12;
+
+  private CoderManager coderManager;
+  private String runtimeEdgeId;
+  private String blockId;
+  private byte[] transferRequest;
+
+  /**
+   * Registers the coder of the runtime edge, and encodes the control message to decode.
+   */
+  @Setup
+  public final void setUp() {
+    runtimeEdgeId = RuntimeIdGenerator.generateRuntimeEdgeId("edge-d3");
+    blockId = RuntimeIdGenerator.generateBlockId(runtimeEdgeId, TASK_INDEX);
+    coderManager = new CoderManager();
+    coderManager.registerCoder(runtimeEdgeId, BenchmarkUtil.CODER);
+    transferRequest = encodeTransferRequest();
+  }
+
+  /**
+   * @return the coder of the block, looked up as the block stores do.
+   */
+  @Benchmark
+  public final Coder getCoder() {
+    return coderManager.getCoder(RuntimeIdGenerator.getRuntimeEdgeIdFromBlockId(blockId));
+  }
+
+  /**
+   * @return the coder of the block, looked up by the former parsing of the block ID.
+   */
+  @Benchmark
+  public final Coder getCoderByRegex() {
+    return coderManager.getCoder(blockId.split("Block-")[1].split("_")[0]);
+  }
+
+  /**
+   * @return the encoded pull request of the block.
+   */
+  @Benchmark
+  public final byte[] encodeTransferRequest() {
+    return ControlMessage.DataTransferControlMessage.newBuilder()
+        .setControlMessageSourceId(EXECUTOR_ID)
+        .setBlockStore(ControlMessage.BlockStore.MEMORY)
+        .setType(ControlMessage.BlockTransferType.PULL)
+        .setTransferId(0)
+        .setEncodePartialBlock(false)
+        .setRuntimeEdgeId(runtimeEdgeId)
+        .setTaskIndex(RuntimeIdGenerator.getTaskIndexFromBlockId(blockId))
+        .build()
+        .toByteArray();
+  }
+
+  /**
+   * @return the ID of the block of the decoded pull request.
+   * @throws InvalidProtocolBufferException if fail to decode.
+   */
+  @Benchmark
+  public final String decodeTransferRequest() throws InvalidProtocolBufferException {
+    final ControlMessage.DataTransferControlMessage message =
+        ControlMessage.DataTransferControlMessage.parseFrom(transferRequest);
+    return RuntimeIdGenerator.generateBlockId(message.getRuntimeEdgeId(), message.getTaskIndex());
+  }
+}
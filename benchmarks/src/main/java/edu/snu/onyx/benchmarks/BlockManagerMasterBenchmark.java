@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.benchmarks;
+
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.message.MessageEnvironment;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageDispatcher;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageEnvironment;
+import edu.snu.onyx.runtime.common.state.BlockState;
+import edu.snu.onyx.runtime.master.BlockManagerMaster;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Benchmarks the throughput of the block metadata operations {@link BlockManagerMaster} handles for executors
+ * writing blocks concurrently. Each benchmark thread schedules, commits, looks up and removes the blocks of its own
+ * executor, as the master does for the messages of the executors.
+ * The former global lock of the master is emulated around the same operations as the baseline: the exclusive lock
+ * for the operations on the producer task groups, and the shared lock for the operations on a single block.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Threads(4)
+@Fork(1)
+public class BlockManagerMasterBenchmark {
+  private static final int NUM_BLOCKS_PER_EXECUTOR = 1024;
+
+  private BlockManagerMaster blockManagerMaster;
+  private ReadWriteLock globalLock;
+
+  /**
+   * Sets up the master.
+   * @throws Exception exception on the way.
+   */
+  @Setup
+  public final void setUp() throws Exception {
+    final LocalMessageEnvironment messageEnvironment = new LocalMessageEnvironment(
+        MessageEnvironment.MASTER_COMMUNICATION_ID, new LocalMessageDispatcher());
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileInstance(MessageEnvironment.class, messageEnvironment);
+    blockManagerMaster = injector.getInstance(BlockManagerMaster.class);
+    globalLock = new ReentrantReadWriteLock();
+  }
+
+  /**
+   * Terminates the master.
+   */
+  @TearDown
+  public final void tearDown() {
+    blockManagerMaster.terminate();
+  }
+
+  /**
+   * The blocks of the executor of a benchmark thread.
+   */
+  @State(Scope.Thread)
+  public static class ExecutorBlocks {
+    private String executorId;
+    private List<String> blockIds;
+    private List<String> taskGroupIds;
+    private int nextBlockIdx;
+
+    /**
+     * Registers the blocks of the executor to the master.
+     * @param benchmark the benchmark holding the master.
+     */
+    @Setup
+    public final void setUp(final BlockManagerMasterBenchmark benchmark) {
+      executorId = RuntimeIdGenerator.generateExecutorId();
+      final String edgeId = RuntimeIdGenerator.generateRuntimeEdgeId(executorId);
+      blockIds = new ArrayList<>(NUM_BLOCKS_PER_EXECUTOR);
+      taskGroupIds = new ArrayList<>(NUM_BLOCKS_PER_EXECUTOR);
+      for (int i = 0; i < NUM_BLOCKS_PER_EXECUTOR; i++) {
+        final String blockId = RuntimeIdGenerator.generateBlockId(edgeId, i);
+        final String taskGroupId = RuntimeIdGenerator.generateTaskGroupId();
+        benchmark.blockManagerMaster.initializeState(blockId, taskGroupId);
+        blockIds.add(blockId);
+        taskGroupIds.add(taskGroupId);
+      }
+    }
+
+    /**
+     * @return the index of the block to write next, in a round-robin manner.
+     */
+    private int nextBlockIdx() {
+      final int blockIdx = nextBlockIdx;
+      nextBlockIdx = (nextBlockIdx + 1) % NUM_BLOCKS_PER_EXECUTOR;
+      return blockIdx;
+    }
+  }
+
+  /**
+   * @param executorBlocks the blocks of the executor of this thread.
+   * @return the producer task groups of the written block.
+   */
+  @Benchmark
+  public final Set<String> writeBlock(final ExecutorBlocks executorBlocks) {
+    final int blockIdx = executorBlocks.nextBlockIdx();
+    final String blockId = executorBlocks.blockIds.get(blockIdx);
+    blockManagerMaster.onProducerTaskGroupScheduled(executorBlocks.taskGroupIds.get(blockIdx));
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.COMMITTED, executorBlocks.executorId);
+    blockManagerMaster.getBlockLocationFuture(blockId).getNow(null);
+    final Set<String> producerTaskGroupIds = blockManagerMaster.getProducerTaskGroupIds(blockId);
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.REMOVED, executorBlocks.executorId);
+    return producerTaskGroupIds;
+  }
+
+  /**
+   * @param executorBlocks the blocks of the executor of this thread.
+   * @return the producer task groups of the written block.
+   */
+  @Benchmark
+  public final Set<String> writeBlockUnderGlobalLock(final ExecutorBlocks executorBlocks) {
+    final int blockIdx = executorBlocks.nextBlockIdx();
+    final String blockId = executorBlocks.blockIds.get(blockIdx);
+    withLock(globalLock.writeLock(), () ->
+        blockManagerMaster.onProducerTaskGroupScheduled(executorBlocks.taskGroupIds.get(blockIdx)));
+    withLock(globalLock.readLock(), () ->
+        blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.COMMITTED, executorBlocks.executorId));
+    withLock(globalLock.readLock(), () -> blockManagerMaster.getBlockLocationFuture(blockId).getNow(null));
+    final Lock readLock = globalLock.readLock();
+    final Set<String> producerTaskGroupIds;
+    readLock.lock();
+    try {
+      producerTaskGroupIds = blockManagerMaster.getProducerTaskGroupIds(blockId);
+    } finally {
+      readLock.unlock();
+    }
+    withLock(globalLock.readLock(), () ->
+        blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.REMOVED, executorBlocks.executorId));
+    return producerTaskGroupIds;
+  }
+
+  /**
+   * Runs an operation of the master holding a lock, as the former master did.
+   * @param lock      the lock to hold.
+   * @param operation the operation to run.
+   */
+  private static void withLock(final Lock lock, final Runnable operation) {
+    lock.lock();
+    try {
+      operation.run();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.benchmarks;
+
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.data.HashRange;
+import edu.snu.onyx.runtime.common.message.MessageEnvironment;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageDispatcher;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageEnvironment;
+import edu.snu.onyx.runtime.common.state.BlockState;
+import edu.snu.onyx.runtime.executor.data.CoderManager;
+import edu.snu.onyx.runtime.executor.data.NonSerializedPartition;
+import edu.snu.onyx.runtime.executor.data.stores.*;
+import edu.snu.onyx.runtime.master.BlockManagerMaster;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the writes and the reads of each {@link BlockStore}.
+ * The {@link GlusterFileStore} writes to a local directory standing in for the shared volume,
+ * with the master side metadata server running in the same JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BlockStoreBenchmark {
+  private static final String EXECUTOR_ID = "Executor";
+
+  @Param({"MemoryStore", "SerializedMemoryStore", "LocalFileStore", "GlusterFileStore"})
+  private String blockStoreType;
+  @Param({"16", "1024"})
+  private int recordSize;
+  @Param({"16", "1024"})
+  private int numPartitions;
+
+  private File directory;
+  private BlockManagerMaster blockManagerMaster;
+  private BlockStore blockStore;
+  private String runtimeEdgeId;
+  private List<NonSerializedPartition<Integer>> partitions;
+  private String blockIdToRead;
+  private String blockIdToWrite;
+  private int numWrittenBlocks;
+
+  /**
+   * Sets up the block store, and writes the block to read.
+   * @throws Exception exception on the way.
+   */
+  @Setup
+  public final void setUp() throws Exception {
+    directory = Files.createTempDirectory("onyx-benchmark").toFile();
+    final LocalMessageDispatcher messageDispatcher = new LocalMessageDispatcher();
+    final Injector masterInjector = Tang.Factory.getTang().newInjector();
+    masterInjector.bindVolatileInstance(MessageEnvironment.class,
+        new LocalMessageEnvironment(MessageEnvironment.MASTER_COMMUNICATION_ID, messageDispatcher));
+    blockManagerMaster = masterInjector.getInstance(BlockManagerMaster.class);
+
+    runtimeEdgeId = RuntimeIdGenerator.generateRuntimeEdgeId("BlockStoreBenchmark");
+    final CoderManager coderManager = new CoderManager();
+    coderManager.registerCoder(runtimeEdgeId, BenchmarkUtil.CODER);
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileParameter(JobConf.JobId.class, "BlockStoreBenchmark");
+    injector.bindVolatileParameter(JobConf.ExecutorId.class, EXECUTOR_ID);
+    injector.bindVolatileParameter(JobConf.FileDirectory.class, directory.getPath());
+    injector.bindVolatileParameter(JobConf.GlusterVolumeDirectory.class, directory.getPath());
+    injector.bindVolatileInstance(CoderManager.class, coderManager);
+    injector.bindVolatileInstance(MessageEnvironment.class,
+        new LocalMessageEnvironment(EXECUTOR_ID, messageDispatcher));
+    blockStore = injector.getInstance(getBlockStoreClass(blockStoreType));
+
+    partitions = BenchmarkUtil.generatePartitions(recordSize, numPartitions);
+    blockIdToRead = nextBlockId();
+    writeBlock(blockIdToRead);
+  }
+
+  /**
+   * Removes the block to read and the files written.
+   * @throws Exception exception on the way.
+   */
+  @TearDown
+  public final void tearDown() throws Exception {
+    blockStore.removeBlock(blockIdToRead);
+    BenchmarkUtil.deleteDirectory(directory);
+  }
+
+  /**
+   * Prepares a new block to write, as the blocks are not to be overwritten.
+   */
+  @Setup(Level.Invocation)
+  public final void setUpBlockToWrite() {
+    blockIdToWrite = nextBlockId();
+  }
+
+  /**
+   * Removes the block written, to keep the footprint of the stores steady.
+   */
+  @TearDown(Level.Invocation)
+  public final void tearDownBlockToWrite() {
+    blockStore.removeBlock(blockIdToWrite);
+  }
+
+  /**
+   * Writes and commits a block.
+   */
+  @Benchmark
+  public final void putAndCommit() {
+    writeBlock(blockIdToWrite);
+  }
+
+  /**
+   * Reads the half of the partitions, as a reader of a shuffle edge reads its key range.
+   * @param blackhole consumes the elements read.
+   */
+  @Benchmark
+  public final void getByKeyRange(final Blackhole blackhole) {
+    final Iterable<NonSerializedPartition<Integer>> partitionsRead =
+        blockStore.<Integer>getPartitions(blockIdToRead, HashRange.of(0, numPartitions / 2)).get();
+    for (final NonSerializedPartition<Integer> partition : partitionsRead) {
+      partition.getData().forEach(blackhole::consume);
+    }
+  }
+
+  /**
+   * @return the ID of a new block, scheduled to be written.
+   */
+  private String nextBlockId() {
+    final String blockId = RuntimeIdGenerator.generateBlockId(runtimeEdgeId, numWrittenBlocks++);
+    blockManagerMaster.initializeState(blockId, "Unused");
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.SCHEDULED, null);
+    return blockId;
+  }
+
+  /**
+   * Writes and commits a block.
+   * @param blockId the ID of the block.
+   */
+  private void writeBlock(final String blockId) {
+    blockStore.createBlock(blockId);
+    blockStore.putPartitions(blockId, partitions, false);
+    blockStore.commitBlock(blockId);
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.COMMITTED, EXECUTOR_ID);
+  }
+
+  /**
+   * @param blockStoreType the name of a block store.
+   * @return the class of the block store.
+   */
+  private static Class<? extends BlockStore> getBlockStoreClass(final String blockStoreType) {
+    switch (blockStoreType) {
+      case "MemoryStore":
+        return MemoryStore.class;
+      case "SerializedMemoryStore":
+        return SerializedMemoryStore.class;
+      case "LocalFileStore":
+        return LocalFileStore.class;
+      case "GlusterFileStore":
+        return GlusterFileStore.class;
+      default:
+        throw new IllegalArgumentException("Unknown block store: " + blockStoreType);
+    }
+  }
+}
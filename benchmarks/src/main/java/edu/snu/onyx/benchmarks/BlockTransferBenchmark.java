@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.benchmarks;
+
+import edu.snu.onyx.common.ir.edge.executionproperty.DataStoreProperty;
+import edu.snu.onyx.common.ir.edge.executionproperty.UsedDataHandlingProperty;
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.data.HashRange;
+import edu.snu.onyx.runtime.common.message.MessageEnvironment;
+import edu.snu.onyx.runtime.common.message.MessageParameters;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageDispatcher;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageEnvironment;
+import edu.snu.onyx.runtime.common.state.BlockState;
+import edu.snu.onyx.runtime.executor.data.BlockManagerWorker;
+import edu.snu.onyx.runtime.executor.data.CoderManager;
+import edu.snu.onyx.runtime.executor.data.Partition;
+import edu.snu.onyx.runtime.master.BlockManagerMaster;
+import org.apache.reef.io.network.naming.NameResolverConfiguration;
+import org.apache.reef.io.network.naming.NameServer;
+import org.apache.reef.io.network.util.StringIdentifierFactory;
+import org.apache.reef.tang.Configuration;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.apache.reef.wake.IdentifierFactory;
+import org.apache.reef.wake.remote.address.LocalAddressProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks pulling a block from another executor, from a {@link edu.snu.onyx.runtime.executor.data.blocktransfer
+ * .BlockOutputStream} to a {@link edu.snu.onyx.runtime.executor.data.blocktransfer.BlockInputStream}
+ * over the {@link edu.snu.onyx.runtime.executor.data.blocktransfer.BlockTransport} on the loopback interface.
+ * Both executors and the master run in the same JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BlockTransferBenchmark {
+  private static final String SENDER_ID = "Sender";
+  private static final String RECEIVER_ID = "Receiver";
+
+  @Param({"MemoryStore", "SerializedMemoryStore", "LocalFileStore"})
+  private String blockStoreType;
+  @Param({"16", "1024"})
+  private int recordSize;
+  @Param({"16", "1024"})
+  private int numPartitions;
+
+  private File directory;
+  private NameServer nameServer;
+  private DataStoreProperty.Value blockStore;
+  private BlockManagerWorker sender;
+  private BlockManagerWorker receiver;
+  private String runtimeEdgeId;
+  private String blockId;
+
+  /**
+   * Sets up the master and the two executors, and writes the block to pull in the sender.
+   * @throws Exception exception on the way.
+   */
+  @Setup
+  public final void setUp() throws Exception {
+    directory = Files.createTempDirectory("onyx-benchmark").toFile();
+    blockStore = DataStoreProperty.Value.valueOf(blockStoreType);
+    runtimeEdgeId = RuntimeIdGenerator.generateRuntimeEdgeId("BlockTransferBenchmark");
+    blockId = RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 0);
+
+    final LocalMessageDispatcher messageDispatcher = new LocalMessageDispatcher();
+    final Injector masterInjector = Tang.Factory.getTang().newInjector();
+    masterInjector.bindVolatileInstance(MessageEnvironment.class,
+        new LocalMessageEnvironment(MessageEnvironment.MASTER_COMMUNICATION_ID, messageDispatcher));
+    final BlockManagerMaster blockManagerMaster = masterInjector.getInstance(BlockManagerMaster.class);
+    final Injector nameClientInjector = createNameClientInjector();
+    sender = createWorker(SENDER_ID, messageDispatcher, nameClientInjector);
+    receiver = createWorker(RECEIVER_ID, messageDispatcher, nameClientInjector);
+
+    blockManagerMaster.initializeState(blockId, "Unused");
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.SCHEDULED, null);
+    final List<Partition> partitions = new ArrayList<>(BenchmarkUtil.generatePartitions(recordSize, numPartitions));
+    sender.createBlock(blockId, blockStore);
+    sender.putPartitions(blockId, partitions, blockStore, false);
+    sender.commitBlock(blockId, blockStore, Collections.emptyList(), "Unused", 0,
+        UsedDataHandlingProperty.Value.Keep);
+    // Wait for the master to be notified of the location.
+    blockManagerMaster.getBlockLocationFuture(blockId).get();
+  }
+
+  /**
+   * Closes the name server and removes the files written.
+   * The transports of the executors are left to the exit of the forked JVM.
+   * @throws Exception exception on the way.
+   */
+  @TearDown
+  public final void tearDown() throws Exception {
+    nameServer.close();
+    BenchmarkUtil.deleteDirectory(directory);
+  }
+
+  /**
+   * Pulls the half of the partitions, as a reader of a shuffle edge pulls its key range.
+   * @param blackhole consumes the elements pulled.
+   * @throws Exception exception on the way.
+   */
+  @Benchmark
+  public final void pull(final Blackhole blackhole) throws Exception {
+    final Iterable elements = receiver.retrieveDataFromBlock(
+        blockId, runtimeEdgeId, blockStore, HashRange.of(0, numPartitions / 2)).get();
+    elements.forEach(blackhole::consume);
+  }
+
+  /**
+   * Creates a {@link BlockManagerWorker} of an executor.
+   * @param executorId         the ID of the executor.
+   * @param messageDispatcher  the dispatcher of the messages to the master.
+   * @param nameClientInjector the injector with the configuration of the name client.
+   * @return the created worker.
+   * @throws Exception exception on the way.
+   */
+  private BlockManagerWorker createWorker(final String executorId,
+                                          final LocalMessageDispatcher messageDispatcher,
+                                          final Injector nameClientInjector) throws Exception {
+    final Configuration executorConfiguration = Tang.Factory.getTang().newConfigurationBuilder()
+        .bindNamedParameter(JobConf.ExecutorId.class, executorId)
+        .bindNamedParameter(MessageParameters.SenderId.class, executorId)
+        .build();
+    final Injector injector = nameClientInjector.forkInjector(executorConfiguration);
+    injector.bindVolatileParameter(JobConf.JobId.class, "BlockTransferBenchmark");
+    injector.bindVolatileParameter(JobConf.FileDirectory.class, new File(directory, executorId).getPath());
+    injector.bindVolatileParameter(JobConf.GlusterVolumeDirectory.class, directory.getPath());
+    injector.bindVolatileInstance(MessageEnvironment.class, new LocalMessageEnvironment(executorId, messageDispatcher));
+    injector.getInstance(CoderManager.class).registerCoder(runtimeEdgeId, BenchmarkUtil.CODER);
+    return injector.getInstance(BlockManagerWorker.class);
+  }
+
+  /**
+   * Starts a name server, to which the {@link edu.snu.onyx.runtime.executor.data.blocktransfer.BlockTransport}s
+   * of the executors register their addresses.
+   * @return the injector with the configuration of the name client.
+   * @throws Exception exception on the way.
+   */
+  private Injector createNameClientInjector() throws Exception {
+    final Configuration configuration = Tang.Factory.getTang().newConfigurationBuilder()
+        .bindImplementation(IdentifierFactory.class, StringIdentifierFactory.class)
+        .build();
+    final Injector injector = Tang.Factory.getTang().newInjector(configuration);
+    final LocalAddressProvider localAddressProvider = injector.getInstance(LocalAddressProvider.class);
+    nameServer = injector.getInstance(NameServer.class);
+    final Configuration nameClientConfiguration = NameResolverConfiguration.CONF
+        .set(NameResolverConfiguration.NAME_SERVER_HOSTNAME, localAddressProvider.getLocalAddress())
+        .set(NameResolverConfiguration.NAME_SERVICE_PORT, nameServer.getPort())
+        .build();
+    return injector.forkInjector(nameClientConfiguration);
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.benchmarks;
+
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.message.MessageContext;
+import edu.snu.onyx.runtime.common.message.MessageEnvironment;
+import edu.snu.onyx.runtime.common.message.MessageListener;
+import edu.snu.onyx.runtime.common.message.MessageParameters;
+import edu.snu.onyx.runtime.common.message.PersistentConnectionToMasterMap;
+import edu.snu.onyx.runtime.common.message.grpc.GrpcMessageEnvironment;
+import edu.snu.onyx.runtime.master.PartitionedEventExecutor;
+import org.apache.reef.io.network.naming.NameResolverConfiguration;
+import org.apache.reef.io.network.naming.NameServer;
+import org.apache.reef.io.network.util.StringIdentifierFactory;
+import org.apache.reef.tang.Configuration;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.apache.reef.wake.IdentifierFactory;
+import org.apache.reef.wake.remote.address.LocalAddressProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Benchmarks the throughput of the TaskGroup state changes the master handles, from executors sending them
+ * concurrently over the {@link GrpcMessageEnvironment} on the loopback interface, with and without coalescing
+ * the messages. Like the runtime master, the master hands each message over to the thread of its executor.
+ * Each benchmark thread sends the messages of its own executor. The executors and the master run in the same JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Threads(4)
+@Fork(1)
+public class ControlMessageBenchmark {
+  private static final int NUM_MESSAGES = 100;
+
+  @Param({"0", "1", "5"})
+  private long batchWindowMs;
+
+  @Param({"1", "4"})
+  private int masterEventThreads;
+
+  private NameServer nameServer;
+  private PartitionedEventExecutor masterControlEventExecutor;
+  private AtomicLong numSentMessages;
+  private AtomicLong numHandledMessages;
+  private PersistentConnectionToMasterMap connectionToMaster;
+
+  /**
+   * Sets up the master and an executor.
+   * @throws Exception exception on the way.
+   */
+  @Setup
+  public final void setUp() throws Exception {
+    masterControlEventExecutor = new PartitionedEventExecutor("MasterControlEvent", masterEventThreads);
+    numSentMessages = new AtomicLong();
+    numHandledMessages = new AtomicLong();
+    final Injector nameClientInjector = createNameClientInjector();
+
+    final MessageEnvironment masterEnvironment =
+        createMessageEnvironment(nameClientInjector, MessageEnvironment.MASTER_COMMUNICATION_ID);
+    masterEnvironment.setupListener(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID,
+        new MessageListener<ControlMessage.Message>() {
+          @Override
+          public void onMessage(final ControlMessage.Message message) {
+            masterControlEventExecutor.execute(message.getTaskGroupStateChangedMsg().getExecutorId(),
+                numHandledMessages::incrementAndGet);
+          }
+
+          @Override
+          public void onMessageWithContext(final ControlMessage.Message message,
+                                           final MessageContext messageContext) {
+            throw new UnsupportedOperationException();
+          }
+        });
+    masterEnvironment.setupListener(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID,
+        new MessageListener<ControlMessage.Message>() {
+          @Override
+          public void onMessage(final ControlMessage.Message message) {
+            throw new UnsupportedOperationException();
+          }
+
+          @Override
+          public void onMessageWithContext(final ControlMessage.Message message,
+                                           final MessageContext messageContext) {
+            throw new UnsupportedOperationException();
+          }
+        });
+    connectionToMaster = new PersistentConnectionToMasterMap(
+        createMessageEnvironment(nameClientInjector, "Executor"), batchWindowMs, 64);
+  }
+
+  /**
+   * Closes the name server.
+   * The message environments are left to the exit of the forked JVM.
+   * @throws Exception exception on the way.
+   */
+  @TearDown
+  public final void tearDown() throws Exception {
+    masterControlEventExecutor.shutdown();
+    nameServer.close();
+  }
+
+  /**
+   * Sends the state changes of TaskGroups, and waits until the master has handled them.
+   */
+  @Benchmark
+  @OperationsPerInvocation(NUM_MESSAGES)
+  public final void sendTaskGroupStateChanged() {
+    final long numMessagesToHandle = numSentMessages.addAndGet(NUM_MESSAGES);
+    final String executorId = Thread.currentThread().getName();
+    for (int i = 0; i < NUM_MESSAGES; i++) {
+      connectionToMaster.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID).send(
+          ControlMessage.Message.newBuilder()
+              .setId(RuntimeIdGenerator.generateMessageId())
+              .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+              .setType(ControlMessage.MessageType.TaskGroupStateChanged)
+              .setTaskGroupStateChangedMsg(ControlMessage.TaskGroupStateChangedMsg.newBuilder()
+                  .setExecutorId(executorId)
+                  .setTaskGroupId("TaskGroup-" + i)
+                  .setState(ControlMessage.TaskGroupStateFromExecutor.COMPLETE)
+                  .setAttemptIdx(0))
+              .build());
+    }
+    while (numHandledMessages.get() < numMessagesToHandle) {
+      LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+    }
+  }
+
+  /**
+   * Creates a {@link GrpcMessageEnvironment} of a node.
+   * @param nameClientInjector the injector with the configuration of the name client.
+   * @param senderId           the ID of the node.
+   * @return the created environment.
+   * @throws Exception exception on the way.
+   */
+  private MessageEnvironment createMessageEnvironment(final Injector nameClientInjector,
+                                                      final String senderId) throws Exception {
+    final Configuration messageConfiguration = Tang.Factory.getTang().newConfigurationBuilder()
+        .bindImplementation(MessageEnvironment.class, GrpcMessageEnvironment.class)
+        .bindNamedParameter(MessageParameters.SenderId.class, senderId)
+        .build();
+    return nameClientInjector.forkInjector(messageConfiguration).getInstance(MessageEnvironment.class);
+  }
+
+  /**
+   * Starts a name server, to which the message environments register their addresses.
+   * @return the injector with the configuration of the name client.
+   * @throws Exception exception on the way.
+   */
+  private Injector createNameClientInjector() throws Exception {
+    final Configuration configuration = Tang.Factory.getTang().newConfigurationBuilder()
+        .bindImplementation(IdentifierFactory.class, StringIdentifierFactory.class)
+        .build();
+    final Injector injector = Tang.Factory.getTang().newInjector(configuration);
+    final LocalAddressProvider localAddressProvider = injector.getInstance(LocalAddressProvider.class);
+    nameServer = injector.getInstance(NameServer.class);
+    final Configuration nameClientConfiguration = NameResolverConfiguration.CONF
+        .set(NameResolverConfiguration.NAME_SERVER_HOSTNAME, localAddressProvider.getLocalAddress())
+        .set(NameResolverConfiguration.NAME_SERVICE_PORT, nameServer.getPort())
+        .build();
+    return injector.forkInjector(nameClientConfiguration);
+  }
+}
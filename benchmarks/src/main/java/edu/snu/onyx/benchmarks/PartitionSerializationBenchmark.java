@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.benchmarks;
+
+import edu.snu.onyx.runtime.executor.data.DataUtil;
+import edu.snu.onyx.runtime.executor.data.NonSerializedPartition;
+import edu.snu.onyx.runtime.executor.data.SerializedPartition;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link DataUtil#convertToSerPartitions} and {@link DataUtil#convertToNonSerPartitions}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PartitionSerializationBenchmark {
+  @Param({"16", "1024"})
+  private int recordSize;
+  @Param({"16", "1024"})
+  private int numPartitions;
+
+  private List<NonSerializedPartition<Integer>> nonSerializedPartitions;
+  private List<SerializedPartition<Integer>> serializedPartitions;
+
+  /**
+   * Generates the partitions to convert.
+   * @throws IOException if fail to serialize.
+   */
+  @Setup
+  public final void setUp() throws IOException {
+    nonSerializedPartitions = BenchmarkUtil.generatePartitions(recordSize, numPartitions);
+    serializedPartitions = new ArrayList<>(numPartitions);
+    DataUtil.convertToSerPartitions(BenchmarkUtil.CODER, nonSerializedPartitions).forEach(serializedPartitions::add);
+  }
+
+  /**
+   * @return the serialized partitions.
+   * @throws IOException if fail to serialize.
+   */
+  @Benchmark
+  public final Iterable<SerializedPartition<Integer>> serialize() throws IOException {
+    return DataUtil.convertToSerPartitions(BenchmarkUtil.CODER, nonSerializedPartitions);
+  }
+
+  /**
+   * @return the deserialized partitions.
+   * @throws IOException if fail to deserialize.
+   */
+  @Benchmark
+  public final Iterable<NonSerializedPartition<Integer>> deserialize() throws IOException {
+    return DataUtil.convertToNonSerPartitions(BenchmarkUtil.CODER, serializedPartitions);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.benchmarks;
+
+import edu.snu.onyx.runtime.executor.data.Partition;
+import edu.snu.onyx.runtime.executor.data.partitioner.DataSkewHashPartitioner;
+import edu.snu.onyx.runtime.executor.data.partitioner.HashPartitioner;
+import org.apache.beam.sdk.values.KV;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HashPartitioner} and {@link DataSkewHashPartitioner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PartitionerBenchmark {
+  private static final int HASH_RANGE_MULTIPLIER = 10;
+
+  @Param({"16", "1024"})
+  private int recordSize;
+  @Param({"16", "1024"})
+  private int numPartitions;
+
+  private List<KV<Integer, byte[]>> records;
+  private HashPartitioner hashPartitioner;
+  private DataSkewHashPartitioner dataSkewHashPartitioner;
+
+  /**
+   * Generates the records to partition.
+   */
+  @Setup
+  public final void setUp() {
+    records = BenchmarkUtil.generateRecords(recordSize);
+    hashPartitioner = new HashPartitioner();
+    dataSkewHashPartitioner = new DataSkewHashPartitioner(HASH_RANGE_MULTIPLIER);
+  }
+
+  /**
+   * @return the records, partitioned by {@link HashPartitioner}.
+   */
+  @Benchmark
+  public final List<Partition> hashPartition() {
+    return hashPartitioner.partition(records, numPartitions, BenchmarkUtil.KEY_EXTRACTOR);
+  }
+
+  /**
+   * @return the records, partitioned by {@link DataSkewHashPartitioner}.
+   */
+  @Benchmark
+  public final List<Partition> dataSkewHashPartition() {
+    return dataSkewHashPartitioner.partition(records, numPartitions, BenchmarkUtil.KEY_EXTRACTOR);
+  }
+}
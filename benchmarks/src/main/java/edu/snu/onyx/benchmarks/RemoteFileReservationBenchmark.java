@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.benchmarks;
+
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.message.MessageEnvironment;
+import edu.snu.onyx.runtime.common.message.PersistentConnectionToMasterMap;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageDispatcher;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageEnvironment;
+import edu.snu.onyx.runtime.common.state.BlockState;
+import edu.snu.onyx.runtime.executor.data.DataUtil;
+import edu.snu.onyx.runtime.executor.data.SerializedPartition;
+import edu.snu.onyx.runtime.executor.data.block.FileBlock;
+import edu.snu.onyx.runtime.executor.data.metadata.RemoteFileMetadata;
+import edu.snu.onyx.runtime.master.BlockManagerMaster;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the writes of a remote {@link FileBlock}, which reserves the regions of its partitions
+ * from the metadata server in the master before writing them.
+ * The block is written to a local directory standing in for the shared volume,
+ * with the master side metadata server running in the same JVM.
+ * Reserving the partitions one by one, as the former block did, is the baseline of the batched reservation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RemoteFileReservationBenchmark {
+  private static final String EXECUTOR_ID = "Executor";
+  private static final int RECORD_SIZE = 16;
+
+  @Param({"16", "1024"})
+  private int numPartitions;
+
+  private File directory;
+  private BlockManagerMaster blockManagerMaster;
+  private PersistentConnectionToMasterMap connectionToMaster;
+  private String runtimeEdgeId;
+  private List<SerializedPartition<Integer>> partitions;
+  private FileBlock<Integer> blockToWrite;
+  private int numWrittenBlocks;
+
+  /**
+   * Sets up the metadata server, and serializes the partitions to write.
+   * @throws Exception exception on the way.
+   */
+  @Setup
+  public final void setUp() throws Exception {
+    directory = Files.createTempDirectory("onyx-benchmark").toFile();
+    final LocalMessageDispatcher messageDispatcher = new LocalMessageDispatcher();
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileInstance(MessageEnvironment.class,
+        new LocalMessageEnvironment(MessageEnvironment.MASTER_COMMUNICATION_ID, messageDispatcher));
+    blockManagerMaster = injector.getInstance(BlockManagerMaster.class);
+    connectionToMaster =
+        new PersistentConnectionToMasterMap(new LocalMessageEnvironment(EXECUTOR_ID, messageDispatcher));
+
+    runtimeEdgeId = RuntimeIdGenerator.generateRuntimeEdgeId("RemoteFileReservationBenchmark");
+    partitions = new ArrayList<>(numPartitions);
+    DataUtil.<Integer>convertToSerPartitions(BenchmarkUtil.CODER,
+        BenchmarkUtil.generatePartitions(RECORD_SIZE, numPartitions)).forEach(partitions::add);
+  }
+
+  /**
+   * Terminates the metadata server and removes the files written.
+   * @throws Exception exception on the way.
+   */
+  @TearDown
+  public final void tearDown() throws Exception {
+    blockManagerMaster.terminate();
+    BenchmarkUtil.deleteDirectory(directory);
+  }
+
+  /**
+   * Prepares a new block to write, as the blocks are not to be overwritten.
+   */
+  @Setup(Level.Invocation)
+  public final void setUpBlockToWrite() {
+    final String blockId = RuntimeIdGenerator.generateBlockId(runtimeEdgeId, numWrittenBlocks++);
+    blockManagerMaster.initializeState(blockId, "Unused");
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.SCHEDULED, null);
+    blockToWrite = new FileBlock<>(BenchmarkUtil.CODER, DataUtil.blockIdToFilePath(blockId, directory.getPath()),
+        new RemoteFileMetadata<>(false, blockId, EXECUTOR_ID, connectionToMaster));
+  }
+
+  /**
+   * Removes the block written, to keep the footprint of the metadata server steady.
+   * @throws IOException if fail to delete the block.
+   */
+  @TearDown(Level.Invocation)
+  public final void tearDownBlockToWrite() throws IOException {
+    blockToWrite.deleteFile();
+  }
+
+  /**
+   * Writes a block, reserving the regions of all the partitions by a single request.
+   * @throws IOException if fail to write.
+   */
+  @Benchmark
+  public final void reserveBatched() throws IOException {
+    blockToWrite.putSerializedPartitions(partitions);
+    blockToWrite.commit();
+  }
+
+  /**
+   * Writes a block, reserving the region of each partition by a request of its own.
+   * @throws IOException if fail to write.
+   */
+  @Benchmark
+  public final void reserveOneByOne() throws IOException {
+    for (final SerializedPartition<Integer> partition : partitions) {
+      blockToWrite.putSerializedPartitions(Collections.singletonList(partition));
+    }
+    blockToWrite.commit();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.benchmarks;
+
+import edu.snu.onyx.common.ContextImpl;
+import edu.snu.onyx.compiler.frontend.beam.transform.DoTransform;
+import edu.snu.onyx.compiler.frontend.beam.transform.GroupByKeyTransform;
+import edu.snu.onyx.runtime.executor.datatransfer.OutputCollectorImpl;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.values.KV;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link GroupByKeyTransform} and {@link DoTransform}, as a task runs them on its input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TransformBenchmark {
+  private static final String SRC_VERTEX_ID = "Source";
+
+  @Param({"16", "1024"})
+  private int recordSize;
+
+  private List<KV<Integer, byte[]>> records;
+  private DoTransform<KV<Integer, byte[]>, KV<Integer, Integer>> doTransform;
+
+  /**
+   * Generates the records to process.
+   */
+  @Setup
+  public final void setUp() {
+    records = BenchmarkUtil.generateRecords(recordSize);
+    doTransform = new DoTransform<>(new ValueSizeFn(), PipelineOptionsFactory.create());
+  }
+
+  /**
+   * @return the records grouped by {@link GroupByKeyTransform}.
+   */
+  @Benchmark
+  public final List<KV<Object, List>> groupByKey() {
+    final GroupByKeyTransform<KV<Integer, byte[]>> groupByKeyTransform = new GroupByKeyTransform<>();
+    final OutputCollectorImpl<KV<Object, List>> outputCollector = new OutputCollectorImpl<>();
+    groupByKeyTransform.prepare(new ContextImpl(new HashMap<>(), 0, 1), outputCollector);
+    groupByKeyTransform.onData(records, SRC_VERTEX_ID);
+    groupByKeyTransform.close();
+    return outputCollector.collectOutputList();
+  }
+
+  /**
+   * @return the records processed by {@link DoTransform}.
+   */
+  @Benchmark
+  public final List<KV<Integer, Integer>> doFn() {
+    final OutputCollectorImpl<KV<Integer, Integer>> outputCollector = new OutputCollectorImpl<>();
+    doTransform.prepare(new ContextImpl(new HashMap<>(), 0, 1), outputCollector);
+    doTransform.onData(records, SRC_VERTEX_ID);
+    doTransform.close();
+    return outputCollector.collectOutputList();
+  }
+
+  /**
+   * Maps each record to the size of its value.
+   */
+  public static final class ValueSizeFn extends DoFn<KV<Integer, byte[]>, KV<Integer, Integer>> {
+    /**
+     * @param c the context of the record.
+     */
+    @ProcessElement
+    public void processElement(final ProcessContext c) {
+      c.output(KV.of(c.element().getKey(), c.element().getValue().length));
+    }
+  }
+}
@@ -0,0 +1,116 @@
+#!/usr/bin/env python3
+#
+# Copyright (C) 2017 Seoul National University
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#         http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+'''
+critical_path.py: Computes the critical path of an Onyx job from its trace (<dag_dir>/<job id>-trace.json),
+and attributes the time on the path to scheduling delay, fetch wait, compute and write.
+
+The critical path is walked back from the stage that finished last. Within a stage, it goes through the
+TaskGroup that finished last, and it continues to the parent stage that finished last.
+* scheduling: from when the stage started until its last TaskGroup started on an executor,
+  and the gaps between the stages, and between the end of the TaskGroup and that of the stage.
+* fetch wait: the time the TaskGroup waited for its input.
+* write: the time the TaskGroup spent writing its output.
+* compute: the rest of the time of the TaskGroup.
+
+Usage: critical_path.py [--json] <trace file>
+'''
+
+import sys
+import json
+
+CATEGORIES = ['scheduling', 'fetch wait', 'compute', 'write']
+
+def loadEvents(path):
+    with open(path) as traceFile:
+        trace = json.load(traceFile)
+    return trace['traceEvents'] if isinstance(trace, dict) else trace
+
+def end(event):
+    return event['ts'] + event['dur']
+
+def criticalPath(events):
+    job = next(e for e in events if e.get('ph') == 'X' and e.get('cat') == 'job')
+    # The last attempt of each stage.
+    stages = {}
+    for e in sorted((e for e in events if e.get('ph') == 'X' and e.get('cat') == 'stage'), key=lambda e: e['ts']):
+        stages[e['name']] = e
+    stageIdToTaskGroups = {}
+    for e in events:
+        if e.get('ph') == 'X' and e.get('cat') == 'task_group' and 'stageId' in e['args']:
+            stageIdToTaskGroups.setdefault(e['args']['stageId'], []).append(e)
+
+    path = []
+    time = dict.fromkeys(CATEGORIES, 0)
+    stage = max(stages.values(), key=end) if stages else None
+    # The gap between the end of the last stage and that of the job.
+    pathEnd = end(job)
+    while stage is not None:
+        time['scheduling'] += max(pathEnd - end(stage), 0)
+        taskGroups = [t for t in stageIdToTaskGroups.get(stage['name'], []) if t['ts'] >= stage['ts']]
+        if taskGroups:
+            taskGroup = max(taskGroups, key=end)
+            fetchWait = taskGroup['args'].get('fetchWaitMicros', 0)
+            write = taskGroup['args'].get('writeMicros', 0)
+            time['scheduling'] += max(taskGroup['ts'] - stage['ts'], 0) + max(end(stage) - end(taskGroup), 0)
+            time['fetch wait'] += fetchWait
+            time['write'] += write
+            time['compute'] += max(taskGroup['dur'] - fetchWait - write, 0)
+            path.append({'stage': stage['name'], 'taskGroup': taskGroup['name'],
+                         'executor': taskGroup['pid'], 'durationMicros': stage['dur']})
+        else:
+            time['scheduling'] += stage['dur']
+            path.append({'stage': stage['name'], 'durationMicros': stage['dur']})
+        pathEnd = stage['ts']
+        parents = [stages[p] for p in stage['args'].get('parents', []) if p in stages]
+        stage = max(parents, key=end) if parents else None
+    time['scheduling'] += max(pathEnd - job['ts'], 0)
+    path.reverse()
+    return {'jobId': job['name'], 'durationMicros': job['dur'], 'path': path, 'attribution': time}
+
+def processNames(events):
+    return {e['pid']: e['args']['name'] for e in events if e.get('ph') == 'M' and e.get('name') == 'process_name'}
+
+def printReport(result, names):
+    total = max(sum(result['attribution'].values()), 1)
+    print('Critical path of {} ({:.3f} s)'.format(result['jobId'], result['durationMicros'] / 1e6))
+    for step in result['path']:
+        if 'taskGroup' in step:
+            print('  {:<12} {:>10.3f} s  via {} on {}'.format(step['stage'], step['durationMicros'] / 1e6,
+                                                            step['taskGroup'], names.get(step['executor'], '?')))
+        else:
+            print('  {:<12} {:>10.3f} s'.format(step['stage'], step['durationMicros'] / 1e6))
+    print('Time on the critical path')
+    for category in CATEGORIES:
+        micros = result['attribution'][category]
+        print('  {:<12} {:>10.3f} s  {:>5.1f}%'.format(category, micros / 1e6, 100.0 * micros / total))
+
+if __name__ == '__main__':
+    args = [a for a in sys.argv[1:] if a != '--json']
+    if len(args) != 1:
+        print(__doc__, file=sys.stderr)
+        sys.exit(1)
+    events = loadEvents(args[0])
+    result = criticalPath(events)
+    if '--json' in sys.argv[1:]:
+        names = processNames(events)
+        for step in result['path']:
+            if 'executor' in step:
+                step['executor'] = names.get(step['executor'], step['executor'])
+        print(json.dumps(result, indent=2))
+    else:
+        printReport(result, processNames(events))
@@ -15,12 +15,19 @@
  */
 package edu.snu.onyx.client;
 
+import com.google.common.annotations.VisibleForTesting;
 import edu.snu.onyx.common.dag.DAG;
 import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.driver.InProcessLauncher;
 import edu.snu.onyx.driver.OnyxDriver;
 import edu.snu.onyx.runtime.common.message.MessageEnvironment;
 import edu.snu.onyx.runtime.common.message.MessageParameters;
 import edu.snu.onyx.runtime.common.message.grpc.GrpcMessageEnvironment;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageEnvironment;
+import edu.snu.onyx.runtime.master.scheduler.MultiJobScheduler;
+import edu.snu.onyx.runtime.master.scheduler.MultiJobTaskGroupQueue;
+import edu.snu.onyx.runtime.master.scheduler.PendingTaskGroupQueue;
+import edu.snu.onyx.runtime.master.scheduler.Scheduler;
 import org.apache.beam.sdk.repackaged.org.apache.commons.lang3.SerializationUtils;
 import org.apache.reef.client.DriverConfiguration;
 import org.apache.reef.client.DriverLauncher;
@@ -55,8 +62,14 @@ public final class JobLauncher {
   private static final Tang TANG = Tang.Factory.getTang();
   private static final Logger LOG = LoggerFactory.getLogger(JobLauncher.class.getName());
   private static final int LOCAL_NUMBER_OF_EVALUATORS = 100; // hopefully large enough for our use....
+  private static final String IN_PROCESS_DEPLOY_MODE = "inprocess";
   private static Configuration jobAndDriverConf = null;
   private static Configuration deployModeConf = null;
+  private static boolean isInProcess = false;
+  private static boolean reuseExecutors = false;
+  private static int jobWeight = MultiJobTaskGroupQueue.DEFAULT_WEIGHT;
+  private static int jobPriority = MultiJobTaskGroupQueue.DEFAULT_PRIORITY;
+  private static InProcessLauncher inProcessSession = null;
 
   /**
    * private constructor.
@@ -72,21 +85,38 @@ public final class JobLauncher {
   public static void main(final String[] args) throws Exception {
     // Get Job and Driver Confs
     final Configuration jobConf = getJobConf(args);
-    final Configuration driverConf = getDriverConf(jobConf);
+    final Injector jobConfInjector = TANG.newInjector(jobConf);
+    isInProcess = IN_PROCESS_DEPLOY_MODE.equals(jobConfInjector.getNamedInstance(JobConf.DeployMode.class));
+    reuseExecutors = jobConfInjector.getNamedInstance(JobConf.ReuseExecutors.class);
+    jobWeight = jobConfInjector.getNamedInstance(JobConf.JobWeight.class);
+    jobPriority = jobConfInjector.getNamedInstance(JobConf.JobPriority.class);
+    if (reuseExecutors && !isInProcess) {
+      throw new IllegalArgumentException("Executors can only be reused in the inprocess deploy mode");
+    }
+    // The driver in the JVM of the client is not run by REEF, which the driver configuration is for.
+    final Configuration driverConf = isInProcess ? TANG.newConfigurationBuilder().build() : getDriverConf(jobConf);
     final Configuration driverNcsConf = getDriverNcsConf();
     final Configuration driverMessageConfg = getDriverMessageConf();
+    final Configuration driverSchedulerConf = getDriverSchedulerConf(jobConf);
     final Configuration executorResourceConfig = getExecutorResourceConf(jobConf);
     final Configuration clientConf = getClientConf();
 
     // Merge Job and Driver Confs
     jobAndDriverConf = Configurations.merge(jobConf, driverConf, driverNcsConf, driverMessageConfg,
-        executorResourceConfig);
+        driverSchedulerConf, executorResourceConfig);
 
     // Get DeployMode Conf
     deployModeConf = Configurations.merge(getDeployModeConf(jobConf), clientConf);
 
     // Launch client main
-    runUserProgramMain(jobConf);
+    try {
+      runUserProgramMain(jobConf);
+    } finally {
+      if (inProcessSession != null) {
+        inProcessSession.close();
+        inProcessSession = null;
+      }
+    }
   }
 
   /**
@@ -95,6 +125,18 @@ public final class JobLauncher {
    */
   // When modifying the signature of this method, see CompilerTestUtil#compileDAG and make corresponding changes
   public static void launchDAG(final DAG dag) {
+    launchDAG(dag, jobWeight, jobPriority);
+  }
+
+  /**
+   * Launch application using the application DAG, with a share of the executors among the jobs of the user program
+   * launched at the same time. The share only takes effect on the executors reused with the multi-job scheduler,
+   * as the other deploy modes run each job on its own executors.
+   * @param dag the application DAG.
+   * @param weight the relative share of the executor slots of the job.
+   * @param priority the priority of the job. The jobs with higher priority are served first.
+   */
+  public static void launchDAG(final DAG dag, final int weight, final int priority) {
     try {
       if (jobAndDriverConf == null || deployModeConf == null) {
         throw new RuntimeException("Configuration for launching driver is not ready");
@@ -104,8 +146,23 @@ public final class JobLauncher {
           .bindNamedParameter(JobConf.SerializedDAG.class, serializedDAG)
           .build();
       // Launch and wait indefinitely for the job to finish
-      final LauncherStatus launcherStatus =  DriverLauncher.getLauncher(deployModeConf)
-          .run(Configurations.merge(jobAndDriverConf, dagConf));
+      final LauncherStatus launcherStatus;
+      if (reuseExecutors) {
+        // The driver and the executors started for the first job run the following jobs as well.
+        final InProcessLauncher session;
+        synchronized (JobLauncher.class) {
+          if (inProcessSession == null) {
+            inProcessSession = InProcessLauncher.start(Configurations.merge(jobAndDriverConf, dagConf));
+          }
+          session = inProcessSession;
+        }
+        launcherStatus = session.run(serializedDAG, weight, priority);
+      } else if (isInProcess) {
+        launcherStatus = InProcessLauncher.run(Configurations.merge(jobAndDriverConf, dagConf));
+      } else {
+        launcherStatus = DriverLauncher.getLauncher(deployModeConf)
+            .run(Configurations.merge(jobAndDriverConf, dagConf));
+      }
       final Optional<Throwable> possibleError = launcherStatus.getError();
       if (possibleError.isPresent()) {
         throw new RuntimeException(possibleError.get());
@@ -117,6 +174,14 @@ public final class JobLauncher {
     }
   }
 
+  /**
+   * @return the in-process driver kept running across the jobs of the user program, or {@code null} if none.
+   */
+  @VisibleForTesting
+  public static InProcessLauncher getInProcessSession() {
+    return inProcessSession;
+  }
+
   /**
    * Run user-provided main method.
    * @param jobConf the job configuration
@@ -159,16 +224,34 @@ public final class JobLauncher {
 
   /**
    * Get driver message configuration.
+   * The master and the executors in a single JVM communicate through the local message environment.
    * @return driver message configuration.
    * @throws InjectionException exception while injection.
    */
   private static Configuration getDriverMessageConf() throws InjectionException {
     return TANG.newConfigurationBuilder()
-        .bindImplementation(MessageEnvironment.class, GrpcMessageEnvironment.class)
+        .bindImplementation(MessageEnvironment.class,
+            isInProcess ? LocalMessageEnvironment.class : GrpcMessageEnvironment.class)
         .bindNamedParameter(MessageParameters.SenderId.class, MessageEnvironment.MASTER_COMMUNICATION_ID)
         .build();
   }
 
+  /**
+   * Get driver scheduler configuration.
+   * @param jobConf job configuration to get whether to schedule multiple jobs.
+   * @return driver scheduler configuration.
+   * @throws InjectionException exception while injection.
+   */
+  private static Configuration getDriverSchedulerConf(final Configuration jobConf) throws InjectionException {
+    final Injector injector = TANG.newInjector(jobConf);
+    final JavaConfigurationBuilder jcb = TANG.newConfigurationBuilder();
+    if (injector.getNamedInstance(JobConf.MultiJobScheduling.class)) {
+      jcb.bindImplementation(Scheduler.class, MultiJobScheduler.class);
+      jcb.bindImplementation(PendingTaskGroupQueue.class, MultiJobTaskGroupQueue.class);
+    }
+    return jcb.build();
+  }
+
   /**
    * Get driver configuration.
    * @param jobConf job Configuration to get job id and driver memory.
@@ -208,12 +291,24 @@ public final class JobLauncher {
     cl.registerShortNameOfClass(JobConf.DAGDirectory.class);
     cl.registerShortNameOfClass(JobConf.OptimizationPolicy.class);
     cl.registerShortNameOfClass(JobConf.DeployMode.class);
+    cl.registerShortNameOfClass(JobConf.ReuseExecutors.class);
     cl.registerShortNameOfClass(JobConf.DriverMemMb.class);
     cl.registerShortNameOfClass(JobConf.ExecutorJsonPath.class);
     cl.registerShortNameOfClass(JobConf.JVMHeapSlack.class);
     cl.registerShortNameOfClass(JobConf.IORequestHandleThreadsTotal.class);
+    cl.registerShortNameOfClass(JobConf.ExecutorBacklog.class);
+    cl.registerShortNameOfClass(JobConf.SideInputCacheBytes.class);
     cl.registerShortNameOfClass(JobConf.SchedulerTimeoutMs.class);
+    cl.registerShortNameOfClass(JobConf.MasterEventThreads.class);
     cl.registerShortNameOfClass(JobConf.MaxScheduleAttempt.class);
+    cl.registerShortNameOfClass(JobConf.SlowStartFraction.class);
+    cl.registerShortNameOfClass(JobConf.SkewSampleFraction.class);
+    cl.registerShortNameOfClass(JobConf.BroadcastFanOut.class);
+    cl.registerShortNameOfClass(JobConf.MultiJobScheduling.class);
+    cl.registerShortNameOfClass(JobConf.JobWeight.class);
+    cl.registerShortNameOfClass(JobConf.JobPriority.class);
+    cl.registerShortNameOfClass(JobConf.MetricServerPort.class);
+    cl.registerShortNameOfClass(JobConf.MetricSeriesLength.class);
     cl.registerShortNameOfClass(JobConf.FileDirectory.class);
     cl.registerShortNameOfClass(JobConf.GlusterVolumeDirectory.class);
     cl.registerShortNameOfClass(JobConf.PartitionTransferInboundNumThreads.class);
@@ -224,6 +319,8 @@ public final class JobLauncher {
     cl.registerShortNameOfClass(JobConf.PartitionTransportServerNumListeningThreads.class);
     cl.registerShortNameOfClass(JobConf.PartitionTransportServerNumWorkingThreads.class);
     cl.registerShortNameOfClass(JobConf.PartitionTransportClientNumThreads.class);
+    cl.registerShortNameOfClass(JobConf.MessageBatchWindowMs.class);
+    cl.registerShortNameOfClass(JobConf.MessageBatchSize.class);
     cl.processCommandLine(args);
     return confBuilder.build();
   }
@@ -242,6 +339,9 @@ public final class JobLauncher {
         return LocalRuntimeConfiguration.CONF
             .set(LocalRuntimeConfiguration.MAX_NUMBER_OF_EVALUATORS, LOCAL_NUMBER_OF_EVALUATORS)
             .build();
+      case IN_PROCESS_DEPLOY_MODE:
+        // The driver and the executors run in this JVM, without a REEF runtime.
+        return TANG.newConfigurationBuilder().build();
       case "yarn":
         return YarnClientConfiguration.CONF
             .set(YarnClientConfiguration.JVM_HEAP_SLACK, injector.getNamedInstance(JobConf.JVMHeapSlack.class))
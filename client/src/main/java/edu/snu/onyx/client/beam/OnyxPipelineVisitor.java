@@ -23,6 +23,8 @@ import edu.snu.onyx.common.ir.vertex.BoundedSourceVertex;
 import edu.snu.onyx.common.ir.vertex.IRVertex;
 import edu.snu.onyx.common.ir.vertex.LoopVertex;
 import edu.snu.onyx.common.ir.vertex.OperatorVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.BroadcastJoinTransformProperty;
+import edu.snu.onyx.common.ir.vertex.executionproperty.MergeTransformProperty;
 import edu.snu.onyx.common.ir.edge.executionproperty.KeyExtractorProperty;
 
 import edu.snu.onyx.compiler.frontend.beam.source.BeamBoundedSource;
@@ -35,6 +37,7 @@ import org.apache.beam.sdk.io.WriteFiles;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.runners.TransformHierarchy;
 import org.apache.beam.sdk.transforms.*;
+import org.apache.beam.sdk.transforms.join.CoGroupByKey;
 import org.apache.beam.sdk.transforms.windowing.Window;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionView;
@@ -74,6 +77,8 @@ public final class OnyxPipelineVisitor extends Pipeline.PipelineVisitor.Defaults
   public CompositeBehavior enterCompositeTransform(final TransformHierarchy.Node beamNode) {
     if (beamNode.getTransform() instanceof LoopCompositeTransform) {
       final LoopVertex loopVertex = new LoopVertex(beamNode.getFullName());
+      loopVertex.setConvergenceCondition(
+          ((LoopCompositeTransform<?, ?>) beamNode.getTransform()).getConvergenceCondition());
       this.builder.addVertex(loopVertex, this.loopVertexStack);
       this.builder.removeVertex(loopVertex);
       this.loopVertexStack.push(loopVertex);
@@ -98,6 +103,11 @@ public final class OnyxPipelineVisitor extends Pipeline.PipelineVisitor.Defaults
 
     final IRVertex irVertex = convertToVertex(beamNode, builder, pValueToVertex, pValueToCoder, options,
         loopVertexStack);
+    if (beamNode.getTransform() instanceof GroupByKey && beamNode.getEnclosingNode() != null
+        && beamNode.getEnclosingNode().getTransform() instanceof CoGroupByKey) {
+      // The GroupByKey of the flattened inputs of a CoGroupByKey can join them by broadcasting the small inputs.
+      irVertex.setProperty(BroadcastJoinTransformProperty.of(new BroadcastJoinTransform()));
+    }
     beamNode.getOutputs().values().stream().filter(v -> v instanceof PCollection).map(v -> (PCollection) v)
         .forEach(output -> pValueToCoder.put(output, new BeamCoder(output.getCoder())));
 
@@ -139,6 +149,8 @@ public final class OnyxPipelineVisitor extends Pipeline.PipelineVisitor.Defaults
       builder.addVertex(irVertex, loopVertexStack);
     } else if (beamTransform instanceof GroupByKey) {
       irVertex = new OperatorVertex(new GroupByKeyTransform());
+      // The groups of a key produced by different task groups can be merged into a single group.
+      irVertex.setProperty(MergeTransformProperty.of(new MergeGroupsTransform()));
       builder.addVertex(irVertex, loopVertexStack);
     } else if (beamTransform instanceof View.CreatePCollectionView) {
       final View.CreatePCollectionView view = (View.CreatePCollectionView) beamTransform;
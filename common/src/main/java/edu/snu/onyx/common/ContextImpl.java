@@ -24,17 +24,35 @@ import java.util.Map;
  */
 public final class ContextImpl implements Transform.Context {
   private final Map<Transform, Object> sideInputs;
+  private final int taskIndex;
+  private final int parallelism;
 
   /**
    * Constructor of Context Implementation.
    * @param sideInputs side inputs.
+   * @param taskIndex the index of the task running the transform.
+   * @param parallelism the number of the tasks of the vertex.
    */
-  public ContextImpl(final Map<Transform, Object> sideInputs) {
+  public ContextImpl(final Map<Transform, Object> sideInputs,
+                     final int taskIndex,
+                     final int parallelism) {
     this.sideInputs = sideInputs;
+    this.taskIndex = taskIndex;
+    this.parallelism = parallelism;
   }
 
   @Override
   public Map<Transform, Object> getSideInputs() {
     return this.sideInputs;
   }
+
+  @Override
+  public int getTaskIndex() {
+    return this.taskIndex;
+  }
+
+  @Override
+  public int getParallelism() {
+    return this.parallelism;
+  }
 }
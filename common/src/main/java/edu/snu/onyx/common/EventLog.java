@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * An append-only log of events in JSON, one per line, from which the states of a DAG or a job can be reconstructed.
+ * Appending an event only enqueues it: the event is serialized and written by a background thread,
+ * so that the callers, such as the optimizer and the state managers of the runtime, are not stalled by the log.
+ */
+@ThreadSafe
+public final class EventLog implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(EventLog.class.getName());
+  private static final EventLog DISABLED = new EventLog(null, null);
+  private static final ExecutorService WRITER_THREAD = Executors.newSingleThreadExecutor(runnable -> {
+    final Thread thread = new Thread(runnable, "EventLogWriter");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final File file;
+  private final Writer writer;
+  private final Queue<Supplier<String>> pendingEvents;
+  private final AtomicBoolean isWriteScheduled;
+  /**
+   * Whether the log is closed, guarded by {@link #pendingEvents} along with the enqueueing of the events,
+   * so that an event is either written before the log is closed or discarded.
+   */
+  private boolean isClosed;
+
+  /**
+   * Private constructor.
+   * @param file   to write the events to, or {@code null} if the events are discarded.
+   * @param writer of the file.
+   */
+  private EventLog(final File file, final Writer writer) {
+    this.file = file;
+    this.writer = writer;
+    this.pendingEvents = new ConcurrentLinkedQueue<>();
+    this.isWriteScheduled = new AtomicBoolean(false);
+    this.isClosed = writer == null;
+  }
+
+  /**
+   * Opens an event log in a directory.
+   * @param directory the directory to write the log to, or an empty string to discard the events.
+   * @param name      the name of the log, to which the log file is named.
+   * @return the event log.
+   */
+  public static EventLog open(final String directory, final String name) {
+    if (directory == null || directory.isEmpty()) {
+      return DISABLED;
+    }
+    final File file = new File(directory, name + ".jsonl");
+    file.getParentFile().mkdirs();
+    try {
+      return new EventLog(file,
+          new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)));
+    } catch (final IOException e) {
+      LOG.warn(String.format("Cannot open the event log %s: %s", file.getPath(), e.toString()));
+      return DISABLED;
+    }
+  }
+
+  /**
+   * @return whether the events are written, i.e. the log was opened in a directory.
+   */
+  public boolean isEnabled() {
+    return writer != null;
+  }
+
+  /**
+   * Appends an event, which is serialized later by the background thread.
+   * The event should thus capture only the values that do not change.
+   * @param event the supplier of the event as a JSON object.
+   * @return whether the event is appended, i.e. the log is neither disabled nor closed.
+   */
+  public boolean append(final Supplier<String> event) {
+    synchronized (pendingEvents) {
+      if (isClosed) {
+        return false;
+      }
+      pendingEvents.add(event);
+      // Scheduled while holding the lock, for the write to precede the one closing the log.
+      if (isWriteScheduled.compareAndSet(false, true)) {
+        WRITER_THREAD.execute(this::writePendingEvents);
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Writes the events appended so far and closes the log.
+   * The events appended afterwards are discarded.
+   */
+  @Override
+  public void close() {
+    synchronized (pendingEvents) {
+      if (isClosed) {
+        return;
+      }
+      isClosed = true;
+    }
+    // No event is appended from now on, and the writes scheduled so far run before this one.
+    try {
+      WRITER_THREAD.submit(() -> {
+        writePendingEvents();
+        try {
+          writer.close();
+          LOG.info("The event log was saved to {}", file.getPath());
+        } catch (final IOException e) {
+          LOG.warn(String.format("Cannot close the event log %s: %s", file.getPath(), e.toString()));
+        }
+      }).get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Quotes a string as a JSON string.
+   * @param string to quote.
+   * @return the quoted string.
+   */
+  public static String quote(final String string) {
+    final StringBuilder sb = new StringBuilder("\"");
+    for (final char c : string.toCharArray()) {
+      switch (c) {
+        case '"':
+          sb.append("\\\"");
+          break;
+        case '\\':
+          sb.append("\\\\");
+          break;
+        case '\n':
+          sb.append("\\n");
+          break;
+        default:
+          if (c < ' ') {
+            sb.append(String.format("\\u%04x", (int) c));
+          } else {
+            sb.append(c);
+          }
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  /**
+   * Writes the events appended so far, in the background thread.
+   */
+  private void writePendingEvents() {
+    // The events appended while writing schedule another write.
+    isWriteScheduled.set(false);
+    try {
+      Supplier<String> event;
+      while ((event = pendingEvents.poll()) != null) {
+        writer.write(event.get());
+        writer.write('\n');
+      }
+      writer.flush();
+    } catch (final IOException e) {
+      LOG.warn(String.format("Cannot write to the event log %s: %s", file.getPath(), e.toString()));
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.common.coder;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Coder} for a {@link List} of elements, which are coded by the given element coder.
+ * @param <T> element type.
+ */
+public final class ListCoder<T> implements Coder<List<T>> {
+  private final Coder<T> elementCoder;
+
+  /**
+   * Constructor.
+   * @param elementCoder the coder for the elements of the list.
+   */
+  public ListCoder(final Coder<T> elementCoder) {
+    this.elementCoder = elementCoder;
+  }
+
+  @Override
+  public void encode(final List<T> value, final OutputStream outStream) throws IOException {
+    final DataOutputStream dataOutputStream = new DataOutputStream(outStream);
+    dataOutputStream.writeInt(value.size()); // Write the size of this list.
+    dataOutputStream.flush();
+    for (final T element : value) {
+      elementCoder.encode(element, outStream);
+    }
+  }
+
+  @Override
+  public List<T> decode(final InputStream inStream) throws IOException {
+    final int size = new DataInputStream(inStream).readInt();
+    final List<T> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(elementCoder.decode(inStream));
+    }
+    return list;
+  }
+
+  @Override
+  public String toString() {
+    return "ListCoder(" + elementCoder + ")";
+  }
+}
@@ -239,14 +239,16 @@ public final class DAGBuilder<V extends Vertex, E extends Edge<V>> implements Se
    * Helper method to check that all execution properties are correct and makes sense.
    */
   private void executionPropertyCheck() {
-    // SideInput edge must be one-to-one
+    // SideInput edge must be one-to-one or broadcast
     vertices.forEach(v -> incomingEdges.get(v).stream().filter(e -> e instanceof IREdge).map(e -> (IREdge) e)
         .filter(e -> Boolean.TRUE.equals(e.isSideInput()))
         .filter(e -> !(e.getProperty(ExecutionProperty.Key.DataCommunicationPattern))
-            .equals(DataCommunicationPatternProperty.Value.OneToOne))
+            .equals(DataCommunicationPatternProperty.Value.OneToOne)
+            && !(e.getProperty(ExecutionProperty.Key.DataCommunicationPattern))
+            .equals(DataCommunicationPatternProperty.Value.BroadCast))
         .forEach(e -> {
           throw new RuntimeException("DAG execution property check: "
-              + "SideInput edge must be one-to-one: " + e.getId());
+              + "SideInput edge must be one-to-one or broadcast: " + e.getId());
         }));
     // SideInput is not compatible with Push
     vertices.forEach(v -> incomingEdges.get(v).stream().filter(e -> e instanceof IREdge).map(e -> (IREdge) e)
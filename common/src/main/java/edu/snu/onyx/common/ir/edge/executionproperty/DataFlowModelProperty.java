@@ -44,5 +44,7 @@ public final class DataFlowModelProperty extends ExecutionProperty<DataFlowModel
   public enum Value {
     Pull,
     Push,
+    // Pull from the producer or from the consumers that already pulled the data, which serve it onward.
+    PeerToPeer,
   }
 }
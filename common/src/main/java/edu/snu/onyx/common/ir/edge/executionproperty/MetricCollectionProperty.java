@@ -27,6 +27,7 @@ public final class MetricCollectionProperty extends ExecutionProperty<MetricColl
    * Possible values of MetricCollection ExecutionProperty.
    */
   public enum Value {
-    DataSkewRuntimePass
+    DataSkewRuntimePass,
+    LoopConvergence
   }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.common.ir.edge.executionproperty;
+
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+
+/**
+ * Selectivity ExecutionProperty.
+ * A hint of the ratio of the bytes flowing through the edge to the bytes its source vertex reads.
+ * For example, a filter keeping a tenth of its input has an outgoing edge of selectivity 0.1.
+ */
+public final class SelectivityProperty extends ExecutionProperty<Double> {
+  /**
+   * Constructor.
+   * @param value value of the execution property.
+   */
+  private SelectivityProperty(final Double value) {
+    super(Key.Selectivity, value);
+  }
+
+  /**
+   * Static method exposing the constructor.
+   * @param value value of the new execution property.
+   * @return the newly created execution property.
+   */
+  public static SelectivityProperty of(final Double value) {
+    return new SelectivityProperty(value);
+  }
+}
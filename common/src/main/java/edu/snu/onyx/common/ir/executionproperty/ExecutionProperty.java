@@ -70,11 +70,18 @@ public abstract class ExecutionProperty<T> implements Serializable {
     MetricCollection,
     Partitioner,
     KeyExtractor,
+    Selectivity,
     UsedDataHandling,
 
     // Applies to IRVertex
+    BroadcastJoinTransform,
+    ColocationGroup,
+    CoreDemand,
     DynamicOptimizationType,
     ExecutorPlacement,
+    LoopIteration,
+    MemoryDemand,
+    MergeTransform,
     Parallelism,
     ScheduleGroupIndex,
     StageId,
@@ -55,6 +55,11 @@ public final class BoundedSourceVertex<O> extends SourceVertex<O> {
     return readers;
   }
 
+  @Override
+  public long getEstimatedSizeBytes() throws Exception {
+    return source.getEstimatedSizeBytes();
+  }
+
   @Override
   public String propertiesToJSON() {
     final StringBuilder sb = new StringBuilder();
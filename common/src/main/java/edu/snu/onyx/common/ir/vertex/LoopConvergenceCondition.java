@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.common.ir.vertex;
+
+import java.io.Serializable;
+
+/**
+ * The condition on which a loop converges, tested at runtime once each iteration of the loop completes.
+ * The loop exits from the completed iteration once it holds, without running the remaining iterations.
+ * It is serialized with the DAG of the job.
+ */
+@FunctionalInterface
+public interface LoopConvergenceCondition extends Serializable {
+  /**
+   * @param metric the metric of the completed iteration, with the ones of the previous iterations.
+   * @return whether the loop has converged.
+   */
+  boolean test(LoopIterationMetric metric);
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.common.ir.vertex;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The metric of an iteration of a loop, on which the {@link LoopConvergenceCondition} of the loop is tested.
+ * The data an iteration passes to the next one is measured by the serialized bytes of the blocks
+ * written to the edges into the next iteration.
+ */
+public final class LoopIterationMetric implements Serializable {
+  private final int iteration;
+  private final List<Long> bytesPerIteration;
+  private final long elapsedTimeMs;
+
+  /**
+   * Constructor.
+   * @param iteration the completed iteration, starting from 1.
+   * @param bytesPerIteration the bytes passed to the next iteration by each iteration up to the completed one.
+   * @param elapsedTimeMs the time from the completion of the previous iteration, or from the start of the job
+   *                      for the first one, to the completion of this iteration.
+   */
+  public LoopIterationMetric(final int iteration,
+                             final List<Long> bytesPerIteration,
+                             final long elapsedTimeMs) {
+    if (bytesPerIteration.size() != iteration) {
+      throw new IllegalArgumentException("The bytes of " + bytesPerIteration.size() + " iterations are given for "
+          + "iteration " + iteration);
+    }
+    this.iteration = iteration;
+    this.bytesPerIteration = Collections.unmodifiableList(new ArrayList<>(bytesPerIteration));
+    this.elapsedTimeMs = elapsedTimeMs;
+  }
+
+  /**
+   * @return the completed iteration, starting from 1.
+   */
+  public int getIteration() {
+    return iteration;
+  }
+
+  /**
+   * @return the bytes the completed iteration passes to the next one.
+   */
+  public long getBytesToNextIteration() {
+    return bytesPerIteration.get(iteration - 1);
+  }
+
+  /**
+   * @param pastIteration an iteration up to the completed one, starting from 1.
+   * @return the bytes the iteration passed to the one after it.
+   */
+  public long getBytesToNextIteration(final int pastIteration) {
+    return bytesPerIteration.get(pastIteration - 1);
+  }
+
+  /**
+   * @return the bytes passed to the next iteration by each iteration up to the completed one, in order.
+   */
+  public List<Long> getBytesPerIteration() {
+    return bytesPerIteration;
+  }
+
+  /**
+   * @return the time from the completion of the previous iteration, or from the start of the job for the first
+   * one, to the completion of this iteration, in milliseconds.
+   */
+  public long getElapsedTimeMs() {
+    return elapsedTimeMs;
+  }
+
+  @Override
+  public String toString() {
+    return "iteration " + iteration + " passing " + getBytesToNextIteration() + " bytes in " + elapsedTimeMs + " ms";
+  }
+}
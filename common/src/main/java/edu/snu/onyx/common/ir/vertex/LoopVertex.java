@@ -41,6 +41,7 @@ public final class LoopVertex extends IRVertex {
 
   private Integer maxNumberOfIterations;
   private IntPredicate terminationCondition;
+  private LoopConvergenceCondition convergenceCondition; // null if the loop always runs all of its iterations.
 
   /**
    * The LoopVertex constructor.
@@ -58,6 +59,7 @@ public final class LoopVertex extends IRVertex {
     this.edgeWithInternalVertexToEdgeWithLoop = new HashMap<>();
     this.maxNumberOfIterations = 1; // 1 is the default number of iterations.
     this.terminationCondition = (IntPredicate & Serializable) (integer -> false); // nothing much yet.
+    this.convergenceCondition = null;
   }
 
   @Override
@@ -78,6 +80,7 @@ public final class LoopVertex extends IRVertex {
         -> newLoopVertex.mapEdgeWithLoop(eLoop, eInternal));
     newLoopVertex.setMaxNumberOfIterations(maxNumberOfIterations);
     newLoopVertex.setTerminationCondition(terminationCondition);
+    newLoopVertex.setConvergenceCondition(convergenceCondition);
 
     this.copyExecutionPropertiesTo(newLoopVertex);
     return newLoopVertex;
@@ -295,6 +298,23 @@ public final class LoopVertex extends IRVertex {
     this.terminationCondition = terminationCondition;
   }
 
+  /**
+   * Set the convergence condition for the LoopVertex.
+   * It is tested at runtime with the metric of each completed iteration,
+   * and the loop exits before its maximum number of iterations once it holds.
+   * @param convergenceCondition the convergence condition to set, or null to run all iterations.
+   */
+  public void setConvergenceCondition(final LoopConvergenceCondition convergenceCondition) {
+    this.convergenceCondition = convergenceCondition;
+  }
+
+  /**
+   * @return the convergence condition, or null if the loop always runs the maximum number of iterations.
+   */
+  public LoopConvergenceCondition getConvergenceCondition() {
+    return convergenceCondition;
+  }
+
   @Override
   public String propertiesToJSON() {
     final List<String> edgeMappings = edgeWithLoopToEdgeWithInternalVertex.entrySet().stream()
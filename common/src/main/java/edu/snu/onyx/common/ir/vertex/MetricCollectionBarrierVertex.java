@@ -20,6 +20,7 @@ import edu.snu.onyx.common.exception.DynamicOptimizationException;
 import edu.snu.onyx.common.ir.edge.IREdge;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * IRVertex that collects statistics to send them to the optimizer for dynamic optimization.
@@ -28,7 +29,7 @@ import java.util.*;
  * @param <T> type of the metric data.
  */
 public final class MetricCollectionBarrierVertex<T> extends IRVertex {
-  // Partition ID to Size data
+  // Partition ID to Size data, which the master may receive from several executors at once
   private final Map<String, List<T>> metricData;
   // This DAG snapshot is taken at the end of the DataSkewCompositePass, for the vertex to know the state of the DAG at
   // its optimization, and to be able to figure out exactly where in the DAG the vertex exists.
@@ -38,7 +39,7 @@ public final class MetricCollectionBarrierVertex<T> extends IRVertex {
    * Constructor for dynamic optimization vertex.
    */
   public MetricCollectionBarrierVertex() {
-    this.metricData = new HashMap<>();
+    this.metricData = new ConcurrentHashMap<>();
     this.dagSnapshot = null;
   }
 
@@ -32,4 +32,11 @@ public abstract class SourceVertex<O> extends IRVertex {
    * @throws Exception .
    */
   public abstract List<Reader<O>> getReaders(int desiredNumOfSplits) throws Exception;
+
+  /**
+   * Estimate the total size of the data to read.
+   * @return estimated total size in bytes.
+   * @throws Exception exception while estimating the size.
+   */
+  public abstract long getEstimatedSizeBytes() throws Exception;
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.common.ir.vertex.executionproperty;
+
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.transform.Transform;
+
+/**
+ * BroadcastJoinTransform ExecutionProperty.
+ * It declares that the vertex groups the union of its inputs by key, and can be replaced by the given
+ * {@link Transform}, which receives one of the inputs as its main input and the whole data of the others
+ * as a single {@link java.util.List} side input, and emits the same groups for the keys of its main input.
+ */
+public final class BroadcastJoinTransformProperty extends ExecutionProperty<Transform> {
+  /**
+   * Constructor.
+   * @param value value of the execution property.
+   */
+  private BroadcastJoinTransformProperty(final Transform value) {
+    super(Key.BroadcastJoinTransform, value);
+  }
+
+  /**
+   * Static method exposing the constructor.
+   * @param value value of the new execution property.
+   * @return the newly created execution property.
+   */
+  public static BroadcastJoinTransformProperty of(final Transform value) {
+    return new BroadcastJoinTransformProperty(value);
+  }
+}
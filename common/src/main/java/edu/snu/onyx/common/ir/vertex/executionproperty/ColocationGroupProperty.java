@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.common.ir.vertex.executionproperty;
+
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+
+/**
+ * ColocationGroup ExecutionProperty.
+ * The TaskGroups of the same index of the vertices in the same colocation group run on the same executor,
+ * so that the one-to-one data between them is read from the memory of that executor.
+ */
+public final class ColocationGroupProperty extends ExecutionProperty<String> {
+  /**
+   * Constructor.
+   * @param value value of the execution property.
+   */
+  private ColocationGroupProperty(final String value) {
+    super(Key.ColocationGroup, value);
+  }
+
+  /**
+   * Static method exposing the constructor.
+   * @param value value of the new execution property.
+   * @return the newly created execution property.
+   */
+  public static ColocationGroupProperty of(final String value) {
+    return new ColocationGroupProperty(value);
+  }
+}
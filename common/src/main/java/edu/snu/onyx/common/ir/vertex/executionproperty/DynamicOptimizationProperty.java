@@ -27,6 +27,8 @@ public final class DynamicOptimizationProperty extends ExecutionProperty<Dynamic
    * Possible values of DynamicOptimization ExecutionProperty.
    */
   public enum Value {
-    DataSkewRuntimePass
+    DataSkewRuntimePass,
+    PartitionCoalescingRuntimePass,
+    HotKeySplittingRuntimePass
   }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.common.ir.vertex.executionproperty;
+
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.LoopConvergenceCondition;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * LoopIteration ExecutionProperty.
+ * It marks the vertices of the first two iterations of a loop that is unrolled at runtime, one iteration at a time.
+ * The runtime instantiates each following iteration from the stages of the second one,
+ * until the maximum number of iterations is reached or the convergence condition holds.
+ */
+public final class LoopIterationProperty extends ExecutionProperty<LoopIterationProperty.Value> {
+  /**
+   * Constructor.
+   * @param value value of the execution property.
+   */
+  private LoopIterationProperty(final Value value) {
+    super(Key.LoopIteration, value);
+  }
+
+  /**
+   * Static method exposing the constructor.
+   * @param value value of the new execution property.
+   * @return the newly created execution property.
+   */
+  public static LoopIterationProperty of(final Value value) {
+    return new LoopIterationProperty(value);
+  }
+
+  /**
+   * Value of LoopIteration ExecutionProperty.
+   */
+  public static final class Value implements Serializable {
+    private final String loopId;
+    private final String bodyVertexId;
+    private final int iteration;
+    private final int maxNumberOfIterations;
+    private final LoopConvergenceCondition convergenceCondition;
+
+    /**
+     * Constructor.
+     * @param loopId the ID of the LoopVertex.
+     * @param bodyVertexId the ID of the vertex in the DAG of the LoopVertex that this vertex is unrolled from.
+     * @param iteration the iteration of this vertex, 1 or 2.
+     * @param maxNumberOfIterations the maximum number of iterations of the loop.
+     * @param convergenceCondition the convergence condition of the loop, or null.
+     */
+    public Value(final String loopId,
+                 final String bodyVertexId,
+                 final int iteration,
+                 final int maxNumberOfIterations,
+                 final LoopConvergenceCondition convergenceCondition) {
+      this.loopId = loopId;
+      this.bodyVertexId = bodyVertexId;
+      this.iteration = iteration;
+      this.maxNumberOfIterations = maxNumberOfIterations;
+      this.convergenceCondition = convergenceCondition;
+    }
+
+    /**
+     * @return the ID of the LoopVertex.
+     */
+    public String getLoopId() {
+      return loopId;
+    }
+
+    /**
+     * @return the ID of the vertex in the DAG of the LoopVertex that this vertex is unrolled from.
+     */
+    public String getBodyVertexId() {
+      return bodyVertexId;
+    }
+
+    /**
+     * @return the iteration of this vertex.
+     */
+    public int getIteration() {
+      return iteration;
+    }
+
+    /**
+     * @return the maximum number of iterations of the loop.
+     */
+    public int getMaxNumberOfIterations() {
+      return maxNumberOfIterations;
+    }
+
+    /**
+     * @return the convergence condition of the loop, or null if the loop runs all of its iterations.
+     */
+    public LoopConvergenceCondition getConvergenceCondition() {
+      return convergenceCondition;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Value value = (Value) o;
+      return iteration == value.iteration
+          && maxNumberOfIterations == value.maxNumberOfIterations
+          && loopId.equals(value.loopId)
+          && bodyVertexId.equals(value.bodyVertexId)
+          && Objects.equals(convergenceCondition, value.convergenceCondition);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(loopId, bodyVertexId, iteration, maxNumberOfIterations);
+    }
+
+    @Override
+    public String toString() {
+      return loopId + "/" + bodyVertexId + "/" + iteration + " of " + maxNumberOfIterations;
+    }
+  }
+}
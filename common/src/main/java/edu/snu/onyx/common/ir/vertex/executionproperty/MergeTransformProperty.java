@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.common.ir.vertex.executionproperty;
+
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.transform.Transform;
+
+/**
+ * MergeTransform ExecutionProperty.
+ * It declares that the outputs of the vertex for the same key, produced by different task groups,
+ * can be merged into the output for the whole key by the given {@link Transform}.
+ */
+public final class MergeTransformProperty extends ExecutionProperty<Transform> {
+  /**
+   * Constructor.
+   * @param value value of the execution property.
+   */
+  private MergeTransformProperty(final Transform value) {
+    super(Key.MergeTransform, value);
+  }
+
+  /**
+   * Static method exposing the constructor.
+   * @param value value of the new execution property.
+   * @return the newly created execution property.
+   */
+  public static MergeTransformProperty of(final Transform value) {
+    return new MergeTransformProperty(value);
+  }
+}
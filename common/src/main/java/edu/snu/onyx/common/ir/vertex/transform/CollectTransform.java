@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.common.ir.vertex.transform;
+
+import edu.snu.onyx.common.ir.OutputCollector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Transform} that collects all of its input elements, and emits them as a single {@link List} on close.
+ * It is used to broadcast the whole data of an input as a side input.
+ * @param <T> input type.
+ */
+public final class CollectTransform<T> implements Transform<T, List<T>> {
+  private final List<T> collected;
+  private OutputCollector<List<T>> outputCollector;
+
+  /**
+   * Default constructor.
+   */
+  public CollectTransform() {
+    this.collected = new ArrayList<>();
+  }
+
+  @Override
+  public void prepare(final Context context, final OutputCollector<List<T>> oc) {
+    this.outputCollector = oc;
+  }
+
+  @Override
+  public void onData(final Iterable<T> elements, final String srcVertexId) {
+    elements.forEach(collected::add);
+  }
+
+  @Override
+  public void close() {
+    outputCollector.emit(new ArrayList<>(collected));
+    collected.clear();
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append(CollectTransform.class);
+    sb.append(":");
+    sb.append(super.toString());
+    return sb.toString();
+  }
+}
@@ -55,5 +55,15 @@ public interface Transform<I, O> extends Serializable {
      * @return sideInputs.
      */
     Map<Transform, Object> getSideInputs();
+
+    /**
+     * @return the index of the task running the transform, among the tasks of its vertex.
+     */
+    int getTaskIndex();
+
+    /**
+     * @return the number of the tasks of the vertex.
+     */
+    int getParallelism();
   }
 }
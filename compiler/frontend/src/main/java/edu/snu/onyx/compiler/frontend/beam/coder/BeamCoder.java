@@ -16,7 +16,9 @@
 package edu.snu.onyx.compiler.frontend.beam.coder;
 
 import edu.snu.onyx.common.coder.Coder;
+import org.apache.beam.sdk.coders.VoidCoder;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -38,11 +40,22 @@ public final class BeamCoder<T> implements Coder<T> {
 
   @Override
   public void encode(final T value, final OutputStream outStream) throws IOException {
+    if (beamCoder instanceof VoidCoder) {
+      // A stream of elements is decoded until it ends, so each element takes at least a byte.
+      outStream.write(0);
+      return;
+    }
     beamCoder.encode(value, outStream);
   }
 
   @Override
   public T decode(final InputStream inStream) throws IOException {
+    if (beamCoder instanceof VoidCoder) {
+      if (inStream.read() == -1) {
+        throw new EOFException("The stream ended before a void element");
+      }
+      return null;
+    }
     return beamCoder.decode(inStream);
   }
 
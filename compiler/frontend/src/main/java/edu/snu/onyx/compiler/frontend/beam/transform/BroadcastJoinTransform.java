@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.frontend.beam.transform;
+
+import edu.snu.onyx.common.ir.OutputCollector;
+import edu.snu.onyx.common.ir.vertex.transform.Transform;
+import org.apache.beam.sdk.values.KV;
+
+import java.util.*;
+
+/**
+ * Groups Beam KVs by key as {@link GroupByKeyTransform} does, and joins them with the KVs broadcast as a side input.
+ * The main input is hash-partitioned by key, so a task holds all the main input values of the keys it reads.
+ * The side input is the whole list of the KVs of the other inputs, and the values of a key in the side input are
+ * added to the group of the key. The keys that only appear in the side input are emitted by the task whose hash
+ * partition they fall into, so each key is emitted exactly once with all of its values, as a GroupByKey would.
+ */
+public final class BroadcastJoinTransform implements Transform<KV<Object, Object>, KV<Object, List>> {
+  private final Map<Object, List> keyToValues;
+  private Map<Object, List> keyToBroadcastValues;
+  private OutputCollector<KV<Object, List>> outputCollector;
+  private int taskIndex;
+  private int parallelism;
+
+  /**
+   * BroadcastJoin constructor.
+   */
+  public BroadcastJoinTransform() {
+    this.keyToValues = new HashMap<>();
+  }
+
+  @Override
+  public void prepare(final Context context, final OutputCollector<KV<Object, List>> oc) {
+    this.outputCollector = oc;
+    this.taskIndex = context.getTaskIndex();
+    this.parallelism = context.getParallelism();
+    final Iterator<Object> sideInputs = context.getSideInputs().values().iterator();
+    if (!sideInputs.hasNext()) {
+      throw new RuntimeException("BroadcastJoinTransform requires the broadcast input as a side input");
+    }
+    this.keyToBroadcastValues = new HashMap<>();
+    ((List<KV<Object, Object>>) sideInputs.next()).forEach(kv -> {
+      keyToBroadcastValues.putIfAbsent(kv.getKey(), new ArrayList());
+      keyToBroadcastValues.get(kv.getKey()).add(kv.getValue());
+    });
+  }
+
+  @Override
+  public void onData(final Iterable<KV<Object, Object>> elements, final String srcVertexId) {
+    elements.forEach(kv -> {
+      keyToValues.putIfAbsent(kv.getKey(), new ArrayList());
+      keyToValues.get(kv.getKey()).add(kv.getValue());
+    });
+  }
+
+  @Override
+  public void close() {
+    keyToValues.forEach((key, values) -> {
+      values.addAll(keyToBroadcastValues.getOrDefault(key, Collections.emptyList()));
+      outputCollector.emit(KV.of(key, values));
+    });
+    keyToBroadcastValues.forEach((key, values) -> {
+      // Same as the hash partitioning of the main input.
+      if (!keyToValues.containsKey(key) && Math.abs(key.hashCode() % parallelism) == taskIndex) {
+        outputCollector.emit(KV.of(key, new ArrayList(values)));
+      }
+    });
+    keyToValues.clear();
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("BroadcastJoinTransform:");
+    sb.append(super.toString());
+    return sb.toString();
+  }
+}
@@ -15,6 +15,7 @@
  */
 package edu.snu.onyx.compiler.frontend.beam.transform;
 
+import edu.snu.onyx.common.ir.vertex.LoopConvergenceCondition;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.values.PInput;
 import org.apache.beam.sdk.values.POutput;
@@ -25,9 +26,31 @@ import java.io.Serializable;
  * A composite transform for wrapping transforms inside a loop to create loop operators in the IR.
  * Each iterations are stateless, as the repeating iterations are zipped into a single copy.
  * We assume a single {@link LoopCompositeTransform} inside a for/while loop.
+ * A loop may exit before its last iteration at runtime, with {@link #withConvergenceCondition}.
  * @param <inputT> input type of the composite transform.
  * @param <outputT> output type of the composite transform.
  */
 public abstract class LoopCompositeTransform<inputT extends PInput, outputT extends POutput>
     extends PTransform<inputT, outputT> implements Serializable {
+  private LoopConvergenceCondition convergenceCondition = null;
+
+  /**
+   * Sets the condition on which the loop converges, tested at runtime with the metric of each completed iteration,
+   * such as the bytes it passes to the next one. The loop exits once it holds, without running the remaining
+   * iterations. The condition is applied with a policy unrolling the loop at runtime.
+   * @param condition the convergence condition.
+   * @return this transform.
+   */
+  public final LoopCompositeTransform<inputT, outputT> withConvergenceCondition(
+      final LoopConvergenceCondition condition) {
+    this.convergenceCondition = condition;
+    return this;
+  }
+
+  /**
+   * @return the convergence condition, or null if the loop always runs all of its iterations.
+   */
+  public final LoopConvergenceCondition getConvergenceCondition() {
+    return convergenceCondition;
+  }
 }
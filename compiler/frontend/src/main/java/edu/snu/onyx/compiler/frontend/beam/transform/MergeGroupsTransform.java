@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.frontend.beam.transform;
+
+import edu.snu.onyx.common.ir.OutputCollector;
+import edu.snu.onyx.common.ir.vertex.transform.Transform;
+import org.apache.beam.sdk.values.KV;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merge the partial groups of Beam KVs produced by {@link GroupByKeyTransform}s for the same key.
+ * The groups of a key are split across multiple task groups when the key is too heavy for a single one.
+ */
+public final class MergeGroupsTransform implements Transform<KV<Object, List>, KV<Object, List>> {
+  private final Map<Object, List> keyToValues;
+  private OutputCollector<KV<Object, List>> outputCollector;
+
+  /**
+   * MergeGroups constructor.
+   */
+  public MergeGroupsTransform() {
+    this.keyToValues = new HashMap<>();
+  }
+
+  @Override
+  public void prepare(final Context context, final OutputCollector<KV<Object, List>> oc) {
+    this.outputCollector = oc;
+  }
+
+  @Override
+  public void onData(final Iterable<KV<Object, List>> elements, final String srcVertexId) {
+    elements.forEach(kv -> {
+      keyToValues.putIfAbsent(kv.getKey(), new ArrayList());
+      keyToValues.get(kv.getKey()).addAll(kv.getValue());
+    });
+  }
+
+  @Override
+  public void close() {
+    keyToValues.entrySet().stream().map(entry -> KV.of(entry.getKey(), entry.getValue()))
+        .forEach(wv -> outputCollector.emit(wv));
+    keyToValues.clear();
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("MergeGroupsTransform:");
+    sb.append(super.toString());
+    return sb.toString();
+  }
+}
@@ -49,20 +49,22 @@ public final class CompiletimeOptimizer {
     if (optimizationPolicy == null || optimizationPolicy.getCompileTimePasses().isEmpty()) {
       throw new CompileTimeOptimizationException("A policy name should be specified.");
     }
-    return process(dag, optimizationPolicy.getCompileTimePasses().iterator(), dagDirectory);
+    try (final PassLog passLog = new PassLog(dag, dagDirectory)) {
+      return process(dag, optimizationPolicy.getCompileTimePasses().iterator(), passLog);
+    }
   }
 
   /**
    * A recursive method to process each pass one-by-one to the given DAG.
    * @param dag DAG to process.
    * @param passes passes to apply.
-   * @param dagDirectory directory to save the DAG information.
+   * @param passLog the log of the changes made by the passes.
    * @return the processed DAG.
    * @throws Exception Exceptions on the way.
    */
   private static DAG<IRVertex, IREdge> process(final DAG<IRVertex, IREdge> dag,
                                                final Iterator<CompileTimePass> passes,
-                                               final String dagDirectory) throws Exception {
+                                               final PassLog passLog) throws Exception {
     if (passes.hasNext()) {
       final CompileTimePass passToApply = passes.next();
       // Apply the pass to the DAG.
@@ -74,11 +76,10 @@ public final class CompiletimeOptimizer {
             + "is implemented in a way that doesn't follow its original intention of annotating or reshaping. "
             + "Modify it or use a general CompileTimePass");
       }
-      // Save the processed JSON DAG.
-      processedDAG.storeJSON(dagDirectory, "ir-after-" + passToApply.getClass().getSimpleName(),
-          "DAG after optimization");
+      // Log the changes made by the pass.
+      passLog.onPassApplied(passToApply.getClass().getSimpleName(), processedDAG);
       // recursively apply the following passes.
-      return process(processedDAG, passes, dagDirectory);
+      return process(processedDAG, passes, passLog);
     } else {
       return dag;
     }
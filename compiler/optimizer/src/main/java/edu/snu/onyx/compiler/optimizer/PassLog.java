@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer;
+
+import edu.snu.onyx.common.EventLog;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionPropertyMap;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+
+import java.util.*;
+
+/**
+ * Logs the changes each compile-time pass makes to the IR DAG, as an event per pass in {@link EventLog},
+ * so that the DAG after each pass can be reconstructed from the DAG before the optimization (ir.json).
+ * The vertices and edges added by a pass are logged in full, and only the changed execution properties
+ * of the other vertices and edges are logged.
+ */
+final class PassLog implements AutoCloseable {
+  private final EventLog eventLog;
+  private Map<String, Map<String, String>> idToProperties;
+
+  /**
+   * Opens the log of the passes applied to a DAG.
+   * @param dag          the DAG before the passes are applied.
+   * @param dagDirectory the directory to save the log to.
+   */
+  PassLog(final DAG<IRVertex, IREdge> dag, final String dagDirectory) {
+    this.eventLog = EventLog.open(dagDirectory, "ir-passes");
+    this.idToProperties = eventLog.isEnabled() ? snapshotProperties(dag) : Collections.emptyMap();
+  }
+
+  /**
+   * Logs the changes a pass made.
+   * Since the passes may change the vertices and edges in place, the changes are computed here,
+   * and only the writing is left to the {@link EventLog}.
+   * @param passName     the name of the pass.
+   * @param processedDAG the DAG after the pass is applied.
+   */
+  void onPassApplied(final String passName, final DAG<IRVertex, IREdge> processedDAG) {
+    if (!eventLog.isEnabled()) {
+      return;
+    }
+    final Map<String, Map<String, String>> newIdToProperties = snapshotProperties(processedDAG);
+    final List<String> addedVertices = new ArrayList<>();
+    final List<String> addedEdges = new ArrayList<>();
+    final List<String> changedProperties = new ArrayList<>();
+    for (final IRVertex irVertex : processedDAG.getVertices()) {
+      if (!idToProperties.containsKey(irVertex.getId())) {
+        addedVertices.add("{\"id\": " + EventLog.quote(irVertex.getId())
+            + ", \"properties\": " + irVertex.propertiesToJSON() + "}");
+      }
+      for (final IREdge irEdge : processedDAG.getIncomingEdgesOf(irVertex)) {
+        if (!idToProperties.containsKey(irEdge.getId())) {
+          addedEdges.add("{\"id\": " + EventLog.quote(irEdge.getId())
+              + ", \"src\": " + EventLog.quote(irEdge.getSrc().getId())
+              + ", \"dst\": " + EventLog.quote(irEdge.getDst().getId())
+              + ", \"properties\": " + irEdge.propertiesToJSON() + "}");
+        }
+      }
+    }
+    newIdToProperties.forEach((id, properties) -> {
+      final Map<String, String> oldProperties = idToProperties.get(id);
+      if (oldProperties != null && !oldProperties.equals(properties)) {
+        final Set<String> keys = new TreeSet<>(properties.keySet());
+        keys.addAll(oldProperties.keySet());
+        final StringJoiner changes = new StringJoiner(", ", "{", "}");
+        keys.stream().filter(key -> !Objects.equals(oldProperties.get(key), properties.get(key)))
+            .forEach(key -> changes.add(EventLog.quote(key) + ": "
+                + (properties.containsKey(key) ? EventLog.quote(properties.get(key)) : "null")));
+        changedProperties.add(EventLog.quote(id) + ": " + changes);
+      }
+    });
+    final List<String> removed = new ArrayList<>();
+    idToProperties.keySet().stream().filter(id -> !newIdToProperties.containsKey(id))
+        .forEach(id -> removed.add(EventLog.quote(id)));
+    idToProperties = newIdToProperties;
+
+    final long time = System.currentTimeMillis();
+    eventLog.append(() -> "{\"time\": " + time + ", \"type\": \"PassApplied\", \"pass\": " + EventLog.quote(passName)
+        + ", \"addedVertices\": [" + String.join(", ", addedVertices) + "]"
+        + ", \"addedEdges\": [" + String.join(", ", addedEdges) + "]"
+        + ", \"removed\": [" + String.join(", ", removed) + "]"
+        + ", \"changedProperties\": {" + String.join(", ", changedProperties) + "}}");
+  }
+
+  @Override
+  public void close() {
+    eventLog.close();
+  }
+
+  /**
+   * @param dag to take the snapshot of.
+   * @return the execution properties of the vertices and the edges of the DAG, by their IDs.
+   */
+  private static Map<String, Map<String, String>> snapshotProperties(final DAG<IRVertex, IREdge> dag) {
+    final Map<String, Map<String, String>> idToProperties = new HashMap<>();
+    for (final IRVertex irVertex : dag.getVertices()) {
+      idToProperties.put(irVertex.getId(), snapshotProperties(irVertex.getExecutionProperties()));
+      for (final IREdge irEdge : dag.getIncomingEdgesOf(irVertex)) {
+        idToProperties.put(irEdge.getId(), snapshotProperties(irEdge.getExecutionProperties()));
+      }
+    }
+    return idToProperties;
+  }
+
+  /**
+   * @param executionProperties the execution properties of a vertex or an edge.
+   * @return the names and the values of the properties, as they are now.
+   */
+  private static Map<String, String> snapshotProperties(final ExecutionPropertyMap executionProperties) {
+    final Map<String, String> properties = new HashMap<>();
+    executionProperties.forEachProperties(executionProperty ->
+        properties.put(executionProperty.getKey().name(), String.valueOf(executionProperty.getValue())));
+    return properties;
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.CoreDemandProperty;
+
+/**
+ * Optimization pass for tagging core demand execution property.
+ * The sources and the vertices only receiving data one-to-one read and transform records as they stream by,
+ * and are given a fraction of a core, so that the TaskGroups of such light stages can share the cores of an executor.
+ * The vertices receiving shuffled or broadcast data take a whole core.
+ */
+public final class CoreDemandPass extends AnnotatingPass {
+  public static final double DEFAULT_LIGHT_CORE_DEMAND = 0.5;
+  public static final double HEAVY_CORE_DEMAND = 1.0;
+
+  private final double lightCoreDemand;
+
+  /**
+   * Default constructor.
+   */
+  public CoreDemandPass() {
+    this(DEFAULT_LIGHT_CORE_DEMAND);
+  }
+
+  /**
+   * Constructor.
+   * @param lightCoreDemand the core demand of the vertices only receiving data one-to-one.
+   */
+  public CoreDemandPass(final double lightCoreDemand) {
+    super(ExecutionProperty.Key.CoreDemand);
+    if (lightCoreDemand <= 0 || lightCoreDemand > HEAVY_CORE_DEMAND) {
+      throw new IllegalArgumentException("The light core demand should be in (0, " + HEAVY_CORE_DEMAND + "]");
+    }
+    this.lightCoreDemand = lightCoreDemand;
+  }
+
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    dag.topologicalDo(vertex -> {
+      final boolean isLight = dag.getIncomingEdgesOf(vertex).stream()
+          .allMatch(edge -> DataCommunicationPatternProperty.Value.OneToOne
+              .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)));
+      vertex.setProperty(CoreDemandProperty.of(isLight ? lightCoreDemand : HEAVY_CORE_DEMAND));
+    });
+    return dag;
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.dag.DAGBuilder;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.SourceVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.ParallelismProperty;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
+
+/**
+ * Optimization pass for tagging parallelism execution property by the estimated size of the data.
+ * Unlike {@link DefaultParallelismPass}, which propagates the source parallelism forward,
+ * the sources and the vertices receiving shuffled data are sized independently, to process
+ * about the target number of bytes per task.
+ * The size of the data is estimated from the sources, and scaled along the edges by their
+ * {@link edu.snu.onyx.common.ir.edge.executionproperty.SelectivityProperty}, which is 1 if not given.
+ */
+public final class CostBasedParallelismPass extends AnnotatingPass {
+  public static final long DEFAULT_TARGET_BYTES_PER_TASK = 128L * 1024 * 1024;
+  public static final int DEFAULT_MAX_PARALLELISM = 1024;
+
+  private final long targetBytesPerTask;
+  private final int maxParallelism;
+
+  /**
+   * Default constructor.
+   */
+  public CostBasedParallelismPass() {
+    this(DEFAULT_TARGET_BYTES_PER_TASK, DEFAULT_MAX_PARALLELISM);
+  }
+
+  /**
+   * Constructor.
+   * @param targetBytesPerTask the number of bytes each task is to process.
+   * @param maxParallelism the maximum parallelism of a vertex.
+   */
+  public CostBasedParallelismPass(final long targetBytesPerTask, final int maxParallelism) {
+    super(ExecutionProperty.Key.Parallelism);
+    if (targetBytesPerTask <= 0 || maxParallelism <= 0) {
+      throw new IllegalArgumentException("The target bytes per task and the max parallelism should be positive");
+    }
+    this.targetBytesPerTask = targetBytesPerTask;
+    this.maxParallelism = maxParallelism;
+  }
+
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    final Map<String, Long> vertexIdToEstimatedBytes = new HashMap<>();
+    dag.topologicalDo(vertex -> {
+      try {
+        final List<IREdge> inEdges = dag.getIncomingEdgesOf(vertex).stream()
+            .filter(edge -> !Boolean.TRUE.equals(edge.isSideInput()))
+            .collect(Collectors.toList());
+        if (inEdges.isEmpty() && vertex instanceof SourceVertex) {
+          final SourceVertex sourceVertex = (SourceVertex) vertex;
+          final long estimatedBytes = Math.max(sourceVertex.getEstimatedSizeBytes(), 0L);
+          vertexIdToEstimatedBytes.put(vertex.getId(), estimatedBytes);
+          vertex.setProperty(ParallelismProperty.of(
+              sourceVertex.getReaders(getParallelismForBytes(estimatedBytes)).size()));
+        } else if (!inEdges.isEmpty()) {
+          // As in the default pass, broadcast edges do not decide the parallelism.
+          final List<IREdge> dataEdges = inEdges.stream()
+              .filter(edge -> !DataCommunicationPatternProperty.Value.BroadCast
+                  .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)))
+              .collect(Collectors.toList());
+          final long estimatedBytes = dataEdges.stream()
+              .mapToLong(edge -> getEstimatedBytesOnEdge(edge, vertexIdToEstimatedBytes))
+              .sum();
+          vertexIdToEstimatedBytes.put(vertex.getId(), estimatedBytes);
+
+          // The parallelism of a one-to-one edge cannot change, so only shuffled data can be re-sized.
+          final OptionalInt oneToOneParallelism = dataEdges.stream()
+              .filter(edge -> DataCommunicationPatternProperty.Value.OneToOne
+                  .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)))
+              .mapToInt(edge -> edge.getSrc().getProperty(ExecutionProperty.Key.Parallelism))
+              .max();
+          if (oneToOneParallelism.isPresent()) {
+            vertex.setProperty(ParallelismProperty.of(oneToOneParallelism.getAsInt()));
+          } else if (!dataEdges.isEmpty()) {
+            vertex.setProperty(ParallelismProperty.of(getParallelismForBytes(estimatedBytes)));
+          }
+        } else {
+          throw new RuntimeException("There is a non-source vertex that doesn't have any inEdges other than SideInput");
+        }
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+    final DAGBuilder<IRVertex, IREdge> builder = new DAGBuilder<>(dag);
+    return builder.build();
+  }
+
+  /**
+   * @param edge the edge.
+   * @param vertexIdToEstimatedBytes the estimated bytes of the vertices visited so far.
+   * @return the estimated number of bytes flowing through the edge.
+   */
+  static long getEstimatedBytesOnEdge(final IREdge edge, final Map<String, Long> vertexIdToEstimatedBytes) {
+    final Double selectivity = edge.getProperty(ExecutionProperty.Key.Selectivity);
+    final long srcBytes = vertexIdToEstimatedBytes.getOrDefault(edge.getSrc().getId(), 0L);
+    return selectivity == null ? srcBytes : (long) (srcBytes * selectivity);
+  }
+
+  /**
+   * @param bytes the number of bytes to process.
+   * @return the parallelism to process the bytes with about the target bytes per task.
+   */
+  private int getParallelismForBytes(final long bytes) {
+    final long parallelism = (bytes + targetBytesPerTask - 1) / targetBytesPerTask;
+    return (int) Math.max(1, Math.min(parallelism, maxParallelism));
+  }
+}
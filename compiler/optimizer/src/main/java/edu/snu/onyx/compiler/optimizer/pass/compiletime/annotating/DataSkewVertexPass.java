@@ -27,11 +27,22 @@ import edu.snu.onyx.common.ir.vertex.executionproperty.DynamicOptimizationProper
  * It specifies which optimization to perform on the MetricCollectionBarrierVertex.
  */
 public final class DataSkewVertexPass extends AnnotatingPass {
+  private final DynamicOptimizationProperty.Value dynamicOptimizationType;
+
   /**
    * Default constructor.
    */
   public DataSkewVertexPass() {
+    this(DynamicOptimizationProperty.Value.DataSkewRuntimePass);
+  }
+
+  /**
+   * Constructor.
+   * @param dynamicOptimizationType the runtime pass to perform with the collected metrics.
+   */
+  public DataSkewVertexPass(final DynamicOptimizationProperty.Value dynamicOptimizationType) {
     super(ExecutionProperty.Key.DynamicOptimizationType);
+    this.dynamicOptimizationType = dynamicOptimizationType;
   }
 
   @Override
@@ -39,7 +50,7 @@ public final class DataSkewVertexPass extends AnnotatingPass {
     dag.topologicalDo(v -> {
       // we only care about metric collection barrier vertices.
       if (v instanceof MetricCollectionBarrierVertex) {
-        v.setProperty(DynamicOptimizationProperty.of(DynamicOptimizationProperty.Value.DataSkewRuntimePass));
+        v.setProperty(DynamicOptimizationProperty.of(dynamicOptimizationType));
       }
     });
     return dag;
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataStoreProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.LoopIterationProperty;
+
+/**
+ * Pass to annotate the DAG for a job to unroll a loop at runtime.
+ * It stores the data coming into the second iteration, and the data going out of the first iteration,
+ * with LocalFileStore, so that the iterations are in separate stages from the rest of the DAG,
+ * and the data is kept to be read by the iterations instantiated later.
+ */
+public final class DynamicLoopEdgeDataStorePass extends AnnotatingPass {
+  /**
+   * Default constructor.
+   */
+  public DynamicLoopEdgeDataStorePass() {
+    super(ExecutionProperty.Key.DataStore);
+  }
+
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    dag.topologicalDo(v -> dag.getIncomingEdgesOf(v).forEach(edge -> {
+      final int srcIteration = getIteration(edge.getSrc());
+      final int dstIteration = getIteration(edge.getDst());
+      if ((dstIteration == 2 && srcIteration != 2) || (srcIteration == 1 && dstIteration == 0)) {
+        edge.setProperty(DataStoreProperty.of(DataStoreProperty.Value.LocalFileStore));
+      }
+    }));
+    return dag;
+  }
+
+  /**
+   * @param irVertex the vertex.
+   * @return the loop iteration of the vertex, or 0 if it is not in the loop unrolled at runtime.
+   */
+  private static int getIteration(final IRVertex irVertex) {
+    final LoopIterationProperty.Value loopIteration = irVertex.getProperty(ExecutionProperty.Key.LoopIteration);
+    return loopIteration == null ? 0 : loopIteration.getIteration();
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.MetricCollectionProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.LoopIterationProperty;
+
+/**
+ * Pass to annotate the DAG for a job to unroll a loop at runtime.
+ * It specifies the edges from the first iteration to the second one of a loop with a convergence condition,
+ * to collect the size of the data that each iteration passes to the next one.
+ */
+public final class DynamicLoopEdgeMetricCollectionPass extends AnnotatingPass {
+  /**
+   * Default constructor.
+   */
+  public DynamicLoopEdgeMetricCollectionPass() {
+    super(ExecutionProperty.Key.MetricCollection);
+  }
+
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    dag.topologicalDo(v -> {
+      final LoopIterationProperty.Value loopIteration = v.getProperty(ExecutionProperty.Key.LoopIteration);
+      if (loopIteration != null && loopIteration.getIteration() == 2
+          && loopIteration.getConvergenceCondition() != null) {
+        dag.getIncomingEdgesOf(v).forEach(edge -> {
+          final LoopIterationProperty.Value srcLoopIteration =
+              edge.getSrc().getProperty(ExecutionProperty.Key.LoopIteration);
+          if (srcLoopIteration != null && srcLoopIteration.getIteration() == 1) {
+            edge.setProperty(MetricCollectionProperty.of(MetricCollectionProperty.Value.LoopConvergence));
+          }
+        });
+      }
+    });
+    return dag;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.LoopVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.ColocationGroupProperty;
+
+import java.util.Collections;
+
+/**
+ * A pass for pinning the loop-invariant data on the executors running the iterations of a loop.
+ * It puts the vertices of each loop, and the vertices producing its loop-invariant inputs one-to-one,
+ * in a colocation group, so that every iteration runs each TaskGroup on the executor holding its invariant data.
+ * It should be applied after the loop invariant code motion, and before the loops are unrolled,
+ * so that every unrolled iteration inherits the colocation group.
+ */
+public final class LoopInvariantPinningPass extends AnnotatingPass {
+  /**
+   * Default constructor.
+   */
+  public LoopInvariantPinningPass() {
+    super(ExecutionProperty.Key.ColocationGroup,
+        Collections.singleton(ExecutionProperty.Key.DataCommunicationPattern));
+  }
+
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    dag.topologicalDo(irVertex -> {
+      if (irVertex instanceof LoopVertex) {
+        final LoopVertex loopVertex = (LoopVertex) irVertex;
+        final ColocationGroupProperty colocationGroup = ColocationGroupProperty.of(loopVertex.getId());
+        setColocationGroup(loopVertex.getDAG(), colocationGroup);
+        loopVertex.getNonIterativeIncomingEdges().values().forEach(irEdges -> irEdges.stream()
+            .filter(irEdge -> DataCommunicationPatternProperty.Value.OneToOne
+                .equals(irEdge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)))
+            .map(IREdge::getSrc)
+            // A vertex producing the invariant data of multiple loops is pinned with the first one.
+            .filter(src -> src.getProperty(ExecutionProperty.Key.ColocationGroup) == null)
+            .forEach(src -> src.setProperty(colocationGroup)));
+      }
+    });
+    return dag;
+  }
+
+  /**
+   * Recursively puts the vertices of a loop, including those of the nested loops, in a colocation group.
+   * @param loopDAG the DAG of the loop.
+   * @param colocationGroup the colocation group.
+   */
+  private static void setColocationGroup(final DAG<IRVertex, IREdge> loopDAG,
+                                         final ColocationGroupProperty colocationGroup) {
+    loopDAG.getVertices().forEach(irVertex -> {
+      irVertex.setProperty(colocationGroup);
+      if (irVertex instanceof LoopVertex) {
+        setColocationGroup(((LoopVertex) irVertex).getDAG(), colocationGroup);
+      }
+    });
+  }
+}
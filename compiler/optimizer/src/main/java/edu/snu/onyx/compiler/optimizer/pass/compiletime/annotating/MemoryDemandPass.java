@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.SourceVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.MemoryDemandProperty;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Optimization pass for tagging memory demand execution property by the estimated size of the data.
+ * A task of a vertex receiving shuffled data holds its share of the data, and one receiving broadcast data
+ * holds the whole of it. The vertices receiving data one-to-one stream it, and demand no memory.
+ * The size of the data is estimated as in {@link CostBasedParallelismPass}.
+ */
+public final class MemoryDemandPass extends AnnotatingPass {
+  private static final long BYTES_PER_MB = 1024L * 1024;
+
+  /**
+   * Default constructor.
+   */
+  public MemoryDemandPass() {
+    super(ExecutionProperty.Key.MemoryDemand, Collections.singleton(ExecutionProperty.Key.Parallelism));
+  }
+
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    final Map<String, Long> vertexIdToEstimatedBytes = new HashMap<>();
+    dag.topologicalDo(vertex -> {
+      long estimatedBytes = 0;
+      long bytesToHold = 0;
+      if (vertex instanceof SourceVertex) {
+        try {
+          estimatedBytes = Math.max(((SourceVertex) vertex).getEstimatedSizeBytes(), 0L);
+        } catch (final Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+      final int parallelism = vertex.getProperty(ExecutionProperty.Key.Parallelism);
+      for (final IREdge edge : dag.getIncomingEdgesOf(vertex)) {
+        final long bytesOnEdge = CostBasedParallelismPass.getEstimatedBytesOnEdge(edge, vertexIdToEstimatedBytes);
+        final Object pattern = edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern);
+        if (DataCommunicationPatternProperty.Value.BroadCast.equals(pattern)) {
+          bytesToHold += bytesOnEdge;
+        } else if (!Boolean.TRUE.equals(edge.isSideInput())) {
+          // As in the cost-based parallelism pass, the broadcast data is not counted in the size of the output.
+          estimatedBytes += bytesOnEdge;
+          if (DataCommunicationPatternProperty.Value.Shuffle.equals(pattern)) {
+            bytesToHold += bytesOnEdge / parallelism;
+          }
+        }
+      }
+      vertexIdToEstimatedBytes.put(vertex.getId(), estimatedBytes);
+      final long memoryDemandMb = (bytesToHold + BYTES_PER_MB - 1) / BYTES_PER_MB;
+      vertex.setProperty(MemoryDemandProperty.of((int) Math.min(memoryDemandMb, Integer.MAX_VALUE)));
+    });
+    return dag;
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataFlowModelProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+
+import java.util.Collections;
+
+/**
+ * A pass for tagging broadcast edges to be distributed peer-to-peer.
+ * It sets DataFlowModel ExecutionProperty as "peer-to-peer" on the broadcast edges which are not pushed,
+ * so that the executors which already fetched a broadcast block serve it to the others.
+ */
+public final class PeerToPeerBroadcastPass extends AnnotatingPass {
+  /**
+   * Default constructor.
+   */
+  public PeerToPeerBroadcastPass() {
+    super(ExecutionProperty.Key.DataFlowModel, Collections.singleton(ExecutionProperty.Key.DataCommunicationPattern));
+  }
+
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    dag.getVertices().forEach(vertex -> dag.getIncomingEdgesOf(vertex).forEach(edge -> {
+      if (DataCommunicationPatternProperty.Value.BroadCast
+          .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern))
+          && !DataFlowModelProperty.Value.Push.equals(edge.getProperty(ExecutionProperty.Key.DataFlowModel))) {
+        edge.setProperty(DataFlowModelProperty.of(DataFlowModelProperty.Value.PeerToPeer));
+      }
+    }));
+    return dag;
+  }
+}
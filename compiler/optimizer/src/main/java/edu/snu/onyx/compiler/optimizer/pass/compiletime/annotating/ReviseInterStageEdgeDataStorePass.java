@@ -17,6 +17,7 @@ package edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating;
 
 import edu.snu.onyx.common.dag.DAG;
 import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
 import edu.snu.onyx.common.ir.edge.executionproperty.DataStoreProperty;
 import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
 import edu.snu.onyx.common.ir.vertex.IRVertex;
@@ -27,6 +28,8 @@ import java.util.stream.Stream;
 
 /**
  * Edge data store pass to process inter-stage memory store edges.
+ * The one-to-one edges between the vertices of the same colocation group stay in the memory store,
+ * as their TaskGroups run on the same executor.
  */
 public final class ReviseInterStageEdgeDataStorePass extends AnnotatingPass {
   /**
@@ -46,7 +49,8 @@ public final class ReviseInterStageEdgeDataStorePass extends AnnotatingPass {
         inEdges.forEach(edge -> {
           if (DataStoreProperty.Value.MemoryStore.equals(edge.getProperty(ExecutionProperty.Key.DataStore))
               && !edge.getSrc().getProperty(ExecutionProperty.Key.StageId)
-              .equals(edge.getDst().getProperty(ExecutionProperty.Key.StageId))) {
+              .equals(edge.getDst().getProperty(ExecutionProperty.Key.StageId))
+              && !isColocated(edge)) {
             edge.setProperty(DataStoreProperty.of(DataStoreProperty.Value.LocalFileStore));
           }
         });
@@ -54,4 +58,16 @@ public final class ReviseInterStageEdgeDataStorePass extends AnnotatingPass {
     });
     return dag;
   }
+
+  /**
+   * @param edge the edge to check.
+   * @return whether the edge connects the TaskGroups of the same index on the same executor.
+   */
+  private static boolean isColocated(final IREdge edge) {
+    final String srcColocationGroup = edge.getSrc().getProperty(ExecutionProperty.Key.ColocationGroup);
+    return srcColocationGroup != null
+        && srcColocationGroup.equals(edge.getDst().getProperty(ExecutionProperty.Key.ColocationGroup))
+        && DataCommunicationPatternProperty.Value.OneToOne
+        .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+  }
 }
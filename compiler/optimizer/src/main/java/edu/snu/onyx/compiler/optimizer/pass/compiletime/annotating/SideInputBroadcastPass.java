@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+
+import java.util.Collections;
+
+/**
+ * A pass for broadcasting the side inputs read by more tasks than the ones writing them.
+ * It sets DataCommunicationPattern ExecutionProperty as "broadcast" on such one-to-one side input edges,
+ * so that all the tasks read the same block and share it through the side input cache of each executor.
+ */
+public final class SideInputBroadcastPass extends AnnotatingPass {
+  /**
+   * Default constructor.
+   */
+  public SideInputBroadcastPass() {
+    super(ExecutionProperty.Key.DataCommunicationPattern, Collections.singleton(ExecutionProperty.Key.Parallelism));
+  }
+
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    dag.getVertices().forEach(vertex -> dag.getIncomingEdgesOf(vertex).forEach(edge -> {
+      if (Boolean.TRUE.equals(edge.isSideInput())
+          && DataCommunicationPatternProperty.Value.OneToOne
+          .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern))
+          && !edge.getSrc().getProperty(ExecutionProperty.Key.Parallelism)
+          .equals(vertex.getProperty(ExecutionProperty.Key.Parallelism))) {
+        edge.setProperty(DataCommunicationPatternProperty.of(DataCommunicationPatternProperty.Value.BroadCast));
+      }
+    }));
+    return dag;
+  }
+}
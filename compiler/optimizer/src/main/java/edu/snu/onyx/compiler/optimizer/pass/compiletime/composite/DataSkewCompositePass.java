@@ -15,6 +15,7 @@
  */
 package edu.snu.onyx.compiler.optimizer.pass.compiletime.composite;
 
+import edu.snu.onyx.common.ir.vertex.executionproperty.DynamicOptimizationProperty;
 import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.*;
 import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.DataSkewReshapingPass;
 
@@ -33,9 +34,17 @@ public final class DataSkewCompositePass extends CompositePass {
    * Default constructor.
    */
   public DataSkewCompositePass() {
+    this(DynamicOptimizationProperty.Value.DataSkewRuntimePass);
+  }
+
+  /**
+   * Constructor.
+   * @param dynamicOptimizationType the runtime pass to perform with the collected metrics.
+   */
+  public DataSkewCompositePass(final DynamicOptimizationProperty.Value dynamicOptimizationType) {
     super(Arrays.asList(
         new DataSkewReshapingPass(),
-        new DataSkewVertexPass(),
+        new DataSkewVertexPass(dynamicOptimizationType),
         new DataSkewEdgeDataStorePass(),
         new DataSkewEdgeMetricCollectionPass(),
         new DataSkewEdgePartitionerPass()
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.composite;
+
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DynamicLoopEdgeDataStorePass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DynamicLoopEdgeMetricCollectionPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.DynamicLoopUnrollingPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.LoopExtractionPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.LoopOptimizations;
+
+import java.util.Arrays;
+
+/**
+ * A series of passes to perform LoopOptimization, leaving the iterations of a loop to be instantiated at runtime.
+ * The runtime evaluates the convergence condition of the loop after each iteration,
+ * and instantiates the next iteration only if the loop has not converged.
+ */
+public final class DynamicLoopCompositePass extends CompositePass {
+  /**
+   * Default constructor.
+   */
+  public DynamicLoopCompositePass() {
+    super(Arrays.asList(
+        new LoopExtractionPass(),
+        LoopOptimizations.getLoopFusionPass(),
+        LoopOptimizations.getLoopInvariantCodeMotionPass(),
+        new DynamicLoopUnrollingPass(), // Groups then unrolls the first two iterations of a loop.
+        new DynamicLoopEdgeDataStorePass(),
+        new DynamicLoopEdgeMetricCollectionPass()
+    ));
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping;
+
+import edu.snu.onyx.common.coder.ListCoder;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.dag.DAGBuilder;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.edge.executionproperty.PartitionerProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.OperatorVertex;
+import edu.snu.onyx.common.ir.vertex.SourceVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.ParallelismProperty;
+import edu.snu.onyx.common.ir.vertex.transform.CollectTransform;
+import edu.snu.onyx.common.ir.vertex.transform.Transform;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Pass to join the inputs of a vertex grouping them by key by shuffling only the largest one,
+ * when the others are small enough to be broadcast.
+ * It looks for a vertex with the {@link ExecutionProperty.Key#BroadcastJoinTransform} property, which receives
+ * the shuffled union of multiple inputs from a vertex merging them (e.g., the flatten of a CoGroupByKey).
+ * The inputs other than the largest one are collected into a single list by a {@link CollectTransform},
+ * which is broadcast as a side input of the join transform.
+ * The largest input is still hash-partitioned by key into the join vertex, so that the join vertex emits each key
+ * exactly once with all of its values, as the grouping vertex does. For that reason, only the vertices whose input
+ * is partitioned by the {@link PartitionerProperty.Value#HashPartitioner} are converted.
+ * The size of each input is estimated from the sources, and scaled along the edges by their
+ * {@link edu.snu.onyx.common.ir.edge.executionproperty.SelectivityProperty}, which is 1 if not given.
+ * The inputs are left to be shuffled if the size of any of them cannot be estimated.
+ * As a side input is read one-to-one, the collect vertex runs a task for each task of the join vertex, and thus
+ * this pass is to be applied after the parallelism is annotated.
+ */
+public final class BroadcastJoinReshapingPass extends ReshapingPass {
+  public static final long DEFAULT_BROADCAST_THRESHOLD_BYTES = 10L * 1024 * 1024;
+  private static final long UNKNOWN_BYTES = -1;
+
+  private final long broadcastThresholdBytes;
+
+  /**
+   * Default constructor.
+   */
+  public BroadcastJoinReshapingPass() {
+    this(DEFAULT_BROADCAST_THRESHOLD_BYTES);
+  }
+
+  /**
+   * Constructor.
+   * @param broadcastThresholdBytes the maximum estimated number of bytes of the inputs to broadcast.
+   */
+  public BroadcastJoinReshapingPass(final long broadcastThresholdBytes) {
+    super(new HashSet<>(Arrays.asList(ExecutionProperty.Key.DataCommunicationPattern,
+        ExecutionProperty.Key.Parallelism)));
+    if (broadcastThresholdBytes < 0) {
+      throw new IllegalArgumentException("The broadcast threshold should not be negative");
+    }
+    this.broadcastThresholdBytes = broadcastThresholdBytes;
+  }
+
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    final Map<String, Long> vertexIdToEstimatedBytes = estimateBytes(dag);
+    final Map<IRVertex, IREdge> groupVertexToMainEdge = new HashMap<>();
+    final Set<IRVertex> unionVertices = new HashSet<>();
+    dag.getVertices().forEach(vertex -> getMainEdge(dag, vertex, vertexIdToEstimatedBytes).ifPresent(mainEdge -> {
+      groupVertexToMainEdge.put(vertex, mainEdge);
+      unionVertices.add(mainEdge.getDst());
+    }));
+
+    final DAGBuilder<IRVertex, IREdge> builder = new DAGBuilder<>();
+    final Map<IRVertex, IRVertex> groupVertexToJoinVertex = new HashMap<>();
+    dag.topologicalDo(v -> {
+      if (unionVertices.contains(v)) {
+        return; // The union is replaced by the join vertex.
+      }
+      final IREdge mainEdge = groupVertexToMainEdge.get(v);
+      if (mainEdge == null) {
+        builder.addVertex(v, dag);
+        dag.getIncomingEdgesOf(v).forEach(edge -> {
+          final IRVertex joinVertex = groupVertexToJoinVertex.get(edge.getSrc());
+          if (joinVertex == null) {
+            builder.connectVertices(edge);
+          } else { // The outputs of the group vertex now come from its join vertex.
+            final IREdge edgeFromJoin = new IREdge(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern),
+                joinVertex, v, edge.getCoder(), edge.isSideInput());
+            edge.copyExecutionPropertiesTo(edgeFromJoin);
+            builder.connectVertices(edgeFromJoin);
+          }
+        });
+      } else {
+        final IRVertex unionVertex = mainEdge.getDst();
+        final IREdge shuffleEdge = dag.getIncomingEdgesOf(v).get(0);
+        final IRVertex collectVertex = new OperatorVertex(new CollectTransform());
+        final IRVertex joinVertex = new OperatorVertex(v.getProperty(ExecutionProperty.Key.BroadcastJoinTransform));
+        final Integer parallelism = v.getProperty(ExecutionProperty.Key.Parallelism);
+        collectVertex.setProperty(ParallelismProperty.of(parallelism));
+        joinVertex.setProperty(ParallelismProperty.of(parallelism));
+        builder.addVertex(collectVertex);
+        builder.addVertex(joinVertex);
+
+        final List<IREdge> broadcastEdges = dag.getIncomingEdgesOf(unionVertex).stream()
+            .filter(edge -> !edge.equals(mainEdge)).collect(Collectors.toList());
+        broadcastEdges.forEach(edge -> builder.connectVertices(new IREdge(
+            DataCommunicationPatternProperty.Value.BroadCast, edge.getSrc(), collectVertex, edge.getCoder())));
+        builder.connectVertices(new IREdge(DataCommunicationPatternProperty.Value.OneToOne,
+            collectVertex, joinVertex, new ListCoder(broadcastEdges.get(0).getCoder()), true));
+
+        // The largest input is shuffled into the join vertex as it was into the grouping vertex.
+        final IREdge edgeToJoin = new IREdge(DataCommunicationPatternProperty.Value.Shuffle,
+            mainEdge.getSrc(), joinVertex, shuffleEdge.getCoder());
+        shuffleEdge.copyExecutionPropertiesTo(edgeToJoin);
+        builder.connectVertices(edgeToJoin);
+        groupVertexToJoinVertex.put(v, joinVertex);
+      }
+    });
+    return builder.build();
+  }
+
+  /**
+   * Finds the input of a group vertex not to broadcast, if the vertex can be converted to a broadcast join.
+   * @param dag the DAG.
+   * @param vertex the vertex to convert.
+   * @param vertexIdToEstimatedBytes the estimated bytes of the vertices.
+   * @return the edge of the largest input into the union vertex, or an empty optional if not to be converted.
+   */
+  private Optional<IREdge> getMainEdge(final DAG<IRVertex, IREdge> dag,
+                                       final IRVertex vertex,
+                                       final Map<String, Long> vertexIdToEstimatedBytes) {
+    final Transform joinTransform = vertex.getProperty(ExecutionProperty.Key.BroadcastJoinTransform);
+    final List<IREdge> inEdges = dag.getIncomingEdgesOf(vertex);
+    // The vertices in loops are left as they are, not to break the loop structure.
+    if (!(vertex instanceof OperatorVertex) || joinTransform == null || dag.isCompositeVertex(vertex)
+        || inEdges.size() != 1 || !hasPattern(inEdges.get(0), DataCommunicationPatternProperty.Value.Shuffle)
+        || !PartitionerProperty.Value.HashPartitioner.equals(inEdges.get(0).getProperty(
+            ExecutionProperty.Key.Partitioner))) {
+      return Optional.empty();
+    }
+    final IRVertex unionVertex = inEdges.get(0).getSrc();
+    final List<IREdge> unionInEdges = dag.getIncomingEdgesOf(unionVertex);
+    if (!(unionVertex instanceof OperatorVertex) || dag.getOutgoingEdgesOf(unionVertex).size() != 1
+        || unionInEdges.size() < 2 || unionInEdges.stream().anyMatch(edge -> Boolean.TRUE.equals(edge.isSideInput())
+        || !hasPattern(edge, DataCommunicationPatternProperty.Value.OneToOne))) {
+      return Optional.empty();
+    }
+
+    final Map<IREdge, Long> edgeToEstimatedBytes = new HashMap<>();
+    for (final IREdge edge : unionInEdges) {
+      final long estimatedBytes = getEstimatedBytesOnEdge(edge, vertexIdToEstimatedBytes);
+      if (estimatedBytes == UNKNOWN_BYTES) {
+        return Optional.empty();
+      }
+      edgeToEstimatedBytes.put(edge, estimatedBytes);
+    }
+    final IREdge mainEdge = Collections.max(unionInEdges, Comparator.comparingLong(edgeToEstimatedBytes::get));
+    final long bytesToBroadcast = unionInEdges.stream().filter(edge -> !edge.equals(mainEdge))
+        .mapToLong(edgeToEstimatedBytes::get).sum();
+    return bytesToBroadcast <= broadcastThresholdBytes ? Optional.of(mainEdge) : Optional.empty();
+  }
+
+  /**
+   * Estimates the number of bytes produced by each vertex.
+   * @param dag the DAG.
+   * @return the estimated bytes of the vertices, or {@link #UNKNOWN_BYTES} for those that cannot be estimated.
+   */
+  private static Map<String, Long> estimateBytes(final DAG<IRVertex, IREdge> dag) {
+    final Map<String, Long> vertexIdToEstimatedBytes = new HashMap<>();
+    dag.topologicalDo(vertex -> {
+      final List<IREdge> dataEdges = dag.getIncomingEdgesOf(vertex).stream()
+          .filter(edge -> !Boolean.TRUE.equals(edge.isSideInput()))
+          .filter(edge -> !hasPattern(edge, DataCommunicationPatternProperty.Value.BroadCast))
+          .collect(Collectors.toList());
+      long estimatedBytes = UNKNOWN_BYTES;
+      if (dataEdges.isEmpty() && vertex instanceof SourceVertex) {
+        try {
+          estimatedBytes = Math.max(((SourceVertex) vertex).getEstimatedSizeBytes(), UNKNOWN_BYTES);
+        } catch (final Exception e) {
+          estimatedBytes = UNKNOWN_BYTES;
+        }
+      } else if (!dataEdges.isEmpty()) {
+        estimatedBytes = 0;
+        for (final IREdge edge : dataEdges) {
+          final long bytesOnEdge = getEstimatedBytesOnEdge(edge, vertexIdToEstimatedBytes);
+          if (bytesOnEdge == UNKNOWN_BYTES) {
+            estimatedBytes = UNKNOWN_BYTES;
+            break;
+          }
+          estimatedBytes += bytesOnEdge;
+        }
+      }
+      vertexIdToEstimatedBytes.put(vertex.getId(), estimatedBytes);
+    });
+    return vertexIdToEstimatedBytes;
+  }
+
+  /**
+   * @param edge the edge.
+   * @param vertexIdToEstimatedBytes the estimated bytes of the vertices.
+   * @return the estimated number of bytes flowing through the edge, or {@link #UNKNOWN_BYTES}.
+   */
+  private static long getEstimatedBytesOnEdge(final IREdge edge, final Map<String, Long> vertexIdToEstimatedBytes) {
+    final long srcBytes = vertexIdToEstimatedBytes.getOrDefault(edge.getSrc().getId(), UNKNOWN_BYTES);
+    final Double selectivity = edge.getProperty(ExecutionProperty.Key.Selectivity);
+    return srcBytes == UNKNOWN_BYTES || selectivity == null ? srcBytes : (long) (srcBytes * selectivity);
+  }
+
+  /**
+   * @param edge the edge.
+   * @param pattern the data communication pattern.
+   * @return whether the edge has the pattern.
+   */
+  private static boolean hasPattern(final IREdge edge, final DataCommunicationPatternProperty.Value pattern) {
+    return pattern.equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+  }
+}
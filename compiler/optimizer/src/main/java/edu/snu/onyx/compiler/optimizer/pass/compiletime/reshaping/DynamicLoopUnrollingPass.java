@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.dag.DAGBuilder;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.LoopVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.LoopIterationProperty;
+
+import java.io.Serializable;
+import java.util.function.IntPredicate;
+
+/**
+ * Pass for unrolling the loops grouped by the {@link LoopExtractionPass}, leaving the iterations of a loop
+ * to be instantiated at runtime.
+ * For the first outermost loop with a convergence condition that runs two or more iterations, and contains
+ * no other loop, it only unrolls the first two iterations and marks their vertices with {@link LoopIterationProperty}.
+ * The first iteration is connected to the vertices after the loop, as if it were the last one,
+ * and the second one is the template from which the runtime instantiates each of the following iterations,
+ * until the loop reaches its maximum number of iterations or converges.
+ * The other loops are fully unrolled, as in {@link LoopUnrollingPass}.
+ */
+public final class DynamicLoopUnrollingPass extends ReshapingPass {
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    return recursivelyUnroll(dag, true);
+  }
+
+  /**
+   * A function that recursively calls Unroll until there are no more LoopVertex left.
+   * @param dag DAG to process.
+   * @param isOutermost whether the LoopVertices in the DAG are the outermost ones, of which one can be unrolled
+   *                    at runtime.
+   * @return DAG without LoopVertex.
+   */
+  private DAG<IRVertex, IREdge> recursivelyUnroll(final DAG<IRVertex, IREdge> dag,
+                                                  final boolean isOutermost) {
+    final DAGBuilder<IRVertex, IREdge> builder = new DAGBuilder<>();
+    boolean dynamicLoopUnrolled = !isOutermost;
+    // The vertices after a loop are added first, for the loop to connect its outgoing edges to them when unrolled.
+    dag.getVertices().stream().filter(irVertex -> !(irVertex instanceof LoopVertex))
+        .forEach(irVertex -> builder.addVertex(irVertex, dag));
+
+    for (final IRVertex irVertex : dag.getTopologicalSort()) {
+      if (irVertex instanceof LoopVertex) {
+        LoopVertex loopVertex = (LoopVertex) irVertex;
+        final int numberOfIterations = countIterations(loopVertex);
+        if (!dynamicLoopUnrolled && numberOfIterations >= 2 && isDynamicallyUnrollable(loopVertex)) {
+          unrollFirstTwoIterations(loopVertex, numberOfIterations, builder);
+          dynamicLoopUnrolled = true;
+        } else {
+          while (!loopVertex.loopTerminationConditionMet()) {
+            loopVertex = loopVertex.unRollIteration(builder);
+          }
+        }
+      } else {
+        dag.getIncomingEdgesOf(irVertex).stream().filter(irEdge -> !(irEdge.getSrc() instanceof LoopVertex))
+            .forEach(builder::connectVertices);
+      }
+    }
+
+    if (builder.contains((vertex) -> vertex instanceof LoopVertex)) {
+      return recursivelyUnroll(builder.build(), false);
+    } else {
+      return builder.build();
+    }
+  }
+
+  /**
+   * @param loopVertex the LoopVertex.
+   * @return the number of iterations that the LoopVertex is statically unrolled into.
+   */
+  private static int countIterations(final LoopVertex loopVertex) {
+    int numberOfIterations = 0;
+    int remainingIterations = loopVertex.getMaxNumberOfIterations();
+    while (remainingIterations > 0 && !loopVertex.getTerminationCondition().test(remainingIterations)) {
+      remainingIterations--;
+      numberOfIterations++;
+    }
+    return numberOfIterations;
+  }
+
+  /**
+   * A loop without a convergence condition always runs all of its iterations, which are unrolled at compile time.
+   * The runtime instantiates an iteration from the stages of the previous one, so the loop should not contain
+   * any other loop, and should pass its data from an iteration to the next one.
+   * @param loopVertex the LoopVertex.
+   * @return whether the iterations of the LoopVertex can be instantiated at runtime.
+   */
+  private static boolean isDynamicallyUnrollable(final LoopVertex loopVertex) {
+    return loopVertex.getConvergenceCondition() != null
+        && loopVertex.getDAG().getVertices().stream().noneMatch(vertex -> vertex instanceof LoopVertex)
+        && !loopVertex.getIterativeIncomingEdges().isEmpty();
+  }
+
+  /**
+   * Unrolls the first two iterations of a LoopVertex, connecting the outgoing edges of the loop to the first one.
+   * @param loopVertex the LoopVertex to unroll.
+   * @param numberOfIterations the number of iterations of the LoopVertex.
+   * @param builder DAGBuilder to add the unrolled iterations to.
+   */
+  private static void unrollFirstTwoIterations(final LoopVertex loopVertex,
+                                               final int numberOfIterations,
+                                               final DAGBuilder<IRVertex, IREdge> builder) {
+    loopVertex.setTerminationCondition((IntPredicate & Serializable) (integer -> false));
+    for (int iteration = 1; iteration <= 2; iteration++) {
+      final int iterationToTag = iteration;
+      // The unrolled vertices inherit the property of the vertices in the loop.
+      loopVertex.getDAG().getVertices().forEach(vertex -> vertex.setProperty(LoopIterationProperty.of(
+          new LoopIterationProperty.Value(loopVertex.getId(), vertex.getId(), iterationToTag, numberOfIterations,
+              loopVertex.getConvergenceCondition()))));
+      // Only the first iteration is unrolled as the last remaining one, to be connected to the outgoing edges.
+      loopVertex.setMaxNumberOfIterations(iteration);
+      loopVertex.unRollIteration(builder);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping;
+
+import edu.snu.onyx.common.KeyExtractor;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.dag.DAGBuilder;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.edge.executionproperty.KeyExtractorProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.OperatorVertex;
+import edu.snu.onyx.common.ir.vertex.transform.Transform;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Pass to modify the DAG for a job to split hot keys across multiple task groups.
+ * It inserts a merge vertex after each OperatorVertex that receives data by Shuffle edges and has the
+ * {@link edu.snu.onyx.common.ir.vertex.executionproperty.MergeTransformProperty}.
+ * The partial outputs of a hot key, which are produced by the task groups the key is split across at runtime,
+ * are shuffled once more by the key and merged into a single output by the merge vertex.
+ * NOTE: this pass should come before the DataSkewCompositePass, for the split vertices to be preceded by the
+ * metric collection barriers.
+ */
+public final class HotKeySplittingReshapingPass extends ReshapingPass {
+  /**
+   * Default constructor.
+   */
+  public HotKeySplittingReshapingPass() {
+    super(Collections.singleton(ExecutionProperty.Key.DataCommunicationPattern));
+  }
+
+  @Override
+  public DAG<IRVertex, IREdge> apply(final DAG<IRVertex, IREdge> dag) {
+    final DAGBuilder<IRVertex, IREdge> builder = new DAGBuilder<>();
+    final Map<IRVertex, IRVertex> splittableVertexToMergeVertex = new HashMap<>();
+
+    dag.topologicalDo(v -> {
+      builder.addVertex(v);
+      dag.getIncomingEdgesOf(v).forEach(edge -> {
+        final IRVertex mergeVertex = splittableVertexToMergeVertex.get(edge.getSrc());
+        if (mergeVertex == null) {
+          builder.connectVertices(edge);
+        } else { // The outputs of the split vertex now come from its merge vertex.
+          final IREdge edgeFromMerge = new IREdge(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern),
+              mergeVertex, v, edge.getCoder(), edge.isSideInput());
+          edge.copyExecutionPropertiesTo(edgeFromMerge);
+          builder.connectVertices(edgeFromMerge);
+        }
+      });
+
+      final List<IREdge> outgoingEdges = dag.getOutgoingEdgesOf(v);
+      final Optional<IREdge> shuffleEdge = dag.getIncomingEdgesOf(v).stream().filter(edge ->
+          DataCommunicationPatternProperty.Value.Shuffle
+              .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern))).findFirst();
+      final Transform mergeTransform = v.getProperty(ExecutionProperty.Key.MergeTransform);
+      if (v instanceof OperatorVertex && mergeTransform != null && shuffleEdge.isPresent()
+          && !outgoingEdges.isEmpty()) {
+        final IRVertex mergeVertex = new OperatorVertex(mergeTransform);
+        builder.addVertex(mergeVertex);
+        final IREdge edgeToMerge = new IREdge(DataCommunicationPatternProperty.Value.Shuffle,
+            v, mergeVertex, outgoingEdges.get(0).getCoder());
+        final KeyExtractor keyExtractor = shuffleEdge.get().getProperty(ExecutionProperty.Key.KeyExtractor);
+        if (keyExtractor != null) {
+          edgeToMerge.setProperty(KeyExtractorProperty.of(keyExtractor));
+        }
+        builder.connectVertices(edgeToMerge);
+        splittableVertexToMergeVertex.put(v, mergeVertex);
+      }
+    });
+    return builder.build();
+  }
+}
@@ -132,7 +132,9 @@ public final class LoopOptimizations {
         loopsToBeFused.add(loopVertex);
         independentLoops.forEach(independentLoop -> {
           // add them to the list if those independent loops have equal termination conditions.
-          if (independentLoop.getMaxNumberOfIterations().equals(numberOfIterations)
+          // Loops that may converge early at runtime are not fused, as they may exit at different iterations.
+          if (independentLoop.getConvergenceCondition() == null && loopVertex.getConvergenceCondition() == null
+              && independentLoop.getMaxNumberOfIterations().equals(numberOfIterations)
               && checkEqualityOfIntPredicates(independentLoop.getTerminationCondition(), terminationCondition,
               numberOfIterations)) {
             loopsToBeFused.add(independentLoop);
@@ -39,6 +39,9 @@ public final class LoopUnrollingPass extends ReshapingPass {
    */
   private DAG<IRVertex, IREdge> recursivelyUnroll(final DAG<IRVertex, IREdge> dag) {
     final DAGBuilder<IRVertex, IREdge> builder = new DAGBuilder<>();
+    // The vertices after a loop are added first, for the loop to connect its outgoing edges to them when unrolled.
+    dag.getVertices().stream().filter(irVertex -> !(irVertex instanceof LoopVertex))
+        .forEach(irVertex -> builder.addVertex(irVertex, dag));
 
     dag.topologicalDo(irVertex -> {
       if (irVertex instanceof LoopVertex) {
@@ -47,8 +50,8 @@ public final class LoopUnrollingPass extends ReshapingPass {
           loopVertex = loopVertex.unRollIteration(builder);
         }
       } else {
-        builder.addVertex(irVertex, dag);
-        dag.getIncomingEdgesOf(irVertex).forEach(builder::connectVertices);
+        dag.getIncomingEdgesOf(irVertex).stream().filter(irEdge -> !(irEdge.getSrc() instanceof LoopVertex))
+            .forEach(builder::connectVertices);
       }
     });
 
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.policy;
+
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.CompileTimePass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DefaultEdgeUsedDataHandlingPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DefaultParallelismPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DefaultStagePartitioningPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.ReviseInterStageEdgeDataStorePass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.ScheduleGroupPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.composite.LoopOptimizationCompositePass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.BroadcastJoinReshapingPass;
+import edu.snu.onyx.runtime.common.optimizer.pass.runtime.RuntimePass;
+
+import java.util.List;
+
+/**
+ * A policy to join the inputs of CoGroupByKeys by broadcasting the small ones, instead of shuffling all of them.
+ * The groups of a key are not complete in this case: each task group joining the largest input emits the group
+ * of the key with its own part of the largest input, and the keys not in the largest input are not emitted.
+ * It is thus only for the programs which pair up the values of the largest input with those of the others.
+ */
+public final class BroadcastJoinPolicy implements Policy {
+  private final Policy policy;
+
+  /**
+   * Default constructor.
+   */
+  public BroadcastJoinPolicy() {
+    this.policy = new PolicyBuilder(true)
+        .registerCompileTimePass(new LoopOptimizationCompositePass())
+        .registerCompileTimePass(new DefaultParallelismPass())
+        .registerCompileTimePass(new BroadcastJoinReshapingPass()) // after the parallelism is annotated
+        .registerCompileTimePass(new DefaultStagePartitioningPass())
+        .registerCompileTimePass(new ReviseInterStageEdgeDataStorePass())
+        .registerCompileTimePass(new DefaultEdgeUsedDataHandlingPass())
+        .registerCompileTimePass(new ScheduleGroupPass())
+        .build();
+  }
+
+  @Override
+  public List<CompileTimePass> getCompileTimePasses() {
+    return this.policy.getCompileTimePasses();
+  }
+
+  @Override
+  public List<RuntimePass<?>> getRuntimePasses() {
+    return this.policy.getRuntimePasses();
+  }
+}
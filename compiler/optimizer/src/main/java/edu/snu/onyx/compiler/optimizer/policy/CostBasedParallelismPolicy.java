@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.policy;
+
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.CompileTimePass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.CoreDemandPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.CostBasedParallelismPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DefaultEdgeUsedDataHandlingPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DefaultStagePartitioningPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.MemoryDemandPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.ReviseInterStageEdgeDataStorePass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.ScheduleGroupPass;
+import edu.snu.onyx.runtime.common.optimizer.pass.runtime.RuntimePass;
+
+import java.util.List;
+
+/**
+ * A policy which is the same as the default policy, except that the parallelism of the sources and
+ * of the vertices receiving shuffled data is chosen by the estimated size of their input.
+ * The TaskGroups are also annotated with the cores and the memory they occupy in an executor.
+ */
+public final class CostBasedParallelismPolicy implements Policy {
+  private final Policy policy;
+
+  /**
+   * Default constructor.
+   */
+  public CostBasedParallelismPolicy() {
+    this.policy = new PolicyBuilder(true)
+        .registerCompileTimePass(new CostBasedParallelismPass()) // instead of the DefaultParallelismPass
+        .registerCompileTimePass(new CoreDemandPass())
+        .registerCompileTimePass(new MemoryDemandPass())
+        .registerCompileTimePass(new DefaultStagePartitioningPass())
+        .registerCompileTimePass(new ReviseInterStageEdgeDataStorePass())
+        .registerCompileTimePass(new DefaultEdgeUsedDataHandlingPass())
+        .registerCompileTimePass(new ScheduleGroupPass())
+        .build();
+  }
+
+  @Override
+  public List<CompileTimePass> getCompileTimePasses() {
+    return this.policy.getCompileTimePasses();
+  }
+
+  @Override
+  public List<RuntimePass<?>> getRuntimePasses() {
+    return this.policy.getRuntimePasses();
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.compiler.optimizer.policy;
+
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.CompileTimePass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DefaultEdgeUsedDataHandlingPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DefaultParallelismPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DefaultStagePartitioningPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.ReviseInterStageEdgeDataStorePass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.ScheduleGroupPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.SideInputBroadcastPass;
+import edu.snu.onyx.runtime.common.optimizer.pass.runtime.RuntimePass;
+
+import java.util.List;
+
+/**
+ * A policy to broadcast the side inputs read by more tasks than the ones writing them,
+ * so that the tasks of an executor share a single decoded copy of each side input.
+ * It performs the passes of the {@link DefaultPolicy}, with the side inputs broadcast after the parallelism is tagged
+ * and before the DAG is partitioned into stages.
+ */
+public final class SideInputBroadcastPolicy implements Policy {
+  private final Policy policy;
+
+  /**
+   * Default constructor.
+   */
+  public SideInputBroadcastPolicy() {
+    this.policy = new PolicyBuilder(true)
+        .registerCompileTimePass(new DefaultParallelismPass())
+        .registerCompileTimePass(new SideInputBroadcastPass()) // after parallelism, before stage partitioning
+        .registerCompileTimePass(new DefaultStagePartitioningPass())
+        .registerCompileTimePass(new ReviseInterStageEdgeDataStorePass())
+        .registerCompileTimePass(new DefaultEdgeUsedDataHandlingPass())
+        .registerCompileTimePass(new ScheduleGroupPass())
+        .build();
+  }
+
+  @Override
+  public List<CompileTimePass> getCompileTimePasses() {
+    return this.policy.getCompileTimePasses();
+  }
+
+  @Override
+  public List<RuntimePass<?>> getRuntimePasses() {
+    return this.policy.getRuntimePasses();
+  }
+}
@@ -71,12 +71,21 @@ public final class JobConf extends ConfigurationModuleBuilder {
   //////////////////////////////// Runtime Configurations
 
   /**
-   * Deploy mode.
+   * Deploy mode: local, yarn, or inprocess, which runs the driver and the executors in the JVM of the client.
    */
-  @NamedParameter(doc = "Deploy mode", short_name = "deploy_mode", default_value = "local")
+  @NamedParameter(doc = "Deploy mode (local, yarn, or inprocess)", short_name = "deploy_mode", default_value = "local")
   public final class DeployMode implements Name<String> {
   }
 
+  /**
+   * Whether to keep the driver and the executors alive across the jobs of a user program, in the inprocess deploy
+   * mode. The blocks of each job are removed from the executors when the job finishes.
+   */
+  @NamedParameter(doc = "Whether to reuse the executors across the jobs of a user program (inprocess deploy mode)",
+      short_name = "reuse_executors", default_value = "false")
+  public final class ReuseExecutors implements Name<Boolean> {
+  }
+
   /**
    * Onyx driver memory.
    */
@@ -118,6 +127,25 @@ public final class JobConf extends ConfigurationModuleBuilder {
   public final class ExecutorCapacity implements Name<Integer> {
   }
 
+  /**
+   * Executor backlog.
+   * Determines the number of TaskGroups that the master assigns to each executor beyond its capacity.
+   * They wait in the local queue of the executor, and idle executors steal them through the master.
+   */
+  @NamedParameter(doc = "The number of TaskGroups assigned to an executor beyond its capacity",
+      short_name = "executor_backlog", default_value = "0")
+  public final class ExecutorBacklog implements Name<Integer> {
+  }
+
+  /**
+   * The size of the side inputs retained in the cache of each executor after use, in bytes.
+   * The side inputs being used by tasks are not counted, as they cannot be evicted.
+   */
+  @NamedParameter(doc = "The size of the side inputs retained in the cache of each executor, in bytes",
+      short_name = "side_input_cache_bytes", default_value = "134217728")
+  public final class SideInputCacheBytes implements Name<Long> {
+  }
+
   /**
    * Number of I/O threads for block fetch requests from other executor.
    */
@@ -126,6 +154,15 @@ public final class JobConf extends ConfigurationModuleBuilder {
   public final class IORequestHandleThreadsTotal implements Name<Integer> {
   }
 
+  /**
+   * The number of threads of the master that handle the control messages from executors.
+   * The messages from an executor are handled in order by a thread, and those from different executors in parallel.
+   */
+  @NamedParameter(doc = "The number of threads handling the control messages in the master",
+      short_name = "master_event_threads", default_value = "4")
+  public final class MasterEventThreads implements Name<Integer> {
+  }
+
   /**
    * Scheduler timeout in ms.
    */
@@ -140,6 +177,83 @@ public final class JobConf extends ConfigurationModuleBuilder {
   public final class MaxScheduleAttempt implements Name<Integer> {
   }
 
+  /**
+   * The fraction of the TaskGroups of a ScheduleGroup to complete before the next ScheduleGroup is scheduled.
+   * With a value below 1, the downstream stages start fetching the available outputs while the last upstream
+   * TaskGroups are still running, and wait for the location of the other outputs.
+   */
+  @NamedParameter(doc = "The fraction of completed TaskGroups to start the next ScheduleGroup",
+      short_name = "slow_start", default_value = "1.0")
+  public final class SlowStartFraction implements Name<Double> {
+  }
+
+  /**
+   * The fraction of the TaskGroups of a stage collecting data skew metrics to report their metrics
+   * before the dynamic optimization is triggered.
+   * With a value below 1, the optimization runs on the sampled metrics extrapolated to the whole stage,
+   * and the next ScheduleGroup may start by {@link SlowStartFraction} without waiting for the rest of the stage.
+   */
+  @NamedParameter(doc = "The fraction of TaskGroups to report their metrics to trigger the dynamic optimization",
+      short_name = "skew_sample_fraction", default_value = "1.0")
+  public final class SkewSampleFraction implements Name<Double> {
+  }
+
+  /**
+   * The number of executors each location of a block distributed peer-to-peer serves at once.
+   * An executor which fetched the block serves it onward, so the block spreads in a tree of this fan-out.
+   */
+  @NamedParameter(doc = "The number of executors each location of a block broadcast peer-to-peer serves at once",
+      short_name = "broadcast_fan_out", default_value = "2")
+  public final class BroadcastFanOut implements Name<Integer> {
+  }
+
+  /**
+   * Whether to schedule multiple jobs concurrently on the same executors.
+   * If true, the executor slots are shared among the running jobs with weighted fair sharing.
+   */
+  @NamedParameter(doc = "Whether to schedule multiple jobs with fair sharing", short_name = "multi_job",
+      default_value = "false")
+  public final class MultiJobScheduling implements Name<Boolean> {
+  }
+
+  /**
+   * The relative share of the executor slots of the jobs of the user program,
+   * when they are executed with other jobs by {@link MultiJobScheduling}.
+   */
+  @NamedParameter(doc = "The relative share of the executor slots of the job", short_name = "job_weight",
+      default_value = "1")
+  public final class JobWeight implements Name<Integer> {
+  }
+
+  /**
+   * The priority of the jobs of the user program, when they are executed with other jobs by
+   * {@link MultiJobScheduling}. The jobs with higher priority take the free executor slots first.
+   */
+  @NamedParameter(doc = "The priority of the job among the jobs executed at the same time",
+      short_name = "job_priority", default_value = "0")
+  public final class JobPriority implements Name<Integer> {
+  }
+
+  /**
+   * The port of the HTTP endpoint of the master, which exposes the metrics of the running jobs
+   * in the Prometheus text format at /metrics and in JSON at /metrics/json.
+   * The endpoint listens on the loopback interface only.
+   * A negative value disables the endpoint, and 0 binds it to an ephemeral port.
+   */
+  @NamedParameter(doc = "The port of the HTTP endpoint exposing the metrics, or -1 to disable it",
+      short_name = "metric_port", default_value = "-1")
+  public final class MetricServerPort implements Name<Integer> {
+  }
+
+  /**
+   * The number of samples the master keeps in the time series of each counter, sampled at most once a second.
+   * Older samples are dropped, so that the memory used by the metrics does not grow with the length of the job.
+   */
+  @NamedParameter(doc = "The number of samples kept in the time series of each counter",
+      short_name = "metric_series_length", default_value = "600")
+  public final class MetricSeriesLength implements Name<Integer> {
+  }
+
   /**
    * Hash range multiplier.
    * If we need to split or recombine an output data from a task after it is stored,
@@ -222,6 +336,23 @@ public final class JobConf extends ConfigurationModuleBuilder {
   public final class PartitionTransportClientNumThreads implements Name<Integer> {
   }
 
+  /**
+   * The time a control message from an executor to the master waits for the others to be coalesced with.
+   * The messages sent within the window are sent in a single message, which the master unpacks.
+   */
+  @NamedParameter(doc = "The window in ms for coalescing the messages to the master (0 means no coalescing)",
+      short_name = "message_batch_window_ms", default_value = "0")
+  public final class MessageBatchWindowMs implements Name<Long> {
+  }
+
+  /**
+   * The maximum number of control messages coalesced, at which they are sent without waiting for the window.
+   */
+  @NamedParameter(doc = "The maximum number of the messages to the master coalesced",
+      short_name = "message_batch_size", default_value = "64")
+  public final class MessageBatchSize implements Name<Integer> {
+  }
+
   //////////////////////////////// Intermediate Configurations
 
   /**
@@ -240,6 +371,10 @@ public final class JobConf extends ConfigurationModuleBuilder {
 
   public static final RequiredParameter<String> EXECUTOR_ID = new RequiredParameter<>();
   public static final OptionalParameter<Integer> EXECUTOR_CAPACITY = new OptionalParameter<>();
+  public static final OptionalParameter<Integer> EXECUTOR_BACKLOG = new OptionalParameter<>();
+  public static final OptionalParameter<Long> SIDE_INPUT_CACHE_BYTES = new OptionalParameter<>();
+  public static final OptionalParameter<Long> MESSAGE_BATCH_WINDOW_MS = new OptionalParameter<>();
+  public static final OptionalParameter<Integer> MESSAGE_BATCH_SIZE = new OptionalParameter<>();
   public static final RequiredParameter<String> JOB_ID = new RequiredParameter<>();
   public static final OptionalParameter<String> LOCAL_DISK_DIRECTORY = new OptionalParameter<>();
   public static final OptionalParameter<String> GLUSTER_DISK_DIRECTORY = new OptionalParameter<>();
@@ -247,6 +382,10 @@ public final class JobConf extends ConfigurationModuleBuilder {
   public static final ConfigurationModule EXECUTOR_CONF = new JobConf()
       .bindNamedParameter(ExecutorId.class, EXECUTOR_ID)
       .bindNamedParameter(ExecutorCapacity.class, EXECUTOR_CAPACITY)
+      .bindNamedParameter(ExecutorBacklog.class, EXECUTOR_BACKLOG)
+      .bindNamedParameter(SideInputCacheBytes.class, SIDE_INPUT_CACHE_BYTES)
+      .bindNamedParameter(MessageBatchWindowMs.class, MESSAGE_BATCH_WINDOW_MS)
+      .bindNamedParameter(MessageBatchSize.class, MESSAGE_BATCH_SIZE)
       .bindNamedParameter(JobId.class, JOB_ID)
       .bindNamedParameter(FileDirectory.class, LOCAL_DISK_DIRECTORY)
       .bindNamedParameter(GlusterVolumeDirectory.class, GLUSTER_DISK_DIRECTORY)
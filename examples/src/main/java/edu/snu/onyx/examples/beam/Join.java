@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.examples.beam;
+
+import edu.snu.onyx.client.beam.OnyxPipelineOptions;
+import edu.snu.onyx.client.beam.OnyxPipelineRunner;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.options.PipelineOptions;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.*;
+import org.apache.beam.sdk.transforms.join.CoGbkResult;
+import org.apache.beam.sdk.transforms.join.CoGroupByKey;
+import org.apache.beam.sdk.transforms.join.KeyedPCollectionTuple;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.TupleTag;
+
+/**
+ * Sample Join application.
+ * It outputs the total score of each member of the teams, joining the scores of the people with their teams
+ * by the name with a CoGroupByKey.
+ */
+public final class Join {
+  /**
+   * Private Constructor.
+   */
+  private Join() {
+  }
+
+  /**
+   * Main function for the Join BEAM program.
+   * @param args arguments.
+   */
+  public static void main(final String[] args) {
+    final String scoreInputFilePath = args[0];
+    final String teamInputFilePath = args[1];
+    final String outputFilePath = args[2];
+    final PipelineOptions options = PipelineOptionsFactory.create().as(OnyxPipelineOptions.class);
+    options.setRunner(OnyxPipelineRunner.class);
+    options.setJobName("Join");
+
+    final Pipeline p = Pipeline.create(options);
+    final PCollection<KV<String, Long>> scores = GenericSourceSink.read(p, scoreInputFilePath)
+        .apply(MapElements.<String, KV<String, Long>>via(new SimpleFunction<String, KV<String, Long>>() {
+          @Override
+          public KV<String, Long> apply(final String line) {
+            final String[] words = line.split(" +");
+            return KV.of(words[0], Long.parseLong(words[2]));
+          }
+        }));
+    final PCollection<KV<String, String>> teams = GenericSourceSink.read(p, teamInputFilePath)
+        .apply(MapElements.<String, KV<String, String>>via(new SimpleFunction<String, KV<String, String>>() {
+          @Override
+          public KV<String, String> apply(final String line) {
+            final String[] words = line.split(" +");
+            return KV.of(words[0], words[1]);
+          }
+        }));
+
+    final TupleTag<Long> scoreTag = new TupleTag<>();
+    final TupleTag<String> teamTag = new TupleTag<>();
+    final PCollection<String> result = KeyedPCollectionTuple.of(scoreTag, scores).and(teamTag, teams)
+        .apply(CoGroupByKey.create())
+        .apply(ParDo.of(new DoFn<KV<String, CoGbkResult>, String>() {
+          @ProcessElement
+          public void processElement(final ProcessContext c) {
+            final String name = c.element().getKey();
+            long totalScore = 0;
+            for (final Long score : c.element().getValue().getAll(scoreTag)) {
+              totalScore += score;
+            }
+            // Every member of a team is output, with the total score of 0 if the member has no scores.
+            for (final String team : c.element().getValue().getAll(teamTag)) {
+              c.output(name + " " + team + " " + totalScore);
+            }
+          }
+        }));
+    GenericSourceSink.write(result, outputFilePath);
+    p.run();
+  }
+}
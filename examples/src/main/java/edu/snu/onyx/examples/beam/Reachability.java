@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.examples.beam;
+
+import edu.snu.onyx.client.beam.OnyxPipelineOptions;
+import edu.snu.onyx.client.beam.OnyxPipelineRunner;
+import edu.snu.onyx.compiler.frontend.beam.transform.LoopCompositeTransform;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.options.PipelineOptions;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.*;
+import org.apache.beam.sdk.transforms.join.CoGbkResult;
+import org.apache.beam.sdk.transforms.join.CoGroupByKey;
+import org.apache.beam.sdk.transforms.join.KeyedPCollectionTuple;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.TupleTag;
+
+/**
+ * Sample Reachability application.
+ * It outputs the vertices reachable from a source vertex of a directed graph, expanding the reached vertices
+ * by their out-neighbors in each iteration of a loop. The loop converges once an iteration reaches no new vertex,
+ * which is detected by the data passed to the next iteration not growing any more.
+ */
+public final class Reachability {
+  /**
+   * Private Constructor.
+   */
+  private Reachability() {
+  }
+
+  /**
+   * Function that keys a reached vertex by itself, to be grouped with its out-neighbors.
+   */
+  public static final class KeyByVertex extends SimpleFunction<String, KV<String, String>> {
+    @Override
+    public KV<String, String> apply(final String vertex) {
+      return KV.of(vertex, vertex);
+    }
+  }
+
+  /**
+   * DoFn that outputs the reached vertices of each vertex: the vertex itself and its out-neighbors.
+   */
+  public static final class ReachFromVertex extends DoFn<KV<String, CoGbkResult>, String> {
+    private final TupleTag<String> reachedTag;
+    private final TupleTag<String> neighborTag;
+
+    /**
+     * Constructor.
+     * @param reachedTag the tag of the reached vertices.
+     * @param neighborTag the tag of the out-neighbors.
+     */
+    ReachFromVertex(final TupleTag<String> reachedTag, final TupleTag<String> neighborTag) {
+      this.reachedTag = reachedTag;
+      this.neighborTag = neighborTag;
+    }
+
+    /**
+     * ProcessElement method for BEAM.
+     * @param c Process context.
+     */
+    @ProcessElement
+    public void processElement(final ProcessContext c) {
+      if (c.element().getValue().getAll(reachedTag).iterator().hasNext()) {
+        c.output(c.element().getKey());
+        c.element().getValue().getAll(neighborTag).forEach(c::output);
+      }
+    }
+  }
+
+  /**
+   * Composite transform for an iteration, which expands the reached vertices by their out-neighbors.
+   */
+  public static final class Expand extends LoopCompositeTransform<PCollection<String>, PCollection<String>> {
+    private final PCollection<KV<String, String>> edges;
+
+    /**
+     * Constructor.
+     * @param edges the edges of the graph, keyed by their source vertices.
+     */
+    Expand(final PCollection<KV<String, String>> edges) {
+      this.edges = edges;
+    }
+
+    @Override
+    public PCollection<String> expand(final PCollection<String> reached) {
+      final TupleTag<String> reachedTag = new TupleTag<>();
+      final TupleTag<String> neighborTag = new TupleTag<>();
+      final PCollection<KV<String, String>> keyedReached = reached.apply(MapElements.via(new KeyByVertex()));
+      return KeyedPCollectionTuple.of(reachedTag, keyedReached).and(neighborTag, edges)
+          .apply(CoGroupByKey.create())
+          .apply(ParDo.of(new ReachFromVertex(reachedTag, neighborTag)))
+          .apply(Distinct.create());
+    }
+  }
+
+  /**
+   * Main function for the Reachability BEAM program.
+   * @param args arguments.
+   */
+  public static void main(final String[] args) {
+    final String edgeInputFilePath = args[0];
+    final String sourceVertex = args[1];
+    final int maxIterations = Integer.parseInt(args[2]);
+    final String outputFilePath = args[3];
+    final PipelineOptions options = PipelineOptionsFactory.create().as(OnyxPipelineOptions.class);
+    options.setRunner(OnyxPipelineRunner.class);
+    options.setJobName("Reachability");
+
+    final Pipeline p = Pipeline.create(options);
+    final PCollection<KV<String, String>> edges = GenericSourceSink.read(p, edgeInputFilePath)
+        .apply(MapElements.<String, KV<String, String>>via(new SimpleFunction<String, KV<String, String>>() {
+          @Override
+          public KV<String, String> apply(final String line) {
+            final String[] words = line.split(" +");
+            return KV.of(words[0], words[1]);
+          }
+        }));
+
+    PCollection<String> reached = p.apply(Create.of(sourceVertex));
+    for (int i = 0; i < maxIterations; i++) {
+      // The reached vertices only grow, so the bytes passed to the next iteration stop growing at the fixpoint.
+      reached = reached.apply(new Expand(edges).withConvergenceCondition(metric -> metric.getIteration() > 1
+          && metric.getBytesToNextIteration() == metric.getBytesToNextIteration(metric.getIteration() - 1)));
+    }
+    GenericSourceSink.write(reached, outputFilePath);
+    p.run();
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.common;
+
+import io.netty.channel.Channel;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+
+import javax.inject.Inject;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A {@link NettyChannelImplementationSelector} implementation that selects the in-JVM local channel implementation,
+ * for the executors running in the JVM of the master.
+ * The local channels are bound to {@link io.netty.channel.local.LocalAddress}es, rather than to sockets.
+ */
+public final class LocalChannelImplementationSelector implements NettyChannelImplementationSelector {
+
+  /**
+   * Private constructor.
+   */
+  @Inject
+  private LocalChannelImplementationSelector() {
+  }
+
+  @Override
+  public EventLoopGroup newEventLoopGroup(final int numThreads, final ThreadFactory threadFactory) {
+    return new DefaultEventLoopGroup(numThreads, threadFactory);
+  }
+
+  @Override
+  public Class<? extends ServerChannel> getServerChannelClass() {
+    return LocalServerChannel.class;
+  }
+
+  @Override
+  public Class<? extends Channel> getChannelClass() {
+    return LocalChannel.class;
+  }
+}
@@ -15,6 +15,9 @@
  */
 package edu.snu.onyx.runtime.common;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -28,8 +31,9 @@ public final class RuntimeIdGenerator {
   private static AtomicInteger executorIdGenerator = new AtomicInteger(1);
   private static AtomicLong messageIdGenerator = new AtomicLong(1L);
   private static AtomicLong resourceSpecIdGenerator = new AtomicLong(1);
-  private static String blockPrefix = "Block-";
-  private static String blockIdSplitter = "_";
+  private static final String BLOCK_PREFIX = "Block-";
+  private static final char BLOCK_ID_SPLITTER = '_';
+  private static final Interner<String> ID_INTERNER = Interners.newWeakInterner();
 
   private RuntimeIdGenerator() {
   }
@@ -72,6 +76,16 @@ public final class RuntimeIdGenerator {
     return "Stage-" + stageId;
   }
 
+  /**
+   * Generates the ID for a stage or an edge of an iteration of a loop, instantiated at runtime.
+   * @param templateId the ID of the corresponding stage or edge of the iteration it is instantiated from.
+   * @param iteration  the iteration.
+   * @return the generated ID
+   */
+  public static String generateLoopIterationId(final String templateId, final int iteration) {
+    return templateId + "-Iteration" + iteration;
+  }
+
   /**
    * Generates the ID for {@link edu.snu.onyx.runtime.common.plan.physical.Task}.
    *
@@ -108,7 +122,7 @@ public final class RuntimeIdGenerator {
    */
   public static String generateBlockId(final String runtimeEdgeId,
                                        final int taskIndex) {
-    return blockPrefix + runtimeEdgeId + blockIdSplitter + taskIndex;
+    return BLOCK_PREFIX + runtimeEdgeId + BLOCK_ID_SPLITTER + taskIndex;
   }
 
   /**
@@ -131,12 +145,13 @@ public final class RuntimeIdGenerator {
 
   /**
    * Extracts runtime edge ID from a block ID.
+   * As the block IDs are parsed on the hot paths of the block stores, they are parsed without regular expressions.
    *
    * @param blockId the block ID to extract.
    * @return the runtime edge ID.
    */
   public static String getRuntimeEdgeIdFromBlockId(final String blockId) {
-    return parseBlockId(blockId)[0];
+    return blockId.substring(BLOCK_PREFIX.length(), getSplitterIndex(blockId));
   }
 
   /**
@@ -145,19 +160,36 @@ public final class RuntimeIdGenerator {
    * @param blockId the block ID to extract.
    * @return the task index.
    */
-  public static String getTaskIndexFromBlockId(final String blockId) {
-    return parseBlockId(blockId)[1];
+  public static int getTaskIndexFromBlockId(final String blockId) {
+    return Integer.parseInt(blockId.substring(getSplitterIndex(blockId) + 1));
+  }
+
+  /**
+   * Finds the splitter between the runtime edge ID and the task index of a block ID.
+   * The last splitter is taken, as the runtime edge ID may contain one.
+   *
+   * @param blockId the block ID to parse.
+   * @return the index of the splitter.
+   */
+  private static int getSplitterIndex(final String blockId) {
+    final int splitterIndex = blockId.lastIndexOf(BLOCK_ID_SPLITTER);
+    if (!blockId.startsWith(BLOCK_PREFIX) || splitterIndex < BLOCK_PREFIX.length()) {
+      throw new IllegalArgumentException("Invalid block ID: " + blockId);
+    }
+    return splitterIndex;
   }
 
   /**
-   * Parses a block id.
-   * The result array will contain runtime edge id and task index in order.
+   * Interns an ID, for the maps keyed by the ID to share a single instance of it,
+   * instead of keeping a copy for each time the ID is generated or deserialized from a message.
+   * The generators do not intern the IDs, as most of the generated IDs are only used transiently;
+   * the master and the executors intern an ID where they keep it as a map key.
+   * The interned IDs are garbage-collected once nothing refers to them.
    *
-   * @param blockId to parse.
-   * @return the array of parsed information.
+   * @param id the ID to intern.
+   * @return the canonical instance of the ID.
    */
-  private static String[] parseBlockId(final String blockId) {
-    final String woPrefix = blockId.split(blockPrefix)[1];
-    return woPrefix.split(blockIdSplitter);
+  public static String intern(final String id) {
+    return ID_INTERNER.intern(id);
   }
 }
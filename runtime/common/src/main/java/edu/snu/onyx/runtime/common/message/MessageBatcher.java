@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.common.message;
+
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces the messages sent to the listeners of a node within a time window into a
+ * {@link ControlMessage.MessageType#MessageBatch} message, which the message environment of the node unpacks.
+ * The messages to all the listeners of the node are coalesced together, so that they arrive in the order they were
+ * sent, as they do without batching. For the same reason, the pending messages are sent before a request.
+ */
+@ThreadSafe
+public final class MessageBatcher {
+  private final MessageSender<ControlMessage.Message> batchSender;
+  private final long windowMs;
+  private final int maxBatchSize;
+  private final ScheduledExecutorService flushScheduler;
+  private final Object sendLock;
+
+  private List<ControlMessage.Message> pendingMessages;
+  private MessageSender<ControlMessage.Message> firstPendingMessageSender;
+
+  /**
+   * Constructor.
+   * @param batchSender  the sender of the batch messages, to any listener of the node.
+   * @param windowMs     the time a message waits for the others to be coalesced with, in milliseconds.
+   * @param maxBatchSize the number of messages at which the batch is sent without waiting for the window.
+   */
+  public MessageBatcher(final MessageSender<ControlMessage.Message> batchSender,
+                        final long windowMs,
+                        final int maxBatchSize) {
+    this.batchSender = batchSender;
+    this.windowMs = windowMs;
+    this.maxBatchSize = maxBatchSize;
+    this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "MessageBatcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.sendLock = new Object();
+    this.pendingMessages = new ArrayList<>();
+  }
+
+  /**
+   * @param messageSender the sender to a listener of the node.
+   * @return the sender whose messages are coalesced with those of the other senders of this batcher.
+   */
+  public MessageSender<ControlMessage.Message> wrap(final MessageSender<ControlMessage.Message> messageSender) {
+    return new BatchingMessageSender(messageSender);
+  }
+
+  /**
+   * Sends the pending messages now.
+   */
+  public void flush() {
+    // The lock keeps the batches taken by different threads in order.
+    synchronized (sendLock) {
+      final List<ControlMessage.Message> batch;
+      final MessageSender<ControlMessage.Message> firstMessageSender;
+      synchronized (this) {
+        batch = pendingMessages;
+        firstMessageSender = firstPendingMessageSender;
+        pendingMessages = new ArrayList<>();
+        firstPendingMessageSender = null;
+      }
+      if (batch.size() == 1) {
+        firstMessageSender.send(batch.get(0));
+      } else if (batch.size() > 1) {
+        batchSender.send(ControlMessage.Message.newBuilder()
+            .setId(RuntimeIdGenerator.generateMessageId())
+            .setListenerId(batch.get(0).getListenerId())
+            .setType(ControlMessage.MessageType.MessageBatch)
+            .setMessageBatchMsg(ControlMessage.MessageBatchMsg.newBuilder().addAllMessage(batch))
+            .build());
+      }
+    }
+  }
+
+  /**
+   * Sends the pending messages, and stops the timer of the window.
+   */
+  public void close() {
+    flushScheduler.shutdown();
+    flush();
+  }
+
+  /**
+   * Adds a message to the pending batch.
+   * @param messageSender the sender of the message, which sends the message if it is not coalesced with any other.
+   * @param message       the message.
+   */
+  private void add(final MessageSender<ControlMessage.Message> messageSender, final ControlMessage.Message message) {
+    final boolean isFull;
+    synchronized (this) {
+      pendingMessages.add(message);
+      if (pendingMessages.size() == 1) {
+        firstPendingMessageSender = messageSender;
+        flushScheduler.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+      }
+      isFull = pendingMessages.size() >= maxBatchSize;
+    }
+    if (isFull) {
+      flush();
+    }
+  }
+
+  /**
+   * A sender to a listener of the node, whose messages are coalesced by this batcher.
+   */
+  private final class BatchingMessageSender implements MessageSender<ControlMessage.Message> {
+    private final MessageSender<ControlMessage.Message> messageSender;
+
+    /**
+     * Constructor.
+     * @param messageSender the sender to wrap.
+     */
+    private BatchingMessageSender(final MessageSender<ControlMessage.Message> messageSender) {
+      this.messageSender = messageSender;
+    }
+
+    @Override
+    public void send(final ControlMessage.Message message) {
+      add(messageSender, message);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> request(final ControlMessage.Message message) {
+      flush();
+      return messageSender.request(message);
+    }
+
+    @Override
+    public void close() throws Exception {
+      flush();
+      messageSender.close();
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package edu.snu.onyx.runtime.common.message;
 
+import edu.snu.onyx.conf.JobConf;
 import edu.snu.onyx.runtime.common.comm.ControlMessage;
 import edu.snu.onyx.common.exception.NodeConnectionException;
+import org.apache.reef.tang.annotations.Parameter;
 
 import javax.inject.Inject;
 import java.util.HashMap;
@@ -10,13 +12,32 @@ import java.util.concurrent.ExecutionException;
 
 /**
  * Persistent connection for sending messages to master.
+ * If the batch window is positive, the messages sent to the listeners of the master are coalesced by a
+ * {@link MessageBatcher}.
  */
 public final class PersistentConnectionToMasterMap {
   private final Map<String, MessageSender<ControlMessage.Message>> messageSenders;
   private final MessageEnvironment messageEnvironment;
+  private final MessageBatcher messageBatcher;
 
-  @Inject
+  /**
+   * Constructor, which sends each message on its own.
+   * @param messageEnvironment the message environment.
+   */
   public PersistentConnectionToMasterMap(final MessageEnvironment messageEnvironment) {
+    this(messageEnvironment, 0, 1);
+  }
+
+  /**
+   * Constructor.
+   * @param messageEnvironment the message environment.
+   * @param batchWindowMs      the time a message waits for the others to be coalesced with, or 0 not to coalesce.
+   * @param maxBatchSize       the maximum number of the messages coalesced.
+   */
+  @Inject
+  public PersistentConnectionToMasterMap(final MessageEnvironment messageEnvironment,
+                                         @Parameter(JobConf.MessageBatchWindowMs.class) final long batchWindowMs,
+                                         @Parameter(JobConf.MessageBatchSize.class) final int maxBatchSize) {
     this.messageEnvironment = messageEnvironment;
     messageSenders = new HashMap<>();
     try {
@@ -30,6 +51,13 @@ public final class PersistentConnectionToMasterMap {
     } catch (InterruptedException | ExecutionException e) {
       throw new NodeConnectionException(e);
     }
+    if (batchWindowMs > 0 && maxBatchSize > 1) {
+      messageBatcher = new MessageBatcher(
+          messageSenders.get(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID), batchWindowMs, maxBatchSize);
+      messageSenders.replaceAll((listenerId, messageSender) -> messageBatcher.wrap(messageSender));
+    } else {
+      messageBatcher = null;
+    }
   }
 
   /**
@@ -45,8 +73,11 @@ public final class PersistentConnectionToMasterMap {
     } else { // Unknown message listener.
       final MessageSender<ControlMessage.Message> createdMessageSender;
       try {
-        createdMessageSender = messageEnvironment.<ControlMessage.Message>asyncConnect(
-            MessageEnvironment.MASTER_COMMUNICATION_ID, listenerId).get();
+        final MessageSender<ControlMessage.Message> connectedMessageSender =
+            messageEnvironment.<ControlMessage.Message>asyncConnect(
+                MessageEnvironment.MASTER_COMMUNICATION_ID, listenerId).get();
+        createdMessageSender =
+            messageBatcher == null ? connectedMessageSender : messageBatcher.wrap(connectedMessageSender);
         messageSenders.put(listenerId, createdMessageSender);
       } catch (InterruptedException | ExecutionException e) {
         throw new NodeConnectionException(e);
@@ -54,4 +85,13 @@ public final class PersistentConnectionToMasterMap {
       return createdMessageSender;
     }
   }
+
+  /**
+   * Sends the messages pending in the batch, if the messages are coalesced.
+   */
+  public void flush() {
+    if (messageBatcher != null) {
+      messageBatcher.flush();
+    }
+  }
 }
@@ -149,20 +149,31 @@ final class GrpcMessageServer {
     @Override
     public void send(final ControlMessage.Message message,
                      final StreamObserver<GrpcMessageService.Void> responseObserver) {
+      if (message.getType() == ControlMessage.MessageType.MessageBatch) {
+        message.getMessageBatchMsg().getMessageList().forEach(this::notifyListener);
+      } else {
+        notifyListener(message);
+      }
+      responseObserver.onNext(voidMessage);
+      responseObserver.onCompleted();
+    }
+
+    /**
+     * Notify a corresponding listener of a sent message, if exists.
+     *
+     * @param message a message from a client
+     */
+    private void notifyListener(final ControlMessage.Message message) {
       final MessageListener<ControlMessage.Message> listener = listenerMap.get(message.getListenerId());
       if (listener == null) {
         LOG.warn("A msg is ignored since there is no registered listener. msg.id={}, msg.listenerId={}, msg.type={}",
             message.getId(), message.getListenerId(), message.getType());
-        responseObserver.onNext(voidMessage);
-        responseObserver.onCompleted();
         return;
       }
 
       LOG.debug("[SEND] request msg.id={}, msg.listenerId={}, msg.type={}",
           message.getId(), message.getListenerId(), message.getType());
       listener.onMessage(message);
-      responseObserver.onNext(voidMessage);
-      responseObserver.onCompleted();
     }
 
     /**
@@ -2,7 +2,7 @@ package edu.snu.onyx.runtime.common.message.local;
 
 import edu.snu.onyx.runtime.common.message.MessageContext;
 
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A simple {@link MessageContext} implementation that works on a single node.
@@ -10,7 +10,7 @@ import java.util.Optional;
 final class LocalMessageContext implements MessageContext {
 
   private final String senderId;
-  private Object replyMessage;
+  private final CompletableFuture<Object> replyFuture;
 
   /**
    *  TODO #119.
@@ -18,6 +18,7 @@ final class LocalMessageContext implements MessageContext {
    */
   LocalMessageContext(final String senderId) {
     this.senderId = senderId;
+    this.replyFuture = new CompletableFuture<>();
   }
 
   public String getSenderId() {
@@ -26,14 +27,13 @@ final class LocalMessageContext implements MessageContext {
 
   @Override
   public <T> void reply(final T message) {
-    this.replyMessage = message;
+    replyFuture.complete(message);
   }
 
   /**
-   *  TODO #119.
-   * @return TODO #119.
+   * @return the future of the reply, which the listener may complete after handling the request.
    */
-  public Optional<Object> getReplyMessage() {
-    return Optional.ofNullable(replyMessage);
+  CompletableFuture<Object> getReplyFuture() {
+    return replyFuture;
   }
 }
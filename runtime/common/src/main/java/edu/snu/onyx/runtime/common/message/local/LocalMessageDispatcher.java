@@ -1,20 +1,24 @@
 package edu.snu.onyx.runtime.common.message.local;
 
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
 import edu.snu.onyx.runtime.common.message.MessageListener;
 import edu.snu.onyx.runtime.common.message.MessageSender;
 
-import java.util.Optional;
+import javax.inject.Inject;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
  * Dispatch messages on a single machine.
+ * The listeners are called on the threads of the senders, and the replies to requests complete the futures
+ * returned to the requesters, even if the listeners reply after returning.
  */
 public final class LocalMessageDispatcher {
 
   private final ConcurrentMap<String, ConcurrentMap<String, MessageListener>> nodeIdToMessageListenersMap;
 
+  @Inject
   public LocalMessageDispatcher() {
     this.nodeIdToMessageListenersMap = new ConcurrentHashMap<>();
   }
@@ -48,6 +52,14 @@ public final class LocalMessageDispatcher {
 
   <T> void dispatchSendMessage(
       final String targetId, final String messageTypeId, final T message) {
+    if (message instanceof ControlMessage.Message
+        && ((ControlMessage.Message) message).getType() == ControlMessage.MessageType.MessageBatch) {
+      for (final ControlMessage.Message batchedMessage
+          : ((ControlMessage.Message) message).getMessageBatchMsg().getMessageList()) {
+        dispatchSendMessage(targetId, batchedMessage.getListenerId(), batchedMessage);
+      }
+      return;
+    }
     final MessageListener listener = nodeIdToMessageListenersMap.get(targetId).get(messageTypeId);
     if (listener == null) {
       throw new LocalDispatcherException("There was no set up listener for " + messageTypeId + " in " + targetId);
@@ -66,9 +78,7 @@ public final class LocalMessageDispatcher {
     final LocalMessageContext context = new LocalMessageContext(senderId);
     listener.onMessageWithContext(message, context);
 
-    final Optional<Object> replyMessage = context.getReplyMessage();
-
-    return CompletableFuture.completedFuture((U) replyMessage.orElse(null));
+    return (CompletableFuture<U>) context.getReplyFuture();
   }
 
   /**
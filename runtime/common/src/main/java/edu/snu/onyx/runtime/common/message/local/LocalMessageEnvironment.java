@@ -2,21 +2,27 @@ package edu.snu.onyx.runtime.common.message.local;
 
 import edu.snu.onyx.runtime.common.message.MessageEnvironment;
 import edu.snu.onyx.runtime.common.message.MessageListener;
+import edu.snu.onyx.runtime.common.message.MessageParameters;
 import edu.snu.onyx.runtime.common.message.MessageSender;
+import org.apache.reef.tang.annotations.Parameter;
+
+import javax.inject.Inject;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 /**
  * A simple {@link MessageEnvironment} implementation that works on a single node.
- * Used for unit tests.
+ * Used for unit tests, and by the master and the executors running in a single JVM (the {@code inprocess} deploy mode),
+ * which share a {@link LocalMessageDispatcher}.
  */
 public final class LocalMessageEnvironment implements MessageEnvironment {
 
   private final String currentNodeId;
   private final LocalMessageDispatcher dispatcher;
 
-  public LocalMessageEnvironment(final String currentNodeId,
+  @Inject
+  public LocalMessageEnvironment(@Parameter(MessageParameters.SenderId.class) final String currentNodeId,
                                  final LocalMessageDispatcher dispatcher) {
     this.currentNodeId = currentNodeId;
     this.dispatcher = dispatcher;
@@ -127,6 +127,10 @@ public final class NcsMessageEnvironment implements MessageEnvironment {
     }
 
     private void processSendMessage(final ControlMessage.Message controlMessage) {
+      if (controlMessage.getType() == ControlMessage.MessageType.MessageBatch) {
+        controlMessage.getMessageBatchMsg().getMessageList().forEach(this::processSendMessage);
+        return;
+      }
       final String listenerId = controlMessage.getListenerId();
       listenerConcurrentMap.get(listenerId).onMessage(controlMessage);
     }
@@ -190,6 +194,10 @@ public final class NcsMessageEnvironment implements MessageEnvironment {
       case RemovePartitionMetadata:
       case DataSizeMetric:
       case ContainerFailed:
+      case RequestTaskGroupSteal:
+      case YieldPendingTaskGroup:
+      case PendingTaskGroupYielded:
+      case MessageBatch:
         return MessageType.Send;
       case RequestBlockLocation:
       case RequestPartitionMetadata:
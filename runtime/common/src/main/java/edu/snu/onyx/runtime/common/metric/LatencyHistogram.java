@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.common.metric;
+
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of non-negative values, such as latencies in nanoseconds.
+ * As in HDR histograms, each power of two is split into {@link #SUB_BUCKETS} linear buckets,
+ * so that a percentile is estimated within 1/{@link #SUB_BUCKETS} of the true value with a fixed memory footprint.
+ * The histograms of executors are shipped as {@link ControlMessage.HistogramMsg}s and merged in the master.
+ */
+@ThreadSafe
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray bucketCounts;
+  private final AtomicLong sum;
+
+  /**
+   * Constructor.
+   */
+  public LatencyHistogram() {
+    this.bucketCounts = new AtomicLongArray(NUM_BUCKETS);
+    this.sum = new AtomicLong(0);
+  }
+
+  /**
+   * Records a value. Negative values are recorded as 0.
+   * @param value to record.
+   */
+  public void record(final long value) {
+    final long nonNegativeValue = Math.max(value, 0);
+    bucketCounts.incrementAndGet(bucketIdxOf(nonNegativeValue));
+    sum.addAndGet(nonNegativeValue);
+  }
+
+  /**
+   * @return the number of values recorded.
+   */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      count += bucketCounts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * @return the sum of the values recorded.
+   */
+  public long getSum() {
+    return sum.get();
+  }
+
+  /**
+   * Estimates a percentile of the values recorded, as the lower bound of the bucket it falls in.
+   * @param percentile in (0, 100].
+   * @return the estimated value, or 0 if no value is recorded.
+   */
+  public long getValueAtPercentile(final double percentile) {
+    final long count = getCount();
+    final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      seen += bucketCounts.get(i);
+      if (seen >= rank) {
+        return lowerBoundOf(i);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Adds the values in a histogram shipped from an executor.
+   * @param histogramMsg to merge.
+   */
+  public void merge(final ControlMessage.HistogramMsg histogramMsg) {
+    for (int i = 0; i < histogramMsg.getBucketIdxCount(); i++) {
+      bucketCounts.addAndGet(histogramMsg.getBucketIdx(i), histogramMsg.getBucketCount(i));
+    }
+    sum.addAndGet(histogramMsg.getSum());
+  }
+
+  /**
+   * Takes out the values recorded so far, leaving this histogram empty.
+   * Values recorded concurrently are either taken out or left for the next drain.
+   * @return the non-empty buckets, or {@code null} if no value has been recorded since the previous drain.
+   */
+  public ControlMessage.HistogramMsg drain() {
+    final ControlMessage.HistogramMsg.Builder builder = ControlMessage.HistogramMsg.newBuilder();
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      if (bucketCounts.get(i) > 0) {
+        builder.addBucketIdx(i).addBucketCount(bucketCounts.getAndSet(i, 0));
+      }
+    }
+    if (builder.getBucketIdxCount() == 0) {
+      return null;
+    }
+    return builder.setSum(sum.getAndSet(0)).build();
+  }
+
+  /**
+   * @param value a non-negative value.
+   * @return the index of the bucket the value falls in.
+   */
+  private static int bucketIdxOf(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  /**
+   * @param bucketIdx the index of a bucket.
+   * @return the smallest value falling in the bucket.
+   */
+  private static long lowerBoundOf(final int bucketIdx) {
+    if (bucketIdx < SUB_BUCKETS) {
+      return bucketIdx;
+    }
+    final int shift = bucketIdx / SUB_BUCKETS - 1;
+    return ((long) SUB_BUCKETS + bucketIdx % SUB_BUCKETS) << shift;
+  }
+}
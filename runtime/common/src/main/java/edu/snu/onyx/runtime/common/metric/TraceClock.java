@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.common.metric;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The clock of the trace spans, in microseconds since the epoch.
+ * The wall clock is read once, and advanced with {@link System#nanoTime()},
+ * so that the spans measured in a JVM are precise and monotonic while being comparable to those of other JVMs
+ * up to the skew of their wall clocks.
+ */
+public final class TraceClock {
+  private static final long EPOCH_OFFSET_MICROS =
+      TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()) - TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+
+  /**
+   * Private constructor.
+   */
+  private TraceClock() {
+  }
+
+  /**
+   * @return the current time in microseconds since the epoch.
+   */
+  public static long nowMicros() {
+    return EPOCH_OFFSET_MICROS + TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+  }
+}
@@ -15,13 +15,21 @@
  */
 package edu.snu.onyx.runtime.common.optimizer;
 
+import com.google.common.annotations.VisibleForTesting;
+import edu.snu.onyx.common.dag.DAG;
 import edu.snu.onyx.common.ir.vertex.MetricCollectionBarrierVertex;
 import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
 import edu.snu.onyx.common.ir.vertex.executionproperty.DynamicOptimizationProperty;
 import edu.snu.onyx.runtime.common.optimizer.pass.runtime.DataSkewRuntimePass;
+import edu.snu.onyx.runtime.common.optimizer.pass.runtime.HotKeySplittingRuntimePass;
+import edu.snu.onyx.runtime.common.optimizer.pass.runtime.PartitionCoalescingRuntimePass;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.common.plan.physical.PhysicalPlan;
+import edu.snu.onyx.runtime.common.plan.physical.PhysicalStage;
+import edu.snu.onyx.runtime.common.plan.physical.PhysicalStageEdge;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Runtime optimizer class.
@@ -47,10 +55,71 @@ public final class RuntimeOptimizer {
 
     if (dynamicOptimizationType.equals(DynamicOptimizationProperty.Value.DataSkewRuntimePass)) {
         // Map between a partition ID to corresponding metric data (e.g., the size of each block).
-        final Map<String, List<Long>> metricData = metricCollectionBarrierVertex.getMetricData();
+        final Map<String, List<Long>> metricData = getMetricData(originalPlan, metricCollectionBarrierVertex);
         return new DataSkewRuntimePass().apply(originalPlan, metricData);
+    } else if (dynamicOptimizationType.equals(DynamicOptimizationProperty.Value.PartitionCoalescingRuntimePass)) {
+      final Map<String, List<Long>> metricData = getMetricData(originalPlan, metricCollectionBarrierVertex);
+      return new PartitionCoalescingRuntimePass().apply(originalPlan, metricData);
+    } else if (dynamicOptimizationType.equals(DynamicOptimizationProperty.Value.HotKeySplittingRuntimePass)) {
+      final Map<String, List<Long>> metricData = getMetricData(originalPlan, metricCollectionBarrierVertex);
+      return new HotKeySplittingRuntimePass().apply(originalPlan, metricData);
     } else {
       return originalPlan;
     }
   }
+
+  /**
+   * Gets the metric data collected by the vertex, for all of the blocks of the edges the metrics are collected for.
+   * The optimization may be triggered before every block reports its metric, with
+   * {@link edu.snu.onyx.conf.JobConf.SkewSampleFraction}, and then the missing blocks are extrapolated.
+   * @param physicalPlan the physical plan.
+   * @param barrierVertex the vertex that collects metrics.
+   * @return the metric data for all of the blocks.
+   */
+  private static Map<String, List<Long>> getMetricData(final PhysicalPlan physicalPlan,
+                                                       final MetricCollectionBarrierVertex<Long> barrierVertex) {
+    final Map<String, List<Long>> sampledMetricData = barrierVertex.getMetricData();
+    final Set<String> runtimeEdgeIds = sampledMetricData.keySet().stream()
+        .map(RuntimeIdGenerator::getRuntimeEdgeIdFromBlockId)
+        .collect(Collectors.toSet());
+    final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = physicalPlan.getStageDAG();
+    final Map<String, Integer> runtimeEdgeIdToNumBlocks = new HashMap<>();
+    stageDAG.getVertices().forEach(stage -> stageDAG.getIncomingEdgesOf(stage).stream()
+        .filter(edge -> runtimeEdgeIds.contains(edge.getId()))
+        .forEach(edge -> runtimeEdgeIdToNumBlocks.put(edge.getId(),
+            edge.getSrcVertex().getProperty(ExecutionProperty.Key.Parallelism))));
+    return extrapolateMetricData(sampledMetricData, runtimeEdgeIdToNumBlocks);
+  }
+
+  /**
+   * Extrapolates the metric data sampled from some of the blocks of the edges to all of their blocks.
+   * Each block that has not reported its metric yet is assumed to be the average of the reported blocks of its edge.
+   * @param sampledMetricData the metric data of the reported blocks, a map of blockId to the sizes of the hash values.
+   * @param runtimeEdgeIdToNumBlocks the number of blocks of each edge.
+   * @return the metric data for all of the blocks.
+   */
+  @VisibleForTesting
+  public static Map<String, List<Long>> extrapolateMetricData(final Map<String, List<Long>> sampledMetricData,
+                                                              final Map<String, Integer> runtimeEdgeIdToNumBlocks) {
+    final Map<String, List<Long>> metricData = new HashMap<>(sampledMetricData);
+    final Map<String, List<List<Long>>> runtimeEdgeIdToSamples = sampledMetricData.entrySet().stream()
+        .collect(Collectors.groupingBy(entry -> RuntimeIdGenerator.getRuntimeEdgeIdFromBlockId(entry.getKey()),
+            Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+    runtimeEdgeIdToSamples.forEach((runtimeEdgeId, samples) -> {
+      final int numBlocks = runtimeEdgeIdToNumBlocks.getOrDefault(runtimeEdgeId, samples.size());
+      if (samples.size() >= numBlocks) {
+        return;
+      }
+      final int hashRangeCount = samples.get(0).size();
+      final List<Long> averageSizes = new ArrayList<>(hashRangeCount);
+      for (int hashValue = 0; hashValue < hashRangeCount; hashValue++) {
+        final int idx = hashValue;
+        averageSizes.add(samples.stream().mapToLong(sizes -> sizes.get(idx)).sum() / samples.size());
+      }
+      for (int taskIdx = 0; taskIdx < numBlocks; taskIdx++) {
+        metricData.putIfAbsent(RuntimeIdGenerator.generateBlockId(runtimeEdgeId, taskIdx), averageSizes);
+      }
+    });
+    return metricData;
+  }
 }
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.common.optimizer.pass.runtime;
+
+import com.google.common.annotations.VisibleForTesting;
+import edu.snu.onyx.common.Pair;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.eventhandler.CommonEventHandler;
+import edu.snu.onyx.common.exception.DynamicOptimizationException;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.data.HashRange;
+import edu.snu.onyx.runtime.common.data.KeyRange;
+import edu.snu.onyx.runtime.common.eventhandler.DynamicOptimizationEventHandler;
+import edu.snu.onyx.runtime.common.plan.physical.PhysicalPlan;
+import edu.snu.onyx.runtime.common.plan.physical.PhysicalStage;
+import edu.snu.onyx.runtime.common.plan.physical.PhysicalStageEdge;
+import edu.snu.onyx.runtime.common.plan.physical.TaskGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Dynamic optimization pass for splitting hot keys.
+ * {@link DataSkewRuntimePass} assigns whole hash ranges to task groups, so a single hash value holding a hot key
+ * still ends up in one task group. This pass detects the hash values heavier than the ideal size per task group
+ * from the metric data, and splits each of them across multiple task groups,
+ * each of which reads the hash value from a disjoint, contiguous range of the source tasks.
+ * The partial outputs of the split keys are merged by the merge vertex inserted by HotKeySplittingReshapingPass.
+ * Stages of which the vertex can not be merged fall back to {@link DataSkewRuntimePass}.
+ */
+public final class HotKeySplittingRuntimePass implements RuntimePass<Map<String, List<Long>>> {
+  private static final Logger LOG = LoggerFactory.getLogger(HotKeySplittingRuntimePass.class.getName());
+  private static final double IDEAL_SIZE_GROWTH_RATE = 1.25;
+
+  private final Set<Class<? extends CommonEventHandler<?>>> eventHandlers;
+  private final DataSkewRuntimePass dataSkewRuntimePass;
+
+  /**
+   * Constructor.
+   */
+  public HotKeySplittingRuntimePass() {
+    this.eventHandlers = Stream.of(
+        DynamicOptimizationEventHandler.class
+    ).collect(Collectors.toSet());
+    this.dataSkewRuntimePass = new DataSkewRuntimePass();
+  }
+
+  @Override
+  public Set<Class<? extends CommonEventHandler<?>>> getEventHandlers() {
+    return eventHandlers;
+  }
+
+  @Override
+  public PhysicalPlan apply(final PhysicalPlan originalPlan, final Map<String, List<Long>> metricData) {
+    // get edges to optimize
+    final Set<String> optimizationEdgeIds = metricData.keySet().stream()
+        .map(RuntimeIdGenerator::getRuntimeEdgeIdFromBlockId)
+        .collect(Collectors.toSet());
+    final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = originalPlan.getStageDAG();
+    final List<PhysicalStageEdge> optimizationEdges = stageDAG.getVertices().stream()
+        .flatMap(physicalStage -> stageDAG.getIncomingEdgesOf(physicalStage).stream())
+        .filter(physicalStageEdge -> optimizationEdgeIds.contains(physicalStageEdge.getId()))
+        .collect(Collectors.toList());
+    if (optimizationEdges.isEmpty()) {
+      throw new DynamicOptimizationException("optimization edges is empty");
+    }
+
+    // A key can be split only if it is read through a single edge, and the partial outputs can be merged.
+    final PhysicalStageEdge optimizationEdge = optimizationEdges.get(0);
+    if (optimizationEdges.size() > 1
+        || optimizationEdge.getDstVertex().getProperty(ExecutionProperty.Key.MergeTransform) == null) {
+      return dataSkewRuntimePass.apply(originalPlan, metricData);
+    }
+
+    final int numSrcTasks = optimizationEdge.getSrcVertex().getProperty(ExecutionProperty.Key.Parallelism);
+    final List<TaskGroup> taskGroups = optimizationEdge.getDst().getTaskGroupList();
+    final List<Pair<KeyRange, Pair<Integer, Integer>>> assignments =
+        calculateAssignments(toSizeMatrix(metricData, numSrcTasks), taskGroups.size());
+
+    // Overwrite the previously assigned ranges to read in the physical DAG with the new ones.
+    final Map<String, KeyRange> taskGroupIdToKeyRangeMap = optimizationEdge.getTaskGroupIdToKeyRangeMap();
+    final Map<String, Pair<Integer, Integer>> taskGroupIdToSrcTaskRangeMap =
+        optimizationEdge.getTaskGroupIdToSrcTaskRangeMap();
+    taskGroupIdToKeyRangeMap.clear();
+    taskGroupIdToSrcTaskRangeMap.clear();
+    for (int i = 0; i < taskGroups.size(); i++) {
+      final String taskGroupId = taskGroups.get(i).getTaskGroupId();
+      taskGroupIdToKeyRangeMap.put(taskGroupId, assignments.get(i).left());
+      taskGroupIdToSrcTaskRangeMap.put(taskGroupId, assignments.get(i).right());
+    }
+
+    return new PhysicalPlan(originalPlan.getId(), stageDAG, originalPlan.getTaskIRVertexMap());
+  }
+
+  /**
+   * @param metricData the metric data, made up of a map of blockId to the sizes of the hash values.
+   * @param numSrcTasks the number of source tasks.
+   * @return the size of each hash value written by each source task, indexed by the source task index.
+   */
+  private static long[][] toSizeMatrix(final Map<String, List<Long>> metricData, final int numSrcTasks) {
+    final int hashRangeCount = metricData.values().stream().findFirst().orElseThrow(() ->
+        new DynamicOptimizationException("no valid metric data.")).size();
+    final long[][] sizes = new long[numSrcTasks][hashRangeCount];
+    metricData.forEach((blockId, blockSizes) -> {
+      final int srcTaskIdx = RuntimeIdGenerator.getTaskIndexFromBlockId(blockId);
+      for (int hashValue = 0; hashValue < hashRangeCount; hashValue++) {
+        sizes[srcTaskIdx][hashValue] += blockSizes.get(hashValue);
+      }
+    });
+    return sizes;
+  }
+
+  /**
+   * Method for calculating the hash range and the range of source tasks each task group is to read.
+   * A hash value larger than the ideal size per task group is split across multiple task groups by the source tasks,
+   * and the rest of the hash values are grouped into contiguous ranges of about the ideal size.
+   * If this yields more ranges than task groups, the ideal size is grown until it does not.
+   * @param sizes the size of each hash value written by each source task.
+   * @param taskGroupListSize the size of the task group list.
+   * @return the pairs of the hash range and the range of source tasks, [left, right), for each task group.
+   */
+  @VisibleForTesting
+  public List<Pair<KeyRange, Pair<Integer, Integer>>> calculateAssignments(final long[][] sizes,
+                                                                           final int taskGroupListSize) {
+    final int numSrcTasks = sizes.length;
+    final int hashRangeCount = numSrcTasks == 0 ? 0 : sizes[0].length;
+    final long[] aggregatedSizes = new long[hashRangeCount];
+    for (final long[] sizesOfSrcTask : sizes) {
+      for (int hashValue = 0; hashValue < hashRangeCount; hashValue++) {
+        aggregatedSizes[hashValue] += sizesOfSrcTask[hashValue];
+      }
+    }
+    final long totalSize = Arrays.stream(aggregatedSizes).sum();
+
+    double idealSizePerTaskGroup = Math.max(1.0, (double) totalSize / taskGroupListSize);
+    List<Pair<KeyRange, Pair<Integer, Integer>>> assignments =
+        assign(sizes, aggregatedSizes, idealSizePerTaskGroup);
+    while (assignments.size() > taskGroupListSize) {
+      idealSizePerTaskGroup *= IDEAL_SIZE_GROWTH_RATE;
+      assignments = assign(sizes, aggregatedSizes, idealSizePerTaskGroup);
+    }
+    final long numSplitKeys = assignments.stream().filter(assignment -> assignment.right() != null).count();
+    if (numSplitKeys > 0) {
+      LOG.info("Split hot hash values across {} task groups", numSplitKeys);
+    }
+
+    // The task groups left are not assigned any data.
+    while (assignments.size() < taskGroupListSize) {
+      assignments.add(Pair.of(HashRange.of(hashRangeCount, hashRangeCount), Pair.of(0, 0)));
+    }
+    return assignments.stream()
+        .map(assignment -> Pair.of(assignment.left(),
+            assignment.right() == null ? Pair.of(0, numSrcTasks) : assignment.right()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Assigns the hash values with the given ideal size per task group.
+   * @param sizes the size of each hash value written by each source task.
+   * @param aggregatedSizes the size of each hash value.
+   * @param idealSize the ideal size per task group.
+   * @return the assignments. The range of source tasks is null if all of the source tasks are to be read.
+   */
+  private static List<Pair<KeyRange, Pair<Integer, Integer>>> assign(final long[][] sizes,
+                                                                     final long[] aggregatedSizes,
+                                                                     final double idealSize) {
+    final int numSrcTasks = sizes.length;
+    final int hashRangeCount = aggregatedSizes.length;
+    final List<Pair<KeyRange, Pair<Integer, Integer>>> assignments = new ArrayList<>();
+    int startingHashValue = 0;
+    long accumulatedSize = 0;
+    for (int hashValue = 0; hashValue < hashRangeCount; hashValue++) {
+      if (aggregatedSizes[hashValue] > idealSize && numSrcTasks > 1) {
+        // Close the range accumulated so far, and split the hot hash value.
+        if (startingHashValue < hashValue) {
+          assignments.add(Pair.of(HashRange.of(startingHashValue, hashValue), null));
+        }
+        final int numSplits = (int) Math.min(Math.ceil(aggregatedSizes[hashValue] / idealSize), numSrcTasks);
+        for (final Pair<Integer, Integer> srcTaskRange
+            : splitSrcTasks(sizes, hashValue, aggregatedSizes[hashValue], numSplits)) {
+          assignments.add(Pair.of(HashRange.of(hashValue, hashValue + 1), srcTaskRange));
+        }
+        startingHashValue = hashValue + 1;
+        accumulatedSize = 0;
+      } else {
+        accumulatedSize += aggregatedSizes[hashValue];
+        if (accumulatedSize >= idealSize) {
+          assignments.add(Pair.of(HashRange.of(startingHashValue, hashValue + 1), null));
+          startingHashValue = hashValue + 1;
+          accumulatedSize = 0;
+        }
+      }
+    }
+    if (startingHashValue < hashRangeCount) {
+      assignments.add(Pair.of(HashRange.of(startingHashValue, hashRangeCount), null));
+    }
+    return assignments;
+  }
+
+  /**
+   * Splits the source tasks into contiguous ranges that wrote about the same size of the given hash value.
+   * @param sizes the size of each hash value written by each source task.
+   * @param hashValue the hash value to split.
+   * @param sizeOfHashValue the total size of the hash value.
+   * @param numSplits the number of ranges to split into. It should not be larger than the number of source tasks.
+   * @return the non-empty ranges of the source tasks, [left, right).
+   */
+  private static List<Pair<Integer, Integer>> splitSrcTasks(final long[][] sizes,
+                                                            final int hashValue,
+                                                            final long sizeOfHashValue,
+                                                            final int numSplits) {
+    final int numSrcTasks = sizes.length;
+    final List<Pair<Integer, Integer>> srcTaskRanges = new ArrayList<>(numSplits);
+    int startingSrcTask = 0;
+    long accumulatedSize = 0;
+    for (int srcTaskIdx = 0; srcTaskIdx < numSrcTasks; srcTaskIdx++) {
+      accumulatedSize += sizes[srcTaskIdx][hashValue];
+      final int splitsAfter = numSplits - srcTaskRanges.size() - 1;
+      final int srcTasksAfter = numSrcTasks - srcTaskIdx - 1;
+      // Close the current range once it reaches its share, leaving at least a source task for each range after.
+      if (splitsAfter > 0 && srcTasksAfter >= splitsAfter
+          && (accumulatedSize * numSplits >= sizeOfHashValue * (srcTaskRanges.size() + 1)
+          || srcTasksAfter == splitsAfter)) {
+        srcTaskRanges.add(Pair.of(startingSrcTask, srcTaskIdx + 1));
+        startingSrcTask = srcTaskIdx + 1;
+      }
+    }
+    srcTaskRanges.add(Pair.of(startingSrcTask, numSrcTasks));
+    return srcTaskRanges;
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.common.optimizer.pass.runtime;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.eventhandler.CommonEventHandler;
+import edu.snu.onyx.common.exception.DynamicOptimizationException;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.executionproperty.ParallelismProperty;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.eventhandler.DynamicOptimizationEventHandler;
+import edu.snu.onyx.runtime.common.plan.physical.PhysicalPlan;
+import edu.snu.onyx.runtime.common.plan.physical.PhysicalStage;
+import edu.snu.onyx.runtime.common.plan.physical.PhysicalStageEdge;
+import edu.snu.onyx.runtime.common.plan.physical.TaskGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Dynamic optimization pass for coalescing the partitions of a shuffle.
+ * From the observed size of the shuffled data, it shrinks the number of task groups of the receiving stage
+ * so that each task group reads about the target size, and then distributes the hash ranges evenly
+ * among the remaining task groups as {@link DataSkewRuntimePass} does.
+ */
+public final class PartitionCoalescingRuntimePass implements RuntimePass<Map<String, List<Long>>> {
+  private static final Logger LOG = LoggerFactory.getLogger(PartitionCoalescingRuntimePass.class.getName());
+  public static final long DEFAULT_TARGET_PARTITION_SIZE = 64L * 1024 * 1024;
+
+  private final Set<Class<? extends CommonEventHandler<?>>> eventHandlers;
+  private final long targetPartitionSize;
+  private final DataSkewRuntimePass dataSkewRuntimePass;
+
+  /**
+   * Constructor.
+   */
+  public PartitionCoalescingRuntimePass() {
+    this(DEFAULT_TARGET_PARTITION_SIZE);
+  }
+
+  /**
+   * Constructor.
+   * @param targetPartitionSize the size of the data, in bytes, each task group is to read.
+   */
+  public PartitionCoalescingRuntimePass(final long targetPartitionSize) {
+    if (targetPartitionSize <= 0) {
+      throw new IllegalArgumentException("The target partition size should be positive: " + targetPartitionSize);
+    }
+    this.eventHandlers = Stream.of(
+        DynamicOptimizationEventHandler.class
+    ).collect(Collectors.toSet());
+    this.targetPartitionSize = targetPartitionSize;
+    this.dataSkewRuntimePass = new DataSkewRuntimePass();
+  }
+
+  @Override
+  public Set<Class<? extends CommonEventHandler<?>>> getEventHandlers() {
+    return eventHandlers;
+  }
+
+  @Override
+  public PhysicalPlan apply(final PhysicalPlan originalPlan, final Map<String, List<Long>> metricData) {
+    // get edges to optimize
+    final Set<String> optimizationEdgeIds = metricData.keySet().stream()
+        .map(RuntimeIdGenerator::getRuntimeEdgeIdFromBlockId)
+        .collect(Collectors.toSet());
+    final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = originalPlan.getStageDAG();
+    final PhysicalStage stageToCoalesce = stageDAG.getVertices().stream()
+        .flatMap(physicalStage -> stageDAG.getIncomingEdgesOf(physicalStage).stream())
+        .filter(physicalStageEdge -> optimizationEdgeIds.contains(physicalStageEdge.getId()))
+        .map(PhysicalStageEdge::getDst)
+        .findFirst().orElseThrow(() -> new DynamicOptimizationException("optimization edges is empty"));
+
+    // The hash ranges are the unit of the coalescing.
+    final int hashRangeCount = metricData.values().stream().findFirst().orElseThrow(() ->
+        new DynamicOptimizationException("no valid metric data.")).size();
+    final long totalSize = metricData.values().stream().flatMap(List::stream).mapToLong(Long::longValue).sum();
+    final int currentParallelism = stageToCoalesce.getTaskGroupList().size();
+    final long desiredParallelism = (totalSize + targetPartitionSize - 1) / targetPartitionSize;
+    final int newParallelism = (int) Math.max(1, Math.min(desiredParallelism,
+        Math.min(currentParallelism, hashRangeCount)));
+
+    if (newParallelism < currentParallelism && isCoalescible(originalPlan, stageToCoalesce, optimizationEdgeIds)) {
+      LOG.info("Coalescing {} from {} to {} task groups for {} bytes",
+          new Object[]{stageToCoalesce.getId(), currentParallelism, newParallelism, totalSize});
+      coalesce(originalPlan, stageToCoalesce, newParallelism);
+    }
+
+    // Distribute the hash ranges among the remaining task groups.
+    return dataSkewRuntimePass.apply(originalPlan, metricData);
+  }
+
+  /**
+   * A stage can be coalesced only if the data of all of its inputs can be redistributed by hash ranges,
+   * and none of its outputs expects the original number of task groups.
+   * @param physicalPlan the physical plan.
+   * @param stage the stage to coalesce.
+   * @param optimizationEdgeIds the IDs of the edges whose size of the data is collected.
+   * @return whether the stage can be coalesced or not.
+   */
+  private static boolean isCoalescible(final PhysicalPlan physicalPlan,
+                                       final PhysicalStage stage,
+                                       final Set<String> optimizationEdgeIds) {
+    final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = physicalPlan.getStageDAG();
+    final boolean allInputsRedistributable = stageDAG.getIncomingEdgesOf(stage).stream()
+        .filter(edge -> !isBroadcast(edge))
+        .allMatch(edge -> optimizationEdgeIds.contains(edge.getId()));
+    final boolean noOneToOneOutput = stageDAG.getOutgoingEdgesOf(stage).stream()
+        .noneMatch(edge -> DataCommunicationPatternProperty.Value.OneToOne
+            .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)));
+    return allInputsRedistributable && noOneToOneOutput;
+  }
+
+  /**
+   * @param edge the edge to check.
+   * @return whether the edge broadcasts its data.
+   */
+  private static boolean isBroadcast(final PhysicalStageEdge edge) {
+    return DataCommunicationPatternProperty.Value.BroadCast
+        .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+  }
+
+  /**
+   * Drops the trailing task groups of a stage, which has not been scheduled yet.
+   * The vertices of the stage are annotated with the new parallelism,
+   * for the stages reading the output of the stage to read the right number of blocks.
+   * @param physicalPlan the physical plan.
+   * @param stage the stage to coalesce.
+   * @param newParallelism the new number of task groups.
+   */
+  private static void coalesce(final PhysicalPlan physicalPlan,
+                               final PhysicalStage stage,
+                               final int newParallelism) {
+    final List<TaskGroup> taskGroups = stage.getTaskGroupList();
+    taskGroups.get(0).getTaskDAG().getVertices().forEach(task ->
+        physicalPlan.getIRVertexOf(task).setProperty(ParallelismProperty.of(newParallelism)));
+    taskGroups.subList(newParallelism, taskGroups.size()).clear();
+  }
+}
@@ -21,6 +21,7 @@ import edu.snu.onyx.common.ir.vertex.transform.Transform;
  * OperatorTask.
  */
 public final class OperatorTask extends Task {
+  private final int parallelism;
   private final Transform transform;
 
   /**
@@ -28,18 +29,28 @@ public final class OperatorTask extends Task {
    * @param taskId id of the task.
    * @param runtimeVertexId id of the runtime vertex.
    * @param index index in the taskGroup.
+   * @param parallelism the number of the tasks of the runtime vertex.
    * @param transform transform to perform.
    * @param taskGroupId id of the taskGroup.
    */
   public OperatorTask(final String taskId,
                       final String runtimeVertexId,
                       final int index,
+                      final int parallelism,
                       final Transform transform,
                       final String taskGroupId) {
     super(taskId, runtimeVertexId, index, taskGroupId);
+    this.parallelism = parallelism;
     this.transform = transform;
   }
 
+  /**
+   * @return the number of the tasks of the runtime vertex.
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
   /**
    * @return the transform to perform.
    */
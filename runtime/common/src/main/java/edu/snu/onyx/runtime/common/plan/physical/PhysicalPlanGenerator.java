@@ -172,6 +172,44 @@ public final class PhysicalPlanGenerator
     return taskIRVertexMap;
   }
 
+  /**
+   * The vertices of a stage run in the same TaskGroup, which thus needs the largest of their core demands.
+   * @param stageVertices the vertices of the stage.
+   * @return the number of cores each TaskGroup of the stage occupies.
+   */
+  private static double getCoreDemand(final List<IRVertex> stageVertices) {
+    return stageVertices.stream()
+        .map(irVertex -> irVertex.<Double>getProperty(ExecutionProperty.Key.CoreDemand))
+        .filter(Objects::nonNull)
+        .mapToDouble(Double::doubleValue)
+        .max().orElse(TaskGroup.DEFAULT_CORE_DEMAND);
+  }
+
+  /**
+   * The vertices of a stage run in the same TaskGroup, which thus needs the sum of their memory demands.
+   * @param stageVertices the vertices of the stage.
+   * @return the memory each TaskGroup of the stage occupies, in megabytes.
+   */
+  private static int getMemoryDemandMb(final List<IRVertex> stageVertices) {
+    return stageVertices.stream()
+        .map(irVertex -> irVertex.<Integer>getProperty(ExecutionProperty.Key.MemoryDemand))
+        .filter(Objects::nonNull)
+        .mapToInt(Integer::intValue)
+        .sum();
+  }
+
+  /**
+   * The TaskGroups of a stage run on the executors of the colocation group of any vertex in the stage.
+   * @param stageVertices the vertices of the stage.
+   * @return the colocation group of the TaskGroups of the stage, or {@code null} if there is none.
+   */
+  private static String getColocationGroup(final List<IRVertex> stageVertices) {
+    return stageVertices.stream()
+        .map(irVertex -> irVertex.<String>getProperty(ExecutionProperty.Key.ColocationGroup))
+        .filter(Objects::nonNull)
+        .findFirst().orElse(null);
+  }
+
   /**
    * Converts the given DAG of stages to a physical DAG for execution.
    * @param dagOfStages IR DAG partitioned into stages.
@@ -192,6 +230,9 @@ public final class PhysicalPlanGenerator
           (Integer) firstVertexProperties.get(ExecutionProperty.Key.Parallelism);
       final String containerType =
           (String) firstVertexProperties.get(ExecutionProperty.Key.ExecutorPlacement);
+      final double coreDemand = getCoreDemand(stageVertices);
+      final int memoryDemandMb = getMemoryDemandMb(stageVertices);
+      final String colocationGroup = getColocationGroup(stageVertices);
 
       // Begin building a new stage in the physical plan.
       physicalStageBuilder = new PhysicalStageBuilder(stage.getId(), stageParallelism, stage.getScheduleGroupIndex());
@@ -222,7 +263,7 @@ public final class PhysicalPlanGenerator
           } else if (irVertex instanceof OperatorVertex) {
             final OperatorVertex operatorVertex = (OperatorVertex) irVertex;
             newTaskToAdd = new OperatorTask(RuntimeIdGenerator.generateTaskId(), operatorVertex.getId(),
-                taskGroupIndex, operatorVertex.getTransform(), taskGroupId);
+                taskGroupIndex, stageParallelism, operatorVertex.getTransform(), taskGroupId);
 
           } else if (irVertex instanceof MetricCollectionBarrierVertex) {
             final MetricCollectionBarrierVertex metricCollectionBarrierVertex =
@@ -249,7 +290,8 @@ public final class PhysicalPlanGenerator
 
         // Create the task group to add for this stage.
         final TaskGroup newTaskGroup = new TaskGroup(taskGroupId, stage.getId(),
-            taskGroupIndex, stageInternalDAGBuilder.build(), containerType);
+            taskGroupIndex, stageInternalDAGBuilder.build(), containerType, coreDemand, memoryDemandMb,
+            colocationGroup);
         physicalStageBuilder.addTaskGroup(newTaskGroup);
         irVertexTaskMap.clear();
       });
@@ -16,6 +16,7 @@
 package edu.snu.onyx.runtime.common.plan.physical;
 
 
+import edu.snu.onyx.common.Pair;
 import edu.snu.onyx.common.coder.Coder;
 import edu.snu.onyx.common.ir.vertex.IRVertex;
 import edu.snu.onyx.common.ir.executionproperty.ExecutionPropertyMap;
@@ -48,6 +49,12 @@ public final class PhysicalStageEdge extends RuntimeEdge<PhysicalStage> {
    */
   private final Map<String, KeyRange> taskGroupIdToKeyRangeMap;
 
+  /**
+   * The map between the task group id and the range of source task indices to read from, [left, right).
+   * A task group absent in this map reads from all of the source tasks.
+   */
+  private final Map<String, Pair<Integer, Integer>> taskGroupIdToSrcTaskRangeMap;
+
   /**
    * Constructor.
    * @param runtimeEdgeId id of the runtime edge.
@@ -72,6 +79,7 @@ public final class PhysicalStageEdge extends RuntimeEdge<PhysicalStage> {
     this.dstVertex = dstVertex;
     // Initialize the key range of each dst task.
     this.taskGroupIdToKeyRangeMap = new HashMap<>();
+    this.taskGroupIdToSrcTaskRangeMap = new HashMap<>();
     final List<TaskGroup> taskGroups = dstStage.getTaskGroupList();
     for (int taskIdx = 0; taskIdx < taskGroups.size(); taskIdx++) {
       taskGroupIdToKeyRangeMap.put(taskGroups.get(taskIdx).getTaskGroupId(), HashRange.of(taskIdx, taskIdx + 1));
@@ -107,4 +115,11 @@ public final class PhysicalStageEdge extends RuntimeEdge<PhysicalStage> {
   public Map<String, KeyRange> getTaskGroupIdToKeyRangeMap() {
     return taskGroupIdToKeyRangeMap;
   }
+
+  /**
+   * @return the map from the id of each destination task group to the range of source tasks it reads from.
+   */
+  public Map<String, Pair<Integer, Integer>> getTaskGroupIdToSrcTaskRangeMap() {
+    return taskGroupIdToSrcTaskRangeMap;
+  }
 }
@@ -18,7 +18,9 @@ package edu.snu.onyx.runtime.common.plan.physical;
 import edu.snu.onyx.runtime.common.plan.RuntimeEdge;
 import edu.snu.onyx.common.dag.DAG;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.util.Optional;
 
 /**
  * A TaskGroup is a grouping of {@link Task} that belong to a stage.
@@ -27,14 +29,21 @@ import java.io.Serializable;
  * A stage contains a list of TaskGroups whose length corresponds to stage/operator parallelism.
  */
 public final class TaskGroup implements Serializable {
+  public static final double DEFAULT_CORE_DEMAND = 1.0;
+  public static final int DEFAULT_MEMORY_DEMAND_MB = 0;
+
   private final String taskGroupId;
   private final String stageId;
   private final int taskGroupIdx;
   private final DAG<Task, RuntimeEdge<Task>> taskDAG;
   private final String containerType;
+  private final double coreDemand;
+  private final int memoryDemandMb;
+  @Nullable
+  private final String colocationGroup;
 
   /**
-   * Constructor.
+   * Constructor with the default resource demands, which take a single core of an executor.
    * @param taskGroupId id of the taskGroup.
    * @param stageId id of the stage.
    * @param taskGroupIdx index of the taskGroup.
@@ -46,11 +55,57 @@ public final class TaskGroup implements Serializable {
                    final int taskGroupIdx,
                    final DAG<Task, RuntimeEdge<Task>> taskDAG,
                    final String containerType) {
+    this(taskGroupId, stageId, taskGroupIdx, taskDAG, containerType, DEFAULT_CORE_DEMAND, DEFAULT_MEMORY_DEMAND_MB);
+  }
+
+  /**
+   * Constructor.
+   * @param taskGroupId id of the taskGroup.
+   * @param stageId id of the stage.
+   * @param taskGroupIdx index of the taskGroup.
+   * @param taskDAG DAG of the tasks.
+   * @param containerType type of container to execute the taskGroup on.
+   * @param coreDemand the number of executor cores the taskGroup occupies.
+   * @param memoryDemandMb the executor memory the taskGroup occupies, in megabytes.
+   */
+  public TaskGroup(final String taskGroupId,
+                   final String stageId,
+                   final int taskGroupIdx,
+                   final DAG<Task, RuntimeEdge<Task>> taskDAG,
+                   final String containerType,
+                   final double coreDemand,
+                   final int memoryDemandMb) {
+    this(taskGroupId, stageId, taskGroupIdx, taskDAG, containerType, coreDemand, memoryDemandMb, null);
+  }
+
+  /**
+   * Constructor with a colocation group.
+   * @param taskGroupId id of the taskGroup.
+   * @param stageId id of the stage.
+   * @param taskGroupIdx index of the taskGroup.
+   * @param taskDAG DAG of the tasks.
+   * @param containerType type of container to execute the taskGroup on.
+   * @param coreDemand the number of executor cores the taskGroup occupies.
+   * @param memoryDemandMb the executor memory the taskGroup occupies, in megabytes.
+   * @param colocationGroup the group of the taskGroups to run on the same executor with the others of the same index,
+   *                        or {@code null} if the taskGroup can run anywhere.
+   */
+  public TaskGroup(final String taskGroupId,
+                   final String stageId,
+                   final int taskGroupIdx,
+                   final DAG<Task, RuntimeEdge<Task>> taskDAG,
+                   final String containerType,
+                   final double coreDemand,
+                   final int memoryDemandMb,
+                   @Nullable final String colocationGroup) {
     this.taskGroupId = taskGroupId;
     this.stageId = stageId;
     this.taskGroupIdx = taskGroupIdx;
     this.taskDAG = taskDAG;
     this.containerType = containerType;
+    this.coreDemand = coreDemand;
+    this.memoryDemandMb = memoryDemandMb;
+    this.colocationGroup = colocationGroup;
   }
 
   /**
@@ -81,6 +136,27 @@ public final class TaskGroup implements Serializable {
     return containerType;
   }
 
+  /**
+   * @return the number of executor cores the taskGroup occupies.
+   */
+  public double getCoreDemand() {
+    return coreDemand;
+  }
+
+  /**
+   * @return the executor memory the taskGroup occupies, in megabytes.
+   */
+  public int getMemoryDemandMb() {
+    return memoryDemandMb;
+  }
+
+  /**
+   * @return the group of the taskGroups to run on the same executor with the others of the same index, if any.
+   */
+  public Optional<String> getColocationGroup() {
+    return Optional.ofNullable(colocationGroup);
+  }
+
   /**
    * @return the DAG of the tasks.
    */
@@ -94,7 +170,13 @@ public final class TaskGroup implements Serializable {
     sb.append("{\"taskGroupId\": \"").append(taskGroupId).append("\", ");
     sb.append("\"taskGroupIdx\": ").append(taskGroupIdx).append(", ");
     sb.append("\"taskDAG\": ").append(taskDAG).append(", ");
-    sb.append("\"containerType\": \"").append(containerType).append("\"}");
+    sb.append("\"containerType\": \"").append(containerType).append("\", ");
+    sb.append("\"coreDemand\": ").append(coreDemand).append(", ");
+    sb.append("\"memoryDemandMb\": ").append(memoryDemandMb);
+    if (colocationGroup != null) {
+      sb.append(", \"colocationGroup\": \"").append(colocationGroup).append("\"");
+    }
+    sb.append("}");
     return sb.toString();
   }
 }
@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.driver;
+
+import edu.snu.onyx.runtime.common.LocalChannelImplementationSelector;
+import edu.snu.onyx.runtime.common.NettyChannelImplementationSelector;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageDispatcher;
+import edu.snu.onyx.runtime.executor.data.BlockManagerWorker;
+import org.apache.reef.driver.catalog.NodeDescriptor;
+import org.apache.reef.driver.catalog.RackDescriptor;
+import org.apache.reef.driver.context.ActiveContext;
+import org.apache.reef.driver.context.ContextConfiguration;
+import org.apache.reef.driver.evaluator.AllocatedEvaluator;
+import org.apache.reef.driver.evaluator.EvaluatorDescriptor;
+import org.apache.reef.driver.evaluator.EvaluatorProcess;
+import org.apache.reef.driver.evaluator.EvaluatorRequest;
+import org.apache.reef.driver.evaluator.EvaluatorRequestor;
+import org.apache.reef.evaluator.context.ContextMessageHandler;
+import org.apache.reef.evaluator.context.events.ContextStart;
+import org.apache.reef.evaluator.context.events.ContextStop;
+import org.apache.reef.evaluator.context.parameters.ContextIdentifier;
+import org.apache.reef.evaluator.context.parameters.ContextMessageHandlers;
+import org.apache.reef.evaluator.context.parameters.ContextStartHandlers;
+import org.apache.reef.evaluator.context.parameters.ContextStopHandlers;
+import org.apache.reef.evaluator.context.parameters.Services;
+import org.apache.reef.tang.Configuration;
+import org.apache.reef.tang.Configurations;
+import org.apache.reef.tang.InjectionFuture;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.apache.reef.tang.exceptions.InjectionException;
+import org.apache.reef.task.Task;
+import org.apache.reef.util.Optional;
+import org.apache.reef.wake.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Allocates the evaluators in the JVM of the driver, for the {@code inprocess} deploy mode.
+ * The contexts submitted to an evaluator run on the threads of this JVM as they would in an evaluator:
+ * their services are instantiated, and their start, stop and message handlers are called.
+ * An executor context starts an {@link edu.snu.onyx.runtime.executor.Executor}, which talks to the master
+ * through the {@link LocalMessageDispatcher} of the driver and to the other executors through in-JVM Netty channels.
+ */
+final class InProcessEvaluatorRequestor implements EvaluatorRequestor {
+  private static final Logger LOG = LoggerFactory.getLogger(InProcessEvaluatorRequestor.class.getName());
+  private static final String RUNTIME_NAME = "InProcess";
+  private static final NodeDescriptor NODE_DESCRIPTOR = new InProcessNodeDescriptor();
+
+  private final InjectionFuture<OnyxDriver.AllocatedEvaluatorHandler> allocatedEvaluatorHandler;
+  private final InjectionFuture<OnyxDriver.ActiveContextHandler> activeContextHandler;
+  private final LocalMessageDispatcher localMessageDispatcher;
+  private final ExecutorService executorLauncher;
+  private final CompletableFuture<Void> executorFailure;
+  private final AtomicInteger evaluatorIdCounter;
+  private final List<InProcessContext> contexts;
+
+  /**
+   * Injectable constructor.
+   * @param allocatedEvaluatorHandler the handler of the driver for the allocated evaluators.
+   * @param activeContextHandler      the handler of the driver for the started contexts.
+   * @param localMessageDispatcher    the dispatcher of the messages between the master and the executors.
+   */
+  @Inject
+  private InProcessEvaluatorRequestor(final InjectionFuture<OnyxDriver.AllocatedEvaluatorHandler>
+                                          allocatedEvaluatorHandler,
+                                      final InjectionFuture<OnyxDriver.ActiveContextHandler> activeContextHandler,
+                                      final LocalMessageDispatcher localMessageDispatcher) {
+    this.allocatedEvaluatorHandler = allocatedEvaluatorHandler;
+    this.activeContextHandler = activeContextHandler;
+    this.localMessageDispatcher = localMessageDispatcher;
+    this.executorLauncher = Executors.newCachedThreadPool(runnable -> {
+      final Thread thread = new Thread(runnable, "InProcessExecutorLauncher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.executorFailure = new CompletableFuture<>();
+    this.evaluatorIdCounter = new AtomicInteger(0);
+    this.contexts = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Allocates the requested evaluators at once.
+   * @param request the request of the evaluators.
+   */
+  @Override
+  public void submit(final EvaluatorRequest request) {
+    for (int i = 0; i < request.getNumber(); i++) {
+      allocatedEvaluatorHandler.get().onNext(new InProcessEvaluator("InProcessEvaluator-"
+          + evaluatorIdCounter.getAndIncrement(), request.getMegaBytes(), request.getNumberOfCores()));
+    }
+  }
+
+  @Override
+  public EvaluatorRequest.Builder newRequest() {
+    return EvaluatorRequest.newBuilder();
+  }
+
+  /**
+   * @return the future completed exceptionally when an executor fails to start or a task fails,
+   *         which never completes otherwise.
+   */
+  CompletableFuture<Void> getExecutorFailure() {
+    return executorFailure;
+  }
+
+  /**
+   * @return the number of the evaluators allocated so far.
+   */
+  int getNumEvaluators() {
+    return evaluatorIdCounter.get();
+  }
+
+  /**
+   * @return the block manager workers of the executors started so far.
+   */
+  List<BlockManagerWorker> getBlockManagerWorkers() {
+    final List<BlockManagerWorker> blockManagerWorkers = new ArrayList<>(contexts.size());
+    contexts.stream().filter(context -> context.blockManagerWorker != null)
+        .forEach(context -> blockManagerWorkers.add(context.blockManagerWorker));
+    return blockManagerWorkers;
+  }
+
+  /**
+   * Stops launching executors, and waits until the executors being launched have started.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  void close() throws InterruptedException {
+    executorLauncher.shutdown();
+    executorLauncher.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Starts a context on a thread of the launcher.
+   * @param evaluatorId          the ID of the evaluator.
+   * @param evaluatorDescriptor  the descriptor of the evaluator.
+   * @param parent               the parent context, or {@code null} for a root context.
+   * @param contextConfiguration the configuration of the context, and of its services.
+   * @param onStarted            handles the context once it has started.
+   */
+  private void launchContext(final String evaluatorId,
+                             final EvaluatorDescriptor evaluatorDescriptor,
+                             @Nullable final InProcessContext parent,
+                             final Configuration contextConfiguration,
+                             final Consumer<InProcessContext> onStarted) {
+    final long submitTimeMs = System.currentTimeMillis();
+    executorLauncher.execute(() -> {
+      try {
+        final Injector injector;
+        if (parent == null) {
+          injector = Tang.Factory.getTang().newInjector(contextConfiguration,
+              Tang.Factory.getTang().newConfigurationBuilder()
+                  .bindImplementation(NettyChannelImplementationSelector.class,
+                      LocalChannelImplementationSelector.class)
+                  .build());
+          injector.bindVolatileInstance(LocalMessageDispatcher.class, localMessageDispatcher);
+        } else {
+          injector = parent.injector.forkInjector(contextConfiguration);
+        }
+        final InProcessContext context = new InProcessContext(evaluatorId, evaluatorDescriptor, parent, injector);
+        contexts.add(context);
+        LOG.info("{} started in {} ms", context.getId(), System.currentTimeMillis() - submitTimeMs);
+        onStarted.accept(context);
+      } catch (final Exception e) {
+        executorFailure.completeExceptionally(e);
+      }
+    });
+  }
+
+  /**
+   * An evaluator in the JVM of the driver, which runs the single root context submitted to it.
+   * The files and the libraries of the evaluator are the ones of the driver, as they share the JVM.
+   */
+  private final class InProcessEvaluator implements AllocatedEvaluator {
+    private final String evaluatorId;
+    private final InProcessEvaluatorDescriptor evaluatorDescriptor;
+
+    /**
+     * Constructor.
+     * @param evaluatorId   the ID of the evaluator.
+     * @param memory        the memory of the evaluator, in megabytes, which is not enforced.
+     * @param numberOfCores the number of cores of the evaluator, which is not enforced.
+     */
+    private InProcessEvaluator(final String evaluatorId, final int memory, final int numberOfCores) {
+      this.evaluatorId = evaluatorId;
+      this.evaluatorDescriptor = new InProcessEvaluatorDescriptor(memory, numberOfCores);
+    }
+
+    /**
+     * Starts the context, and hands it to the driver once started.
+     * @param contextConfiguration the configuration of the context and the executor.
+     */
+    @Override
+    public void submitContext(final Configuration contextConfiguration) {
+      launchContext(evaluatorId, evaluatorDescriptor, null, contextConfiguration, activeContextHandler.get()::onNext);
+    }
+
+    @Override
+    public void submitContextAndService(final Configuration contextConfiguration,
+                                        final Configuration serviceConfiguration) {
+      submitContext(Configurations.merge(contextConfiguration, serviceConfiguration));
+    }
+
+    /**
+     * Starts the context and runs the task on it.
+     * The context is not handed to the driver, as it is busy with the task.
+     * @param contextConfiguration the configuration of the context.
+     * @param taskConfiguration    the configuration of the task.
+     */
+    @Override
+    public void submitContextAndTask(final Configuration contextConfiguration,
+                                     final Configuration taskConfiguration) {
+      launchContext(evaluatorId, evaluatorDescriptor, null, contextConfiguration,
+          context -> context.submitTask(taskConfiguration));
+    }
+
+    @Override
+    public void submitContextAndServiceAndTask(final Configuration contextConfiguration,
+                                               final Configuration serviceConfiguration,
+                                               final Configuration taskConfiguration) {
+      submitContextAndTask(Configurations.merge(contextConfiguration, serviceConfiguration), taskConfiguration);
+    }
+
+    /**
+     * Runs the task on a root context of its own.
+     * @param taskConfiguration the configuration of the task.
+     */
+    @Override
+    public void submitTask(final Configuration taskConfiguration) {
+      submitContextAndTask(ContextConfiguration.CONF
+          .set(ContextConfiguration.IDENTIFIER, evaluatorId + "-RootContext")
+          .build(), taskConfiguration);
+    }
+
+    @Override
+    public EvaluatorDescriptor getEvaluatorDescriptor() {
+      return evaluatorDescriptor;
+    }
+
+    @Override
+    public String getId() {
+      return evaluatorId;
+    }
+
+    @Override
+    public void close() {
+      // No-ops, as no resource is held before the context is submitted.
+    }
+
+    @Override
+    public void addFile(final File file) {
+      // No-ops, as the contexts read the file where the driver does.
+    }
+
+    @Override
+    public void addLibrary(final File file) {
+      // No-ops, as the contexts load the classes from the class path of the driver.
+    }
+
+    /**
+     * Keeps the process in the descriptor of the evaluator, which is not launched in a process of its own.
+     * @param process the process.
+     */
+    @Override
+    public void setProcess(final EvaluatorProcess process) {
+      evaluatorDescriptor.process = process;
+    }
+  }
+
+  /**
+   * A context in the JVM of the driver.
+   * The services of the context are instantiated, and the start handlers are called when it is created.
+   * A context starting an {@link edu.snu.onyx.runtime.executor.Executor} binds {@link OnyxContext}
+   * to its start and stop handlers.
+   */
+  private final class InProcessContext implements ActiveContext {
+    private final String contextId;
+    private final String evaluatorId;
+    private final EvaluatorDescriptor evaluatorDescriptor;
+    @Nullable
+    private final InProcessContext parent;
+    private final Injector injector;
+    /**
+     * The block manager worker of the executor started by this root context, if any.
+     */
+    @Nullable
+    private final BlockManagerWorker blockManagerWorker;
+
+    /**
+     * Constructor, which starts the context.
+     * @param evaluatorId         the ID of the evaluator.
+     * @param evaluatorDescriptor the descriptor of the evaluator.
+     * @param parent              the parent context, or {@code null} for a root context.
+     * @param injector            the injector with the configuration of the context and the executor.
+     * @throws InjectionException if the context cannot be started.
+     */
+    private InProcessContext(final String evaluatorId,
+                             final EvaluatorDescriptor evaluatorDescriptor,
+                             final InProcessContext parent,
+                             final Injector injector) throws InjectionException {
+      this.contextId = injector.getNamedInstance(ContextIdentifier.class);
+      this.evaluatorId = evaluatorId;
+      this.evaluatorDescriptor = evaluatorDescriptor;
+      this.parent = parent;
+      this.injector = injector;
+      injector.getNamedInstance(Services.class);
+      final ContextStart contextStart = () -> contextId;
+      for (final EventHandler<ContextStart> startHandler : injector.getNamedInstance(ContextStartHandlers.class)) {
+        startHandler.onNext(contextStart);
+      }
+      // The child contexts share the executor of their root context.
+      this.blockManagerWorker = parent == null && injector.isInjectable(BlockManagerWorker.class)
+          ? injector.getInstance(BlockManagerWorker.class) : null;
+    }
+
+    /**
+     * Calls the stop handlers, which terminate the executor, and releases the threads of the executor,
+     * as the exit of its process would.
+     */
+    @Override
+    public void close() {
+      LOG.info("Closing {}", contextId);
+      try {
+        final ContextStop contextStop = () -> contextId;
+        for (final EventHandler<ContextStop> stopHandler : injector.getNamedInstance(ContextStopHandlers.class)) {
+          stopHandler.onNext(contextStop);
+        }
+      } catch (final InjectionException e) {
+        throw new RuntimeException(e);
+      } finally {
+        if (blockManagerWorker != null) {
+          blockManagerWorker.close();
+        }
+      }
+    }
+
+    @Override
+    public String getId() {
+      return contextId;
+    }
+
+    @Override
+    public String getEvaluatorId() {
+      return evaluatorId;
+    }
+
+    @Override
+    public Optional<String> getParentId() {
+      return parent == null ? Optional.empty() : Optional.of(parent.getId());
+    }
+
+    @Override
+    public EvaluatorDescriptor getEvaluatorDescriptor() {
+      return evaluatorDescriptor;
+    }
+
+    /**
+     * Runs a task on a thread of the launcher. A failed task fails the job, as no handler of the driver takes it.
+     * @param taskConfiguration the configuration of the task.
+     */
+    @Override
+    public void submitTask(final Configuration taskConfiguration) {
+      executorLauncher.execute(() -> {
+        try {
+          injector.forkInjector(taskConfiguration).getInstance(Task.class).call(null);
+        } catch (final Exception e) {
+          executorFailure.completeExceptionally(e);
+        }
+      });
+    }
+
+    @Override
+    public void submitContext(final Configuration contextConfiguration) {
+      launchContext(evaluatorId, evaluatorDescriptor, this, contextConfiguration, activeContextHandler.get()::onNext);
+    }
+
+    @Override
+    public void submitContextAndService(final Configuration contextConfiguration,
+                                        final Configuration serviceConfiguration) {
+      submitContext(Configurations.merge(contextConfiguration, serviceConfiguration));
+    }
+
+    /**
+     * Hands the message to the message handlers of the context, on a thread of the launcher.
+     * @param message the message.
+     */
+    @Override
+    public void sendMessage(final byte[] message) {
+      executorLauncher.execute(() -> {
+        try {
+          for (final ContextMessageHandler messageHandler : injector.getNamedInstance(ContextMessageHandlers.class)) {
+            messageHandler.onNext(message);
+          }
+        } catch (final InjectionException e) {
+          LOG.warn("Failed to deliver a message to " + contextId, e);
+        }
+      });
+    }
+  }
+
+  /**
+   * The descriptor of an evaluator in the JVM of the driver, which is on the node of the driver.
+   */
+  private static final class InProcessEvaluatorDescriptor implements EvaluatorDescriptor {
+    private final int memory;
+    private final int numberOfCores;
+    /**
+     * The process set to the evaluator, which is not launched as it runs in the JVM of the driver.
+     */
+    @Nullable
+    private volatile EvaluatorProcess process;
+
+    /**
+     * Constructor.
+     * @param memory        the memory of the evaluator, in megabytes.
+     * @param numberOfCores the number of cores of the evaluator.
+     */
+    private InProcessEvaluatorDescriptor(final int memory, final int numberOfCores) {
+      this.memory = memory;
+      this.numberOfCores = numberOfCores;
+      this.process = null;
+    }
+
+    @Override
+    public NodeDescriptor getNodeDescriptor() {
+      return NODE_DESCRIPTOR;
+    }
+
+    /**
+     * @return the process set to the evaluator, or {@code null} if none is set.
+     */
+    @Override
+    public EvaluatorProcess getProcess() {
+      return process;
+    }
+
+    @Override
+    public int getMemory() {
+      return memory;
+    }
+
+    @Override
+    public int getNumberOfCores() {
+      return numberOfCores;
+    }
+
+    @Override
+    public String getRuntimeName() {
+      return RUNTIME_NAME;
+    }
+  }
+
+  /**
+   * The node of the driver, alone on its rack.
+   */
+  private static final class InProcessNodeDescriptor implements NodeDescriptor {
+    private static final String NAME = "InProcessNode";
+    private final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    private final RackDescriptor rackDescriptor = new RackDescriptor() {
+      @Override
+      public List<NodeDescriptor> getNodes() {
+        return Collections.singletonList(InProcessNodeDescriptor.this);
+      }
+
+      @Override
+      public String getName() {
+        return RUNTIME_NAME;
+      }
+    };
+
+    @Override
+    public InetSocketAddress getInetSocketAddress() {
+      return address;
+    }
+
+    @Override
+    public RackDescriptor getRackDescriptor() {
+      return rackDescriptor;
+    }
+
+    @Override
+    public String getName() {
+      return NAME;
+    }
+
+    @Override
+    public String getId() {
+      return NAME;
+    }
+  }
+}
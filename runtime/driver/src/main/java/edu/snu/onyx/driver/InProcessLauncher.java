@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.driver;
+
+import com.google.common.annotations.VisibleForTesting;
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.executor.data.BlockManagerWorker;
+import edu.snu.onyx.runtime.master.BlockManagerMaster;
+import edu.snu.onyx.runtime.master.RuntimeMaster;
+import org.apache.reef.client.LauncherStatus;
+import org.apache.reef.driver.client.JobMessageObserver;
+import org.apache.reef.driver.evaluator.EvaluatorRequestor;
+import org.apache.reef.io.network.naming.NameServer;
+import org.apache.reef.tang.Configuration;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.apache.reef.tang.exceptions.InjectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the driver of a job, with the executors it requests, in the JVM of the client (the {@code inprocess} deploy
+ * mode), in place of a REEF runtime. As no process is launched for the driver and the executors,
+ * small jobs start much faster than in the {@code local} deploy mode.
+ * A launcher can also be kept open to run the following jobs of a user program on the same driver and executors,
+ * which skips the start of the executors and runs on the classes, the JIT-compiled code and the transport channels
+ * warmed up by the previous jobs.
+ * The driver configuration should bind the {@link edu.snu.onyx.runtime.common.message.local.LocalMessageEnvironment}.
+ */
+public final class InProcessLauncher implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(InProcessLauncher.class.getName());
+
+  private final InProcessEvaluatorRequestor evaluatorRequestor;
+  private final NameServer nameServer;
+  private final RuntimeMaster runtimeMaster;
+  private final BlockManagerMaster blockManagerMaster;
+  private final UserApplicationRunner userApplicationRunner;
+  private final ExecutorService userApplicationRunnerThreads;
+
+  /**
+   * Private constructor.
+   * @param injector the injector of the driver, whose name server has started.
+   * @throws InjectionException if the driver cannot be instantiated.
+   */
+  private InProcessLauncher(final Injector injector) throws InjectionException {
+    this.evaluatorRequestor = (InProcessEvaluatorRequestor) injector.getInstance(EvaluatorRequestor.class);
+    this.nameServer = injector.getInstance(NameServer.class);
+    this.runtimeMaster = injector.getInstance(RuntimeMaster.class);
+    this.blockManagerMaster = injector.getInstance(BlockManagerMaster.class);
+    this.userApplicationRunner = injector.getInstance(UserApplicationRunner.class);
+    // The jobs submitted at the same time run concurrently, to be scheduled by a multi-job scheduler.
+    this.userApplicationRunnerThreads = Executors.newCachedThreadPool(runnable -> {
+      final Thread thread = new Thread(runnable, "UserApplicationRunner");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Runs a job, and waits until the job finishes and its executors are closed.
+   * @param driverConf the configuration of the driver, with the DAG of the job.
+   * @return the status of the job.
+   */
+  public static LauncherStatus run(final Configuration driverConf) {
+    final InProcessLauncher launcher;
+    final String serializedDAG;
+    try {
+      launcher = start(driverConf);
+      serializedDAG = Tang.Factory.getTang().newInjector(driverConf).getNamedInstance(JobConf.SerializedDAG.class);
+    } catch (final Exception e) {
+      return LauncherStatus.failed(e);
+    }
+    try {
+      return launcher.run(serializedDAG);
+    } finally {
+      launcher.close();
+    }
+  }
+
+  /**
+   * Starts the driver and requests its executors, which run the jobs given to {@link #run(String)}
+   * until the launcher is closed.
+   * @param driverConf the configuration of the driver.
+   * @return the started launcher.
+   * @throws InjectionException if the driver cannot be instantiated.
+   */
+  public static InProcessLauncher start(final Configuration driverConf) throws InjectionException {
+    final Injector injector = Tang.Factory.getTang().newInjector(driverConf,
+        Tang.Factory.getTang().newConfigurationBuilder()
+            .bindImplementation(EvaluatorRequestor.class, InProcessEvaluatorRequestor.class)
+            .bindImplementation(JobMessageObserver.class, LocalJobMessageObserver.class)
+            .build());
+    // Instantiates the driver, which starts the name server, as a REEF runtime would.
+    injector.getInstance(OnyxDriver.class);
+    final InProcessLauncher launcher = new InProcessLauncher(injector);
+    launcher.runtimeMaster.requestContainer(injector.getNamedInstance(JobConf.ExecutorJsonContents.class));
+    return launcher;
+  }
+
+  /**
+   * Runs a job on the driver and the executors of this launcher, and waits until the job finishes.
+   * @param serializedDAG the DAG of the job, serialized in Base64.
+   * @return the status of the job.
+   */
+  public LauncherStatus run(final String serializedDAG) {
+    return runJob(() -> userApplicationRunner.execute(serializedDAG));
+  }
+
+  /**
+   * Runs a job on the driver and the executors of this launcher with a share of the executors,
+   * among the jobs being executed at the same time, and waits until the job finishes.
+   * @param serializedDAG the DAG of the job, serialized in Base64.
+   * @param weight the relative share of the executor slots of the job.
+   * @param priority the priority of the job.
+   * @return the status of the job.
+   */
+  public LauncherStatus run(final String serializedDAG, final int weight, final int priority) {
+    return runJob(() -> userApplicationRunner.execute(serializedDAG, weight, priority));
+  }
+
+  /**
+   * Runs a job, and waits until the job finishes.
+   * @param job compiles and executes the job.
+   * @return the status of the job.
+   */
+  private LauncherStatus runJob(final Runnable job) {
+    final long startTimeMs = System.currentTimeMillis();
+    try {
+      final CompletableFuture<Void> jobFuture = CompletableFuture.runAsync(job, userApplicationRunnerThreads);
+      // An executor failing to start fails the job, as a failed evaluator does in the REEF runtimes.
+      CompletableFuture.anyOf(jobFuture, evaluatorRequestor.getExecutorFailure()).get();
+      LOG.info("Job finished in {} ms in process", System.currentTimeMillis() - startTimeMs);
+      return LauncherStatus.COMPLETED;
+    } catch (final ExecutionException e) {
+      return LauncherStatus.failed(e.getCause());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return LauncherStatus.failed(e);
+    }
+  }
+
+  /**
+   * @return the number of the executors started by this launcher.
+   */
+  @VisibleForTesting
+  public int getNumExecutors() {
+    return evaluatorRequestor.getNumEvaluators();
+  }
+
+  /**
+   * @return the number of the blocks whose metadata the master keeps.
+   */
+  @VisibleForTesting
+  public int getNumBlocksInMaster() {
+    return blockManagerMaster.getNumBlocks();
+  }
+
+  /**
+   * @return the number of the blocks in the local stores of the executors.
+   */
+  @VisibleForTesting
+  public int getNumBlocksInExecutors() {
+    return evaluatorRequestor.getBlockManagerWorkers().stream()
+        .mapToInt(BlockManagerWorker::getNumLocalBlocks).sum();
+  }
+
+  /**
+   * Terminates the runtime master, which closes the executors, and closes the name server.
+   * Waits until the executors being launched have started, so that they are closed as well.
+   */
+  @Override
+  public void close() {
+    userApplicationRunnerThreads.shutdown();
+    try {
+      evaluatorRequestor.close();
+      // The runtime master would wait forever for an executor which failed to start.
+      if (!evaluatorRequestor.getExecutorFailure().isCompletedExceptionally()) {
+        runtimeMaster.terminate();
+      }
+      nameServer.close();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final Exception e) {
+      LOG.warn("Failed to close the name server", e);
+    }
+  }
+
+  /**
+   * Discards the messages to the client, as the client shares the log of the driver.
+   */
+  private static final class LocalJobMessageObserver implements JobMessageObserver {
+    /**
+     * Injectable constructor.
+     */
+    @Inject
+    private LocalJobMessageObserver() {
+    }
+
+    @Override
+    public void sendMessageToClient(final byte[] message) {
+      // No-ops.
+    }
+  }
+}
@@ -20,7 +20,6 @@ import edu.snu.onyx.conf.JobConf;
 import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.common.message.MessageEnvironment;
 import edu.snu.onyx.runtime.common.message.MessageParameters;
-import edu.snu.onyx.runtime.common.message.grpc.GrpcMessageEnvironment;
 import edu.snu.onyx.runtime.master.RuntimeMaster;
 import org.apache.reef.annotations.audience.DriverSide;
 import org.apache.reef.driver.client.JobMessageObserver;
@@ -69,6 +68,11 @@ public final class OnyxDriver {
   private final String jobId;
   private final String localDirectory;
   private final String glusterDirectory;
+  private final int executorBacklog;
+  private final long sideInputCacheBytes;
+  private final long messageBatchWindowMs;
+  private final int messageBatchSize;
+  private final Class<? extends MessageEnvironment> messageEnvironmentClass;
 
   // Client for sending log messages
   private final JobMessageObserver client;
@@ -80,10 +84,15 @@ public final class OnyxDriver {
                      final NameServer nameServer,
                      final LocalAddressProvider localAddressProvider,
                      final JobMessageObserver client,
+                     final MessageEnvironment messageEnvironment,
                      @Parameter(JobConf.ExecutorJsonContents.class) final String resourceSpecificationString,
                      @Parameter(JobConf.JobId.class) final String jobId,
                      @Parameter(JobConf.FileDirectory.class) final String localDirectory,
-                     @Parameter(JobConf.GlusterVolumeDirectory.class) final String glusterDirectory) {
+                     @Parameter(JobConf.GlusterVolumeDirectory.class) final String glusterDirectory,
+                     @Parameter(JobConf.ExecutorBacklog.class) final int executorBacklog,
+                     @Parameter(JobConf.SideInputCacheBytes.class) final long sideInputCacheBytes,
+                     @Parameter(JobConf.MessageBatchWindowMs.class) final long messageBatchWindowMs,
+                     @Parameter(JobConf.MessageBatchSize.class) final int messageBatchSize) {
     IdManager.setInDriver();
     this.userApplicationRunner = userApplicationRunner;
     this.runtimeMaster = runtimeMaster;
@@ -93,6 +102,12 @@ public final class OnyxDriver {
     this.jobId = jobId;
     this.localDirectory = localDirectory;
     this.glusterDirectory = glusterDirectory;
+    this.executorBacklog = executorBacklog;
+    this.sideInputCacheBytes = sideInputCacheBytes;
+    this.messageBatchWindowMs = messageBatchWindowMs;
+    this.messageBatchSize = messageBatchSize;
+    // The executors communicate with the master the way the master does.
+    this.messageEnvironmentClass = messageEnvironment.getClass();
     this.client = client;
     this.handler = new RemoteClientMessageLoggingHandler(client);
   }
@@ -186,6 +201,10 @@ public final class OnyxDriver {
     final Configuration executorConfiguration = JobConf.EXECUTOR_CONF
         .set(JobConf.EXECUTOR_ID, executorId)
         .set(JobConf.EXECUTOR_CAPACITY, executorCapacity)
+        .set(JobConf.EXECUTOR_BACKLOG, executorBacklog)
+        .set(JobConf.SIDE_INPUT_CACHE_BYTES, sideInputCacheBytes)
+        .set(JobConf.MESSAGE_BATCH_WINDOW_MS, messageBatchWindowMs)
+        .set(JobConf.MESSAGE_BATCH_SIZE, messageBatchSize)
         .set(JobConf.GLUSTER_DISK_DIRECTORY, glusterDirectory)
         .set(JobConf.LOCAL_DISK_DIRECTORY, localDirectory)
         .set(JobConf.JOB_ID, jobId)
@@ -194,6 +213,7 @@ public final class OnyxDriver {
     final Configuration contextConfiguration = ContextConfiguration.CONF
         .set(ContextConfiguration.IDENTIFIER, executorId) // We set: contextId = executorId
         .set(ContextConfiguration.ON_CONTEXT_STARTED, OnyxContext.ContextStartHandler.class)
+        .set(ContextConfiguration.ON_CONTEXT_STOP, OnyxContext.ContextStopHandler.class)
         .build();
 
     final Configuration ncsConfiguration =  getExecutorNcsConfiguration();
@@ -212,7 +232,7 @@ public final class OnyxDriver {
 
   private Configuration getExecutorMessageConfiguration(final String executorId) {
     return Tang.Factory.getTang().newConfigurationBuilder()
-        .bindImplementation(MessageEnvironment.class, GrpcMessageEnvironment.class)
+        .bindImplementation(MessageEnvironment.class, messageEnvironmentClass)
         .bindNamedParameter(MessageParameters.SenderId.class, executorId)
         .build();
   }
@@ -45,6 +45,8 @@ public final class UserApplicationRunner implements Runnable {
   private final String dagString;
   private final String optimizationPolicyCanonicalName;
   private final int maxScheduleAttempt;
+  private final int jobWeight;
+  private final int jobPriority;
 
   private final RuntimeMaster runtimeMaster;
   private final Backend<PhysicalPlan> backend;
@@ -54,6 +56,8 @@ public final class UserApplicationRunner implements Runnable {
                                 @Parameter(JobConf.SerializedDAG.class) final String dagString,
                                 @Parameter(JobConf.OptimizationPolicy.class) final String optimizationPolicy,
                                 @Parameter(JobConf.MaxScheduleAttempt.class) final int maxScheduleAttempt,
+                                @Parameter(JobConf.JobWeight.class) final int jobWeight,
+                                @Parameter(JobConf.JobPriority.class) final int jobPriority,
                                 final PubSubEventHandlerWrapper pubSubEventHandlerWrapper,
                                 final DynamicOptimizationEventHandler dynamicOptimizationEventHandler,
                                 final RuntimeMaster runtimeMaster) {
@@ -61,6 +65,8 @@ public final class UserApplicationRunner implements Runnable {
     this.dagString = dagString;
     this.optimizationPolicyCanonicalName = optimizationPolicy;
     this.maxScheduleAttempt = maxScheduleAttempt;
+    this.jobWeight = jobWeight;
+    this.jobPriority = jobPriority;
     this.runtimeMaster = runtimeMaster;
     this.backend = new OnyxBackend();
     pubSubEventHandlerWrapper.getPubSubEventHandler()
@@ -69,10 +75,29 @@ public final class UserApplicationRunner implements Runnable {
 
   @Override
   public void run() {
+    execute(dagString);
+    runtimeMaster.terminate();
+  }
+
+  /**
+   * Compiles and runs a DAG, leaving the runtime master running for the following DAGs.
+   * @param serializedDAG the DAG to run, serialized in Base64.
+   */
+  public void execute(final String serializedDAG) {
+    execute(serializedDAG, jobWeight, jobPriority);
+  }
+
+  /**
+   * Compiles and runs a DAG with a share of the executors, among the DAGs being executed at the same time.
+   * @param serializedDAG the DAG to run, serialized in Base64.
+   * @param weight the relative share of the executor slots of the job.
+   * @param priority the priority of the job.
+   */
+  public void execute(final String serializedDAG, final int weight, final int priority) {
     try {
       LOG.info("##### ONYX Compiler #####");
 
-      final DAG<IRVertex, IREdge> dag = SerializationUtils.deserialize(Base64.getDecoder().decode(dagString));
+      final DAG<IRVertex, IREdge> dag = SerializationUtils.deserialize(Base64.getDecoder().decode(serializedDAG));
       dag.storeJSON(dagDirectory, "ir", "IR before optimization");
       final Policy optimizationPolicy = (Policy) Class.forName(optimizationPolicyCanonicalName).newInstance();
 
@@ -83,8 +108,7 @@ public final class UserApplicationRunner implements Runnable {
       final PhysicalPlan physicalPlan = backend.compile(optimizedDAG);
 
       physicalPlan.getStageDAG().storeJSON(dagDirectory, "plan", "physical execution plan by compiler");
-      runtimeMaster.execute(physicalPlan, maxScheduleAttempt);
-      runtimeMaster.terminate();
+      runtimeMaster.execute(physicalPlan, maxScheduleAttempt, weight, priority);
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
@@ -29,12 +29,19 @@ import edu.snu.onyx.runtime.common.message.PersistentConnectionToMasterMap;
 import edu.snu.onyx.runtime.common.plan.RuntimeEdge;
 import edu.snu.onyx.runtime.common.plan.physical.ScheduledTaskGroup;
 import edu.snu.onyx.runtime.common.plan.physical.Task;
+import edu.snu.onyx.runtime.executor.data.BlockManagerWorker;
 import edu.snu.onyx.runtime.executor.data.CoderManager;
+import edu.snu.onyx.runtime.executor.data.SideInputCache;
 import edu.snu.onyx.runtime.executor.datatransfer.DataTransferFactory;
 import org.apache.commons.lang3.SerializationUtils;
 import org.apache.reef.tang.annotations.Parameter;
 
 import javax.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import org.slf4j.Logger;
@@ -45,6 +52,7 @@ import org.slf4j.LoggerFactory;
  */
 public final class Executor {
   private static final Logger LOG = LoggerFactory.getLogger(Executor.class.getName());
+  private static final double CORE_DEMAND_EPSILON = 1e-9;
 
   private final String executorId;
 
@@ -53,11 +61,32 @@ public final class Executor {
    */
   private final ExecutorService executorService;
 
+  /**
+   * The task groups run as long as the sum of their core demands fits in the capacity of the executor,
+   * as the master admits them. Fractional demands thus let light task groups share a core.
+   * The task groups assigned beyond the capacity wait in the pending queue, and can be yielded to idle executors.
+   */
+  private final int executorCapacity;
+  private final Deque<TaskGroupLaunch> pendingTaskGroupLaunches;
+  private double runningCoreDemand;
+  private int numOfRunningTaskGroups;
+
+  /**
+   * Whether the master assigns a backlog of task groups to executors, which idle executors can steal.
+   */
+  private final boolean workStealing;
+
   /**
    * In charge of this executor's intermediate data transfer.
    */
   private final CoderManager coderManager;
 
+  /**
+   * Removes the blocks and the cached side inputs of the finished jobs.
+   */
+  private final BlockManagerWorker blockManagerWorker;
+  private final SideInputCache sideInputCache;
+
   /**
    * Factory of InputReader/OutputWriter for executing tasks groups.
    */
@@ -69,20 +98,37 @@ public final class Executor {
 
   private final MetricMessageSender metricMessageSender;
 
+  /**
+   * Aggregates the metrics of the task groups executed in this executor.
+   */
+  private final MetricRegistry metricRegistry;
+
   @Inject
   public Executor(@Parameter(JobConf.ExecutorId.class) final String executorId,
                   @Parameter(JobConf.ExecutorCapacity.class) final int executorCapacity,
+                  @Parameter(JobConf.ExecutorBacklog.class) final int executorBacklog,
                   final PersistentConnectionToMasterMap persistentConnectionToMasterMap,
                   final MessageEnvironment messageEnvironment,
                   final CoderManager coderManager,
+                  final BlockManagerWorker blockManagerWorker,
+                  final SideInputCache sideInputCache,
                   final DataTransferFactory dataTransferFactory,
-                  final MetricManagerWorker metricMessageSender) {
+                  final MetricManagerWorker metricMessageSender,
+                  final MetricRegistry metricRegistry) {
     this.executorId = executorId;
-    this.executorService = Executors.newFixedThreadPool(executorCapacity);
+    this.executorService = Executors.newCachedThreadPool();
+    this.executorCapacity = executorCapacity;
+    this.pendingTaskGroupLaunches = new ArrayDeque<>();
+    this.runningCoreDemand = 0;
+    this.numOfRunningTaskGroups = 0;
+    this.workStealing = executorBacklog > 0;
     this.persistentConnectionToMasterMap = persistentConnectionToMasterMap;
     this.coderManager = coderManager;
+    this.blockManagerWorker = blockManagerWorker;
+    this.sideInputCache = sideInputCache;
     this.dataTransferFactory = dataTransferFactory;
     this.metricMessageSender = metricMessageSender;
+    this.metricRegistry = metricRegistry;
     messageEnvironment.setupListener(MessageEnvironment.EXECUTOR_MESSAGE_LISTENER_ID, new ExecutorMessageReceiver());
   }
 
@@ -93,7 +139,97 @@ public final class Executor {
   private synchronized void onTaskGroupReceived(final ScheduledTaskGroup scheduledTaskGroup) {
     LOG.debug("Executor [{}] received TaskGroup [{}] to execute.",
         new Object[]{executorId, scheduledTaskGroup.getTaskGroup().getTaskGroupId()});
-    executorService.execute(() -> launchTaskGroup(scheduledTaskGroup));
+    pendingTaskGroupLaunches.addLast(new TaskGroupLaunch(scheduledTaskGroup));
+    launchPendingTaskGroups();
+  }
+
+  /**
+   * Launches the pending task groups in order, while their core demands fit in the remaining cores.
+   * A task group demanding more than the capacity runs alone.
+   */
+  private synchronized void launchPendingTaskGroups() {
+    while (!pendingTaskGroupLaunches.isEmpty()) {
+      final double coreDemand = pendingTaskGroupLaunches.peekFirst().scheduledTaskGroup.getTaskGroup().getCoreDemand();
+      if (numOfRunningTaskGroups > 0 && runningCoreDemand + coreDemand > executorCapacity + CORE_DEMAND_EPSILON) {
+        return;
+      }
+      runningCoreDemand += coreDemand;
+      numOfRunningTaskGroups++;
+      executorService.execute(pendingTaskGroupLaunches.pollFirst());
+    }
+  }
+
+  /**
+   * Releases the cores of a finished task group, for the pending ones to run.
+   * @param taskGroupLaunch the launch of the finished task group.
+   */
+  private synchronized void onTaskGroupLaunchDone(final TaskGroupLaunch taskGroupLaunch) {
+    runningCoreDemand -= taskGroupLaunch.scheduledTaskGroup.getTaskGroup().getCoreDemand();
+    numOfRunningTaskGroups--;
+    launchPendingTaskGroups();
+  }
+
+  /**
+   * Removes the blocks of a finished job, with their cached side inputs and the coders of their edges,
+   * so that an executor running many jobs holds only the data of the running ones.
+   * @param removeBlocksMsg the message with the blocks of the job.
+   */
+  private void onRemoveBlocks(final ControlMessage.RemoveBlocksMsg removeBlocksMsg) {
+    final List<String> blockIds = removeBlocksMsg.getBlockIdList();
+    blockManagerWorker.removeBlocksOfFinishedJob(blockIds, removeBlocksMsg.getRemoveRemoteBlocks());
+    final Set<String> runtimeEdgeIds = new HashSet<>();
+    blockIds.forEach(blockId -> {
+      sideInputCache.evict(blockId);
+      runtimeEdgeIds.add(RuntimeIdGenerator.getRuntimeEdgeIdFromBlockId(blockId));
+    });
+    runtimeEdgeIds.forEach(coderManager::removeCoder);
+  }
+
+  /**
+   * Gives up the most recently assigned task group that has not yet started, to be moved to an idle executor.
+   * @param thiefExecutorId of the idle executor.
+   */
+  private synchronized void onYieldRequested(final String thiefExecutorId) {
+    final TaskGroupLaunch lastPending = pendingTaskGroupLaunches.pollLast();
+    final ControlMessage.PendingTaskGroupYieldedMsg.Builder yieldedMsgBuilder =
+        ControlMessage.PendingTaskGroupYieldedMsg.newBuilder()
+            .setExecutorId(executorId)
+            .setThiefExecutorId(thiefExecutorId);
+    if (lastPending != null) {
+      final String taskGroupId = lastPending.scheduledTaskGroup.getTaskGroup().getTaskGroupId();
+      LOG.debug("Executor [{}] yields TaskGroup [{}] to [{}]", new Object[]{executorId, taskGroupId, thiefExecutorId});
+      yieldedMsgBuilder.setTaskGroupId(taskGroupId);
+    }
+    sendToMaster(ControlMessage.Message.newBuilder()
+        .setId(RuntimeIdGenerator.generateMessageId())
+        .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+        .setType(ControlMessage.MessageType.PendingTaskGroupYielded)
+        .setPendingTaskGroupYieldedMsg(yieldedMsgBuilder.build())
+        .build());
+  }
+
+  /**
+   * Requests a task group to steal from the backlogged executors, if no task group is waiting in this executor.
+   */
+  private synchronized void requestStealIfIdle() {
+    if (workStealing && pendingTaskGroupLaunches.isEmpty()) {
+      sendToMaster(ControlMessage.Message.newBuilder()
+          .setId(RuntimeIdGenerator.generateMessageId())
+          .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+          .setType(ControlMessage.MessageType.RequestTaskGroupSteal)
+          .setRequestTaskGroupStealMsg(ControlMessage.RequestTaskGroupStealMsg.newBuilder()
+              .setExecutorId(executorId)
+              .build())
+          .build());
+    }
+  }
+
+  /**
+   * @param message to send to the runtime master.
+   */
+  private void sendToMaster(final ControlMessage.Message message) {
+    persistentConnectionToMasterMap.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+        .send(message);
   }
 
   /**
@@ -121,7 +257,8 @@ public final class Executor {
           taskGroupStateManager,
           scheduledTaskGroup.getTaskGroupIncomingEdges(),
           scheduledTaskGroup.getTaskGroupOutgoingEdges(),
-          dataTransferFactory).execute();
+          dataTransferFactory,
+          metricRegistry).execute();
     } catch (final Exception e) {
       persistentConnectionToMasterMap.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID).send(
           ControlMessage.Message.newBuilder()
@@ -134,11 +271,12 @@ public final class Executor {
                   .build())
               .build());
       throw e;
-    } finally {
-      terminate();
     }
   }
 
+  /**
+   * Closes this executor, shipping the metrics and the coalesced messages left to the master.
+   */
   public void terminate() {
     try {
       metricMessageSender.close();
@@ -146,6 +284,33 @@ public final class Executor {
       throw new UnknownFailureCauseException(
           new Exception("Closing MetricManagerWorker failed in executor " + executorId));
     }
+    persistentConnectionToMasterMap.flush();
+    executorService.shutdown();
+  }
+
+  /**
+   * Launches a received task group, and looks for another one to steal when it is done.
+   */
+  private final class TaskGroupLaunch implements Runnable {
+    private final ScheduledTaskGroup scheduledTaskGroup;
+
+    /**
+     * Constructor.
+     * @param scheduledTaskGroup the task group to launch.
+     */
+    private TaskGroupLaunch(final ScheduledTaskGroup scheduledTaskGroup) {
+      this.scheduledTaskGroup = scheduledTaskGroup;
+    }
+
+    @Override
+    public void run() {
+      try {
+        launchTaskGroup(scheduledTaskGroup);
+      } finally {
+        onTaskGroupLaunchDone(this);
+      }
+      requestStealIfIdle();
+    }
   }
 
   /**
@@ -162,6 +327,12 @@ public final class Executor {
             SerializationUtils.deserialize(scheduleTaskGroupMsg.getTaskGroup().toByteArray());
         onTaskGroupReceived(scheduledTaskGroup);
         break;
+      case YieldPendingTaskGroup:
+        onYieldRequested(message.getYieldPendingTaskGroupMsg().getThiefExecutorId());
+        break;
+      case RemoveBlocks:
+        onRemoveBlocks(message.getRemoveBlocksMsg());
+        break;
       default:
         throw new IllegalMessageException(
             new Exception("This message should not be received by an executor :" + message.getType()));
@@ -15,6 +15,7 @@
  */
 package edu.snu.onyx.runtime.executor;
 
+import edu.snu.onyx.conf.JobConf;
 import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.common.comm.ControlMessage;
 import edu.snu.onyx.runtime.common.message.MessageEnvironment;
@@ -37,54 +38,75 @@ import org.slf4j.LoggerFactory;
 @EvaluatorSide
 public final class MetricManagerWorker implements MetricMessageSender {
 
+  private final String executorId;
   private final ScheduledExecutorService scheduledExecutorService;
   private final BlockingQueue<ControlMessage.Metric> metricMessageQueue;
+  private final MetricRegistry metricRegistry;
+  private final PersistentConnectionToMasterMap persistentConnectionToMasterMap;
   private final AtomicBoolean closed;
 
   private static final Logger LOG = LoggerFactory.getLogger(MetricManagerWorker.class.getName());
 
   @Inject
-  private MetricManagerWorker(@Parameter(MetricFlushPeriod.class) final long flushingPeriod,
+  private MetricManagerWorker(@Parameter(JobConf.ExecutorId.class) final String executorId,
+                              @Parameter(MetricFlushPeriod.class) final long flushingPeriod,
+                              final MetricRegistry metricRegistry,
                               final PersistentConnectionToMasterMap persistentConnectionToMasterMap) {
+    this.executorId = executorId;
     this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
     this.metricMessageQueue = new LinkedBlockingQueue<>();
+    this.metricRegistry = metricRegistry;
+    this.persistentConnectionToMasterMap = persistentConnectionToMasterMap;
     this.closed = new AtomicBoolean(false);
-    Runnable batchMetricMessages = () -> {
-
-      while (!closed.get() && !metricMessageQueue.isEmpty()) {
-
-        // Build batched metric messages
-        int size = metricMessageQueue.size();
-
-        final ControlMessage.MetricMsg.Builder metricMsgBuilder = ControlMessage.MetricMsg.newBuilder();
+    this.scheduledExecutorService.scheduleAtFixedRate(this::flush, 0, flushingPeriod, TimeUnit.MILLISECONDS);
+  }
 
-        for (int i = 0; i < size; i++) {
-          final ControlMessage.Metric metric = metricMessageQueue.poll();
-          metricMsgBuilder.addMetric(i, metric);
-        }
+  /**
+   * Ships the metrics queued and those aggregated in the {@link MetricRegistry} since the previous flush
+   * in a single message.
+   */
+  private synchronized void flush() {
+    // Build batched metric messages
+    final ControlMessage.MetricMsg.Builder metricMsgBuilder = ControlMessage.MetricMsg.newBuilder()
+        .setExecutorId(executorId)
+        .addAllNumericMetric(metricRegistry.drain());
+    final int size = metricMessageQueue.size();
+    for (int i = 0; i < size; i++) {
+      metricMsgBuilder.addMetric(metricMessageQueue.poll());
+    }
+    if (metricMsgBuilder.getMetricCount() == 0 && metricMsgBuilder.getNumericMetricCount() == 0) {
+      return;
+    }
 
-        persistentConnectionToMasterMap.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID).send(
-            ControlMessage.Message.newBuilder()
-                .setId(RuntimeIdGenerator.generateMessageId())
-                .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
-                .setType(ControlMessage.MessageType.MetricMessageReceived)
-                .setMetricMsg(metricMsgBuilder.build())
-                .build());
-      }
-    };
-    this.scheduledExecutorService.scheduleAtFixedRate(batchMetricMessages, 0,
-                                                      flushingPeriod, TimeUnit.MILLISECONDS);
+    persistentConnectionToMasterMap.getMessageSender(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID).send(
+        ControlMessage.Message.newBuilder()
+            .setId(RuntimeIdGenerator.generateMessageId())
+            .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+            .setType(ControlMessage.MessageType.MetricMessageReceived)
+            .setMetricMsg(metricMsgBuilder.build())
+            .build());
   }
 
   @Override
   public void send(final String metricKey, final String metricValue) {
-    metricMessageQueue.add(
-        ControlMessage.Metric.newBuilder().setMetricKey(metricKey).setMetricValue(metricValue).build());
+    if (!closed.get()) {
+      metricMessageQueue.add(
+          ControlMessage.Metric.newBuilder().setMetricKey(metricKey).setMetricValue(metricValue).build());
+    }
   }
 
   @Override
   public void close() throws UnknownFailureCauseException {
-    closed.set(true);
-    scheduledExecutorService.shutdown();
+    if (closed.compareAndSet(false, true)) {
+      scheduledExecutorService.shutdown();
+      try {
+        scheduledExecutorService.awaitTermination(1, TimeUnit.SECONDS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new UnknownFailureCauseException(e);
+      }
+      // Ship the metrics left since the last periodic flush.
+      flush();
+    }
   }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.executor;
+
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.metric.LatencyHistogram;
+import org.apache.reef.annotations.audience.EvaluatorSide;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Aggregates the numeric metrics of the hot paths of this executor, without locking the recording threads.
+ * {@link MetricManagerWorker} periodically drains the metrics aggregated in the meantime, and ships them to the master.
+ * The metrics are named by what they measure and the runtime vertex or edge they measure,
+ * so that their number does not grow with the number of task groups executed.
+ */
+@EvaluatorSide
+@ThreadSafe
+public final class MetricRegistry {
+  public static final String RECORDS_IN = "RecordsIn/";
+  public static final String RECORDS_OUT = "RecordsOut/";
+  public static final String INPUT_WAIT_NANOS = "InputWaitNanos/";
+  public static final String FETCH_LATENCY_NANOS = "FetchLatencyNanos/";
+  public static final String BYTES_SERIALIZED = "BytesSerialized/";
+  public static final String BYTES_DESERIALIZED = "BytesDeserialized/";
+  public static final String FILE_BYTES_WRITTEN = "FileBytesWritten/";
+  public static final String GC_COUNT = "GcCount";
+  public static final String GC_TIME_MILLIS = "GcTimeMillis";
+
+  private final ConcurrentMap<String, LongAdder> counters;
+  private final ConcurrentMap<String, LongSupplier> gauges;
+  private final ConcurrentMap<String, LatencyHistogram> histograms;
+
+  /**
+   * Constructor, which registers the gauges of the garbage collection of this JVM.
+   */
+  @Inject
+  private MetricRegistry() {
+    this.counters = new ConcurrentHashMap<>();
+    this.gauges = new ConcurrentHashMap<>();
+    this.histograms = new ConcurrentHashMap<>();
+
+    final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    registerGauge(GC_COUNT, () -> gcBeans.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum());
+    registerGauge(GC_TIME_MILLIS, () -> gcBeans.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum());
+  }
+
+  /**
+   * Gets a counter, creating it if absent.
+   * @param name of the counter.
+   * @return the counter.
+   */
+  public LongAdder counter(final String name) {
+    return counters.computeIfAbsent(name, key -> new LongAdder());
+  }
+
+  /**
+   * Gets a histogram, creating it if absent.
+   * @param name of the histogram.
+   * @return the histogram.
+   */
+  public LatencyHistogram histogram(final String name) {
+    return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+  }
+
+  /**
+   * Registers a gauge, whose value is read when the metrics are drained.
+   * @param name  of the gauge.
+   * @param gauge to read the value from.
+   */
+  public void registerGauge(final String name, final LongSupplier gauge) {
+    gauges.put(name, gauge);
+  }
+
+  /**
+   * Takes out the increments of the counters and the values recorded in the histograms since the previous drain,
+   * along with the current values of the gauges. The counters and histograms left unchanged are omitted.
+   * @return the drained metrics.
+   */
+  public List<ControlMessage.NumericMetric> drain() {
+    final List<ControlMessage.NumericMetric> drained = new ArrayList<>();
+    counters.forEach((name, counter) -> {
+      final long increment = counter.sumThenReset();
+      if (increment != 0) {
+        drained.add(ControlMessage.NumericMetric.newBuilder()
+            .setName(name)
+            .setType(ControlMessage.NumericMetricType.COUNTER)
+            .setValue(increment)
+            .build());
+      }
+    });
+    gauges.forEach((name, gauge) -> drained.add(ControlMessage.NumericMetric.newBuilder()
+        .setName(name)
+        .setType(ControlMessage.NumericMetricType.GAUGE)
+        .setValue(gauge.getAsLong())
+        .build()));
+    histograms.forEach((name, histogram) -> {
+      final ControlMessage.HistogramMsg histogramMsg = histogram.drain();
+      if (histogramMsg != null) {
+        drained.add(ControlMessage.NumericMetric.newBuilder()
+            .setName(name)
+            .setType(ControlMessage.NumericMetricType.HISTOGRAM)
+            .setHistogram(histogramMsg)
+            .build());
+      }
+    });
+    return drained;
+  }
+}
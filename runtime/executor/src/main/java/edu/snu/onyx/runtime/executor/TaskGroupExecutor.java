@@ -22,6 +22,9 @@ import edu.snu.onyx.common.exception.BlockWriteException;
 import edu.snu.onyx.common.ir.Reader;
 import edu.snu.onyx.common.ir.vertex.transform.Transform;
 import edu.snu.onyx.common.ir.vertex.OperatorVertex;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.metric.LatencyHistogram;
+import edu.snu.onyx.runtime.common.metric.TraceClock;
 import edu.snu.onyx.runtime.common.plan.RuntimeEdge;
 import edu.snu.onyx.runtime.common.plan.physical.*;
 import edu.snu.onyx.runtime.common.state.TaskGroupState;
@@ -37,6 +40,9 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.stream.Collectors;
@@ -54,6 +60,7 @@ public final class TaskGroupExecutor {
   private final List<PhysicalStageEdge> stageIncomingEdges;
   private final List<PhysicalStageEdge> stageOutgoingEdges;
   private final DataTransferFactory channelFactory;
+  private final MetricRegistry metricRegistry;
 
   /**
    * Map of task IDs in this task group to their readers/writers.
@@ -67,12 +74,14 @@ public final class TaskGroupExecutor {
                            final TaskGroupStateManager taskGroupStateManager,
                            final List<PhysicalStageEdge> stageIncomingEdges,
                            final List<PhysicalStageEdge> stageOutgoingEdges,
-                           final DataTransferFactory channelFactory) {
+                           final DataTransferFactory channelFactory,
+                           final MetricRegistry metricRegistry) {
     this.taskGroup = taskGroup;
     this.taskGroupStateManager = taskGroupStateManager;
     this.stageIncomingEdges = stageIncomingEdges;
     this.stageOutgoingEdges = stageOutgoingEdges;
     this.channelFactory = channelFactory;
+    this.metricRegistry = metricRegistry;
 
     this.taskIdToInputReaderMap = new HashMap<>();
     this.taskIdToOutputWriterMap = new HashMap<>();
@@ -202,11 +211,13 @@ public final class TaskGroupExecutor {
   private void launchBoundedSourceTask(final BoundedSourceTask boundedSourceTask) throws Exception {
     final Reader reader = boundedSourceTask.getReader();
     final Iterable readData = reader.read();
+    metricRegistry.counter(MetricRegistry.RECORDS_OUT + boundedSourceTask.getRuntimeVertexId())
+        .add(countElements(readData));
 
-    taskIdToOutputWriterMap.get(boundedSourceTask.getId()).forEach(outputWriter -> {
-      outputWriter.write(readData);
-      outputWriter.close();
-    });
+    final AtomicLong writeNanos = new AtomicLong(0);
+    taskIdToOutputWriterMap.get(boundedSourceTask.getId()).forEach(outputWriter ->
+        writeAndClose(outputWriter, readData, writeNanos));
+    taskGroupStateManager.onTaskTimeSpent(boundedSourceTask.getId(), 0, writeNanos.get());
   }
 
   /**
@@ -215,79 +226,104 @@ public final class TaskGroupExecutor {
    */
   private void launchOperatorTask(final OperatorTask operatorTask) {
     final Map<Transform, Object> sideInputMap = new HashMap<>();
-
-    // Check for side inputs
-    taskIdToInputReaderMap.get(operatorTask.getId()).stream().filter(InputReader::isSideInputReader)
-        .forEach(inputReader -> {
-          try {
-            final Object sideInput = inputReader.getSideInput().get();
-            final RuntimeEdge inEdge = inputReader.getRuntimeEdge();
-            final Transform srcTransform;
-            if (inEdge instanceof PhysicalStageEdge) {
-              srcTransform = ((OperatorVertex) ((PhysicalStageEdge) inEdge).getSrcVertex())
-                  .getTransform();
-            } else {
-              srcTransform = ((OperatorTask) inEdge.getSrc()).getTransform();
+    final AtomicLong fetchWaitNanos = new AtomicLong(0);
+    final AtomicLong writeNanos = new AtomicLong(0);
+
+    try {
+      // Check for side inputs
+      taskIdToInputReaderMap.get(operatorTask.getId()).stream().filter(InputReader::isSideInputReader)
+          .forEach(inputReader -> {
+            try {
+              final long waitStartNanos = System.nanoTime();
+              final Object sideInput = inputReader.getSideInput().get();
+              fetchWaitNanos.addAndGet(System.nanoTime() - waitStartNanos);
+              final RuntimeEdge inEdge = inputReader.getRuntimeEdge();
+              final Transform srcTransform;
+              if (inEdge instanceof PhysicalStageEdge) {
+                srcTransform = ((OperatorVertex) ((PhysicalStageEdge) inEdge).getSrcVertex())
+                    .getTransform();
+              } else {
+                srcTransform = ((OperatorTask) inEdge.getSrc()).getTransform();
+              }
+              sideInputMap.put(srcTransform, sideInput);
+            } catch (final InterruptedException | ExecutionException e) {
+              throw new BlockFetchException(e);
             }
-            sideInputMap.put(srcTransform, sideInput);
-          } catch (final InterruptedException | ExecutionException e) {
-            throw new BlockFetchException(e);
-          }
-        });
-
-    final Transform.Context transformContext = new ContextImpl(sideInputMap);
-    final OutputCollectorImpl outputCollector = new OutputCollectorImpl();
-
-    final Transform transform = operatorTask.getTransform();
-    transform.prepare(transformContext, outputCollector);
-
-    // Check for non-side inputs
-    // This blocking queue contains the pairs having data and source vertex ids.
-    final BlockingQueue<Pair<Iterable, String>> dataQueue = new LinkedBlockingQueue<>();
-    final AtomicInteger sourceParallelism = new AtomicInteger(0);
-    taskIdToInputReaderMap.get(operatorTask.getId()).stream().filter(inputReader -> !inputReader.isSideInputReader())
-        .forEach(inputReader -> {
-          final List<CompletableFuture<Iterable>> futures = inputReader.read();
-          final String srcVtxId = inputReader.getSrcVertexId();
-          sourceParallelism.getAndAdd(inputReader.getSourceParallelism());
-          // Add consumers which will push the data to the data queue when it ready to the futures.
-          futures.forEach(compFuture -> compFuture.whenComplete((data, exception) -> {
-            if (exception != null) {
-              throw new BlockFetchException(exception);
-            }
-            dataQueue.add(Pair.of(data, srcVtxId));
-          }));
-        });
+          });
+
+      final Transform.Context transformContext = new ContextImpl(sideInputMap, operatorTask.getIndex(),
+          operatorTask.getParallelism());
+      final OutputCollectorImpl outputCollector = new OutputCollectorImpl();
+
+      final Transform transform = operatorTask.getTransform();
+      transform.prepare(transformContext, outputCollector);
+
+      // Check for non-side inputs
+      // This blocking queue contains the pairs having data and source vertex ids.
+      final BlockingQueue<Pair<Iterable, String>> dataQueue = new LinkedBlockingQueue<>();
+      final AtomicInteger sourceParallelism = new AtomicInteger(0);
+      final LongAdder recordsIn = metricRegistry.counter(MetricRegistry.RECORDS_IN + operatorTask.getRuntimeVertexId());
+      final LongAdder recordsOut =
+          metricRegistry.counter(MetricRegistry.RECORDS_OUT + operatorTask.getRuntimeVertexId());
+      final LatencyHistogram inputWait =
+          metricRegistry.histogram(MetricRegistry.INPUT_WAIT_NANOS + operatorTask.getRuntimeVertexId());
+      taskIdToInputReaderMap.get(operatorTask.getId()).stream().filter(inputReader -> !inputReader.isSideInputReader())
+          .forEach(inputReader -> {
+            final long fetchStartMicros = TraceClock.nowMicros();
+            final List<CompletableFuture<Iterable>> futures = inputReader.read();
+            final String srcVtxId = inputReader.getSrcVertexId();
+            sourceParallelism.getAndAdd(futures.size());
+            // Add consumers which will push the data to the data queue when it ready to the futures.
+            futures.forEach(compFuture -> compFuture.whenComplete((data, exception) -> {
+              if (exception != null) {
+                throw new BlockFetchException(exception);
+              }
+              taskGroupStateManager.recordSpan(inputReader.getId(), ControlMessage.TraceSpanCategory.FETCH,
+                  fetchStartMicros, TraceClock.nowMicros());
+              dataQueue.add(Pair.of(data, srcVtxId));
+            }));
+          });
+
+      // Consumes all of the partitions from incoming edges.
+      IntStream.range(0, sourceParallelism.get()).forEach(srcTaskNum -> {
+        try {
+          // Because the data queue is a blocking queue, we may need to wait some available data to be pushed.
+          final long waitStartNanos = System.nanoTime();
+          final Pair<Iterable, String> availableData = dataQueue.take();
+          final long waitNanos = System.nanoTime() - waitStartNanos;
+          inputWait.record(waitNanos);
+          fetchWaitNanos.addAndGet(waitNanos);
+          recordsIn.add(countElements(availableData.left()));
+          transform.onData(availableData.left(), availableData.right());
+        } catch (final InterruptedException e) {
+          throw new BlockFetchException(e);
+        }
 
-    // Consumes all of the partitions from incoming edges.
-    IntStream.range(0, sourceParallelism.get()).forEach(srcTaskNum -> {
-      try {
-        // Because the data queue is a blocking queue, we may need to wait some available data to be pushed.
-        final Pair<Iterable, String> availableData = dataQueue.take();
-        transform.onData(availableData.left(), availableData.right());
-      } catch (final InterruptedException e) {
-        throw new BlockFetchException(e);
-      }
+        // Check whether there is any output data from the transform and write the output of this task to the writer.
+        final List output = outputCollector.collectOutputList();
+        recordsOut.add(output.size());
+        if (!output.isEmpty() && taskIdToOutputWriterMap.containsKey(operatorTask.getId())) {
+          final long writeStartNanos = System.nanoTime();
+          taskIdToOutputWriterMap.get(operatorTask.getId()).forEach(outputWriter -> outputWriter.write(output));
+          writeNanos.addAndGet(System.nanoTime() - writeStartNanos);
+        } // If else, this is a sink task.
+      });
+      transform.close();
 
       // Check whether there is any output data from the transform and write the output of this task to the writer.
       final List output = outputCollector.collectOutputList();
-      if (!output.isEmpty() && taskIdToOutputWriterMap.containsKey(operatorTask.getId())) {
-        taskIdToOutputWriterMap.get(operatorTask.getId()).forEach(outputWriter -> outputWriter.write(output));
-      } // If else, this is a sink task.
-    });
-    transform.close();
-
-    // Check whether there is any output data from the transform and write the output of this task to the writer.
-    final List output = outputCollector.collectOutputList();
-    if (taskIdToOutputWriterMap.containsKey(operatorTask.getId())) {
-      taskIdToOutputWriterMap.get(operatorTask.getId()).forEach(outputWriter -> {
-        if (!output.isEmpty()) {
-          outputWriter.write(output);
-        }
-        outputWriter.close();
-      });
-    } else {
-      LOG.info("This is a sink task: {}", operatorTask.getId());
+      recordsOut.add(output.size());
+      if (taskIdToOutputWriterMap.containsKey(operatorTask.getId())) {
+        taskIdToOutputWriterMap.get(operatorTask.getId()).forEach(outputWriter ->
+            writeAndClose(outputWriter, output.isEmpty() ? null : output, writeNanos));
+      } else {
+        LOG.info("This is a sink task: {}", operatorTask.getId());
+      }
+    } finally {
+      taskGroupStateManager.onTaskTimeSpent(operatorTask.getId(), fetchWaitNanos.get(), writeNanos.get());
+      // Let the side inputs shared with the other tasks be evicted once no task uses them.
+      taskIdToInputReaderMap.get(operatorTask.getId()).stream().filter(InputReader::isSideInputReader)
+          .forEach(InputReader::releaseSideInput);
     }
   }
 
@@ -300,8 +336,9 @@ public final class TaskGroupExecutor {
     final AtomicInteger sourceParallelism = new AtomicInteger(0);
     taskIdToInputReaderMap.get(task.getId()).stream().filter(inputReader -> !inputReader.isSideInputReader())
         .forEach(inputReader -> {
-          sourceParallelism.getAndAdd(inputReader.getSourceParallelism());
-          inputReader.read().forEach(compFuture -> compFuture.thenAccept(dataQueue::add));
+          final List<CompletableFuture<Iterable>> futures = inputReader.read();
+          sourceParallelism.getAndAdd(futures.size());
+          futures.forEach(compFuture -> compFuture.thenAccept(dataQueue::add));
         });
 
     final List data = new ArrayList<>();
@@ -318,4 +355,40 @@ public final class TaskGroupExecutor {
       outputWriter.close();
     });
   }
+
+  /**
+   * Writes the last output of a task and commits the block, recording the time spent as a span.
+   * @param outputWriter to write the output to.
+   * @param output       the output to write, or {@code null} to only commit the block.
+   * @param writeNanos   the time spent by the task writing its output, to add the time spent to.
+   */
+  private void writeAndClose(final OutputWriter outputWriter,
+                             @Nullable final Iterable output,
+                             final AtomicLong writeNanos) {
+    final long writeStartNanos = System.nanoTime();
+    final long writeStartMicros = TraceClock.nowMicros();
+    if (output != null) {
+      outputWriter.write(output);
+    }
+    outputWriter.close();
+    writeNanos.addAndGet(System.nanoTime() - writeStartNanos);
+    taskGroupStateManager.recordSpan(outputWriter.getId(), ControlMessage.TraceSpanCategory.WRITE,
+        writeStartMicros, TraceClock.nowMicros());
+  }
+
+  /**
+   * Counts the elements in an iterable, without iterating it if it is a collection.
+   * @param data the elements to count.
+   * @return the number of the elements.
+   */
+  private static long countElements(final Iterable data) {
+    if (data instanceof Collection) {
+      return ((Collection) data).size();
+    }
+    long count = 0;
+    for (final Object element : data) {
+      count++;
+    }
+    return count;
+  }
 }
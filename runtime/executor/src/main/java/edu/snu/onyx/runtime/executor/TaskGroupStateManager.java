@@ -17,6 +17,7 @@ package edu.snu.onyx.runtime.executor;
 
 import edu.snu.onyx.common.exception.UnknownExecutionStateException;
 import edu.snu.onyx.common.exception.UnknownFailureCauseException;
+import edu.snu.onyx.common.Pair;
 import edu.snu.onyx.common.StateMachine;
 import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.common.comm.ControlMessage;
@@ -27,8 +28,10 @@ import edu.snu.onyx.runtime.common.state.TaskGroupState;
 import edu.snu.onyx.runtime.common.state.TaskState;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import edu.snu.onyx.runtime.common.metric.MetricDataBuilder;
+import edu.snu.onyx.runtime.common.metric.TraceClock;
 import org.apache.reef.annotations.audience.EvaluatorSide;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +39,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Manages the states related to a task group.
+ * It also records the spans of the task group, its tasks, and their block fetches and writes,
+ * and ships them to the master along with the final state of the task group.
  * The methods of this class are synchronized.
  */
 @EvaluatorSide
@@ -47,6 +52,9 @@ public final class TaskGroupStateManager {
   private final String executorId;
   private final MetricMessageSender metricMessageSender;
   private final Map<String, MetricDataBuilder> metricDataBuilderMap;
+  private final Map<String, Long> compUnitIdToStartMicros;
+  private final Map<String, Pair<Long, Long>> taskIdToFetchWaitAndWriteMicros;
+  private final List<ControlMessage.TraceSpanMsg> traceSpans;
 
   /**
    * Used to track all task states of this task group, by keeping a map of task ids to their states.
@@ -75,6 +83,9 @@ public final class TaskGroupStateManager {
     this.persistentConnectionToMasterMap = persistentConnectionToMasterMap;
     this.metricMessageSender = metricMessageSender;
     metricDataBuilderMap = new HashMap<>();
+    compUnitIdToStartMicros = new HashMap<>();
+    taskIdToFetchWaitAndWriteMicros = new HashMap<>();
+    traceSpans = new ArrayList<>();
     idToTaskStates = new HashMap<>();
     currentTaskGroupTaskIds = new HashSet<>();
     initializeStates(taskGroup);
@@ -131,6 +142,8 @@ public final class TaskGroupStateManager {
       break;
     case ON_HOLD:
       LOG.debug("TaskGroup ID {} put on hold.", this.taskGroupId);
+      metric.put("ToState", newState);
+      endMeasurement(taskGroupId, metric);
       notifyTaskGroupStateToMaster(newState, tasksPutOnHold, cause);
       break;
     default:
@@ -163,24 +176,27 @@ public final class TaskGroupStateManager {
       beginMeasurement(taskId, metric);
       break;
     case COMPLETE:
+      // The span of the task is ended before the task group ships the spans to the master.
+      metric.put("ToState", newState);
+      endMeasurement(taskId, metric);
       currentTaskGroupTaskIds.remove(taskId);
       if (currentTaskGroupTaskIds.isEmpty()) {
         onTaskGroupStateChanged(TaskGroupState.State.COMPLETE, Optional.empty(), cause);
       }
-      metric.put("ToState", newState);
-      endMeasurement(taskId, metric);
       break;
     case FAILED_RECOVERABLE:
-      onTaskGroupStateChanged(TaskGroupState.State.FAILED_RECOVERABLE, Optional.empty(), cause);
       metric.put("ToState", newState);
       endMeasurement(taskId, metric);
+      onTaskGroupStateChanged(TaskGroupState.State.FAILED_RECOVERABLE, Optional.empty(), cause);
       break;
     case FAILED_UNRECOVERABLE:
-      onTaskGroupStateChanged(TaskGroupState.State.FAILED_UNRECOVERABLE, Optional.empty(), cause);
       metric.put("ToState", newState);
       endMeasurement(taskId, metric);
+      onTaskGroupStateChanged(TaskGroupState.State.FAILED_UNRECOVERABLE, Optional.empty(), cause);
       break;
     case ON_HOLD:
+      metric.put("ToState", newState);
+      endMeasurement(taskId, metric);
       currentTaskGroupTaskIds.remove(taskId);
       if (currentTaskGroupTaskIds.isEmpty()) {
         onTaskGroupStateChanged(TaskGroupState.State.ON_HOLD, Optional.of(Arrays.asList(taskId)), cause);
@@ -191,6 +207,36 @@ public final class TaskGroupStateManager {
     }
   }
 
+  /**
+   * Records the time a task spent waiting for its input and writing its output, to be added to its span.
+   * @param taskId         of the task.
+   * @param fetchWaitNanos the time spent waiting for the input.
+   * @param writeNanos     the time spent writing the output.
+   */
+  public synchronized void onTaskTimeSpent(final String taskId, final long fetchWaitNanos, final long writeNanos) {
+    taskIdToFetchWaitAndWriteMicros.put(taskId,
+        Pair.of(TimeUnit.NANOSECONDS.toMicros(fetchWaitNanos), TimeUnit.NANOSECONDS.toMicros(writeNanos)));
+  }
+
+  /**
+   * Records a span of a block fetch or write of this task group.
+   * @param name        of the span, such as the ID of the block.
+   * @param category    of the span.
+   * @param startMicros the start time of the span, from {@link TraceClock}.
+   * @param endMicros   the end time of the span, from {@link TraceClock}.
+   */
+  public synchronized void recordSpan(final String name,
+                                      final ControlMessage.TraceSpanCategory category,
+                                      final long startMicros,
+                                      final long endMicros) {
+    traceSpans.add(ControlMessage.TraceSpanMsg.newBuilder()
+        .setName(name)
+        .setCategory(category)
+        .setStartMicros(startMicros)
+        .setDurationMicros(endMicros - startMicros)
+        .build());
+  }
+
   /**
    * Notifies the change in task group state to master.
    * @param newState of the task group.
@@ -213,7 +259,9 @@ public final class TaskGroupStateManager {
           .setTaskGroupId(taskGroupId)
           .setAttemptIdx(attemptIdx)
           .setState(convertState(newState))
-          .addAllTasksPutOnHoldIds(tasksPutOnHoldList.get());
+          .addAllTasksPutOnHoldIds(tasksPutOnHoldList.get())
+          .addAllTraceSpan(traceSpans);
+    traceSpans.clear();
     if (cause.isPresent()) {
       msgBuilder.setFailureCause(convertFailureCause(cause.get()));
     }
@@ -270,6 +318,7 @@ public final class TaskGroupStateManager {
     final MetricDataBuilder metricDataBuilder = new MetricDataBuilder(compUnitId);
     metricDataBuilder.beginMeasurement(initialMetric);
     metricDataBuilderMap.put(compUnitId, metricDataBuilder);
+    compUnitIdToStartMicros.put(compUnitId, TraceClock.nowMicros());
   }
 
   /**
@@ -283,6 +332,25 @@ public final class TaskGroupStateManager {
     metricDataBuilder.endMeasurement(finalMetric);
     //metricMessageSender.send(compUnitId, metricDataBuilder.build().toJson());
     metricDataBuilderMap.remove(compUnitId);
+
+    final long startMicros = compUnitIdToStartMicros.remove(compUnitId);
+    final ControlMessage.TraceSpanMsg.Builder spanBuilder = ControlMessage.TraceSpanMsg.newBuilder()
+        .setName(compUnitId)
+        .setStartMicros(startMicros)
+        .setDurationMicros(TraceClock.nowMicros() - startMicros);
+    if (compUnitId.equals(taskGroupId)) {
+      // The time spent by the task group is that spent by its tasks.
+      spanBuilder.setCategory(ControlMessage.TraceSpanCategory.TASK_GROUP)
+          .setFetchWaitMicros(taskIdToFetchWaitAndWriteMicros.values().stream().mapToLong(Pair::left).sum())
+          .setWriteMicros(taskIdToFetchWaitAndWriteMicros.values().stream().mapToLong(Pair::right).sum());
+    } else {
+      final Pair<Long, Long> fetchWaitAndWriteMicros =
+          taskIdToFetchWaitAndWriteMicros.getOrDefault(compUnitId, Pair.of(0L, 0L));
+      spanBuilder.setCategory(ControlMessage.TraceSpanCategory.TASK)
+          .setFetchWaitMicros(fetchWaitAndWriteMicros.left())
+          .setWriteMicros(fetchWaitAndWriteMicros.right());
+    }
+    traceSpans.add(spanBuilder.build());
   }
 
   // Tentative
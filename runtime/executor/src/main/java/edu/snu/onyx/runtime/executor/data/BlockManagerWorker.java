@@ -15,13 +15,16 @@
  */
 package edu.snu.onyx.runtime.executor.data;
 
+import com.google.common.annotations.VisibleForTesting;
 import edu.snu.onyx.common.exception.BlockFetchException;
 import edu.snu.onyx.common.exception.BlockWriteException;
 import edu.snu.onyx.common.exception.UnsupportedExecutionPropertyException;
 import edu.snu.onyx.common.ir.edge.executionproperty.DataStoreProperty;
 import edu.snu.onyx.common.ir.edge.executionproperty.UsedDataHandlingProperty;
 import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.data.HashRange;
 import edu.snu.onyx.runtime.common.data.KeyRange;
+import edu.snu.onyx.runtime.executor.MetricRegistry;
 import edu.snu.onyx.runtime.executor.data.blocktransfer.BlockTransfer;
 import edu.snu.onyx.runtime.executor.data.stores.BlockStore;
 import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
@@ -62,6 +65,9 @@ public final class BlockManagerWorker {
   // Executor service to schedule I/O Runnable which can be done in background.
   private final ExecutorService backgroundExecutorService;
   private final Map<String, AtomicInteger> blockToRemainingRead;
+  // The broadcast blocks being fetched from the peers, to fetch each of them only once.
+  private final Map<String, CompletableFuture<Iterable>> blockToPeerFetch;
+  private final MetricRegistry metricRegistry;
 
   @Inject
   private BlockManagerWorker(@Parameter(JobConf.ExecutorId.class) final String executorId,
@@ -71,7 +77,8 @@ public final class BlockManagerWorker {
                              final LocalFileStore localFileStore,
                              final RemoteFileStore remoteFileStore,
                              final PersistentConnectionToMasterMap persistentConnectionToMasterMap,
-                             final BlockTransfer blockTransfer) {
+                             final BlockTransfer blockTransfer,
+                             final MetricRegistry metricRegistry) {
     this.executorId = executorId;
     this.memoryStore = memoryStore;
     this.serializedMemoryStore = serializedMemoryStore;
@@ -81,6 +88,26 @@ public final class BlockManagerWorker {
     this.blockTransfer = blockTransfer;
     this.backgroundExecutorService = Executors.newFixedThreadPool(numThreads);
     this.blockToRemainingRead = new ConcurrentHashMap<>();
+    this.blockToPeerFetch = new ConcurrentHashMap<>();
+    this.metricRegistry = metricRegistry;
+  }
+
+  /**
+   * Stops the transfers and the background threads of this worker.
+   * The executors of a cluster in a single JVM are closed this way, rather than by the exit of their processes.
+   */
+  public void close() {
+    blockTransfer.close();
+    backgroundExecutorService.shutdown();
+  }
+
+  /**
+   * @return the number of the blocks in the local stores of this worker.
+   */
+  @VisibleForTesting
+  public int getNumLocalBlocks() {
+    return memoryStore.getBlockMap().size() + serializedMemoryStore.getBlockMap().size()
+        + localFileStore.getBlockMap().size();
   }
 
   /**
@@ -132,7 +159,102 @@ public final class BlockManagerWorker {
       throw new BlockFetchException(new Throwable("Cannot find a block in remote store."));
     } else {
       // We don't have the block here...
-      return requestBlockInRemoteWorker(blockId, runtimeEdgeId, blockStore, keyRange);
+      return requestBlockInRemoteWorker(blockId, runtimeEdgeId, blockStore, keyRange, false);
+    }
+  }
+
+  /**
+   * Retrieves the whole data of a broadcast block from the owner of the block or the peers which already fetched it.
+   * The fetched data is kept in this worker as a replica of the block, and the master is notified
+   * so that the other workers can fetch the block from this worker, forming a fan-out tree.
+   * The block should be kept after use, as the owner does not count the reads served by the peers.
+   *
+   * @param blockId       of the block.
+   * @param runtimeEdgeId id of the runtime edge that corresponds to the block.
+   * @param blockStore    for the data storage.
+   * @return the result data in the block.
+   */
+  public CompletableFuture<Iterable> retrieveDataFromPeers(final String blockId,
+                                                           final String runtimeEdgeId,
+                                                           final DataStoreProperty.Value blockStore) {
+    // The replica being written is read only after it is completely fetched.
+    final CompletableFuture<Iterable> ongoingFetch = blockToPeerFetch.get(blockId);
+    if (ongoingFetch != null) {
+      return ongoingFetch;
+    }
+    final BlockStore store = getBlockStore(blockStore);
+    final KeyRange wholeRange = HashRange.all();
+    final Optional<Iterable<NonSerializedPartition>> optionalResultPartitions =
+        store.getPartitions(blockId, wholeRange);
+    if (optionalResultPartitions.isPresent()) {
+      try {
+        return CompletableFuture.completedFuture(DataUtil.concatNonSerPartitions(optionalResultPartitions.get()));
+      } catch (final IOException e) {
+        throw new BlockFetchException(e);
+      }
+    }
+
+    final CompletableFuture<Iterable> newFetch = new CompletableFuture<>();
+    final CompletableFuture<Iterable> ongoingOrNewFetch =
+        blockToPeerFetch.putIfAbsent(RuntimeIdGenerator.intern(blockId), newFetch);
+    if (ongoingOrNewFetch != null) {
+      return ongoingOrNewFetch;
+    }
+
+    requestBlockInRemoteWorker(blockId, runtimeEdgeId, blockStore, wholeRange, true)
+        .whenComplete((data, fetchException) -> {
+          final List<Object> fetchedData = new ArrayList<>();
+          Throwable exception = fetchException;
+          if (exception == null) {
+            try {
+              data.forEach(fetchedData::add);
+            } catch (final RuntimeException e) {
+              exception = e;
+            }
+          }
+          final boolean replicated = exception == null && addReplica(blockId, store, fetchedData);
+          // The master releases the location this worker fetched from, even if the fetch failed.
+          persistentConnectionToMasterMap.getMessageSender(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID)
+              .send(ControlMessage.Message.newBuilder()
+                  .setId(RuntimeIdGenerator.generateMessageId())
+                  .setListenerId(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID)
+                  .setType(ControlMessage.MessageType.PeerFetchFinished)
+                  .setPeerFetchFinishedMsg(ControlMessage.PeerFetchFinishedMsg.newBuilder()
+                      .setExecutorId(executorId)
+                      .setBlockId(blockId)
+                      .setReplicated(replicated))
+                  .build());
+          blockToPeerFetch.remove(blockId, newFetch);
+          if (exception == null) {
+            newFetch.complete(fetchedData);
+          } else {
+            newFetch.completeExceptionally(exception);
+          }
+        });
+    return newFetch;
+  }
+
+  /**
+   * Keeps the data fetched from a peer as a replica of the block.
+   *
+   * @param blockId     of the block.
+   * @param store       to keep the replica in.
+   * @param fetchedData the whole data of the block.
+   * @return whether the replica is kept.
+   */
+  private boolean addReplica(final String blockId,
+                             final BlockStore store,
+                             final List<Object> fetchedData) {
+    try {
+      store.createBlock(blockId);
+      store.putPartitions(blockId, Collections.singletonList(new NonSerializedPartition<>(0, fetchedData)), false);
+      store.commitBlock(blockId);
+      return true;
+    } catch (final Exception e) {
+      // The data is still served to the reader, but not to the peers.
+      LOG.warn("Failed to keep a replica of " + blockId, e);
+      store.removeBlock(blockId);
+      return false;
     }
   }
 
@@ -144,13 +266,16 @@ public final class BlockManagerWorker {
    * @param runtimeEdgeId id of the runtime edge that corresponds to the block.
    * @param blockStore    for the data storage.
    * @param keyRange     the key range descriptor
+   * @param servedByPeers whether the block can be served by the peers which already fetched it.
    * @return the {@link CompletableFuture} of the block.
    */
   private CompletableFuture<Iterable> requestBlockInRemoteWorker(
       final String blockId,
       final String runtimeEdgeId,
       final DataStoreProperty.Value blockStore,
-      final KeyRange keyRange) {
+      final KeyRange keyRange,
+      final boolean servedByPeers) {
+    final long fetchStartNanos = System.nanoTime();
     // Let's see if a remote worker has it
     // Ask Master for the location
     final CompletableFuture<ControlMessage.Message> responseFromMasterFuture = persistentConnectionToMasterMap
@@ -163,6 +288,7 @@ public final class BlockManagerWorker {
                     ControlMessage.RequestBlockLocationMsg.newBuilder()
                         .setExecutorId(executorId)
                         .setBlockId(blockId)
+                        .setServedByPeers(servedByPeers)
                         .build())
                 .build());
     // Using thenCompose so that fetching block data starts after getting response from master.
@@ -179,7 +305,8 @@ public final class BlockManagerWorker {
       final String remoteWorkerId = blockLocationInfoMsg.getOwnerExecutorId();
       return blockTransfer.initiatePull(remoteWorkerId, false, blockStore, blockId,
           runtimeEdgeId, keyRange).getCompleteFuture();
-    });
+    }).whenComplete((data, exception) -> metricRegistry.histogram(MetricRegistry.FETCH_LATENCY_NANOS + runtimeEdgeId)
+        .record(System.nanoTime() - fetchStartNanos));
   }
 
   /**
@@ -202,7 +329,17 @@ public final class BlockManagerWorker {
     final BlockStore store = getBlockStore(blockStore);
 
     try {
-      return store.putPartitions(blockId, (Iterable) partitions, commitPerPartition);
+      final Optional<List<Long>> partitionSizes =
+          store.putPartitions(blockId, (Iterable) partitions, commitPerPartition);
+      if (partitionSizes.isPresent()) {
+        final long bytes = partitionSizes.get().stream().mapToLong(Long::longValue).sum();
+        final String runtimeEdgeId = RuntimeIdGenerator.getRuntimeEdgeIdFromBlockId(blockId);
+        metricRegistry.counter(MetricRegistry.BYTES_SERIALIZED + runtimeEdgeId).add(bytes);
+        if (store instanceof FileStore) {
+          metricRegistry.counter(MetricRegistry.FILE_BYTES_WRITTEN + runtimeEdgeId).add(bytes);
+        }
+      }
+      return partitionSizes;
     } catch (final Exception e) {
       throw new BlockWriteException(e);
     }
@@ -227,7 +364,7 @@ public final class BlockManagerWorker {
     LOG.info("CommitBlock: {}", blockId);
     switch (usedDataHandling) {
       case Discard:
-        blockToRemainingRead.put(blockId, new AtomicInteger(expectedReadTotal));
+        blockToRemainingRead.put(RuntimeIdGenerator.intern(blockId), new AtomicInteger(expectedReadTotal));
         break;
       case Keep:
         // Do nothing but just keep the data.
@@ -268,6 +405,7 @@ public final class BlockManagerWorker {
               .setDataSizeMetricMsg(ControlMessage.DataSizeMetricMsg.newBuilder()
                   .setBlockId(blockId)
                   .setSrcIRVertexId(srcIRVertexId)
+                  .setExecutorId(executorId)
                   .addAllPartitionSizeInfo(partitionSizeInfo)
               )
               .build());
@@ -312,6 +450,42 @@ public final class BlockManagerWorker {
     }
   }
 
+  /**
+   * Removes the blocks of a finished job in the background, from the stores of this executor which hold them.
+   * The master has already dropped the metadata of the blocks, so it is not notified of the removals.
+   *
+   * @param blockIds           the IDs of the blocks of the job.
+   * @param removeRemoteBlocks whether to remove the blocks in the remote store as well,
+   *                           which is done by a single executor.
+   */
+  public void removeBlocksOfFinishedJob(final Collection<String> blockIds,
+                                        final boolean removeRemoteBlocks) {
+    final List<BlockStore> stores = new ArrayList<>(Arrays.asList(memoryStore, serializedMemoryStore, localFileStore));
+    if (removeRemoteBlocks) {
+      stores.add(remoteFileStore);
+    }
+    backgroundExecutorService.submit(new Runnable() {
+      @Override
+      public void run() {
+        int numRemovedBlocks = 0;
+        for (final String blockId : blockIds) {
+          blockToRemainingRead.remove(blockId);
+          blockToPeerFetch.remove(blockId);
+          for (final BlockStore store : stores) {
+            try {
+              if (store.removeBlock(blockId)) {
+                numRemovedBlocks++;
+              }
+            } catch (final BlockFetchException e) {
+              LOG.warn("Failed to remove the block " + blockId + " of a finished job", e);
+            }
+          }
+        }
+        LOG.info("Removed {} blocks of a finished job", numRemovedBlocks);
+      }
+    });
+  }
+
   /**
    * Handles used {@link edu.snu.onyx.runtime.executor.data.block.Block}.
    *
@@ -16,6 +16,7 @@
 package edu.snu.onyx.runtime.executor.data;
 
 import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 
 import javax.inject.Inject;
 import java.util.concurrent.ConcurrentHashMap;
@@ -38,7 +39,7 @@ public final class CoderManager {
    * @param coder         the corresponding coder.
    */
   public void registerCoder(final String runtimeEdgeId, final Coder coder) {
-    runtimeEdgeIdToCoder.putIfAbsent(runtimeEdgeId, coder);
+    runtimeEdgeIdToCoder.putIfAbsent(RuntimeIdGenerator.intern(runtimeEdgeId), coder);
   }
 
   /**
@@ -54,4 +55,13 @@ public final class CoderManager {
     }
     return coder;
   }
+
+  /**
+   * Remove the coder of a runtime edge of a finished job.
+   *
+   * @param runtimeEdgeId id of the runtime edge.
+   */
+  public void removeCoder(final String runtimeEdgeId) {
+    runtimeEdgeIdToCoder.remove(runtimeEdgeId);
+  }
 }
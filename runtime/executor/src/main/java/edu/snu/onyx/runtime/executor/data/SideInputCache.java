@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.executor.data;
+
+import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.common.ir.edge.executionproperty.UsedDataHandlingProperty;
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.metric.MetricData;
+import edu.snu.onyx.runtime.executor.MetricMessageSender;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.reef.annotations.audience.EvaluatorSide;
+import org.apache.reef.tang.annotations.Parameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Executor-wide cache of the decoded side inputs, keyed by the ID of the block they are read from.
+ * The tasks of the TaskGroups running on this executor share a side input read from the same block,
+ * instead of fetching and decoding it again for each of them.
+ *
+ * Each entry is reference-counted by the tasks using it. When no task uses it any more, the entry is evicted
+ * if the block is discarded after use, or retained for the later TaskGroups otherwise.
+ * The retained entries are evicted in the least recently used order
+ * if their total size exceeds {@link JobConf.SideInputCacheBytes}.
+ * Blocks to be discarded are not shared at all, as their owners count the reads to discard them.
+ */
+@ThreadSafe
+@EvaluatorSide
+public final class SideInputCache {
+  private static final Logger LOG = LoggerFactory.getLogger(SideInputCache.class.getName());
+
+  private final String executorId;
+  private final long capacityBytes;
+  private final MetricMessageSender metricMessageSender;
+
+  /**
+   * The entries in the order of access, which is the order of eviction.
+   */
+  private final LinkedHashMap<String, Entry> blockIdToEntry;
+  private long retainedBytes;
+  private long totalHits;
+  private long totalBytesSaved;
+
+  /**
+   * Constructor.
+   * @param executorId          the id of the executor holding this cache.
+   * @param capacityBytes       the number of bytes of side inputs this cache retains at most.
+   * @param metricMessageSender the sender of the hit metrics of this cache.
+   */
+  @Inject
+  private SideInputCache(@Parameter(JobConf.ExecutorId.class) final String executorId,
+                         @Parameter(JobConf.SideInputCacheBytes.class) final long capacityBytes,
+                         final MetricMessageSender metricMessageSender) {
+    this.executorId = executorId;
+    this.capacityBytes = capacityBytes;
+    this.metricMessageSender = metricMessageSender;
+    this.blockIdToEntry = new LinkedHashMap<>(16, 0.75f, true);
+    this.retainedBytes = 0;
+    this.totalHits = 0;
+    this.totalBytesSaved = 0;
+  }
+
+  /**
+   * Gets the side input read from a block, and holds a reference to it until {@link #release(String)}.
+   * @param blockId          of the block to read the side input from.
+   * @param usedDataHandling how the block is handled after use.
+   * @param coder            to measure the size of the side input with.
+   * @param loader           to read the side input from the block, if it is not cached.
+   * @return the future of the side input.
+   */
+  public synchronized CompletableFuture<Object> acquire(final String blockId,
+                                                        final UsedDataHandlingProperty.Value usedDataHandling,
+                                                        final Coder coder,
+                                                        final Supplier<CompletableFuture<Object>> loader) {
+    if (UsedDataHandlingProperty.Value.Discard.equals(usedDataHandling)) {
+      return loader.get();
+    }
+
+    final Entry cachedEntry = blockIdToEntry.get(blockId);
+    if (cachedEntry != null) {
+      if (cachedEntry.refCount == 0) {
+        retainedBytes -= cachedEntry.sizeBytes;
+      }
+      cachedEntry.refCount++;
+      cachedEntry.hits++;
+      totalHits++;
+      totalBytesSaved += cachedEntry.sizeBytes;
+      LOG.debug("Side input of {} is served from the cache", blockId);
+      return cachedEntry.sideInput;
+    }
+
+    final Entry entry = new Entry();
+    blockIdToEntry.put(RuntimeIdGenerator.intern(blockId), entry);
+    try {
+      entry.sideInput = loader.get().thenApply(sideInput -> {
+        final long sizeBytes = measureSize(sideInput, coder);
+        synchronized (this) {
+          entry.sizeBytes = sizeBytes;
+          if (entry.refCount == 0 && blockIdToEntry.get(blockId) == entry) {
+            retainedBytes += sizeBytes;
+            evictIfNeeded();
+          }
+        }
+        return sideInput;
+      });
+    } catch (final RuntimeException e) {
+      blockIdToEntry.remove(blockId);
+      throw e;
+    }
+    // A side input failed to be read is not to be served again.
+    entry.sideInput.whenComplete((sideInput, exception) -> {
+      if (exception != null) {
+        synchronized (this) {
+          blockIdToEntry.remove(blockId, entry);
+        }
+      }
+    });
+    return entry.sideInput;
+  }
+
+  /**
+   * Releases the reference to the side input of a block, acquired by {@link #acquire}.
+   * @param blockId of the block.
+   */
+  public synchronized void release(final String blockId) {
+    final Entry entry = blockIdToEntry.get(blockId);
+    if (entry != null && entry.refCount > 0) {
+      entry.refCount--;
+      if (entry.refCount == 0) {
+        retainedBytes += entry.sizeBytes;
+        evictIfNeeded();
+      }
+    }
+  }
+
+  /**
+   * Evicts the side input of a block of a finished job, unless a task still uses it.
+   * @param blockId of the block.
+   */
+  public synchronized void evict(final String blockId) {
+    final Entry entry = blockIdToEntry.get(blockId);
+    if (entry != null && entry.refCount == 0) {
+      blockIdToEntry.remove(blockId);
+      retainedBytes -= entry.sizeBytes;
+      onEvicted(blockId, entry);
+    }
+  }
+
+  /**
+   * @return the number of the side inputs served from the cache.
+   */
+  public synchronized long getTotalHits() {
+    return totalHits;
+  }
+
+  /**
+   * @return the number of bytes that the side inputs served from the cache would have taken to be read again.
+   */
+  public synchronized long getTotalBytesSaved() {
+    return totalBytesSaved;
+  }
+
+  /**
+   * @param blockId of the block.
+   * @return whether the side input of the block is cached.
+   */
+  public synchronized boolean contains(final String blockId) {
+    return blockIdToEntry.containsKey(blockId);
+  }
+
+  /**
+   * Evicts the least recently used entries not referenced by any task, until the retained ones fit the capacity.
+   */
+  private void evictIfNeeded() {
+    final Iterator<Map.Entry<String, Entry>> iterator = blockIdToEntry.entrySet().iterator();
+    while (retainedBytes > capacityBytes && iterator.hasNext()) {
+      final Map.Entry<String, Entry> blockIdAndEntry = iterator.next();
+      final Entry entry = blockIdAndEntry.getValue();
+      if (entry.refCount == 0) {
+        iterator.remove();
+        retainedBytes -= entry.sizeBytes;
+        onEvicted(blockIdAndEntry.getKey(), entry);
+      }
+    }
+  }
+
+  /**
+   * Reports the metrics of an evicted entry.
+   * @param blockId of the block.
+   * @param entry   the evicted entry.
+   */
+  private void onEvicted(final String blockId, final Entry entry) {
+    LOG.debug("Side input of {} is evicted after {} hits", blockId, entry.hits);
+    final Map<String, Object> metric = new HashMap<>();
+    metric.put("ExecutorId", executorId);
+    metric.put("SideInputBytes", entry.sizeBytes);
+    metric.put("CacheHits", entry.hits);
+    metric.put("BytesSaved", entry.hits * entry.sizeBytes);
+    metricMessageSender.send(blockId, new MetricData(blockId, metric).toJson());
+  }
+
+  /**
+   * @param sideInput the side input.
+   * @param coder     to encode the side input with.
+   * @return the number of bytes of the encoded side input.
+   */
+  private static long measureSize(final Object sideInput, final Coder coder) {
+    final CountingOutputStream countingOutputStream = new CountingOutputStream();
+    try {
+      coder.encode(sideInput, countingOutputStream);
+    } catch (final IOException | RuntimeException e) {
+      LOG.warn("Failed to measure the size of a side input", e);
+    }
+    return countingOutputStream.count;
+  }
+
+  /**
+   * A cached side input.
+   */
+  private static final class Entry {
+    private CompletableFuture<Object> sideInput;
+    private int refCount;
+    private long sizeBytes;
+    private long hits;
+
+    /**
+     * Constructor of an entry referenced by its first reader.
+     */
+    private Entry() {
+      this.refCount = 1;
+      this.sizeBytes = 0;
+      this.hits = 0;
+    }
+  }
+
+  /**
+   * An {@link OutputStream} which only counts the bytes written.
+   */
+  private static final class CountingOutputStream extends OutputStream {
+    private long count = 0;
+
+    @Override
+    public void write(final int b) {
+      count++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+      count += len;
+    }
+  }
+}
@@ -52,6 +52,7 @@ public final class FileBlock<K extends Serializable> implements Block<K> {
   /**
    * Writes the serialized data of this block having a specific key value as a partition to the file
    * where this block resides.
+   * The regions for all the partitions are reserved at once before writing them.
    * Invariant: This method does not support concurrent write for a single block.
    *            Only one thread have to write at once.
    *
@@ -60,21 +61,23 @@ public final class FileBlock<K extends Serializable> implements Block<K> {
    */
   private void writeSerializedPartitions(final Iterable<SerializedPartition<K>> serializedPartitions)
       throws IOException {
+    final List<SerializedPartition<K>> partitionsToWrite = new ArrayList<>();
+    serializedPartitions.forEach(partitionsToWrite::add);
+    // Reserve the partition writes and get the metadata.
+    final List<PartitionMetadata<K>> partitionMetadataList = metadata.reservePartitions(partitionsToWrite);
+
     try (final FileOutputStream fileOutputStream = new FileOutputStream(filePath, true)) {
-      for (final SerializedPartition<K> serializedPartition : serializedPartitions) {
-        // Reserve a partition write and get the metadata.
-        final PartitionMetadata partitionMetadata = metadata.reservePartition(
-            serializedPartition.getKey(), serializedPartition.getLength(), serializedPartition.getElementsTotal());
+      for (final SerializedPartition<K> serializedPartition : partitionsToWrite) {
         fileOutputStream.write(serializedPartition.getData(), 0, serializedPartition.getLength());
-
-        // Commit if needed.
-        if (commitPerBlock) {
-          metadata.commitPartitions(Collections.singleton(partitionMetadata));
-        } else {
-          partitionMetadataToCommit.add(partitionMetadata);
-        }
       }
     }
+
+    // Commit if needed.
+    if (commitPerBlock) {
+      metadata.commitPartitions(new ArrayList<>(partitionMetadataList));
+    } else {
+      partitionMetadataToCommit.addAll(partitionMetadataList);
+    }
   }
 
   /**
@@ -28,6 +28,7 @@ import java.util.Iterator;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
@@ -55,6 +56,7 @@ public final class BlockInputStream<T> implements Iterable<T>, BlockStream {
   private final KeyRange keyRange;
   private Coder<T> coder;
   private ExecutorService executorService;
+  private LongAdder receivedBytes = new LongAdder();
 
   private final CompletableFuture<BlockInputStream<T>> completeFuture = new CompletableFuture<>();
   private final ByteBufInputStream byteBufInputStream = new ByteBufInputStream();
@@ -104,6 +106,15 @@ public final class BlockInputStream<T> implements Iterable<T>, BlockStream {
     this.executorService = service;
   }
 
+  /**
+   * Sets the counter of the bytes received by this stream.
+   *
+   * @param counter the counter
+   */
+  void setReceivedBytesCounter(final LongAdder counter) {
+    this.receivedBytes = counter;
+  }
+
   /**
    * Supply {@link ByteBuf} to this stream.
    *
@@ -111,6 +122,7 @@ public final class BlockInputStream<T> implements Iterable<T>, BlockStream {
    */
   void append(final ByteBuf byteBuf) {
     if (byteBuf.readableBytes() > 0) {
+      receivedBytes.add(byteBuf.readableBytes());
       byteBufInputStream.byteBufQueue.put(byteBuf);
     } else {
       // ignore empty data frames
@@ -23,10 +23,12 @@ import edu.snu.onyx.runtime.executor.data.FileArea;
 import edu.snu.onyx.runtime.executor.data.SerializedPartition;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.*;
+import io.netty.channel.local.LocalChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.channels.FileChannel;
@@ -415,16 +417,44 @@ public final class BlockOutputStream<T> implements AutoCloseable, BlockStream {
       final Path path = Paths.get(fileArea.getPath());
       long cursor = fileArea.getPosition();
       long bytesToSend = fileArea.getCount();
+      // A local channel hands the messages over to the receiver as they are, so the file is read into buffers
+      // rather than transferred as a FileRegion.
+      final boolean isLocalChannel = channel instanceof LocalChannel;
       while (bytesToSend > 0) {
-        final long size = Math.min(bytesToSend, DataFrameEncoder.LENGTH_MAX);
-        final FileRegion fileRegion = new DefaultFileRegion(FileChannel.open(path), cursor, size);
+        final long size = Math.min(bytesToSend, isLocalChannel ? bufferSize : DataFrameEncoder.LENGTH_MAX);
+        final Object body = isLocalChannel
+            ? readFileArea(path, cursor, (int) size) : new DefaultFileRegion(FileChannel.open(path), cursor, size);
         channel.writeAndFlush(DataFrameEncoder.DataFrame.newInstance(transferType, false, transferId,
-            size, fileRegion)).addListener(writeFutureListener);
+            size, body)).addListener(writeFutureListener);
         cursor += size;
         bytesToSend -= size;
       }
       streamLength += fileArea.getCount();
     }
+
+    /**
+     * Reads a region of a file into a buffer.
+     *
+     * @param path     the path of the file
+     * @param position the position of the region in the file
+     * @param length   the length of the region
+     * @return the buffer
+     * @throws IOException when failed to read the file
+     */
+    private ByteBuf readFileArea(final Path path, final long position, final int length) throws IOException {
+      final ByteBuf buffer = channel.alloc().ioBuffer(length, length);
+      try (final FileChannel fileChannel = FileChannel.open(path)) {
+        while (buffer.isWritable()) {
+          if (buffer.writeBytes(fileChannel, position + buffer.writerIndex(), buffer.writableBytes()) < 0) {
+            throw new EOFException(String.format("%s ends before %d", path, position + length));
+          }
+        }
+      } catch (final IOException e) {
+        buffer.release();
+        throw e;
+      }
+      return buffer;
+    }
   }
 
   /**
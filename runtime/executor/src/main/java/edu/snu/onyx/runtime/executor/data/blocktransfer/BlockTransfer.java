@@ -18,6 +18,7 @@ package edu.snu.onyx.runtime.executor.data.blocktransfer;
 import edu.snu.onyx.common.ir.edge.executionproperty.DataStoreProperty;
 import edu.snu.onyx.conf.JobConf;
 import edu.snu.onyx.runtime.common.data.KeyRange;
+import edu.snu.onyx.runtime.executor.MetricRegistry;
 import edu.snu.onyx.runtime.executor.data.BlockManagerWorker;
 import edu.snu.onyx.runtime.executor.data.CoderManager;
 import io.netty.channel.*;
@@ -53,6 +54,7 @@ public final class BlockTransfer extends SimpleChannelInboundHandler<BlockStream
   private final BlockTransport blockTransport;
   private final String localExecutorId;
   private final int bufferSize;
+  private final MetricRegistry metricRegistry;
 
   private final ConcurrentMap<String, ChannelFuture> executorIdToChannelFutureMap = new ConcurrentHashMap<>();
   private final ConcurrentMap<Channel, String> channelToExecutorIdMap = new ConcurrentHashMap<>();
@@ -70,6 +72,7 @@ public final class BlockTransfer extends SimpleChannelInboundHandler<BlockStream
    * @param inboundThreads     the number of threads in thread pool for inbound block transfer
    * @param outboundThreads    the number of threads in thread pool for outbound block transfer
    * @param bufferSize         the size of outbound buffers
+   * @param metricRegistry     counts the bytes received
    */
   @Inject
   private BlockTransfer(
@@ -79,13 +82,15 @@ public final class BlockTransfer extends SimpleChannelInboundHandler<BlockStream
       @Parameter(JobConf.ExecutorId.class) final String localExecutorId,
       @Parameter(JobConf.PartitionTransferInboundNumThreads.class) final int inboundThreads,
       @Parameter(JobConf.PartitionTransferOutboundNumThreads.class) final int outboundThreads,
-      @Parameter(JobConf.PartitionTransferOutboundBufferSize.class) final int bufferSize) {
+      @Parameter(JobConf.PartitionTransferOutboundBufferSize.class) final int bufferSize,
+      final MetricRegistry metricRegistry) {
 
     this.blockManagerWorker = blockManagerWorker;
     this.coderManager = coderManager;
     this.blockTransport = blockTransport;
     this.localExecutorId = localExecutorId;
     this.bufferSize = bufferSize;
+    this.metricRegistry = metricRegistry;
 
     // Inbound thread pool can be easily saturated with multiple data transfers with the encodePartialBlock option
     // enabled. We may consider other solutions than using fixed thread pool.
@@ -114,6 +119,7 @@ public final class BlockTransfer extends SimpleChannelInboundHandler<BlockStream
     final BlockInputStream stream = new BlockInputStream(executorId, encodePartialBlock,
         Optional.of(blockStoreValue), blockId, runtimeEdgeId, keyRange);
     stream.setCoderAndExecutorService(coderManager.getCoder(runtimeEdgeId), inboundExecutorService);
+    stream.setReceivedBytesCounter(metricRegistry.counter(MetricRegistry.BYTES_DESERIALIZED + runtimeEdgeId));
     write(executorId, stream, stream::onExceptionCaught);
     return stream;
   }
@@ -182,6 +188,15 @@ public final class BlockTransfer extends SimpleChannelInboundHandler<BlockStream
     });
   }
 
+  /**
+   * Closes the transport and stops the threads of the transfers.
+   */
+  public void close() {
+    blockTransport.close();
+    inboundExecutorService.shutdown();
+    outboundExecutorService.shutdown();
+  }
+
   @Override
   protected void channelRead0(final ChannelHandlerContext ctx, final BlockStream stream) {
     final Channel channel = ctx.channel();
@@ -228,6 +243,8 @@ public final class BlockTransfer extends SimpleChannelInboundHandler<BlockStream
   private void onPushNotification(final BlockInputStream stream) {
     stream.setCoderAndExecutorService(coderManager.getCoder(stream.getRuntimeEdgeId()),
         inboundExecutorService);
+    stream.setReceivedBytesCounter(
+        metricRegistry.counter(MetricRegistry.BYTES_DESERIALIZED + stream.getRuntimeEdgeId()));
     blockManagerWorker.get().onPushNotification(stream);
   }
 
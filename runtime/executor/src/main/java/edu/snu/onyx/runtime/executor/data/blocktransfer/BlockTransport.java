@@ -21,6 +21,8 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
 import io.netty.channel.group.ChannelGroupFuture;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalServerChannel;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.Future;
 import org.apache.reef.io.network.naming.NameResolver;
@@ -34,10 +36,14 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
  * Bootstraps the server and connects to other servers on demand.
+ * The servers register their socket addresses to the name server, unless the executors run in a single JVM
+ * with the {@link edu.snu.onyx.runtime.common.LocalChannelImplementationSelector}: then the servers are bound to
+ * local addresses named after the executors, and the blocks are transferred in memory.
  */
 final class BlockTransport implements AutoCloseable {
 
@@ -45,9 +51,13 @@ final class BlockTransport implements AutoCloseable {
   private static final String SERVER_LISTENING = "block:server:listening";
   private static final String SERVER_WORKING = "block:server:working";
   private static final String CLIENT = "block:client";
+  // The channels are closed before the event loops, so no quiet period is needed to let their tasks finish.
+  private static final long SHUTDOWN_QUIET_PERIOD_MS = 0;
+  private static final long SHUTDOWN_TIMEOUT_MS = 15000;
 
   private final InjectionFuture<BlockTransfer> blockTransfer;
   private final NameResolver nameResolver;
+  private final boolean isInProcess;
 
   private final EventLoopGroup serverListeningGroup;
   private final EventLoopGroup serverWorkingGroup;
@@ -59,7 +69,7 @@ final class BlockTransport implements AutoCloseable {
    * Constructs a block transport and starts listening.
    *
    * @param blockTransfer         provides handler for inbound control messages
-   * @param nameResolver          provides naming registry
+   * @param nameResolver          provides naming registry, which is not used by the executors in a single JVM
    * @param localExecutorId       the id of this executor
    * @param channelImplSelector   provides implementation for netty channel
    * @param channelInitializer    initializes channel pipeline
@@ -88,6 +98,7 @@ final class BlockTransport implements AutoCloseable {
 
     this.blockTransfer = blockTransfer;
     this.nameResolver = nameResolver;
+    this.isInProcess = channelImplSelector.getServerChannelClass() == LocalServerChannel.class;
 
     if (port < 0) {
       throw new IllegalArgumentException(String.format("Invalid BlockTransportPort: %d", port));
@@ -105,19 +116,34 @@ final class BlockTransport implements AutoCloseable {
     clientBootstrap
         .group(clientGroup)
         .channel(channelImplSelector.getChannelClass())
-        .handler(channelInitializer)
-        .option(ChannelOption.SO_REUSEADDR, true);
+        .handler(channelInitializer);
 
     final ServerBootstrap serverBootstrap = new ServerBootstrap();
     serverBootstrap
         .group(serverListeningGroup, serverWorkingGroup)
         .channel(channelImplSelector.getServerChannelClass())
-        .childHandler(channelInitializer)
-        .option(ChannelOption.SO_BACKLOG, serverBacklog)
-        .option(ChannelOption.SO_REUSEADDR, true);
+        .childHandler(channelInitializer);
+    // The local channels have no socket options.
+    if (!isInProcess) {
+      clientBootstrap.option(ChannelOption.SO_REUSEADDR, true);
+      serverBootstrap
+          .option(ChannelOption.SO_BACKLOG, serverBacklog)
+          .option(ChannelOption.SO_REUSEADDR, true);
+    }
 
     Channel listeningChannel = null;
-    if (port == 0) {
+    if (isInProcess) {
+      final LocalAddress localAddress = new LocalAddress(new BlockTransportIdentifier(localExecutorId).toString());
+      final ChannelFuture future = serverBootstrap.bind(localAddress).awaitUninterruptibly();
+      if (!future.isSuccess()) {
+        serverListeningGroup.shutdownGracefully();
+        serverWorkingGroup.shutdownGracefully();
+        clientGroup.shutdownGracefully();
+        LOG.error(String.format("Cannot bind to %s", localAddress), future.cause());
+        throw new RuntimeException(String.format("Cannot bind to %s", localAddress), future.cause());
+      }
+      listeningChannel = future.channel();
+    } else if (port == 0) {
       for (final int candidatePort : tcpPortProvider) {
         try {
           final ChannelFuture future = serverBootstrap.bind(host, candidatePort).await();
@@ -161,12 +187,14 @@ final class BlockTransport implements AutoCloseable {
 
     serverListeningChannel = listeningChannel;
 
-    try {
-      final BlockTransportIdentifier identifier = new BlockTransportIdentifier(localExecutorId);
-      nameResolver.register(identifier, (InetSocketAddress) listeningChannel.localAddress());
-    } catch (final Exception e) {
-      LOG.error("Cannot register BlockTransport listening address to the naming registry", e);
-      throw new RuntimeException(e);
+    if (!isInProcess) {
+      try {
+        final BlockTransportIdentifier identifier = new BlockTransportIdentifier(localExecutorId);
+        nameResolver.register(identifier, (InetSocketAddress) listeningChannel.localAddress());
+      } catch (final Exception e) {
+        LOG.error("Cannot register BlockTransport listening address to the naming registry", e);
+        throw new RuntimeException(e);
+      }
     }
 
     LOG.info("BlockTransport server in {} is listening at {}", localExecutorId, listeningChannel.localAddress());
@@ -181,9 +209,12 @@ final class BlockTransport implements AutoCloseable {
 
     final ChannelFuture closeListeningChannelFuture = serverListeningChannel.close();
     final ChannelGroupFuture channelGroupCloseFuture = blockTransfer.get().getChannelGroup().close();
-    final Future serverListeningGroupCloseFuture = serverListeningGroup.shutdownGracefully();
-    final Future serverWorkingGroupCloseFuture = serverWorkingGroup.shutdownGracefully();
-    final Future clientGroupCloseFuture = clientGroup.shutdownGracefully();
+    final Future serverListeningGroupCloseFuture =
+        serverListeningGroup.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_MS, SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    final Future serverWorkingGroupCloseFuture =
+        serverWorkingGroup.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_MS, SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    final Future clientGroupCloseFuture =
+        clientGroup.shutdownGracefully(SHUTDOWN_QUIET_PERIOD_MS, SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
 
     closeListeningChannelFuture.awaitUninterruptibly();
     channelGroupCloseFuture.awaitUninterruptibly();
@@ -199,9 +230,12 @@ final class BlockTransport implements AutoCloseable {
    * @return a {@link ChannelFuture} for connecting
    */
   ChannelFuture connectTo(final String remoteExecutorId, final Consumer<Throwable> onError) {
+    final BlockTransportIdentifier identifier = new BlockTransportIdentifier(remoteExecutorId);
+    if (isInProcess) {
+      return clientBootstrap.connect(new LocalAddress(identifier.toString()));
+    }
     final InetSocketAddress address;
     try {
-      final BlockTransportIdentifier identifier = new BlockTransportIdentifier(remoteExecutorId);
       address = nameResolver.lookup(identifier);
     } catch (final Exception e) {
       LOG.error(String.format("Cannot lookup BlockTransport listening address of %s", remoteExecutorId), e);
@@ -16,8 +16,8 @@
 package edu.snu.onyx.runtime.executor.data.blocktransfer;
 
 import edu.snu.onyx.conf.JobConf;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
-import io.netty.channel.socket.SocketChannel;
 import org.apache.reef.tang.InjectionFuture;
 import org.apache.reef.tang.annotations.Parameter;
 
@@ -60,7 +60,7 @@ import javax.inject.Inject;
  * }
  * </pre>
  */
-final class BlockTransportChannelInitializer extends ChannelInitializer<SocketChannel> {
+final class BlockTransportChannelInitializer extends ChannelInitializer<Channel> {
 
   private final InjectionFuture<BlockTransfer> blockTransfer;
   private final ControlFrameEncoder controlFrameEncoder;
@@ -87,7 +87,7 @@ final class BlockTransportChannelInitializer extends ChannelInitializer<SocketCh
   }
 
   @Override
-  protected void initChannel(final SocketChannel ch) {
+  protected void initChannel(final Channel ch) {
     ch.pipeline()
         // inbound
         .addLast(new FrameDecoder())
@@ -126,13 +126,13 @@ public final class ClosableBlockingIterable<T> implements Iterable<T>, AutoClose
           while (iterable.list.size() <= index && !iterable.closed) {
             iterable.wait();
           }
-          final T element = iterable.list.get(index);
-          index++;
-          if (element == null) {
+          if (iterable.list.size() <= index) {
             throw new NoSuchElementException();
-          } else {
-            return element;
           }
+          // The element may be null, e.g., the void element of a Beam program.
+          final T element = iterable.list.get(index);
+          index++;
+          return element;
         }
       } catch (final InterruptedException e) {
         throw new RuntimeException(e);
@@ -55,7 +55,9 @@ final class ControlFrameEncoder extends MessageToMessageEncoder<ControlMessage.D
                         final ControlMessage.DataTransferControlMessage in,
                         final List out) {
     final byte[] frameBody = in.toByteArray();
-    out.add(TYPE_AND_UNUSED.retain());
+    // A duplicate has its own indices, so the shared header stays readable even if the receiver in the same JVM
+    // (over a local channel) reads the very buffer.
+    out.add(TYPE_AND_UNUSED.retainedDuplicate());
     out.add(ctx.alloc().ioBuffer(BODYLENGTH_LENGTH, BODYLENGTH_LENGTH).writeInt(frameBody.length));
     out.add(Unpooled.wrappedBuffer(frameBody));
   }
@@ -18,6 +18,7 @@ package edu.snu.onyx.runtime.executor.data.blocktransfer;
 import com.google.protobuf.ByteString;
 import edu.snu.onyx.common.exception.UnsupportedBlockStoreException;
 import edu.snu.onyx.common.ir.edge.executionproperty.DataStoreProperty;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.common.comm.ControlMessage;
 import edu.snu.onyx.runtime.common.data.KeyRange;
 import io.netty.channel.ChannelHandlerContext;
@@ -168,15 +169,16 @@ final class ControlMessageToBlockStreamCodec
                                     final List out) {
     final short transferId = (short) in.getTransferId();
     final KeyRange keyRange = SerializationUtils.deserialize(in.getKeyRange().toByteArray());
+    final String blockId = RuntimeIdGenerator.generateBlockId(in.getRuntimeEdgeId(), in.getTaskIndex());
     final BlockOutputStream outputStream = new BlockOutputStream(in.getControlMessageSourceId(),
-        in.getEncodePartialBlock(), Optional.of(convertBlockStore(in.getBlockStore())), in.getBlockId(),
+        in.getEncodePartialBlock(), Optional.of(convertBlockStore(in.getBlockStore())), blockId,
         in.getRuntimeEdgeId(), keyRange);
     pullTransferIdToOutputStream.put(transferId, outputStream);
     outputStream.setTransferIdAndChannel(ControlMessage.BlockTransferType.PULL, transferId, ctx.channel());
     out.add(outputStream);
     LOG.debug("Received pull request {} from {}({}) to {}({}) for {} ({}, {} in {})",
         new Object[]{transferId, in.getControlMessageSourceId(), remoteAddress, localExecutorId, localAddress,
-            in.getBlockId(), in.getRuntimeEdgeId(), outputStream.getKeyRange().toString(),
+            blockId, in.getRuntimeEdgeId(), outputStream.getKeyRange().toString(),
             outputStream.getBlockStore().get().toString()});
   }
 
@@ -192,13 +194,14 @@ final class ControlMessageToBlockStreamCodec
                                          final List out) {
     final short transferId = (short) in.getTransferId();
     final KeyRange keyRange = SerializationUtils.deserialize(in.getKeyRange().toByteArray());
+    final String blockId = RuntimeIdGenerator.generateBlockId(in.getRuntimeEdgeId(), in.getTaskIndex());
     final BlockInputStream inputStream = new BlockInputStream(in.getControlMessageSourceId(),
-        in.getEncodePartialBlock(), Optional.empty(), in.getBlockId(), in.getRuntimeEdgeId(), keyRange);
+        in.getEncodePartialBlock(), Optional.empty(), blockId, in.getRuntimeEdgeId(), keyRange);
     pushTransferIdToInputStream.put(transferId, inputStream);
     out.add(inputStream);
     LOG.debug("Received push notification {} from {}({}) to {}({}) for {} ({}, {})",
         new Object[]{transferId, in.getControlMessageSourceId(), remoteAddress, localExecutorId, localAddress,
-            in.getBlockId(), in.getRuntimeEdgeId(), inputStream.getKeyRange().toString()});
+            blockId, in.getRuntimeEdgeId(), inputStream.getKeyRange().toString()});
   }
 
   /**
@@ -235,8 +238,8 @@ final class ControlMessageToBlockStreamCodec
         .setType(transferType)
         .setTransferId(transferId)
         .setEncodePartialBlock(in.isEncodePartialBlockEnabled())
-        .setBlockId(in.getBlockId())
         .setRuntimeEdgeId(in.getRuntimeEdgeId())
+        .setTaskIndex(RuntimeIdGenerator.getTaskIndexFromBlockId(in.getBlockId()))
         .setKeyRange(ByteString.copyFrom(SerializationUtils.serialize(in.getKeyRange())));
     if (in.getBlockStore().isPresent()) {
       controlMessageBuilder.setBlockStore(convertBlockStore(in.getBlockStore().get()));
@@ -15,8 +15,11 @@
  */
 package edu.snu.onyx.runtime.executor.data.metadata;
 
+import edu.snu.onyx.runtime.executor.data.SerializedPartition;
+
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * This class represents a metadata for a {@link edu.snu.onyx.runtime.executor.data.block.Block}.
@@ -33,20 +36,17 @@ public abstract class FileMetadata<K extends Serializable> {
   }
 
   /**
-   * Reserves the region for a partition and get the metadata for the partition.
-   * When a writer reserves the region (or space) of a file for a data partition,
-   * other writers will write their data after the region.
+   * Reserves the consecutive regions for some partitions and get the metadata for the partitions.
+   * When a writer reserves the regions (or space) of a file for data partitions,
+   * other writers will write their data after the regions.
    * Also, the readers will judge a data partition available after the partition is committed.
    *
-   * @param key     the key of the partition.
-   * @param partitionSize the size of the partition.
-   * @param elementsTotal the number of elements in the partition.
-   * @return the {@link PartitionMetadata} having all given information, the partition offset, and the index.
+   * @param serializedPartitions the partitions to reserve the regions for, in the order to write.
+   * @return the {@link PartitionMetadata} of each partition, having the partition offset and the index.
    * @throws IOException if fail to append the partition metadata.
    */
-  public abstract PartitionMetadata<K> reservePartition(final K key,
-                                                     final int partitionSize,
-                                                     final long elementsTotal) throws IOException;
+  public abstract List<PartitionMetadata<K>> reservePartitions(final List<SerializedPartition<K>> serializedPartitions)
+      throws IOException;
 
   /**
    * Notifies that some partitions are written.
@@ -15,6 +15,8 @@
  */
 package edu.snu.onyx.runtime.executor.data.metadata;
 
+import edu.snu.onyx.runtime.executor.data.SerializedPartition;
+
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.IOException;
 import java.io.Serializable;
@@ -47,23 +49,27 @@ public final class LocalFileMetadata<K extends Serializable> extends FileMetadat
   }
 
   /**
-   * Reserves the region for a partition and get the metadata for the partition.
-   * @see FileMetadata#reservePartition(Serializable, int, long)
+   * Reserves the regions for some partitions and get the metadata for the partitions.
+   * @see FileMetadata#reservePartitions(List)
    */
   @Override
-  public synchronized PartitionMetadata reservePartition(final K key,
-                                                         final int partitionSize,
-                                                         final long elementsTotal) throws IOException {
+  public synchronized List<PartitionMetadata<K>> reservePartitions(
+      final List<SerializedPartition<K>> serializedPartitions) throws IOException {
     if (committed) {
       throw new IOException("Cannot write a new block to a closed partition.");
     }
 
-    final PartitionMetadata partitionMetadata =
-        new PartitionMetadata(partitionCount, key, partitionSize, writtenBytesCursor, elementsTotal);
-    reservePartitionMetadataQue.add(partitionMetadata);
-    partitionCount++;
-    writtenBytesCursor += partitionSize;
-    return partitionMetadata;
+    final List<PartitionMetadata<K>> partitionMetadataList = new ArrayList<>(serializedPartitions.size());
+    for (final SerializedPartition<K> serializedPartition : serializedPartitions) {
+      final PartitionMetadata<K> partitionMetadata = new PartitionMetadata<>(partitionCount,
+          serializedPartition.getKey(), serializedPartition.getLength(), writtenBytesCursor,
+          serializedPartition.getElementsTotal());
+      reservePartitionMetadataQue.add(partitionMetadata);
+      partitionCount++;
+      writtenBytesCursor += serializedPartition.getLength();
+      partitionMetadataList.add(partitionMetadata);
+    }
+    return partitionMetadataList;
   }
 
   /**
@@ -20,6 +20,7 @@ import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.common.comm.ControlMessage;
 import edu.snu.onyx.runtime.common.message.MessageEnvironment;
 import edu.snu.onyx.runtime.common.message.PersistentConnectionToMasterMap;
+import edu.snu.onyx.runtime.executor.data.SerializedPartition;
 import org.apache.beam.sdk.repackaged.org.apache.commons.lang3.SerializationUtils;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -63,34 +64,41 @@ public final class RemoteFileMetadata<K extends Serializable> extends FileMetada
   }
 
   /**
-   * Reserves the region for a partition and get the metadata for the partition.
+   * Reserves the regions for some partitions and get the metadata for the partitions.
+   * The regions of all the partitions are reserved by a single request to the metadata server.
    *
-   * @see  FileMetadata#reservePartition(Serializable, int, long)
+   * @see FileMetadata#reservePartitions(List)
    */
   @Override
-  public synchronized PartitionMetadata reservePartition(final K key,
-                                                         final int partitionSize,
-                                                         final long elementsTotal) throws IOException {
-    // Convert the block metadata to a block metadata message (without offset).
-    final ControlMessage.PartitionMetadataMsg partitionMetadataMsg =
-        ControlMessage.PartitionMetadataMsg.newBuilder()
-            .setKey(ByteString.copyFrom(SerializationUtils.serialize(key)))
-            .setPartitionSize(partitionSize)
-            .setNumElements(elementsTotal)
-            .build();
-
-    // Send the partition metadata to the metadata server in the master and ask where to store the partition.
+  public synchronized List<PartitionMetadata<K>> reservePartitions(
+      final List<SerializedPartition<K>> serializedPartitions) throws IOException {
+    final List<PartitionMetadata<K>> partitionMetadataList = new ArrayList<>(serializedPartitions.size());
+    if (serializedPartitions.isEmpty()) {
+      return partitionMetadataList;
+    }
+
+    // Convert the partition metadata to partition metadata messages (without offset).
+    final ControlMessage.ReservePartitionMsg.Builder reservePartitionMsgBuilder =
+        ControlMessage.ReservePartitionMsg.newBuilder()
+            .setExecutorId(executorId)
+            .setBlockId(blockId);
+    for (final SerializedPartition<K> serializedPartition : serializedPartitions) {
+      reservePartitionMsgBuilder.addPartitionMetadata(
+          ControlMessage.PartitionMetadataMsg.newBuilder()
+              .setKey(ByteString.copyFrom(SerializationUtils.serialize(serializedPartition.getKey())))
+              .setPartitionSize(serializedPartition.getLength())
+              .setNumElements(serializedPartition.getElementsTotal())
+              .build());
+    }
+
+    // Send the partition metadata to the metadata server in the master and ask where to store the partitions.
     final CompletableFuture<ControlMessage.Message> reservePartitionResponseFuture =
         connectionToMaster.getMessageSender(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID).request(
             ControlMessage.Message.newBuilder()
                 .setId(RuntimeIdGenerator.generateMessageId())
                 .setListenerId(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID)
                 .setType(ControlMessage.MessageType.ReservePartition)
-                .setReservePartitionMsg(
-                    ControlMessage.ReservePartitionMsg.newBuilder()
-                        .setExecutorId(executorId)
-                        .setBlockId(blockId)
-                        .setPartitionMetadata(partitionMetadataMsg))
+                .setReservePartitionMsg(reservePartitionMsgBuilder)
                 .build());
 
     // Get the response from the metadata server.
@@ -107,9 +115,17 @@ public final class RemoteFileMetadata<K extends Serializable> extends FileMetada
     if (!reservePartitionResponseMsg.hasPositionToWrite()) {
       throw new IOException("Cannot append the block metadata.");
     }
-    final int partitionIdx = reservePartitionResponseMsg.getPartitionIdx();
-    final long positionToWrite = reservePartitionResponseMsg.getPositionToWrite();
-    return new PartitionMetadata(partitionIdx, key, partitionSize, positionToWrite, elementsTotal);
+
+    // The partitions are given consecutive indices and contiguous regions.
+    int partitionIdx = reservePartitionResponseMsg.getPartitionIdx();
+    long positionToWrite = reservePartitionResponseMsg.getPositionToWrite();
+    for (final SerializedPartition<K> serializedPartition : serializedPartitions) {
+      partitionMetadataList.add(new PartitionMetadata<>(partitionIdx, serializedPartition.getKey(),
+          serializedPartition.getLength(), positionToWrite, serializedPartition.getElementsTotal()));
+      partitionIdx++;
+      positionToWrite += serializedPartition.getLength();
+    }
+    return partitionMetadataList;
   }
 
   /**
@@ -18,6 +18,7 @@ package edu.snu.onyx.runtime.executor.data.stores;
 import edu.snu.onyx.common.exception.BlockFetchException;
 import edu.snu.onyx.conf.JobConf;
 import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.common.data.KeyRange;
 import edu.snu.onyx.runtime.executor.data.*;
 import edu.snu.onyx.runtime.executor.data.metadata.LocalFileMetadata;
@@ -56,10 +57,12 @@ public final class LocalFileStore extends LocalBlockStore implements FileStore {
 
     final Coder coder = getCoderFromWorker(blockId);
     final LocalFileMetadata metadata = new LocalFileMetadata(false);
+    final String filePath = DataUtil.blockIdToFilePath(blockId, fileDirectory);
+    // A file of the same block ID left by a previous run would be appended to otherwise.
+    new File(filePath).delete();
 
-    final FileBlock block =
-        new FileBlock(coder, DataUtil.blockIdToFilePath(blockId, fileDirectory), metadata);
-    getBlockMap().put(blockId, block);
+    final FileBlock block = new FileBlock(coder, filePath, metadata);
+    getBlockMap().put(RuntimeIdGenerator.intern(blockId), block);
   }
 
   /**
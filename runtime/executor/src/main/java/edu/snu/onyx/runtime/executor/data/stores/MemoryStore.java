@@ -16,6 +16,7 @@
 package edu.snu.onyx.runtime.executor.data.stores;
 
 import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.executor.data.CoderManager;
 import edu.snu.onyx.runtime.executor.data.block.NonSerializedMemoryBlock;
 
@@ -36,7 +37,7 @@ public final class MemoryStore extends LocalBlockStore {
   @Override
   public void createBlock(final String blockId) {
     final Coder coder = getCoderFromWorker(blockId);
-    getBlockMap().put(blockId, new NonSerializedMemoryBlock(coder));
+    getBlockMap().put(RuntimeIdGenerator.intern(blockId), new NonSerializedMemoryBlock(coder));
   }
 
   /**
@@ -16,6 +16,7 @@
 package edu.snu.onyx.runtime.executor.data.stores;
 
 import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.executor.data.CoderManager;
 import edu.snu.onyx.runtime.executor.data.block.SerializedMemoryBlock;
 
@@ -36,7 +37,7 @@ public final class SerializedMemoryStore extends LocalBlockStore {
   @Override
   public void createBlock(final String blockId) {
     final Coder coder = getCoderFromWorker(blockId);
-    getBlockMap().put(blockId, new SerializedMemoryBlock(coder));
+    getBlockMap().put(RuntimeIdGenerator.intern(blockId), new SerializedMemoryBlock(coder));
   }
 
   /**
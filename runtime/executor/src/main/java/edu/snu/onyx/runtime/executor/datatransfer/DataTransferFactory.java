@@ -5,6 +5,7 @@ import edu.snu.onyx.common.ir.vertex.IRVertex;
 import edu.snu.onyx.runtime.common.plan.RuntimeEdge;
 import edu.snu.onyx.runtime.common.plan.physical.Task;
 import edu.snu.onyx.runtime.executor.data.BlockManagerWorker;
+import edu.snu.onyx.runtime.executor.data.SideInputCache;
 import org.apache.reef.tang.annotations.Parameter;
 
 import javax.inject.Inject;
@@ -15,13 +16,16 @@ import javax.inject.Inject;
 public final class DataTransferFactory {
 
   private final BlockManagerWorker blockManagerWorker;
+  private final SideInputCache sideInputCache;
   private final int hashRangeMultiplier;
 
   @Inject
   public DataTransferFactory(@Parameter(JobConf.HashRangeMultiplier.class) final int hashRangeMultiplier,
-                             final BlockManagerWorker blockManagerWorker) {
+                             final BlockManagerWorker blockManagerWorker,
+                             final SideInputCache sideInputCache) {
     this.hashRangeMultiplier = hashRangeMultiplier;
     this.blockManagerWorker = blockManagerWorker;
+    this.sideInputCache = sideInputCache;
   }
 
   /**
@@ -56,7 +60,8 @@ public final class DataTransferFactory {
                                   final IRVertex srcRuntimeVertex,
                                   final RuntimeEdge runtimeEdge) {
     return new InputReader(
-        dstTask.getIndex(), dstTask.getTaskGroupId(), srcRuntimeVertex, runtimeEdge, blockManagerWorker);
+        dstTask.getIndex(), dstTask.getTaskGroupId(), srcRuntimeVertex, runtimeEdge, blockManagerWorker,
+        sideInputCache);
   }
 
   /**
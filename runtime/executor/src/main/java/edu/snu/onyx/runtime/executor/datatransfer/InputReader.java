@@ -16,8 +16,11 @@
 package edu.snu.onyx.runtime.executor.datatransfer;
 
 import com.google.common.annotations.VisibleForTesting;
+import edu.snu.onyx.common.Pair;
 import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataFlowModelProperty;
 import edu.snu.onyx.common.ir.edge.executionproperty.DataStoreProperty;
+import edu.snu.onyx.common.ir.edge.executionproperty.UsedDataHandlingProperty;
 import edu.snu.onyx.common.ir.vertex.IRVertex;
 import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
 import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
@@ -29,6 +32,7 @@ import edu.snu.onyx.common.exception.BlockFetchException;
 import edu.snu.onyx.common.exception.UnsupportedCommPatternException;
 import edu.snu.onyx.runtime.common.data.HashRange;
 import edu.snu.onyx.runtime.executor.data.BlockManagerWorker;
+import edu.snu.onyx.runtime.executor.data.SideInputCache;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -48,6 +52,13 @@ public final class InputReader extends DataTransfer {
   private final int dstTaskIndex;
   private final String taskGroupId;
   private final BlockManagerWorker blockManagerWorker;
+  private final SideInputCache sideInputCache;
+
+  /**
+   * The ID of the block the side input is acquired from, if any.
+   */
+  @Nullable
+  private String acquiredSideInputBlockId;
 
   /**
    * Attributes that specify how we should read the input.
@@ -60,13 +71,16 @@ public final class InputReader extends DataTransfer {
                      final String taskGroupId,
                      final IRVertex srcVertex,
                      final RuntimeEdge runtimeEdge,
-                     final BlockManagerWorker blockManagerWorker) {
+                     final BlockManagerWorker blockManagerWorker,
+                     final SideInputCache sideInputCache) {
     super(runtimeEdge.getId());
     this.dstTaskIndex = dstTaskIndex;
     this.taskGroupId = taskGroupId;
     this.srcVertex = srcVertex;
     this.runtimeEdge = runtimeEdge;
     this.blockManagerWorker = blockManagerWorker;
+    this.sideInputCache = sideInputCache;
+    this.acquiredSideInputBlockId = null;
   }
 
   /**
@@ -105,14 +119,42 @@ public final class InputReader extends DataTransfer {
     final List<CompletableFuture<Iterable>> futures = new ArrayList<>();
     for (int srcTaskIdx = 0; srcTaskIdx < numSrcTasks; srcTaskIdx++) {
       final String blockId = RuntimeIdGenerator.generateBlockId(getId(), srcTaskIdx);
-      futures.add(blockManagerWorker.retrieveDataFromBlock(blockId, getId(),
-          (DataStoreProperty.Value) runtimeEdge.getProperty(ExecutionProperty.Key.DataStore),
-          HashRange.all()));
+      futures.add(readWholeBlock(blockId));
     }
 
     return futures;
   }
 
+  /**
+   * Reads the whole data of a block, from the peers which already fetched it if the block is broadcast peer-to-peer.
+   *
+   * @param blockId of the block.
+   * @return the completable future of the data.
+   */
+  private CompletableFuture<Iterable> readWholeBlock(final String blockId) {
+    final DataStoreProperty.Value blockStore =
+        (DataStoreProperty.Value) runtimeEdge.getProperty(ExecutionProperty.Key.DataStore);
+    if (isServedByPeers(blockStore)) {
+      return blockManagerWorker.retrieveDataFromPeers(blockId, getId(), blockStore);
+    }
+    return blockManagerWorker.retrieveDataFromBlock(blockId, getId(), blockStore, HashRange.all());
+  }
+
+  /**
+   * The blocks to be discarded after use or placed in the remote storage are always read from the owner,
+   * as the owner counts the reads to discard the block and every executor reads the remote storage directly.
+   *
+   * @param blockStore the store of the blocks.
+   * @return whether the blocks of the edge are served by the peers which already fetched them.
+   */
+  private boolean isServedByPeers(final DataStoreProperty.Value blockStore) {
+    return DataFlowModelProperty.Value.PeerToPeer
+        .equals(runtimeEdge.getProperty(ExecutionProperty.Key.DataFlowModel))
+        && UsedDataHandlingProperty.Value.Keep
+        .equals(runtimeEdge.getProperty(ExecutionProperty.Key.UsedDataHandling))
+        && !DataStoreProperty.Value.GlusterFileStore.equals(blockStore);
+  }
+
   /**
    * Read data in the assigned range of hash value.
    * Constraint: If a block is written by {@link OutputWriter#dataSkewWrite(List)}
@@ -128,9 +170,14 @@ public final class InputReader extends DataTransfer {
       throw new BlockFetchException(new Throwable("The hash range to read is not assigned to " + taskGroupId));
     }
 
+    // A hot key can be split across task groups, each of which reads the key from a subset of the source tasks.
+    final Pair<Integer, Integer> srcTaskRangeToRead =
+        ((PhysicalStageEdge) runtimeEdge).getTaskGroupIdToSrcTaskRangeMap().get(taskGroupId);
     final int numSrcTasks = this.getSourceParallelism();
+    final int srcTaskBegin = srcTaskRangeToRead == null ? 0 : Math.max(srcTaskRangeToRead.left(), 0);
+    final int srcTaskEnd = srcTaskRangeToRead == null ? numSrcTasks : Math.min(srcTaskRangeToRead.right(), numSrcTasks);
     final List<CompletableFuture<Iterable>> futures = new ArrayList<>();
-    for (int srcTaskIdx = 0; srcTaskIdx < numSrcTasks; srcTaskIdx++) {
+    for (int srcTaskIdx = srcTaskBegin; srcTaskIdx < srcTaskEnd; srcTaskIdx++) {
       final String blockId = RuntimeIdGenerator.generateBlockId(getId(), srcTaskIdx);
       futures.add(
           blockManagerWorker.retrieveDataFromBlock(blockId, getId(),
@@ -158,12 +205,37 @@ public final class InputReader extends DataTransfer {
     return Boolean.TRUE.equals(runtimeEdge.isSideInput());
   }
 
+  /**
+   * Gets the side input through the {@link SideInputCache} of this executor,
+   * so that the tasks reading the same broadcast block share a single decoded copy.
+   * The side input must be released by {@link #releaseSideInput()} when the task is done with it.
+   *
+   * @return the future of the side input.
+   */
   public CompletableFuture<Object> getSideInput() {
     if (!isSideInputReader()) {
       throw new RuntimeException();
     }
-    final CompletableFuture<Iterable> future = this.read().get(0);
-    return future.thenApply(f -> f.iterator().next());
+    // Every task reads the whole side input broadcast from a single source task.
+    final int blockIdx = DataCommunicationPatternProperty.Value.BroadCast
+        .equals(runtimeEdge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)) ? 0 : dstTaskIndex;
+    final String blockId = RuntimeIdGenerator.generateBlockId(getId(), blockIdx);
+    final UsedDataHandlingProperty.Value usedDataHandling =
+        (UsedDataHandlingProperty.Value) runtimeEdge.getProperty(ExecutionProperty.Key.UsedDataHandling);
+    final CompletableFuture<Object> sideInput = sideInputCache.acquire(blockId, usedDataHandling,
+        runtimeEdge.getCoder(), () -> readWholeBlock(blockId).thenApply(data -> data.iterator().next()));
+    acquiredSideInputBlockId = blockId;
+    return sideInput;
+  }
+
+  /**
+   * Releases the side input acquired by {@link #getSideInput()}, if any.
+   */
+  public void releaseSideInput() {
+    if (acquiredSideInputBlockId != null) {
+      sideInputCache.release(acquiredSideInputBlockId);
+      acquiredSideInputBlockId = null;
+    }
   }
 
   /**
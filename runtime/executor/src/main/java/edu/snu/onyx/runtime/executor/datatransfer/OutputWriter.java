@@ -73,6 +73,8 @@ public final class OutputWriter extends DataTransfer implements AutoCloseable {
   public void write(final Iterable dataToWrite) {
     final Boolean isDataSizeMetricCollectionEdge = MetricCollectionProperty.Value.DataSkewRuntimePass
         .equals(runtimeEdge.getProperty(ExecutionProperty.Key.MetricCollection));
+    final Boolean isLoopConvergenceEdge = MetricCollectionProperty.Value.LoopConvergence
+        .equals(runtimeEdge.getProperty(ExecutionProperty.Key.MetricCollection));
 
     // Group the data into blocks.
     final PartitionerProperty.Value partitionerPropertyValue =
@@ -93,7 +95,9 @@ public final class OutputWriter extends DataTransfer implements AutoCloseable {
     final DataCommunicationPatternProperty.Value comValue =
         runtimeEdge.getProperty(ExecutionProperty.Key.DataCommunicationPattern);
 
-    if (DataCommunicationPatternProperty.Value.OneToOne.equals(comValue)) {
+    if (isLoopConvergenceEdge) {
+      writeAndCollectSize(partitionsToWrite);
+    } else if (DataCommunicationPatternProperty.Value.OneToOne.equals(comValue)) {
       writeOneToOne(partitionsToWrite);
     } else if (DataCommunicationPatternProperty.Value.BroadCast.equals(comValue)) {
       writeBroadcast(partitionsToWrite);
@@ -168,6 +172,17 @@ public final class OutputWriter extends DataTransfer implements AutoCloseable {
     }
   }
 
+  /**
+   * Writes partitions in a single block and collects the size of each partition,
+   * for the runtime to test the convergence of a loop with the size of the data passed to the next iteration.
+   *
+   * @param partitionsToWrite a list of the partitions to be written.
+   */
+  private void writeAndCollectSize(final List<Partition> partitionsToWrite) {
+    blockManagerWorker.putPartitions(blockId, partitionsToWrite, blockStoreValue, false)
+        .ifPresent(accumulatedPartitionSizeInfo::addAll);
+  }
+
   /**
    * Get the parallelism of the destination task.
    *
@@ -17,6 +17,7 @@ package edu.snu.onyx.runtime.master;
 
 import edu.snu.onyx.common.Pair;
 import edu.snu.onyx.common.exception.IllegalMessageException;
+import edu.snu.onyx.conf.JobConf;
 import edu.snu.onyx.runtime.common.exception.AbsentBlockException;
 import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.common.comm.ControlMessage;
@@ -32,15 +33,13 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.reef.annotations.audience.DriverSide;
+import org.apache.reef.tang.annotations.Parameter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static edu.snu.onyx.runtime.common.state.BlockState.State.SCHEDULED;
 import static edu.snu.onyx.runtime.master.RuntimeMaster.convertBlockState;
 
 /**
@@ -50,22 +49,23 @@ import static edu.snu.onyx.runtime.master.RuntimeMaster.convertBlockState;
 @DriverSide
 public final class BlockManagerMaster {
   private static final Logger LOG = LoggerFactory.getLogger(BlockManagerMaster.class.getName());
+  // The metadata are kept in concurrent maps and every per-block transition is synchronized by the BlockMetadata
+  // itself, so operations on different blocks (or task groups) never contend on a master-wide lock.
+  // Operations that deal with multiple blocks just apply the per-block transitions one by one.
   private final Map<String, BlockMetadata> blockIdToMetadata;
   private final Map<String, Set<String>> producerTaskGroupIdToBlockIds;
-  // A lock that can be acquired exclusively or not.
-  // Because the BlockMetadata itself is sufficiently synchronized,
-  // operation that runs in a single block can just acquire a (sharable) read lock.
-  // On the other hand, operation that deals with multiple blocks or
-  // modifies global variables in this class have to acquire an (exclusive) write lock.
-  private final ReadWriteLock lock;
+  private final Map<String, Set<String>> blockIdToProducerTaskGroupIds;
+  private final int broadcastFanOut;
 
   @Inject
-  private BlockManagerMaster(final MessageEnvironment masterMessageEnvironment) {
+  private BlockManagerMaster(final MessageEnvironment masterMessageEnvironment,
+                             @Parameter(JobConf.BroadcastFanOut.class) final int broadcastFanOut) {
     masterMessageEnvironment.setupListener(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID,
         new PartitionManagerMasterControlMessageReceiver());
-    this.blockIdToMetadata = new HashMap<>();
-    this.producerTaskGroupIdToBlockIds = new HashMap<>();
-    this.lock = new ReentrantReadWriteLock();
+    this.blockIdToMetadata = new ConcurrentHashMap<>();
+    this.producerTaskGroupIdToBlockIds = new ConcurrentHashMap<>();
+    this.blockIdToProducerTaskGroupIds = new ConcurrentHashMap<>();
+    this.broadcastFanOut = broadcastFanOut;
   }
 
   /**
@@ -77,15 +77,37 @@ public final class BlockManagerMaster {
   @VisibleForTesting
   public void initializeState(final String blockId,
                               final String producerTaskGroupId) {
-    final Lock writeLock = lock.writeLock();
-    writeLock.lock();
-    try {
-      blockIdToMetadata.put(blockId, new BlockMetadata(blockId));
-      producerTaskGroupIdToBlockIds.putIfAbsent(producerTaskGroupId, new HashSet<>());
-      producerTaskGroupIdToBlockIds.get(producerTaskGroupId).add(blockId);
-    } finally {
-      writeLock.unlock();
-    }
+    // The IDs are interned, as they are kept for the whole job, while the executors send many copies of them.
+    final String internedBlockId = RuntimeIdGenerator.intern(blockId);
+    final String internedProducerTaskGroupId = RuntimeIdGenerator.intern(producerTaskGroupId);
+    blockIdToMetadata.put(internedBlockId, new BlockMetadata(internedBlockId, broadcastFanOut));
+    producerTaskGroupIdToBlockIds.computeIfAbsent(internedProducerTaskGroupId, key -> ConcurrentHashMap.newKeySet())
+        .add(internedBlockId);
+    blockIdToProducerTaskGroupIds.computeIfAbsent(internedBlockId, key -> ConcurrentHashMap.newKeySet())
+        .add(internedProducerTaskGroupId);
+  }
+
+  /**
+   * Removes the metadata of the blocks of a finished job, which no task group reads any more.
+   *
+   * @param blockIds the ids of the blocks to remove.
+   */
+  public void removeBlocks(final Collection<String> blockIds) {
+    blockIds.forEach(blockId -> {
+      blockIdToMetadata.remove(blockId);
+      final Set<String> producerTaskGroupIds = blockIdToProducerTaskGroupIds.remove(blockId);
+      if (producerTaskGroupIds != null) {
+        producerTaskGroupIds.forEach(producerTaskGroupIdToBlockIds::remove);
+      }
+    });
+  }
+
+  /**
+   * @return the number of the blocks whose metadata are kept.
+   */
+  @VisibleForTesting
+  public int getNumBlocks() {
+    return blockIdToMetadata.size();
   }
 
   /**
@@ -98,21 +120,17 @@ public final class BlockManagerMaster {
     final Set<String> taskGroupsToRecompute = new HashSet<>();
     LOG.warn("Worker {} is removed.", new Object[]{executorId});
 
-    final Lock writeLock = lock.writeLock();
-    writeLock.lock();
-    try {
-      // Set committed block states to lost
-      getCommittedBlocksByWorker(executorId).forEach(blockId -> {
-        onBlockStateChanged(blockId, BlockState.State.LOST, executorId);
-        // producerTaskGroupForPartition should always be non-empty.
-        final Set<String> producerTaskGroupForPartition = getProducerTaskGroupIds(blockId);
-        producerTaskGroupForPartition.forEach(taskGroupsToRecompute::add);
-      });
-
-      return taskGroupsToRecompute;
-    } finally {
-      writeLock.unlock();
-    }
+    // Set committed block states to lost
+    getCommittedBlocksByWorker(executorId).forEach(blockId -> {
+      onBlockStateChanged(blockId, BlockState.State.LOST, executorId);
+      // producerTaskGroupForPartition should always be non-empty.
+      final Set<String> producerTaskGroupForPartition = getProducerTaskGroupIds(blockId);
+      producerTaskGroupForPartition.forEach(taskGroupsToRecompute::add);
+    });
+    // The removed executor does not serve or fetch any block from peers any more.
+    blockIdToMetadata.values().forEach(blockMetadata -> blockMetadata.onExecutorRemoved(executorId));
+
+    return taskGroupsToRecompute;
   }
 
   /**
@@ -123,28 +141,20 @@ public final class BlockManagerMaster {
    *         is not {@code SCHEDULED} or {@code COMMITTED}.
    */
   public CompletableFuture<String> getBlockLocationFuture(final String blockId) {
-    final Lock readLock = lock.readLock();
-    readLock.lock();
-    try {
-      final BlockState.State state =
-          (BlockState.State) getBlockState(blockId).getStateMachine().getCurrentState();
-      switch (state) {
-        case SCHEDULED:
-        case COMMITTED:
-          return blockIdToMetadata.get(blockId).getLocationFuture();
-        case READY:
-        case LOST_BEFORE_COMMIT:
-        case LOST:
-        case REMOVED:
-          final CompletableFuture<String> future = new CompletableFuture<>();
-          future.completeExceptionally(new AbsentBlockException(blockId, state));
-          return future;
-        default:
-          throw new UnsupportedOperationException(state.toString());
-      }
-    } finally {
-      readLock.unlock();
-    }
+    return blockIdToMetadata.get(blockId).getLocationFutureIfAvailable();
+  }
+
+  /**
+   * Returns a {@link CompletableFuture} of a location to fetch a block from, among the owner of the block and
+   * the executors which already fetched it and serve it onward.
+   *
+   * @param blockId     id of the specified block.
+   * @param requesterId id of the executor to fetch the block.
+   * @return {@link CompletableFuture} of the location, which completes exceptionally when the block
+   *         is not {@code SCHEDULED} or {@code COMMITTED}.
+   */
+  public CompletableFuture<String> getPeerLocationFuture(final String blockId, final String requesterId) {
+    return blockIdToMetadata.get(blockId).getPeerLocationFutureIfAvailable(requesterId);
   }
 
   /**
@@ -155,20 +165,8 @@ public final class BlockManagerMaster {
    */
   @VisibleForTesting
   public Set<String> getProducerTaskGroupIds(final String blockId) {
-    final Lock readLock = lock.readLock();
-    readLock.lock();
-    try {
-      final Set<String> producerTaskGroupIds = new HashSet<>();
-      for (Map.Entry<String, Set<String>> entry : producerTaskGroupIdToBlockIds.entrySet()) {
-        if (entry.getValue().contains(blockId)) {
-          producerTaskGroupIds.add(entry.getKey());
-        }
-      }
-
-      return producerTaskGroupIds;
-    } finally {
-      readLock.unlock();
-    }
+    final Set<String> producerTaskGroupIds = blockIdToProducerTaskGroupIds.get(blockId);
+    return producerTaskGroupIds == null ? new HashSet<>() : new HashSet<>(producerTaskGroupIds);
   }
 
   /**
@@ -179,20 +177,10 @@ public final class BlockManagerMaster {
    * @param scheduledTaskGroupId the ID of the scheduled task group.
    */
   public void onProducerTaskGroupScheduled(final String scheduledTaskGroupId) {
-    final Lock writeLock = lock.writeLock();
-    writeLock.lock();
-    try {
-      if (producerTaskGroupIdToBlockIds.containsKey(scheduledTaskGroupId)) {
-        producerTaskGroupIdToBlockIds.get(scheduledTaskGroupId).forEach(blockId -> {
-          if (!blockIdToMetadata.get(blockId).getBlockState()
-              .getStateMachine().getCurrentState().equals(SCHEDULED)) {
-            onBlockStateChanged(blockId, SCHEDULED, null);
-          }
-        });
-      } // else this task group does not produce any block
-    } finally {
-      writeLock.unlock();
-    }
+    final Set<String> blockIds = producerTaskGroupIdToBlockIds.get(scheduledTaskGroupId);
+    if (blockIds != null) {
+      blockIds.forEach(blockId -> blockIdToMetadata.get(blockId).onProducerScheduled());
+    } // else this task group does not produce any block
   }
 
   /**
@@ -202,26 +190,14 @@ public final class BlockManagerMaster {
    * @param failedTaskGroupId the ID of the task group that failed.
    */
   public void onProducerTaskGroupFailed(final String failedTaskGroupId) {
-    final Lock writeLock = lock.writeLock();
-    writeLock.lock();
-    try {
-      if (producerTaskGroupIdToBlockIds.containsKey(failedTaskGroupId)) {
-        LOG.info("ProducerTaskGroup {} failed for a list of blocks:", failedTaskGroupId);
-        producerTaskGroupIdToBlockIds.get(failedTaskGroupId).forEach(blockId -> {
-          final BlockState.State state = (BlockState.State)
-              blockIdToMetadata.get(blockId).getBlockState().getStateMachine().getCurrentState();
-          if (state == BlockState.State.COMMITTED) {
-            LOG.info("Partition lost: {}", blockId);
-            onBlockStateChanged(blockId, BlockState.State.LOST, null);
-          } else {
-            LOG.info("Partition lost_before_commit: {}", blockId);
-            onBlockStateChanged(blockId, BlockState.State.LOST_BEFORE_COMMIT, null);
-          }
-        });
-      } // else this task group does not produce any block
-    } finally {
-      writeLock.unlock();
-    }
+    final Set<String> blockIds = producerTaskGroupIdToBlockIds.get(failedTaskGroupId);
+    if (blockIds != null) {
+      LOG.info("ProducerTaskGroup {} failed for a list of blocks:", failedTaskGroupId);
+      blockIds.forEach(blockId -> {
+        final BlockState.State lostState = blockIdToMetadata.get(blockId).onProducerFailed();
+        LOG.info("Partition {}: {}", lostState, blockId);
+      });
+    } // else this task group does not produce any block
   }
 
   /**
@@ -232,20 +208,14 @@ public final class BlockManagerMaster {
    */
   @VisibleForTesting
   Set<String> getCommittedBlocksByWorker(final String executorId) {
-    final Lock readLock = lock.readLock();
-    readLock.lock();
-    try {
-      final Set<String> blockIds = new HashSet<>();
-      blockIdToMetadata.values().forEach(blockMetadata -> {
-        final String location = blockMetadata.getLocationFuture().getNow("NOT_COMMITTED");
-        if (location.equals(executorId)) {
-          blockIds.add(blockMetadata.getBlockId());
-        }
-      });
-      return blockIds;
-    } finally {
-      readLock.unlock();
-    }
+    final Set<String> blockIds = new HashSet<>();
+    blockIdToMetadata.values().forEach(blockMetadata -> {
+      final String location = blockMetadata.getLocationFuture().getNow("NOT_COMMITTED");
+      if (location.equals(executorId)) {
+        blockIds.add(blockMetadata.getBlockId());
+      }
+    });
+    return blockIds;
   }
 
   /**
@@ -255,13 +225,7 @@ public final class BlockManagerMaster {
    */
   @VisibleForTesting
   BlockState getBlockState(final String blockId) {
-    final Lock readLock = lock.readLock();
-    readLock.lock();
-    try {
-      return blockIdToMetadata.get(blockId).getBlockState();
-    } finally {
-      readLock.unlock();
-    }
+    return blockIdToMetadata.get(blockId).getBlockState();
   }
 
   /**
@@ -276,13 +240,13 @@ public final class BlockManagerMaster {
   public void onBlockStateChanged(final String blockId,
                                   final BlockState.State newState,
                                   @Nullable final String location) {
-    final Lock readLock = lock.readLock();
-    readLock.lock();
-    try {
-      blockIdToMetadata.get(blockId).onStateChanged(newState, location);
-    } finally {
-      readLock.unlock();
+    final BlockMetadata blockMetadata = blockIdToMetadata.get(blockId);
+    if (blockMetadata == null) {
+      // The block of a finished job, whose metadata are already removed.
+      LOG.debug("Ignoring the state change of the removed block {} to {}", blockId, newState);
+      return;
     }
+    blockMetadata.onStateChanged(newState, location);
   }
 
   /**
@@ -296,40 +260,35 @@ public final class BlockManagerMaster {
     assert (message.getType() == ControlMessage.MessageType.RequestBlockLocation);
     final ControlMessage.RequestBlockLocationMsg requestPartitionLocationMsg =
         message.getRequestBlockLocationMsg();
-    final Lock readLock = lock.readLock();
-    readLock.lock();
-    try {
-      final CompletableFuture<String> locationFuture
-          = getBlockLocationFuture(requestPartitionLocationMsg.getBlockId());
-      locationFuture.whenComplete((location, throwable) -> {
-        final ControlMessage.BlockLocationInfoMsg.Builder infoMsgBuilder =
-            ControlMessage.BlockLocationInfoMsg.newBuilder()
-                .setRequestId(message.getId())
-                .setBlockId(requestPartitionLocationMsg.getBlockId());
-        if (throwable == null) {
-          infoMsgBuilder.setOwnerExecutorId(location);
-        } else {
-          infoMsgBuilder.setState(
-              convertBlockState(((AbsentBlockException) throwable).getState()));
-        }
-        messageContext.reply(
-            ControlMessage.Message.newBuilder()
-                .setId(RuntimeIdGenerator.generateMessageId())
-                .setListenerId(MessageEnvironment.EXECUTOR_MESSAGE_LISTENER_ID)
-                .setType(ControlMessage.MessageType.BlockLocationInfo)
-                .setBlockLocationInfoMsg(infoMsgBuilder.build())
-                .build());
-      });
-    } finally {
-      readLock.unlock();
-    }
+    final CompletableFuture<String> locationFuture = requestPartitionLocationMsg.getServedByPeers()
+        ? getPeerLocationFuture(requestPartitionLocationMsg.getBlockId(), requestPartitionLocationMsg.getExecutorId())
+        : getBlockLocationFuture(requestPartitionLocationMsg.getBlockId());
+    locationFuture.whenComplete((location, throwable) -> {
+      final ControlMessage.BlockLocationInfoMsg.Builder infoMsgBuilder =
+          ControlMessage.BlockLocationInfoMsg.newBuilder()
+              .setRequestId(message.getId())
+              .setBlockId(requestPartitionLocationMsg.getBlockId());
+      if (throwable == null) {
+        infoMsgBuilder.setOwnerExecutorId(location);
+      } else {
+        infoMsgBuilder.setState(
+            convertBlockState(((AbsentBlockException) throwable).getState()));
+      }
+      messageContext.reply(
+          ControlMessage.Message.newBuilder()
+              .setId(RuntimeIdGenerator.generateMessageId())
+              .setListenerId(MessageEnvironment.EXECUTOR_MESSAGE_LISTENER_ID)
+              .setType(ControlMessage.MessageType.BlockLocationInfo)
+              .setBlockLocationInfoMsg(infoMsgBuilder.build())
+              .build());
+    });
   }
 
   /**
-   * Reserves the region for a partition in a block, appends the partition metadata,
-   * and replies with the starting point of the block in the file.
+   * Reserves the consecutive regions for some partitions in a block, appends the partition metadata,
+   * and replies with the index and the starting point of the first partition in the file.
    *
-   * @param message        the message having the partition metadata to append.
+   * @param message        the message having the metadata of the partitions to append.
    * @param messageContext the context which will be used for response.
    */
   @VisibleForTesting
@@ -342,29 +301,24 @@ public final class BlockManagerMaster {
         ControlMessage.ReservePartitionResponseMsg.newBuilder()
             .setRequestId(message.getId());
 
-    final Lock readLock = lock.readLock();
-    readLock.lock();
-    try {
-      final BlockMetadata metadata = blockIdToMetadata.get(blockId);
-
-      // Reserve a region for this partition and append the metadata.
-      final Pair<Integer, Long> reserveResult = metadata.reservePartition(reservePartitionMsg.getPartitionMetadata());
-      final int partitionIndex = reserveResult.left();
-      final long positionToWrite = reserveResult.right();
-      responseBuilder.setPartitionIdx(partitionIndex);
-      responseBuilder.setPositionToWrite(positionToWrite);
-
-      // Reply with the position to write in the file.
-      messageContext.reply(
-          ControlMessage.Message.newBuilder()
-              .setId(RuntimeIdGenerator.generateMessageId())
-              .setListenerId(MessageEnvironment.EXECUTOR_MESSAGE_LISTENER_ID)
-              .setType(ControlMessage.MessageType.ReservePartitionResponse)
-              .setReservePartitionResponseMsg(responseBuilder.build())
-              .build());
-    } finally {
-      readLock.unlock();
-    }
+    final BlockMetadata metadata = blockIdToMetadata.get(blockId);
+
+    // Reserve the regions for these partitions and append the metadata.
+    final Pair<Integer, Long> reserveResult =
+        metadata.reservePartitions(reservePartitionMsg.getPartitionMetadataList());
+    final int partitionIndex = reserveResult.left();
+    final long positionToWrite = reserveResult.right();
+    responseBuilder.setPartitionIdx(partitionIndex);
+    responseBuilder.setPositionToWrite(positionToWrite);
+
+    // Reply with the position to write in the file.
+    messageContext.reply(
+        ControlMessage.Message.newBuilder()
+            .setId(RuntimeIdGenerator.generateMessageId())
+            .setListenerId(MessageEnvironment.EXECUTOR_MESSAGE_LISTENER_ID)
+            .setType(ControlMessage.MessageType.ReservePartitionResponse)
+            .setReservePartitionResponseMsg(responseBuilder.build())
+            .build());
   }
 
   /**
@@ -379,17 +333,11 @@ public final class BlockManagerMaster {
     final String blockId = commitMsg.getBlockId();
     final List<Integer> partitionIndices = commitMsg.getPartitionIdxList();
 
-    final Lock readLock = lock.readLock();
-    readLock.lock();
-    try {
-      final BlockMetadata metadata = blockIdToMetadata.get(blockId);
-      if (metadata != null) {
-        metadata.commitPartitions(partitionIndices);
-      } else {
-        LOG.error("Metadata for {} already exists. It will be replaced.", blockId);
-      }
-    } finally {
-      readLock.unlock();
+    final BlockMetadata metadata = blockIdToMetadata.get(blockId);
+    if (metadata != null) {
+      metadata.commitPartitions(partitionIndices);
+    } else {
+      LOG.error("Metadata for {} already exists. It will be replaced.", blockId);
     }
   }
 
@@ -406,40 +354,34 @@ public final class BlockManagerMaster {
     final ControlMessage.RequestPartitionMetadataMsg requestMsg = message.getRequestPartitionMetadataMsg();
     final String blockId = requestMsg.getBlockId();
 
-    final Lock readLock = lock.readLock();
-    readLock.lock();
-    try {
-      // Check whether the block is committed. The actual location is not important.
-      final CompletableFuture<String> locationFuture = getBlockLocationFuture(blockId);
-
-      locationFuture.whenComplete((location, throwable) -> {
-        final ControlMessage.MetadataResponseMsg.Builder responseBuilder =
-            ControlMessage.MetadataResponseMsg.newBuilder()
-                .setRequestId(message.getId());
-        if (throwable == null) {
-          // Well committed.
-          final BlockMetadata metadata = blockIdToMetadata.get(blockId);
-          if (metadata != null) {
-            metadata.getPartitionMetadataList().forEach(partitionMetadataInServer ->
-                responseBuilder.addPartitionMetadata(partitionMetadataInServer.getPartitionMetadataMsg()));
-          } else {
-            LOG.error("Metadata for {} dose not exist. Failed to get it.", blockId);
-          }
+    // Check whether the block is committed. The actual location is not important.
+    final CompletableFuture<String> locationFuture = getBlockLocationFuture(blockId);
+
+    locationFuture.whenComplete((location, throwable) -> {
+      final ControlMessage.MetadataResponseMsg.Builder responseBuilder =
+          ControlMessage.MetadataResponseMsg.newBuilder()
+              .setRequestId(message.getId());
+      if (throwable == null) {
+        // Well committed.
+        final BlockMetadata metadata = blockIdToMetadata.get(blockId);
+        if (metadata != null) {
+          metadata.getPartitionMetadataList().forEach(partitionMetadataInServer ->
+              responseBuilder.addPartitionMetadata(partitionMetadataInServer.getPartitionMetadataMsg()));
         } else {
-          responseBuilder.setState(
-              convertBlockState(((AbsentBlockException) throwable).getState()));
+          LOG.error("Metadata for {} dose not exist. Failed to get it.", blockId);
         }
-        messageContext.reply(
-            ControlMessage.Message.newBuilder()
-                .setId(RuntimeIdGenerator.generateMessageId())
-                .setListenerId(MessageEnvironment.EXECUTOR_MESSAGE_LISTENER_ID)
-                .setType(ControlMessage.MessageType.MetadataResponse)
-                .setMetadataResponseMsg(responseBuilder.build())
-                .build());
-      });
-    } finally {
-      readLock.unlock();
-    }
+      } else {
+        responseBuilder.setState(
+            convertBlockState(((AbsentBlockException) throwable).getState()));
+      }
+      messageContext.reply(
+          ControlMessage.Message.newBuilder()
+              .setId(RuntimeIdGenerator.generateMessageId())
+              .setListenerId(MessageEnvironment.EXECUTOR_MESSAGE_LISTENER_ID)
+              .setType(ControlMessage.MessageType.MetadataResponse)
+              .setMetadataResponseMsg(responseBuilder.build())
+              .build());
+    });
   }
 
   /**
@@ -454,16 +396,26 @@ public final class BlockManagerMaster {
     final ControlMessage.RemovePartitionMetadataMsg removeMsg = message.getRemovePartitionMetadataMsg();
     final String blockId = removeMsg.getBlockId();
 
-    final Lock readLock = lock.readLock();
-    readLock.lock();
-    try {
-      final BlockMetadata metadata = blockIdToMetadata.get(blockId);
-      if (metadata != null) {
-        metadata.removePartitionMetadata();
-      } // if else, the block was not previously created. Ignore it.
-    } finally {
-      readLock.unlock();
-    }
+    final BlockMetadata metadata = blockIdToMetadata.get(blockId);
+    if (metadata != null) {
+      metadata.removePartitionMetadata();
+    } // if else, the block was not previously created. Ignore it.
+  }
+
+  /**
+   * Deals with an executor which finished fetching a block from its peers.
+   * If the executor kept the fetched block, it serves the block onward.
+   *
+   * @param message the message having the executor, the block, and whether it kept the block.
+   */
+  @VisibleForTesting
+  public void onPeerFetchFinished(final ControlMessage.Message message) {
+    assert (message.getType() == ControlMessage.MessageType.PeerFetchFinished);
+    final ControlMessage.PeerFetchFinishedMsg peerFetchFinishedMsg = message.getPeerFetchFinishedMsg();
+    final BlockMetadata metadata = blockIdToMetadata.get(peerFetchFinishedMsg.getBlockId());
+    if (metadata != null) {
+      metadata.onPeerFetchFinished(peerFetchFinishedMsg.getExecutorId(), peerFetchFinishedMsg.getReplicated());
+    } // if else, the block was not previously created. Ignore it.
   }
 
   /**
@@ -488,6 +440,9 @@ public final class BlockManagerMaster {
           case RemovePartitionMetadata:
             onRemovePartitionMetadata(message);
             break;
+          case PeerFetchFinished:
+            onPeerFetchFinished(message);
+            break;
           default:
             throw new IllegalMessageException(
                 new Exception("This message should not be received by "
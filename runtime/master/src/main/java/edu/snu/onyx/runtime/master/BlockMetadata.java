@@ -44,12 +44,20 @@ final class BlockMetadata {
   private volatile long writtenBytesCursor; // How many bytes are (at least, logically) written in the file.
   private volatile int publishedPartitionCursor; // Cursor dividing the published blocks and un-published partitions.
 
+  // Peer-to-peer distribution metadata. These information will be managed only for the blocks fetched from peers.
+  private final int fanOut; // The number of executors each location serves at once.
+  private final Map<String, Integer> locationToNumServing; // The owner and the replicas, in the order of addition.
+  private final Map<String, String> requesterToSource; // The location each executor is fetching the block from.
+  private final List<Pair<String, CompletableFuture<String>>> pendingPeerRequests;
+
   /**
    * Constructs the metadata for a block.
    *
    * @param blockId the id of the block.
+   * @param fanOut  the number of executors each location serves at once, if the block is fetched from peers.
    */
-  BlockMetadata(final String blockId) {
+  BlockMetadata(final String blockId,
+                final int fanOut) {
     // Initialize block level metadata.
     this.blockId = blockId;
     this.blockState = new BlockState();
@@ -58,6 +66,11 @@ final class BlockMetadata {
     this.partitionMetadataList = new ArrayList<>();
     this.writtenBytesCursor = 0;
     this.publishedPartitionCursor = 0;
+    // Initialize peer-to-peer distribution metadata.
+    this.fanOut = fanOut;
+    this.locationToNumServing = new LinkedHashMap<>();
+    this.requesterToSource = new HashMap<>();
+    this.pendingPeerRequests = new ArrayList<>();
   }
 
   /**
@@ -84,18 +97,49 @@ final class BlockMetadata {
         // Reset the block location and committer information.
         locationFuture.completeExceptionally(new AbsentBlockException(blockId, newState));
         locationFuture = new CompletableFuture<>();
+        // The replicas are dropped with the block, as a new attempt of the producer may write different data.
+        pendingPeerRequests.forEach(request ->
+            request.right().completeExceptionally(new AbsentBlockException(blockId, newState)));
+        pendingPeerRequests.clear();
+        locationToNumServing.clear();
+        requesterToSource.clear();
         stateMachine.setState(newState);
         break;
       case COMMITTED:
         assert (location != null);
         completeLocationFuture(location);
         stateMachine.setState(newState);
+        locationToNumServing.putIfAbsent(location, 0);
+        dispatchPeerRequests();
         break;
       default:
         throw new UnsupportedOperationException(newState.toString());
     }
   }
 
+  /**
+   * Marks this block as {@code SCHEDULED} because its producer task group is scheduled,
+   * unless the block is already in that state.
+   */
+  synchronized void onProducerScheduled() {
+    if (!blockState.getStateMachine().getCurrentState().equals(BlockState.State.SCHEDULED)) {
+      onStateChanged(BlockState.State.SCHEDULED, null);
+    }
+  }
+
+  /**
+   * Marks this block as lost because its producer task group failed.
+   *
+   * @return {@code LOST} if the block was committed, {@code LOST_BEFORE_COMMIT} otherwise.
+   */
+  synchronized BlockState.State onProducerFailed() {
+    final BlockState.State lostState =
+        blockState.getStateMachine().getCurrentState() == BlockState.State.COMMITTED
+            ? BlockState.State.LOST : BlockState.State.LOST_BEFORE_COMMIT;
+    onStateChanged(lostState, null);
+    return lostState;
+  }
+
   /**
    * Completes the location future of this block.
    *
@@ -127,26 +171,143 @@ final class BlockMetadata {
   }
 
   /**
-   * Reserves the region for a partition and get the metadata for the partition.
+   * Gets the future of the location of this block if the block is {@code SCHEDULED} or {@code COMMITTED}.
+   * The state check and the future lookup are done atomically.
+   *
+   * @return the location future, or a future completed exceptionally with {@link AbsentBlockException}
+   *         when the block is in any other state.
+   */
+  synchronized CompletableFuture<String> getLocationFutureIfAvailable() {
+    final BlockState.State state = (BlockState.State) blockState.getStateMachine().getCurrentState();
+    switch (state) {
+      case SCHEDULED:
+      case COMMITTED:
+        return locationFuture;
+      case READY:
+      case LOST_BEFORE_COMMIT:
+      case LOST:
+      case REMOVED:
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        future.completeExceptionally(new AbsentBlockException(blockId, state));
+        return future;
+      default:
+        throw new UnsupportedOperationException(state.toString());
+    }
+  }
+
+  /**
+   * Gets the future of a location to fetch this block from, among the owner and the executors which already
+   * fetched it, in the same way as {@link #getLocationFutureIfAvailable()}.
+   * Each location is assigned to at most {@code fanOut} executors until they report to have fetched the block,
+   * so the block spreads in a tree instead of being served by the owner to every executor.
+   *
+   * @param requesterId the id of the executor to fetch the block.
+   * @return the location future, or a future completed exceptionally with {@link AbsentBlockException}
+   *         when the block is not {@code SCHEDULED} or {@code COMMITTED}.
+   */
+  synchronized CompletableFuture<String> getPeerLocationFutureIfAvailable(final String requesterId) {
+    final BlockState.State state = (BlockState.State) blockState.getStateMachine().getCurrentState();
+    if (state != BlockState.State.SCHEDULED && state != BlockState.State.COMMITTED) {
+      return getLocationFutureIfAvailable();
+    }
+    // A request again from the same executor means that the previous fetch failed.
+    releaseSource(requesterId);
+    final CompletableFuture<String> future = new CompletableFuture<>();
+    pendingPeerRequests.add(Pair.of(requesterId, future));
+    if (state == BlockState.State.COMMITTED) {
+      dispatchPeerRequests();
+    }
+    return future;
+  }
+
+  /**
+   * Releases the location an executor fetched this block from, and adds the executor as a location
+   * if it kept the fetched block.
+   *
+   * @param executorId the id of the executor.
+   * @param replicated whether the executor kept the fetched block to serve it onward.
+   */
+  synchronized void onPeerFetchFinished(final String executorId,
+                                        final boolean replicated) {
+    if (blockState.getStateMachine().getCurrentState() != BlockState.State.COMMITTED) {
+      return; // The fetch of a lost or removed block is stale.
+    }
+    releaseSource(executorId);
+    if (replicated) {
+      locationToNumServing.putIfAbsent(executorId, 0);
+    }
+    dispatchPeerRequests();
+  }
+
+  /**
+   * Forgets an executor removed, which can be neither a location nor a requester of this block any more.
+   *
+   * @param executorId the id of the executor.
+   */
+  synchronized void onExecutorRemoved(final String executorId) {
+    releaseSource(executorId);
+    locationToNumServing.remove(executorId);
+    requesterToSource.values().removeIf(executorId::equals);
+  }
+
+  /**
+   * Assigns the pending requests to the least busy locations that serve less than {@code fanOut} executors.
+   */
+  private void dispatchPeerRequests() {
+    final Iterator<Pair<String, CompletableFuture<String>>> iterator = pendingPeerRequests.iterator();
+    while (iterator.hasNext()) {
+      final Pair<String, CompletableFuture<String>> request = iterator.next();
+      final Optional<String> source = locationToNumServing.entrySet().stream()
+          .filter(entry -> entry.getValue() < fanOut)
+          .filter(entry -> !entry.getKey().equals(request.left()))
+          .min(Comparator.comparingInt(Map.Entry::getValue))
+          .map(Map.Entry::getKey);
+      if (!source.isPresent()) {
+        return; // Wait for a location to become available.
+      }
+      locationToNumServing.compute(source.get(), (location, numServing) -> numServing + 1);
+      requesterToSource.put(request.left(), source.get());
+      iterator.remove();
+      request.right().complete(source.get());
+    }
+  }
+
+  /**
+   * Releases the location an executor was assigned to fetch this block from, if any.
+   *
+   * @param requesterId the id of the executor.
+   */
+  private void releaseSource(final String requesterId) {
+    final String source = requesterToSource.remove(requesterId);
+    if (source != null) {
+      locationToNumServing.computeIfPresent(source, (location, numServing) -> numServing - 1);
+    }
+  }
+
+  /**
+   * Reserves the consecutive regions for some partitions and appends the metadata for the partitions.
    *
-   * @param partitionMetadata the partition metadata to append.
-   * @return the pair of the index of reserved block and starting position of the block in the file.
-   */
-  synchronized Pair<Integer, Long> reservePartition(final ControlMessage.PartitionMetadataMsg partitionMetadata) {
-    final int partitionSize = partitionMetadata.getPartitionSize();
-    final long currentPosition = writtenBytesCursor;
-    final int partitionIdx = partitionMetadataList.size();
-    final ControlMessage.PartitionMetadataMsg partitionMetadataToStore =
-        ControlMessage.PartitionMetadataMsg.newBuilder()
-            .setKey(partitionMetadata.getKey())
-            .setPartitionSize(partitionSize)
-            .setOffset(currentPosition)
-            .setNumElements(partitionMetadata.getNumElements())
-            .build();
-
-    writtenBytesCursor += partitionSize;
-    partitionMetadataList.add(new PartitionMetadataInServer(partitionMetadataToStore));
-    return Pair.of(partitionIdx, currentPosition);
+   * @param partitionsToReserve the metadata of the partitions to append, in order.
+   * @return the pair of the index of the first reserved partition and starting position of it in the file.
+   */
+  synchronized Pair<Integer, Long> reservePartitions(
+      final List<ControlMessage.PartitionMetadataMsg> partitionsToReserve) {
+    final int firstPartitionIdx = partitionMetadataList.size();
+    final long firstPosition = writtenBytesCursor;
+    for (final ControlMessage.PartitionMetadataMsg partitionMetadata : partitionsToReserve) {
+      final int partitionSize = partitionMetadata.getPartitionSize();
+      final ControlMessage.PartitionMetadataMsg partitionMetadataToStore =
+          ControlMessage.PartitionMetadataMsg.newBuilder()
+              .setKey(partitionMetadata.getKey())
+              .setPartitionSize(partitionSize)
+              .setOffset(writtenBytesCursor)
+              .setNumElements(partitionMetadata.getNumElements())
+              .build();
+
+      writtenBytesCursor += partitionSize;
+      partitionMetadataList.add(new PartitionMetadataInServer(partitionMetadataToStore));
+    }
+    return Pair.of(firstPartitionIdx, firstPosition);
   }
 
   /**
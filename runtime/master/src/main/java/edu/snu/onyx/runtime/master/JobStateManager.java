@@ -18,10 +18,12 @@ package edu.snu.onyx.runtime.master;
 import edu.snu.onyx.common.exception.IllegalStateTransitionException;
 import edu.snu.onyx.common.exception.SchedulingException;
 import edu.snu.onyx.common.exception.UnknownExecutionStateException;
+import edu.snu.onyx.common.EventLog;
 import edu.snu.onyx.common.StateMachine;
 import edu.snu.onyx.common.dag.DAG;
 import edu.snu.onyx.runtime.common.metric.MetricDataBuilder;
 import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
 import edu.snu.onyx.runtime.common.plan.RuntimeEdge;
 import edu.snu.onyx.runtime.common.plan.physical.*;
 import edu.snu.onyx.runtime.common.state.JobState;
@@ -54,6 +56,9 @@ import static edu.snu.onyx.common.dag.DAG.EMPTY_DAG_DIRECTORY;
 @DriverSide
 public final class JobStateManager {
   private static final Logger LOG = LoggerFactory.getLogger(JobStateManager.class.getName());
+  public static final String JOB_DURATION_NANOS = "JobDurationNanos/";
+  public static final String STAGE_DURATION_NANOS = "StageDurationNanos/";
+  public static final String TASK_GROUP_DURATION_NANOS = "TaskGroupDurationNanos/";
 
   private final String jobId;
 
@@ -75,7 +80,7 @@ public final class JobStateManager {
   /**
    * Represents the job to manage.
    */
-  private final PhysicalPlan physicalPlan;
+  private PhysicalPlan physicalPlan;
 
   /**
    * Used to track stage completion status.
@@ -93,6 +98,11 @@ public final class JobStateManager {
    */
   private final Set<String> currentJobStageIds;
 
+  /**
+   * The ids of the blocks of this job, which are removed from the executors when the job finishes.
+   */
+  private final Set<String> blockIds;
+
   /**
    * A lock and condition to check whether the job is finished or not.
    */
@@ -101,6 +111,12 @@ public final class JobStateManager {
 
   private final MetricMessageHandler metricMessageHandler;
   private final Map<String, MetricDataBuilder> metricDataBuilderMap;
+  private final JobTrace jobTrace;
+
+  /**
+   * The log of the state changes of this job, from which the UI reconstructs the states.
+   */
+  private volatile EventLog eventLog;
 
   public JobStateManager(final PhysicalPlan physicalPlan,
                          final BlockManagerMaster blockManagerMaster,
@@ -117,9 +133,12 @@ public final class JobStateManager {
     this.scheduleAttemptIdxByStage = new HashMap<>();
     this.stageIdToRemainingTaskGroupSet = new HashMap<>();
     this.currentJobStageIds = new HashSet<>();
+    this.blockIds = new HashSet<>();
     this.finishLock = new ReentrantLock();
     this.jobFinishedCondition = finishLock.newCondition();
     this.metricDataBuilderMap = new HashMap<>();
+    this.jobTrace = new JobTrace(jobId);
+    this.eventLog = EventLog.open(EMPTY_DAG_DIRECTORY, jobId);
     initializeComputationStates();
     initializePartitionStates(blockManagerMaster);
   }
@@ -131,47 +150,109 @@ public final class JobStateManager {
     onJobStateChanged(JobState.State.EXECUTING);
 
     // Initialize the states for the job down to task-level.
-    physicalPlan.getStageDAG().topologicalDo(physicalStage -> {
-      currentJobStageIds.add(physicalStage.getId());
-      idToStageStates.put(physicalStage.getId(), new StageState());
-      physicalStage.getTaskGroupList().forEach(taskGroup -> {
-        idToTaskGroupStates.put(taskGroup.getTaskGroupId(), new TaskGroupState());
-        taskGroup.getTaskDAG().getVertices().forEach(
-            task -> idToTaskStates.put(task.getId(), new TaskState()));
-      });
+    physicalPlan.getStageDAG().topologicalDo(this::initializeComputationStates);
+  }
+
+  /**
+   * Initializes the states of a stage, and of its task groups and tasks.
+   * @param physicalStage the stage to initialize the states of.
+   */
+  private void initializeComputationStates(final PhysicalStage physicalStage) {
+    currentJobStageIds.add(physicalStage.getId());
+    idToStageStates.put(physicalStage.getId(), new StageState());
+    physicalStage.getTaskGroupList().forEach(taskGroup -> {
+      idToTaskGroupStates.put(taskGroup.getTaskGroupId(), new TaskGroupState());
+      taskGroup.getTaskDAG().getVertices().forEach(
+          task -> idToTaskStates.put(task.getId(), new TaskState()));
     });
   }
 
   private void initializePartitionStates(final BlockManagerMaster blockManagerMaster) {
     final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = physicalPlan.getStageDAG();
     stageDAG.topologicalDo(physicalStage -> {
-      final List<TaskGroup> taskGroupsForStage = physicalStage.getTaskGroupList();
-      final List<PhysicalStageEdge> stageOutgoingEdges = stageDAG.getOutgoingEdgesOf(physicalStage);
-
       // Initialize states for blocks of inter-stage edges
-      stageOutgoingEdges.forEach(physicalStageEdge -> {
-        final int srcParallelism = taskGroupsForStage.size();
-        IntStream.range(0, srcParallelism).forEach(srcTaskIdx -> {
-          final String blockId = RuntimeIdGenerator.generateBlockId(physicalStageEdge.getId(), srcTaskIdx);
-          blockManagerMaster.initializeState(blockId, taskGroupsForStage.get(srcTaskIdx).getTaskGroupId());
-        });
-      });
+      stageDAG.getOutgoingEdgesOf(physicalStage).forEach(physicalStageEdge ->
+          initializePartitionStates(physicalStageEdge, blockManagerMaster));
 
       // Initialize states for blocks of stage internal edges
-      taskGroupsForStage.forEach(taskGroup -> {
-        final DAG<Task, RuntimeEdge<Task>> taskGroupInternalDag = taskGroup.getTaskDAG();
-        taskGroupInternalDag.getVertices().forEach(task -> {
-          final List<RuntimeEdge<Task>> internalOutgoingEdges = taskGroupInternalDag.getOutgoingEdgesOf(task);
-          internalOutgoingEdges.forEach(taskRuntimeEdge -> {
-            final int srcTaskIdx = taskGroup.getTaskGroupIdx();
-            final String blockId = RuntimeIdGenerator.generateBlockId(taskRuntimeEdge.getId(), srcTaskIdx);
-            blockManagerMaster.initializeState(blockId, taskGroup.getTaskGroupId());
-          });
+      initializePartitionStates(physicalStage, blockManagerMaster);
+    });
+  }
+
+  /**
+   * Initializes the states of the blocks of an inter-stage edge.
+   * @param physicalStageEdge  the edge to initialize the block states of.
+   * @param blockManagerMaster the master to initialize the block states in.
+   */
+  private void initializePartitionStates(final PhysicalStageEdge physicalStageEdge,
+                                         final BlockManagerMaster blockManagerMaster) {
+    final List<TaskGroup> taskGroupsForStage = physicalStageEdge.getSrc().getTaskGroupList();
+    final int srcParallelism = taskGroupsForStage.size();
+    IntStream.range(0, srcParallelism).forEach(srcTaskIdx -> {
+      final String blockId = RuntimeIdGenerator.generateBlockId(physicalStageEdge.getId(), srcTaskIdx);
+      blockManagerMaster.initializeState(blockId, taskGroupsForStage.get(srcTaskIdx).getTaskGroupId());
+      blockIds.add(blockId);
+    });
+  }
+
+  /**
+   * Initializes the states of the blocks of the internal edges of a stage.
+   * @param physicalStage      the stage to initialize the block states of.
+   * @param blockManagerMaster the master to initialize the block states in.
+   */
+  private void initializePartitionStates(final PhysicalStage physicalStage,
+                                         final BlockManagerMaster blockManagerMaster) {
+    physicalStage.getTaskGroupList().forEach(taskGroup -> {
+      final DAG<Task, RuntimeEdge<Task>> taskGroupInternalDag = taskGroup.getTaskDAG();
+      taskGroupInternalDag.getVertices().forEach(task -> {
+        final List<RuntimeEdge<Task>> internalOutgoingEdges = taskGroupInternalDag.getOutgoingEdgesOf(task);
+        internalOutgoingEdges.forEach(taskRuntimeEdge -> {
+          final int srcTaskIdx = taskGroup.getTaskGroupIdx();
+          final String blockId = RuntimeIdGenerator.generateBlockId(taskRuntimeEdge.getId(), srcTaskIdx);
+          blockManagerMaster.initializeState(blockId, taskGroup.getTaskGroupId());
+          blockIds.add(blockId);
         });
       });
     });
   }
 
+  /**
+   * Updates the plan of the job, which is re-shaped while the job is being executed.
+   * The states of the stages, task groups, tasks and blocks added to the plan are initialized,
+   * and the job no longer waits for the stages removed from the plan.
+   * @param newPhysicalPlan    the re-shaped plan.
+   * @param blockManagerMaster to initialize the states of the added blocks.
+   */
+  public synchronized void updatePhysicalPlan(final PhysicalPlan newPhysicalPlan,
+                                              final BlockManagerMaster blockManagerMaster) {
+    final Set<String> edgeIds = new HashSet<>();
+    final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = physicalPlan.getStageDAG();
+    stageDAG.getVertices().forEach(physicalStage -> stageDAG.getOutgoingEdgesOf(physicalStage)
+        .forEach(physicalStageEdge -> edgeIds.add(physicalStageEdge.getId())));
+    final DAG<PhysicalStage, PhysicalStageEdge> newStageDAG = newPhysicalPlan.getStageDAG();
+    final Set<String> newStageIds = newStageDAG.getVertices().stream()
+        .map(PhysicalStage::getId)
+        .collect(Collectors.toSet());
+    currentJobStageIds.retainAll(newStageIds);
+    this.physicalPlan = newPhysicalPlan;
+    final long time = System.currentTimeMillis();
+    eventLog.append(() -> "{\"time\": " + time + ", \"type\": \"PlanUpdated\", \"id\": " + EventLog.quote(jobId)
+        + ", \"plan\": " + newStageDAG + "}");
+
+    newStageDAG.topologicalDo(physicalStage -> {
+      if (!idToStageStates.containsKey(physicalStage.getId())) {
+        initializeComputationStates(physicalStage);
+        initializePartitionStates(physicalStage, blockManagerMaster);
+      }
+      newStageDAG.getOutgoingEdgesOf(physicalStage).stream()
+          .filter(physicalStageEdge -> !edgeIds.contains(physicalStageEdge.getId()))
+          .forEach(physicalStageEdge -> initializePartitionStates(physicalStageEdge, blockManagerMaster));
+    });
+    if (currentJobStageIds.isEmpty() && !checkJobTermination()) {
+      onJobStateChanged(JobState.State.COMPLETE);
+    }
+  }
+
   /**
    * Updates the state of the job.
    * @param newState of the job.
@@ -182,6 +263,7 @@ public final class JobStateManager {
     if (newState == JobState.State.EXECUTING) {
       LOG.debug("Executing Job ID {}...", this.jobId);
       jobState.getStateMachine().setState(newState);
+      logStateChange("JobStateChanged", jobId, newState);
       metric.put("FromState", newState);
       beginMeasurement(jobId, metric);
     } else if (newState == JobState.State.COMPLETE || newState == JobState.State.FAILED) {
@@ -190,8 +272,10 @@ public final class JobStateManager {
       finishLock.lock();
       try {
         jobState.getStateMachine().setState(newState);
+        logStateChange("JobStateChanged", jobId, newState);
         metric.put("ToState", newState);
-        endMeasurement(jobId, metric);
+        endMeasurement(jobId, JOB_DURATION_NANOS + jobId, metric);
+        jobTrace.onJobEnded(newState);
 
         jobFinishedCondition.signalAll();
       } finally {
@@ -213,6 +297,7 @@ public final class JobStateManager {
     LOG.debug("Stage State Transition: id {} from {} to {}",
         new Object[]{stageId, stageStateMachine.getCurrentState(), newState});
     stageStateMachine.setState(newState);
+    logStateChange("StageStateChanged", stageId, newState);
     final Map<String, Object> metric = new HashMap<>();
 
     if (newState == StageState.State.EXECUTING) {
@@ -232,6 +317,8 @@ public final class JobStateManager {
       metric.put("ScheduleAttempt", scheduleAttemptIdxByStage.get(stageId));
       metric.put("FromState", newState);
       beginMeasurement(stageId, metric);
+      jobTrace.onStageStarted(stageId, physicalPlan.getStageDAG().getParents(stageId).stream()
+          .map(PhysicalStage::getId).collect(Collectors.toList()));
 
       // if there exists a mapping, this state change is from a failed_recoverable stage,
       // and there may be task groups that do not need to be re-executed.
@@ -249,7 +336,8 @@ public final class JobStateManager {
       }
     } else if (newState == StageState.State.COMPLETE) {
       metric.put("ToState", newState);
-      endMeasurement(stageId, metric);
+      endMeasurement(stageId, STAGE_DURATION_NANOS + stageId, metric);
+      jobTrace.onStageEnded(stageId, newState);
 
       currentJobStageIds.remove(stageId);
       if (currentJobStageIds.isEmpty()) {
@@ -257,11 +345,13 @@ public final class JobStateManager {
       }
     } else if (newState == StageState.State.FAILED_RECOVERABLE) {
       metric.put("ToState", newState);
-      endMeasurement(stageId, metric);
+      endMeasurement(stageId, STAGE_DURATION_NANOS + stageId, metric);
+      jobTrace.onStageEnded(stageId, newState);
       currentJobStageIds.add(stageId);
     } else if (newState == StageState.State.FAILED_UNRECOVERABLE) {
       metric.put("ToState", newState);
-      endMeasurement(stageId, metric);
+      endMeasurement(stageId, STAGE_DURATION_NANOS + stageId, metric);
+      jobTrace.onStageEnded(stageId, newState);
     }
   }
 
@@ -288,8 +378,9 @@ public final class JobStateManager {
     case ON_HOLD:
     case COMPLETE:
       taskGroupState.setState(newState);
+      logStateChange("TaskGroupStateChanged", taskGroup.getTaskGroupId(), newState);
       metric.put("ToState", newState);
-      endMeasurement(taskGroup.getTaskGroupId(), metric);
+      endMeasurement(taskGroup.getTaskGroupId(), TASK_GROUP_DURATION_NANOS + stageId, metric);
 
       if (stageIdToRemainingTaskGroupSet.containsKey(stageId)) {
         final Set<String> remainingTaskGroups = stageIdToRemainingTaskGroupSet.get(stageId);
@@ -306,8 +397,10 @@ public final class JobStateManager {
       break;
     case EXECUTING:
       taskGroupState.setState(newState);
+      logStateChange("TaskGroupStateChanged", taskGroup.getTaskGroupId(), newState);
       metric.put("FromState", newState);
       beginMeasurement(taskGroup.getTaskGroupId(), metric);
+      jobTrace.onTaskGroupDispatched(taskGroup.getTaskGroupId(), stageId);
       break;
     case FAILED_RECOVERABLE:
       // Multiple calls to set a task group's state to failed_recoverable can occur when
@@ -315,8 +408,9 @@ public final class JobStateManager {
       // and the task group finds itself failed_recoverable later, propagating the state change event only then.
       if (taskGroupState.getCurrentState() != TaskGroupState.State.FAILED_RECOVERABLE) {
         taskGroupState.setState(newState);
+        logStateChange("TaskGroupStateChanged", taskGroup.getTaskGroupId(), newState);
         metric.put("ToState", newState);
-        endMeasurement(taskGroup.getTaskGroupId(), metric);
+        endMeasurement(taskGroup.getTaskGroupId(), TASK_GROUP_DURATION_NANOS + stageId, metric);
 
         // Mark this stage as failed_recoverable as long as it contains at least one failed_recoverable task group
         if (idToStageStates.get(stageId).getStateMachine().getCurrentState() != StageState.State.FAILED_RECOVERABLE) {
@@ -336,17 +430,70 @@ public final class JobStateManager {
       break;
     case READY:
       taskGroupState.setState(newState);
+      logStateChange("TaskGroupStateChanged", taskGroup.getTaskGroupId(), newState);
+      jobTrace.onTaskGroupReady(taskGroup.getTaskGroupId(), stageId);
       break;
     case FAILED_UNRECOVERABLE:
       taskGroupState.setState(newState);
+      logStateChange("TaskGroupStateChanged", taskGroup.getTaskGroupId(), newState);
       metric.put("ToState", newState);
-      endMeasurement(taskGroup.getTaskGroupId(), metric);
+      endMeasurement(taskGroup.getTaskGroupId(), TASK_GROUP_DURATION_NANOS + stageId, metric);
       break;
     default:
       throw new UnknownExecutionStateException(new Throwable("This task group state is unknown"));
     }
   }
 
+  /**
+   * Starts logging the state changes of this job, from the plan of the job in which every stage and TaskGroup is READY.
+   * @param directory the directory to which the log is saved.
+   */
+  public synchronized void startEventLog(final String directory) {
+    eventLog = EventLog.open(directory, jobId + "-events");
+    final long time = System.currentTimeMillis();
+    final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = physicalPlan.getStageDAG();
+    eventLog.append(() -> "{\"time\": " + time + ", \"type\": \"JobStarted\", \"id\": " + EventLog.quote(jobId)
+        + ", \"plan\": " + stageDAG + "}");
+  }
+
+  /**
+   * Writes the state changes logged so far, and stops logging.
+   */
+  public void closeEventLog() {
+    eventLog.close();
+  }
+
+  /**
+   * Logs a state change, which is serialized and written out of the callers' lock.
+   * @param type     of the event.
+   * @param id       of the job, stage or TaskGroup.
+   * @param newState of the job, stage or TaskGroup.
+   */
+  private void logStateChange(final String type, final String id, final Enum newState) {
+    final long time = System.currentTimeMillis();
+    eventLog.append(() -> "{\"time\": " + time + ", \"type\": \"" + type + "\", \"id\": " + EventLog.quote(id)
+        + ", \"state\": \"" + newState + "\"}");
+  }
+
+  /**
+   * Adds the spans of a TaskGroup attempt to the trace of this job, if the TaskGroup belongs to this job.
+   * @param executorId  of the executor that ran the TaskGroup.
+   * @param taskGroupId of the TaskGroup.
+   * @param attemptIdx  of the TaskGroup attempt.
+   * @param spans       measured by the executor.
+   * @return whether the TaskGroup belongs to this job.
+   */
+  public synchronized boolean onTraceSpansReceived(final String executorId,
+                                                   final String taskGroupId,
+                                                   final int attemptIdx,
+                                                   final List<ControlMessage.TraceSpanMsg> spans) {
+    if (!idToTaskGroupStates.containsKey(taskGroupId)) {
+      return false;
+    }
+    jobTrace.onTraceSpansReceived(executorId, taskGroupId, attemptIdx, spans);
+    return true;
+  }
+
   public synchronized boolean checkStageCompletion(final String stageId) {
     return stageIdToRemainingTaskGroupSet.get(stageId).isEmpty();
   }
@@ -404,6 +551,13 @@ public final class JobStateManager {
     return getJobState();
   }
 
+  /**
+   * @return the ids of the blocks of this job.
+   */
+  public synchronized Set<String> getBlockIds() {
+    return new HashSet<>(blockIds);
+  }
+
   public synchronized String getJobId() {
     return jobId;
   }
@@ -446,18 +600,23 @@ public final class JobStateManager {
 
   /**
    * Ends this metric measurement, recording the end time in addition to the metric given.
+   * The duration is rolled up into the histogram of the given name, so that the metrics kept in the master
+   * do not grow with the number of task groups executed.
    * This method ensures thread-safety by synchronizing its callers.
    * @param compUnitId to be used as metricKey
+   * @param durationMetricName the name of the histogram the duration of this measurement is recorded into
    * @param finalMetric metric to add
    */
-  private void endMeasurement(final String compUnitId, final Map<String, Object> finalMetric) {
-    final MetricDataBuilder metricDataBuilder = metricDataBuilderMap.get(compUnitId);
+  private void endMeasurement(final String compUnitId, final String durationMetricName,
+                              final Map<String, Object> finalMetric) {
+    final MetricDataBuilder metricDataBuilder = metricDataBuilderMap.remove(compUnitId);
 
     // may be null when a TaskGroup fails without entering the executing state (due to an input read failure)
     if (metricDataBuilder != null) {
       metricDataBuilder.endMeasurement(finalMetric);
-      metricMessageHandler.onMetricMessageReceived(compUnitId, metricDataBuilder.build().toJson());
-      metricDataBuilderMap.remove(compUnitId);
+      LOG.debug("{}", metricDataBuilder.build().toJson());
+      metricMessageHandler.onDurationMeasured(durationMetricName,
+          metricDataBuilder.getEndTime() - metricDataBuilder.getStartTime());
     }
   }
 
@@ -485,6 +644,29 @@ public final class JobStateManager {
     }
   }
 
+  /**
+   * Stores the timeline of this job into a file, in the Chrome trace event format.
+   * @param directory the directory which the trace is saved to
+   */
+  public void storeTrace(final String directory) {
+    if (directory.equals(EMPTY_DAG_DIRECTORY)) {
+      return;
+    }
+
+    final File file = new File(directory, jobId + "-trace.json");
+    file.getParentFile().mkdirs();
+    final String trace;
+    synchronized (this) {
+      trace = jobTrace.toChromeTraceJson();
+    }
+    try (final PrintWriter printWriter = new PrintWriter(file)) {
+      printWriter.println(trace);
+      LOG.info("The trace of {} was saved to {}", jobId, file.getPath());
+    } catch (final IOException e) {
+      LOG.warn(String.format("Cannot store the trace of %s to %s: %s", jobId, file.getPath(), e.toString()));
+    }
+  }
+
   public String toStringWithPhysicalPlan() {
     final StringBuilder sb = new StringBuilder("{");
     sb.append("\"dag\": ").append(physicalPlan.getStageDAG().toString()).append(", ");
@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.master;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.snu.onyx.common.exception.JsonParseException;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.metric.TraceClock;
+import org.apache.reef.annotations.audience.DriverSide;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.*;
+
+/**
+ * The timeline of a job, exported in the Chrome trace event format to be opened in chrome://tracing or Perfetto.
+ * The master lane holds the job and its stages, and each executor has its own lanes,
+ * each of which holds the TaskGroups that the executor ran one after another, with their tasks, fetches and writes.
+ * The TaskGroups carry the times at which they became ready and were dispatched by the master in their arguments,
+ * for bin/critical_path.py to attribute the time on the critical path of the job.
+ * The spans of the executors are in their own clocks, so they are only as precise as the clocks are in sync.
+ * The callers, {@link JobStateManager}, synchronize the access to this class.
+ */
+@DriverSide
+@NotThreadSafe
+final class JobTrace {
+  private static final String MASTER_LANE = "Master";
+  private static final String READY_MICROS = "readyMicros";
+  private static final String DISPATCH_MICROS = "dispatchMicros";
+
+  private final String jobId;
+  private final long jobStartMicros;
+  private final List<Map<String, Object>> masterEvents;
+  private final Map<String, Map<String, Object>> stageIdToRunningStage;
+  private final Map<String, Map<String, Object>> taskGroupIdToMasterArgs;
+  private final List<TaskGroupSpans> taskGroupSpans;
+
+  /**
+   * Starts the trace of a job.
+   * @param jobId the ID of the job.
+   */
+  JobTrace(final String jobId) {
+    this.jobId = jobId;
+    this.jobStartMicros = TraceClock.nowMicros();
+    this.masterEvents = new ArrayList<>();
+    this.stageIdToRunningStage = new HashMap<>();
+    this.taskGroupIdToMasterArgs = new HashMap<>();
+    this.taskGroupSpans = new ArrayList<>();
+  }
+
+  /**
+   * Ends the trace of the job.
+   * @param finalState of the job.
+   */
+  void onJobEnded(final Enum finalState) {
+    final Map<String, Object> args = new HashMap<>();
+    args.put("state", finalState.name());
+    masterEvents.add(completeEvent(jobId, "job", jobStartMicros, TraceClock.nowMicros(), args));
+  }
+
+  /**
+   * Begins the span of a stage attempt.
+   * @param stageId        of the stage.
+   * @param parentStageIds the IDs of the stages the stage reads from.
+   */
+  void onStageStarted(final String stageId, final List<String> parentStageIds) {
+    final Map<String, Object> args = new HashMap<>();
+    args.put("parents", parentStageIds);
+    stageIdToRunningStage.put(stageId, completeEvent(stageId, "stage", TraceClock.nowMicros(), 0, args));
+  }
+
+  /**
+   * Ends the span of a stage attempt.
+   * @param stageId  of the stage.
+   * @param endState of the stage attempt.
+   */
+  void onStageEnded(final String stageId, final Enum endState) {
+    final Map<String, Object> stage = stageIdToRunningStage.remove(stageId);
+    if (stage != null) {
+      stage.put("dur", TraceClock.nowMicros() - (long) stage.get("ts"));
+      getArgs(stage).put("state", endState.name());
+      masterEvents.add(stage);
+    }
+  }
+
+  /**
+   * Records the time a TaskGroup became ready to be scheduled again.
+   * @param taskGroupId of the TaskGroup.
+   * @param stageId     of the TaskGroup.
+   */
+  void onTaskGroupReady(final String taskGroupId, final String stageId) {
+    final Map<String, Object> args = new HashMap<>();
+    args.put("stageId", stageId);
+    args.put(READY_MICROS, TraceClock.nowMicros());
+    taskGroupIdToMasterArgs.put(taskGroupId, args);
+  }
+
+  /**
+   * Records the time a TaskGroup was dispatched to an executor.
+   * @param taskGroupId of the TaskGroup.
+   * @param stageId     of the TaskGroup.
+   */
+  void onTaskGroupDispatched(final String taskGroupId, final String stageId) {
+    final long nowMicros = TraceClock.nowMicros();
+    final Map<String, Object> args = taskGroupIdToMasterArgs.computeIfAbsent(taskGroupId, key -> new HashMap<>());
+    args.put("stageId", stageId);
+    // The TaskGroups of a stage are ready when the stage starts, unless they are retried.
+    final Map<String, Object> stage = stageIdToRunningStage.get(stageId);
+    args.putIfAbsent(READY_MICROS, stage == null ? nowMicros : stage.get("ts"));
+    args.put(DISPATCH_MICROS, nowMicros);
+  }
+
+  /**
+   * Adds the spans of a TaskGroup attempt, measured by the executor that ran it.
+   * @param executorId  of the executor.
+   * @param taskGroupId of the TaskGroup.
+   * @param attemptIdx  of the TaskGroup attempt.
+   * @param spans       of the TaskGroup attempt.
+   */
+  void onTraceSpansReceived(final String executorId,
+                            final String taskGroupId,
+                            final int attemptIdx,
+                            final List<ControlMessage.TraceSpanMsg> spans) {
+    final Map<String, Object> args =
+        new HashMap<>(taskGroupIdToMasterArgs.getOrDefault(taskGroupId, Collections.emptyMap()));
+    args.put("attemptIdx", attemptIdx);
+    spans.stream()
+        .filter(span -> span.getCategory() == ControlMessage.TraceSpanCategory.TASK_GROUP)
+        .findFirst()
+        .ifPresent(taskGroupSpan -> taskGroupSpans.add(new TaskGroupSpans(executorId, taskGroupSpan, spans, args)));
+  }
+
+  /**
+   * @return the trace in the Chrome trace event format.
+   */
+  String toChromeTraceJson() {
+    final List<Map<String, Object>> events = new ArrayList<>();
+    events.add(processNameEvent(0, MASTER_LANE));
+    final List<Map<String, Object>> masterSpans = new ArrayList<>(masterEvents);
+    masterSpans.sort(Comparator.comparingLong(event -> (long) event.get("ts")));
+    final int[] masterLanes = assignLanes(masterSpans.stream()
+        .mapToLong(event -> (long) event.get("ts")).toArray(),
+        masterSpans.stream().mapToLong(event -> (long) event.get("ts") + (long) event.get("dur")).toArray());
+    for (int i = 0; i < masterSpans.size(); i++) {
+      final Map<String, Object> event = new HashMap<>(masterSpans.get(i));
+      event.put("pid", 0);
+      event.put("tid", masterLanes[i]);
+      events.add(event);
+    }
+
+    final SortedMap<String, List<TaskGroupSpans>> executorIdToTaskGroups = new TreeMap<>();
+    taskGroupSpans.forEach(spans -> executorIdToTaskGroups.computeIfAbsent(spans.executorId, key -> new ArrayList<>())
+        .add(spans));
+    int pid = 1;
+    long fetchId = 0;
+    for (final Map.Entry<String, List<TaskGroupSpans>> entry : executorIdToTaskGroups.entrySet()) {
+      events.add(processNameEvent(pid, entry.getKey()));
+      final List<TaskGroupSpans> taskGroups = entry.getValue();
+      taskGroups.sort(Comparator.comparingLong(spans -> spans.taskGroupSpan.getStartMicros()));
+      final int[] lanes = assignLanes(
+          taskGroups.stream().mapToLong(spans -> spans.taskGroupSpan.getStartMicros()).toArray(),
+          taskGroups.stream().mapToLong(spans -> spans.taskGroupSpan.getStartMicros()
+              + spans.taskGroupSpan.getDurationMicros()).toArray());
+      for (int i = 0; i < taskGroups.size(); i++) {
+        for (final ControlMessage.TraceSpanMsg span : taskGroups.get(i).spans) {
+          final String category = span.getCategory().name().toLowerCase();
+          if (span.getCategory() == ControlMessage.TraceSpanCategory.FETCH) {
+            // The fetches of a task overlap each other, so they are asynchronous events.
+            final long id = fetchId++;
+            events.add(asyncEvent(span.getName(), category, "b", id, span.getStartMicros(), pid, lanes[i]));
+            events.add(asyncEvent(span.getName(), category, "e", id,
+                span.getStartMicros() + span.getDurationMicros(), pid, lanes[i]));
+            continue;
+          }
+          final Map<String, Object> args = new HashMap<>();
+          if (span.getCategory() == ControlMessage.TraceSpanCategory.TASK_GROUP) {
+            args.putAll(taskGroups.get(i).masterArgs);
+          }
+          if (span.hasFetchWaitMicros()) {
+            args.put("fetchWaitMicros", span.getFetchWaitMicros());
+          }
+          if (span.hasWriteMicros()) {
+            args.put("writeMicros", span.getWriteMicros());
+          }
+          final Map<String, Object> event = completeEvent(span.getName(), category, span.getStartMicros(),
+              span.getStartMicros() + span.getDurationMicros(), args);
+          event.put("pid", pid);
+          event.put("tid", lanes[i]);
+          events.add(event);
+        }
+      }
+      pid++;
+    }
+
+    final Map<String, Object> trace = new LinkedHashMap<>();
+    trace.put("traceEvents", events);
+    trace.put("displayTimeUnit", "ms");
+    trace.put("otherData", Collections.singletonMap("jobId", jobId));
+    try {
+      return new ObjectMapper().writeValueAsString(trace);
+    } catch (final JsonProcessingException e) {
+      throw new JsonParseException(e);
+    }
+  }
+
+  /**
+   * Assigns the spans sorted by their start times to the lanes, so that the spans in a lane do not overlap.
+   * @param startTimes of the spans, in ascending order.
+   * @param endTimes   of the spans.
+   * @return the lane of each span, from 0.
+   */
+  private static int[] assignLanes(final long[] startTimes, final long[] endTimes) {
+    final int[] lanes = new int[startTimes.length];
+    final List<Long> laneEndTimes = new ArrayList<>();
+    for (int i = 0; i < startTimes.length; i++) {
+      int lane = 0;
+      while (lane < laneEndTimes.size() && laneEndTimes.get(lane) > startTimes[i]) {
+        lane++;
+      }
+      if (lane == laneEndTimes.size()) {
+        laneEndTimes.add(endTimes[i]);
+      } else {
+        laneEndTimes.set(lane, endTimes[i]);
+      }
+      lanes[i] = lane;
+    }
+    return lanes;
+  }
+
+  /**
+   * @param event a trace event.
+   * @return the arguments of the event.
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> getArgs(final Map<String, Object> event) {
+    return (Map<String, Object>) event.get("args");
+  }
+
+  /**
+   * @param name        of the span.
+   * @param category    of the span.
+   * @param startMicros the start time of the span, in microseconds.
+   * @param endMicros   the end time of the span, in microseconds.
+   * @param args        the arguments of the span.
+   * @return a complete event of the span, of which the process and the thread are to be set.
+   */
+  private static Map<String, Object> completeEvent(final String name,
+                                                   final String category,
+                                                   final long startMicros,
+                                                   final long endMicros,
+                                                   final Map<String, Object> args) {
+    final Map<String, Object> event = new HashMap<>();
+    event.put("name", name);
+    event.put("cat", category);
+    event.put("ph", "X");
+    event.put("ts", startMicros);
+    event.put("dur", Math.max(endMicros - startMicros, 0));
+    event.put("args", args);
+    return event;
+  }
+
+  /**
+   * @param name       of the span.
+   * @param category   of the span.
+   * @param phase      "b" for the beginning of the span, or "e" for the end.
+   * @param id         of the span, which pairs its beginning and end.
+   * @param timeMicros the time of the beginning or the end, in microseconds.
+   * @param pid        the process of the span.
+   * @param tid        the thread of the span.
+   * @return an async event, for a span which may overlap the other spans of the thread.
+   */
+  private static Map<String, Object> asyncEvent(final String name,
+                                                final String category,
+                                                final String phase,
+                                                final long id,
+                                                final long timeMicros,
+                                                final int pid,
+                                                final int tid) {
+    final Map<String, Object> event = new HashMap<>();
+    event.put("name", name);
+    event.put("cat", category);
+    event.put("ph", phase);
+    event.put("id", id);
+    event.put("ts", timeMicros);
+    event.put("pid", pid);
+    event.put("tid", tid);
+    return event;
+  }
+
+  /**
+   * @param pid         the process.
+   * @param processName the name to show for the process.
+   * @return a metadata event naming the process.
+   */
+  private static Map<String, Object> processNameEvent(final int pid, final String processName) {
+    final Map<String, Object> event = new HashMap<>();
+    event.put("name", "process_name");
+    event.put("ph", "M");
+    event.put("pid", pid);
+    event.put("args", Collections.singletonMap("name", processName));
+    return event;
+  }
+
+  /**
+   * The spans of a TaskGroup attempt in an executor.
+   */
+  private static final class TaskGroupSpans {
+    private final String executorId;
+    private final ControlMessage.TraceSpanMsg taskGroupSpan;
+    private final List<ControlMessage.TraceSpanMsg> spans;
+    private final Map<String, Object> masterArgs;
+
+    /**
+     * Constructor.
+     * @param executorId    the executor which ran the TaskGroup.
+     * @param taskGroupSpan the span of the TaskGroup.
+     * @param spans         the spans recorded by the TaskGroup, including its own.
+     * @param masterArgs    the arguments recorded by the master for the TaskGroup.
+     */
+    private TaskGroupSpans(final String executorId,
+                           final ControlMessage.TraceSpanMsg taskGroupSpan,
+                           final List<ControlMessage.TraceSpanMsg> spans,
+                           final Map<String, Object> masterArgs) {
+      this.executorId = executorId;
+      this.taskGroupSpan = taskGroupSpan;
+      this.spans = spans;
+      this.masterArgs = masterArgs;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.master;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.reef.annotations.audience.DriverSide;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Serves the metrics aggregated in a {@link MetricMessageHandler} over HTTP.
+ * /metrics is in the Prometheus text format, to be scraped, and /metrics/json is for the web UI.
+ * The server listens on the loopback interface only, so the metrics are not exposed beyond the host of the driver.
+ */
+@DriverSide
+final class MetricHttpServer implements AutoCloseable {
+  private static final Logger LOG = LoggerFactory.getLogger(MetricHttpServer.class.getName());
+  private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+  private final HttpServer server;
+  private final ExecutorService handlerExecutor;
+
+  /**
+   * Starts serving the metrics.
+   * @param port                 to listen on, or 0 to listen on an ephemeral port.
+   * @param metricMessageHandler the handler of which metrics are served.
+   * @throws IOException if the server fails to bind the port.
+   */
+  MetricHttpServer(final int port, final MetricMessageHandler metricMessageHandler) throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    this.handlerExecutor = Executors.newSingleThreadExecutor();
+    server.createContext("/metrics",
+        exchange -> respond(exchange, PROMETHEUS_CONTENT_TYPE, metricMessageHandler::toPrometheusText));
+    server.createContext("/metrics/json",
+        exchange -> respond(exchange, JSON_CONTENT_TYPE, metricMessageHandler::toJson));
+    server.setExecutor(handlerExecutor);
+    server.start();
+    LOG.info("Serving the metrics on port {}", getPort());
+  }
+
+  /**
+   * @return the port this server listens on.
+   */
+  int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    handlerExecutor.shutdown();
+  }
+
+  /**
+   * Responds to a GET request with the body supplied.
+   * @param exchange    the request and response.
+   * @param contentType of the body.
+   * @param body        the supplier of the body.
+   * @throws IOException if the response fails to be sent.
+   */
+  private static void respond(final HttpExchange exchange,
+                              final String contentType,
+                              final Supplier<String> body) throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      final byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", contentType);
+      exchange.sendResponseHeaders(200, bytes.length);
+      try (final OutputStream outputStream = exchange.getResponseBody()) {
+        outputStream.write(bytes);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+}
@@ -15,50 +15,377 @@
  */
 package edu.snu.onyx.runtime.master;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.snu.onyx.common.Pair;
+import edu.snu.onyx.common.exception.JsonParseException;
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.metric.LatencyHistogram;
+
+import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 import org.apache.reef.annotations.audience.DriverSide;
+import org.apache.reef.tang.annotations.Parameter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * A default metric message handler.
+ * A default metric message handler, which keeps the metrics in memory of a bounded size.
+ * The numeric metrics are aggregated as they arrive: the counters are summed over the executors and
+ * sampled into fixed-length time series, the gauges keep the last value of each executor,
+ * and the histograms are merged. The durations measured in the master are rolled up into the histograms
+ * of their job, stage, or the stage of their TaskGroup.
+ * Only the latest string metrics of the most recently updated keys are kept.
  */
 @DriverSide
+@ThreadSafe
 public final class MetricManagerMaster implements MetricMessageHandler {
-
   private static final Logger LOG = LoggerFactory.getLogger(MetricManagerMaster.class.getName());
-  private final Map<String, List<String>> compUnitIdToMetricInJson;
-  private boolean isTerminated;
+  private static final int MAX_METRIC_KEYS = 10000;
+  private static final int MAX_METRICS_PER_KEY = 16;
+  private static final long SAMPLING_INTERVAL_MS = 1000;
+  private static final double[] PERCENTILES = {50, 90, 99, 100};
 
+  private final int seriesLength;
+  private final Map<String, Deque<String>> compUnitIdToMetricInJson;
+  private final ConcurrentMap<String, CounterSeries> counters;
+  private final ConcurrentMap<String, ConcurrentMap<String, Long>> gauges;
+  private final ConcurrentMap<String, LatencyHistogram> histograms;
+  private final ObjectMapper objectMapper;
+  private final MetricHttpServer httpServer;
+  private volatile boolean isTerminated;
+
+  /**
+   * Constructor, which starts the HTTP server exposing the metrics unless the port is negative.
+   * @param serverPort   the port of the HTTP server, 0 for any free port.
+   * @param seriesLength the number of the samples kept over time for each counter.
+   */
   @Inject
-  private MetricManagerMaster() {
-    this.compUnitIdToMetricInJson = new HashMap<>();
+  private MetricManagerMaster(@Parameter(JobConf.MetricServerPort.class) final int serverPort,
+                              @Parameter(JobConf.MetricSeriesLength.class) final int seriesLength) {
+    this.seriesLength = seriesLength;
+    // The least recently updated key is evicted first.
+    this.compUnitIdToMetricInJson = new LinkedHashMap<String, Deque<String>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Deque<String>> eldest) {
+        return size() > MAX_METRIC_KEYS;
+      }
+    };
+    this.counters = new ConcurrentHashMap<>();
+    this.gauges = new ConcurrentHashMap<>();
+    this.histograms = new ConcurrentHashMap<>();
+    this.objectMapper = new ObjectMapper();
     this.isTerminated = false;
+    if (serverPort >= 0) {
+      try {
+        this.httpServer = new MetricHttpServer(serverPort, this);
+      } catch (final IOException e) {
+        throw new RuntimeException(e);
+      }
+    } else {
+      this.httpServer = null;
+    }
   }
 
   @Override
-  public synchronized void onMetricMessageReceived(final String metricKey, final String metricValue) {
+  public void onMetricMessageReceived(final String metricKey, final String metricValue) {
     if (!isTerminated) {
-      compUnitIdToMetricInJson.putIfAbsent(metricKey, new LinkedList<>());
-      compUnitIdToMetricInJson.get(metricKey).add(metricValue);
+      synchronized (compUnitIdToMetricInJson) {
+        final Deque<String> metrics = compUnitIdToMetricInJson.computeIfAbsent(metricKey, key -> new ArrayDeque<>());
+        if (metrics.size() == MAX_METRICS_PER_KEY) {
+          metrics.removeFirst();
+        }
+        metrics.addLast(metricValue);
+      }
       LOG.debug("{}", metricValue);
     }
   }
 
   @Override
-  public synchronized List<String> getMetricByKey(final String metricKey) {
-    return compUnitIdToMetricInJson.get(metricKey);
+  public void onNumericMetricsReceived(final String executorId,
+                                       final List<ControlMessage.NumericMetric> numericMetrics) {
+    if (isTerminated) {
+      return;
+    }
+    final long now = System.currentTimeMillis();
+    for (final ControlMessage.NumericMetric numericMetric : numericMetrics) {
+      final String name = numericMetric.getName();
+      switch (numericMetric.getType()) {
+        case COUNTER:
+          counters.computeIfAbsent(name, key -> new CounterSeries(seriesLength)).add(numericMetric.getValue(), now);
+          break;
+        case GAUGE:
+          gauges.computeIfAbsent(name, key -> new ConcurrentHashMap<>()).put(executorId, numericMetric.getValue());
+          break;
+        case HISTOGRAM:
+          histograms.computeIfAbsent(name, key -> new LatencyHistogram()).merge(numericMetric.getHistogram());
+          break;
+        default:
+          throw new IllegalStateException("Unknown metric type " + numericMetric.getType());
+      }
+    }
+  }
+
+  @Override
+  public void onDurationMeasured(final String name, final long durationNanos) {
+    if (!isTerminated) {
+      histograms.computeIfAbsent(name, key -> new LatencyHistogram()).record(durationNanos);
+    }
+  }
+
+  @Override
+  public long getCounter(final String name) {
+    final CounterSeries counter = counters.get(name);
+    return counter == null ? 0 : counter.getTotal();
+  }
+
+  @Override
+  public List<Pair<Long, Long>> getCounterSeries(final String name) {
+    final CounterSeries counter = counters.get(name);
+    return counter == null ? Collections.emptyList() : counter.getSamples();
+  }
+
+  @Override
+  public Map<String, Long> getGauge(final String name) {
+    return new HashMap<>(gauges.getOrDefault(name, new ConcurrentHashMap<>()));
+  }
+
+  @Override
+  public LatencyHistogram getHistogram(final String name) {
+    return histograms.get(name);
+  }
+
+  @Override
+  public String toPrometheusText() {
+    final StringBuilder builder = new StringBuilder();
+    final Set<String> families = new HashSet<>();
+    new TreeMap<>(counters).forEach((name, counter) -> {
+      final String family = toFamilyName(name) + "_total";
+      appendType(builder, families, family, "counter");
+      appendSample(builder, family, idLabelOf(name), counter.getTotal());
+    });
+    new TreeMap<>(gauges).forEach((name, executorIdToValue) -> {
+      final String family = toFamilyName(name);
+      appendType(builder, families, family, "gauge");
+      new TreeMap<>(executorIdToValue).forEach((executorId, value) ->
+          appendSample(builder, family, joinLabels(idLabelOf(name), label("executor", executorId)), value));
+    });
+    new TreeMap<>(histograms).forEach((name, histogram) -> {
+      final String family = toFamilyName(name);
+      appendType(builder, families, family, "summary");
+      final String idLabel = idLabelOf(name);
+      for (final double percentile : PERCENTILES) {
+        appendSample(builder, family, joinLabels(idLabel, label("quantile", String.valueOf(percentile / 100))),
+            histogram.getValueAtPercentile(percentile));
+      }
+      appendSample(builder, family + "_sum", idLabel, histogram.getSum());
+      appendSample(builder, family + "_count", idLabel, histogram.getCount());
+    });
+    return builder.toString();
+  }
+
+  @Override
+  public String toJson() {
+    final Map<String, Object> counterMap = new TreeMap<>();
+    counters.forEach((name, counter) -> {
+      final Map<String, Object> counterJson = new LinkedHashMap<>();
+      counterJson.put("total", counter.getTotal());
+      final List<long[]> series = new ArrayList<>();
+      counter.getSamples().forEach(sample -> series.add(new long[]{sample.left(), sample.right()}));
+      counterJson.put("series", series);
+      counterMap.put(name, counterJson);
+    });
+    final Map<String, Object> gaugeMap = new TreeMap<>();
+    gauges.forEach((name, executorIdToValue) -> gaugeMap.put(name, new TreeMap<>(executorIdToValue)));
+    final Map<String, Object> histogramMap = new TreeMap<>();
+    histograms.forEach((name, histogram) -> {
+      final Map<String, Object> histogramJson = new LinkedHashMap<>();
+      histogramJson.put("count", histogram.getCount());
+      histogramJson.put("sum", histogram.getSum());
+      for (final double percentile : PERCENTILES) {
+        histogramJson.put(percentile == 100 ? "max" : "p" + (int) percentile,
+            histogram.getValueAtPercentile(percentile));
+      }
+      histogramMap.put(name, histogramJson);
+    });
+
+    final Map<String, Object> metrics = new LinkedHashMap<>();
+    metrics.put("counters", counterMap);
+    metrics.put("gauges", gaugeMap);
+    metrics.put("histograms", histogramMap);
+    try {
+      return objectMapper.writeValueAsString(metrics);
+    } catch (final JsonProcessingException e) {
+      throw new JsonParseException(e);
+    }
+  }
+
+  @Override
+  public List<String> getMetricByKey(final String metricKey) {
+    synchronized (compUnitIdToMetricInJson) {
+      final Deque<String> metrics = compUnitIdToMetricInJson.get(metricKey);
+      return metrics == null ? null : new ArrayList<>(metrics);
+    }
+  }
+
+  @Override
+  public void reset() {
+    synchronized (compUnitIdToMetricInJson) {
+      compUnitIdToMetricInJson.clear();
+    }
+    counters.clear();
+    gauges.clear();
+    histograms.clear();
   }
 
   @Override
-  public synchronized void terminate() {
-    compUnitIdToMetricInJson.clear();
+  public void terminate() {
     isTerminated = true;
+    if (httpServer != null) {
+      httpServer.close();
+    }
+    reset();
+  }
+
+  /**
+   * Converts the name of a metric, such as "RecordsIn/vertex3", into a Prometheus metric family name,
+   * such as "onyx_records_in".
+   * @param name of the metric.
+   * @return the family name.
+   */
+  private static String toFamilyName(final String name) {
+    final int splitIdx = name.indexOf('/');
+    final String kind = splitIdx < 0 ? name : name.substring(0, splitIdx);
+    return "onyx_" + kind.replaceAll("([a-z0-9])([A-Z])", "$1_$2").replaceAll("[^A-Za-z0-9_]", "_").toLowerCase();
+  }
+
+  /**
+   * @param name of the metric.
+   * @return the label with the ID of the vertex, edge, job or stage the metric measures, or an empty string.
+   */
+  private static String idLabelOf(final String name) {
+    final int splitIdx = name.indexOf('/');
+    return splitIdx < 0 ? "" : label("id", name.substring(splitIdx + 1));
+  }
+
+  /**
+   * @param key   of the label.
+   * @param value of the label, to escape.
+   * @return the label in the Prometheus text format.
+   */
+  private static String label(final String key, final String value) {
+    return key + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+  }
+
+  /**
+   * @param first  labels, which may be empty.
+   * @param second labels.
+   * @return the labels joined.
+   */
+  private static String joinLabels(final String first, final String second) {
+    return first.isEmpty() ? second : first + "," + second;
+  }
+
+  /**
+   * Appends the type line of a metric family, unless the family is already typed.
+   * @param builder  to append to.
+   * @param families the families already typed.
+   * @param family   the name of the metric family.
+   * @param type     the type of the metric family.
+   */
+  private static void appendType(final StringBuilder builder, final Set<String> families,
+                                 final String family, final String type) {
+    if (families.add(family)) {
+      builder.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+    }
+  }
+
+  /**
+   * Appends a sample line of a metric family.
+   * @param builder to append to.
+   * @param family  the name of the metric family.
+   * @param labels  the labels of the sample, which may be empty.
+   * @param value   the value of the sample.
+   */
+  private static void appendSample(final StringBuilder builder, final String family,
+                                   final String labels, final long value) {
+    builder.append(family);
+    if (!labels.isEmpty()) {
+      builder.append('{').append(labels).append('}');
+    }
+    builder.append(' ').append(value).append('\n');
+  }
+
+  /**
+   * The sum of a counter over the executors, with its samples over time in a ring buffer.
+   * The increments arriving within {@link #SAMPLING_INTERVAL_MS} after a sample update the sample.
+   */
+  private static final class CounterSeries {
+    private final AtomicLong total;
+    private final long[] sampleTimes;
+    private final long[] sampleTotals;
+    private int numSamples;
+    private int nextSampleIdx;
+
+    /**
+     * Constructor.
+     * @param seriesLength the number of the samples to keep.
+     */
+    private CounterSeries(final int seriesLength) {
+      this.total = new AtomicLong(0);
+      this.sampleTimes = new long[seriesLength];
+      this.sampleTotals = new long[seriesLength];
+      this.numSamples = 0;
+      this.nextSampleIdx = 0;
+    }
+
+    /**
+     * @return the sum of the counter.
+     */
+    private long getTotal() {
+      return total.get();
+    }
+
+    /**
+     * Adds an increment to the counter, and samples the new sum.
+     * @param increment to add.
+     * @param now       the current time, in milliseconds.
+     */
+    private synchronized void add(final long increment, final long now) {
+      final long newTotal = total.addAndGet(increment);
+      if (sampleTimes.length == 0) {
+        return;
+      }
+      final int lastSampleIdx = (nextSampleIdx + sampleTimes.length - 1) % sampleTimes.length;
+      if (numSamples > 0 && now - sampleTimes[lastSampleIdx] < SAMPLING_INTERVAL_MS) {
+        sampleTotals[lastSampleIdx] = newTotal;
+      } else {
+        sampleTimes[nextSampleIdx] = now;
+        sampleTotals[nextSampleIdx] = newTotal;
+        nextSampleIdx = (nextSampleIdx + 1) % sampleTimes.length;
+        numSamples = Math.min(numSamples + 1, sampleTimes.length);
+      }
+    }
+
+    /**
+     * @return the samples of the times and the sums of the counter, from the oldest.
+     */
+    private synchronized List<Pair<Long, Long>> getSamples() {
+      final List<Pair<Long, Long>> samples = new ArrayList<>(numSamples);
+      final int firstSampleIdx = (nextSampleIdx + sampleTimes.length - numSamples) % Math.max(sampleTimes.length, 1);
+      for (int i = 0; i < numSamples; i++) {
+        final int idx = (firstSampleIdx + i) % sampleTimes.length;
+        samples.add(Pair.of(sampleTimes[idx], sampleTotals[idx]));
+      }
+      return samples;
+    }
   }
 }
@@ -15,9 +15,13 @@
  */
 package edu.snu.onyx.runtime.master;
 
+import edu.snu.onyx.common.Pair;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.metric.LatencyHistogram;
 import org.apache.reef.tang.annotations.DefaultImplementation;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Metric message handler.
@@ -32,10 +36,69 @@ public interface MetricMessageHandler {
    */
   void onMetricMessageReceived(final String metricKey, final String metricValue);
 
+  /**
+   * Handle the numeric metrics aggregated in an executor since its previous report.
+   * @param executorId the ID of the executor.
+   * @param numericMetrics the increments of the counters, the values of the gauges and the histograms.
+   */
+  void onNumericMetricsReceived(final String executorId, final List<ControlMessage.NumericMetric> numericMetrics);
+
+  /**
+   * Handle the duration of a computation unit measured in the master, such as the execution of a stage.
+   * @param name of the histogram the duration is rolled up into (ex. the durations of the TaskGroups of a stage).
+   * @param durationNanos the duration in nanoseconds.
+   */
+  void onDurationMeasured(final String name, final long durationNanos);
+
+  /**
+   * Retrieves the sum of a counter over all executors.
+   * @param name of the counter.
+   * @return the sum, or 0 if it has never been reported.
+   */
+  long getCounter(final String name);
+
+  /**
+   * Retrieves the recent samples of the sum of a counter over all executors.
+   * @param name of the counter.
+   * @return the list of the sampling times in milliseconds and the sums at the times, from the oldest one.
+   */
+  List<Pair<Long, Long>> getCounterSeries(final String name);
+
+  /**
+   * Retrieves the values of a gauge reported last by each executor.
+   * @param name of the gauge.
+   * @return the map of executor IDs to the values.
+   */
+  Map<String, Long> getGauge(final String name);
+
+  /**
+   * Retrieves a histogram merged over all executors.
+   * @param name of the histogram.
+   * @return the histogram, or {@code null} if it has never been reported.
+   */
+  LatencyHistogram getHistogram(final String name);
+
+  /**
+   * Discards the aggregated metrics of the previous jobs, before a job starts on an idle master.
+   * A driver running many jobs would otherwise keep the metrics of every job, keyed by its vertices and edges.
+   */
+  void reset();
+
+  /**
+   * @return all the numeric metrics in the Prometheus text exposition format.
+   */
+  String toPrometheusText();
+
+  /**
+   * @return all the numeric metrics in JSON, with the time series of the counters and the percentiles of
+   *         the histograms.
+   */
+  String toJson();
+
   /**
    * Retrieves the string form of metric given the metric key.
    * @param metricKey to retrieve the metric for
-   * @return the list of accumulated metric in string (ex. JSON)
+   * @return the list of the most recent metrics in string (ex. JSON)
    */
   List<String> getMetricByKey(final String metricKey);
 
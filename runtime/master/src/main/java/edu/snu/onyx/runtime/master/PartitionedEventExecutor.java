@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.master;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs events on a pool of threads, partitioned by the keys of the events.
+ * The events with the same key run one at a time, in the order they were submitted,
+ * while the events with different keys may run in parallel.
+ */
+@ThreadSafe
+public final class PartitionedEventExecutor {
+  private final ExecutorService[] partitions;
+
+  /**
+   * Constructor.
+   * @param name          the name of the threads.
+   * @param numPartitions the number of the threads.
+   */
+  public PartitionedEventExecutor(final String name, final int numPartitions) {
+    if (numPartitions < 1) {
+      throw new IllegalArgumentException("The number of partitions should be positive: " + numPartitions);
+    }
+    this.partitions = new ExecutorService[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      final String threadName = name + "-" + i;
+      partitions[i] = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, threadName));
+    }
+  }
+
+  /**
+   * Submits an event.
+   * @param key   the key of the event, by which the event is ordered.
+   * @param event the event to run.
+   */
+  public void execute(final String key, final Runnable event) {
+    partitions[Math.floorMod(key.hashCode(), partitions.length)].execute(event);
+  }
+
+  /**
+   * Stops taking events. The events submitted so far still run.
+   */
+  public void shutdown() {
+    for (final ExecutorService partition : partitions) {
+      partition.shutdown();
+    }
+  }
+
+  /**
+   * Waits until the events submitted before {@link #shutdown()} have run.
+   * @param timeoutMs the maximum time to wait, in milliseconds.
+   * @return whether the events have run before the timeout.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  public boolean awaitTermination(final long timeoutMs) throws InterruptedException {
+    final long deadlineMs = System.currentTimeMillis() + timeoutMs;
+    for (final ExecutorService partition : partitions) {
+      if (!partition.awaitTermination(Math.max(deadlineMs - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
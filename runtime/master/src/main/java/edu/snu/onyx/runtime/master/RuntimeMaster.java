@@ -19,6 +19,7 @@ import edu.snu.onyx.conf.JobConf;
 import edu.snu.onyx.common.exception.*;
 import edu.snu.onyx.common.ir.vertex.IRVertex;
 import edu.snu.onyx.common.ir.vertex.MetricCollectionBarrierVertex;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.common.comm.ControlMessage;
 import edu.snu.onyx.runtime.common.message.MessageContext;
 import edu.snu.onyx.runtime.common.message.MessageEnvironment;
@@ -27,6 +28,7 @@ import edu.snu.onyx.runtime.common.plan.physical.PhysicalPlan;
 import edu.snu.onyx.runtime.common.state.BlockState;
 import edu.snu.onyx.runtime.common.state.TaskGroupState;
 import edu.snu.onyx.runtime.master.resource.ContainerManager;
+import edu.snu.onyx.runtime.master.resource.ExecutorRepresenter;
 import edu.snu.onyx.runtime.master.scheduler.PendingTaskGroupQueue;
 import edu.snu.onyx.runtime.master.resource.ResourceSpecification;
 import edu.snu.onyx.runtime.master.scheduler.Scheduler;
@@ -42,14 +44,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.TreeNode;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import javax.inject.Inject;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.function.Function;
 
 import static edu.snu.onyx.runtime.common.state.TaskGroupState.State.COMPLETE;
 import static edu.snu.onyx.runtime.common.state.TaskGroupState.State.ON_HOLD;
@@ -67,9 +67,12 @@ import static edu.snu.onyx.runtime.common.state.TaskGroupState.State.ON_HOLD;
 @DriverSide
 public final class RuntimeMaster {
   private static final Logger LOG = LoggerFactory.getLogger(RuntimeMaster.class.getName());
-  private static final int DAG_LOGGING_PERIOD = 3000;
 
-  private final ExecutorService masterControlEventExecutor;
+  private static final String MASTER_CONTROL_EVENT_THREAD_NAME = "MasterControlEvent";
+  private static final long EVENT_TERMINATION_TIMEOUT_MS = 10000;
+
+  // The events of an executor are keyed by the ID of the executor, so that they are handled in order.
+  private final PartitionedEventExecutor masterControlEventExecutor;
 
   private final Scheduler scheduler;
   private final SchedulerRunner schedulerRunner;
@@ -77,6 +80,7 @@ public final class RuntimeMaster {
   private final ContainerManager containerManager;
   private final BlockManagerMaster blockManagerMaster;
   private final MetricMessageHandler metricMessageHandler;
+  private final Set<JobStateManager> runningJobStateManagers;
   private final MessageEnvironment masterMessageEnvironment;
 
   // For converting json data. This is a thread safe.
@@ -84,6 +88,7 @@ public final class RuntimeMaster {
 
   private final String dagDirectory;
   private final Set<IRVertex> irVertices;
+  private final boolean reuseExecutors;
 
 
   @Inject
@@ -94,12 +99,13 @@ public final class RuntimeMaster {
                        final BlockManagerMaster blockManagerMaster,
                        final MetricMessageHandler metricMessageHandler,
                        final MessageEnvironment masterMessageEnvironment,
-                       @Parameter(JobConf.DAGDirectory.class) final String dagDirectory) {
-    // We would like to keep the master event thread pool single threaded
-    // since the processing logic in master takes a very short amount of time
-    // compared to the job completion times of executed jobs
-    // and keeping it single threaded removes the complexity of multi-thread synchronization.
-    this.masterControlEventExecutor = Executors.newSingleThreadExecutor();
+                       @Parameter(JobConf.DAGDirectory.class) final String dagDirectory,
+                       @Parameter(JobConf.MasterEventThreads.class) final int masterEventThreads,
+                       @Parameter(JobConf.ReuseExecutors.class) final boolean reuseExecutors) {
+    // The events of different executors are handled in parallel, as the scheduler and the state managers
+    // are thread-safe. The events of an executor are handled in order, as they were sent.
+    this.masterControlEventExecutor =
+        new PartitionedEventExecutor(MASTER_CONTROL_EVENT_THREAD_NAME, masterEventThreads);
     this.scheduler = scheduler;
     this.schedulerRunner = schedulerRunner;
     this.pendingTaskGroupQueue = pendingTaskGroupQueue;
@@ -110,7 +116,9 @@ public final class RuntimeMaster {
     this.masterMessageEnvironment
         .setupListener(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID, new MasterControlMessageReceiver());
     this.dagDirectory = dagDirectory;
-    this.irVertices = new HashSet<>();
+    this.irVertices = ConcurrentHashMap.newKeySet();
+    this.reuseExecutors = reuseExecutors;
+    this.runningJobStateManagers = ConcurrentHashMap.newKeySet();
     this.objectMapper = new ObjectMapper();
   }
 
@@ -118,34 +126,72 @@ public final class RuntimeMaster {
    * Submits the {@link PhysicalPlan} to Runtime.
    * @param plan to execute.
    * @param maxScheduleAttempt the max number of times this plan/sub-part of the plan should be attempted.
+   * @param weight the relative share of the executors of the job, among the jobs being executed at the same time.
+   * @param priority the priority of the job. The jobs with higher priority are served first.
    */
   public void execute(final PhysicalPlan plan,
-                      final int maxScheduleAttempt) {
+                      final int maxScheduleAttempt,
+                      final int weight,
+                      final int priority) {
     this.irVertices.addAll(plan.getTaskIRVertexMap().values());
     try {
       final JobStateManager jobStateManager =
           new JobStateManager(plan, blockManagerMaster, metricMessageHandler, maxScheduleAttempt);
+      synchronized (runningJobStateManagers) {
+        // The metrics of a finished job stay exported until the next job starts on the idle master.
+        if (runningJobStateManagers.isEmpty()) {
+          metricMessageHandler.reset();
+        }
+        runningJobStateManagers.add(jobStateManager);
+      }
+      jobStateManager.startEventLog(dagDirectory);
 
-      scheduler.scheduleJob(plan, jobStateManager);
-
-      // Schedule dag logging thread
-      final ScheduledExecutorService dagLoggingExecutor = scheduleDagLogging(jobStateManager);
+      scheduler.scheduleJob(plan, jobStateManager, weight, priority);
 
       // Wait for the job to finish and stop logging
       jobStateManager.waitUntilFinish();
-      dagLoggingExecutor.shutdown();
+      jobStateManager.closeEventLog();
+      runningJobStateManagers.remove(jobStateManager);
+      schedulerRunner.onJobFinished(jobStateManager);
 
       jobStateManager.storeJSON(dagDirectory, "final");
+      jobStateManager.storeTrace(dagDirectory);
       LOG.info("{} is complete!", plan.getId());
+      if (reuseExecutors) {
+        removeJob(plan, jobStateManager);
+      }
     } catch (Exception e) {
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * Removes the blocks of a finished job from the master and the executors, which run the following jobs.
+   * The executors remove the blocks in their local stores, and one of them removes those in the remote store.
+   * @param plan            the plan of the finished job.
+   * @param jobStateManager the state manager of the finished job.
+   */
+  private void removeJob(final PhysicalPlan plan, final JobStateManager jobStateManager) {
+    final Set<String> blockIds = jobStateManager.getBlockIds();
+    blockManagerMaster.removeBlocks(blockIds);
+    irVertices.removeAll(plan.getTaskIRVertexMap().values());
+    boolean removeRemoteBlocks = true;
+    for (final ExecutorRepresenter executorRepresenter : containerManager.getExecutorRepresenters()) {
+      executorRepresenter.sendControlMessage(ControlMessage.Message.newBuilder()
+          .setId(RuntimeIdGenerator.generateMessageId())
+          .setListenerId(MessageEnvironment.EXECUTOR_MESSAGE_LISTENER_ID)
+          .setType(ControlMessage.MessageType.RemoveBlocks)
+          .setRemoveBlocksMsg(ControlMessage.RemoveBlocksMsg.newBuilder()
+              .addAllBlockId(blockIds)
+              .setRemoveRemoteBlocks(removeRemoteBlocks))
+          .build());
+      removeRemoteBlocks = false;
+    }
+    LOG.info("Removed {} blocks of {}", blockIds.size(), plan.getId());
+  }
+
   public void terminate() {
     try {
-      masterControlEventExecutor.shutdown();
-
       scheduler.terminate();
       schedulerRunner.terminate();
       pendingTaskGroupQueue.close();
@@ -158,6 +204,11 @@ public final class RuntimeMaster {
       } else {
         LOG.error("Failed to shutdown all executors. See log exceptions for details. Terminating RuntimeMaster.");
       }
+      // The final metrics of the executors are flushed before they are closed.
+      // They are handled unless the message environment has stopped receiving them.
+      masterControlEventExecutor.shutdown();
+      masterControlEventExecutor.awaitTermination(EVENT_TERMINATION_TIMEOUT_MS);
+      metricMessageHandler.terminate();
     } catch (Exception e) {
       new ContainerException(new Throwable("An exception occurred while trying to terminate ContainerManager"));
       e.printStackTrace();
@@ -192,7 +243,7 @@ public final class RuntimeMaster {
   public void onContainerAllocated(final String executorId,
                                    final AllocatedEvaluator allocatedEvaluator,
                                    final Configuration executorConfiguration) {
-    masterControlEventExecutor.execute(() ->
+    masterControlEventExecutor.execute(executorId, () ->
         containerManager.onContainerAllocated(executorId, allocatedEvaluator, executorConfiguration));
   }
 
@@ -201,7 +252,7 @@ public final class RuntimeMaster {
    * @param activeContext of the launched executor.
    */
   public void onExecutorLaunched(final ActiveContext activeContext) {
-    masterControlEventExecutor.execute(() -> {
+    masterControlEventExecutor.execute(activeContext.getId(), () -> {
       containerManager.onExecutorLaunched(activeContext);
       scheduler.onExecutorAdded(activeContext.getId());
     });
@@ -212,7 +263,7 @@ public final class RuntimeMaster {
    * @param failedExecutorId of the failed executor.
    */
   public void onExecutorFailed(final String failedExecutorId) {
-    masterControlEventExecutor.execute(() -> {
+    masterControlEventExecutor.execute(failedExecutorId, () -> {
       containerManager.onExecutorRemoved(failedExecutorId);
       scheduler.onExecutorRemoved(failedExecutorId);
     });
@@ -224,7 +275,7 @@ public final class RuntimeMaster {
   public final class MasterControlMessageReceiver implements MessageListener<ControlMessage.Message> {
     @Override
     public void onMessage(final ControlMessage.Message message) {
-      masterControlEventExecutor.execute(() -> handleControlMessage(message));
+      masterControlEventExecutor.execute(getExecutorId(message), () -> handleControlMessage(message));
     }
 
     @Override
@@ -237,11 +288,46 @@ public final class RuntimeMaster {
     }
   }
 
+  /**
+   * @param message a control message received.
+   * @return the ID of the executor that sent the message, or an empty string if the message does not tell.
+   */
+  private static String getExecutorId(final ControlMessage.Message message) {
+    switch (message.getType()) {
+    case TaskGroupStateChanged:
+      return message.getTaskGroupStateChangedMsg().getExecutorId();
+    case ExecutorFailed:
+      return message.getExecutorFailedMsg().getExecutorId();
+    case ContainerFailed:
+      return message.getContainerFailedMsg().getExecutorId();
+    case DataSizeMetric:
+      return message.getDataSizeMetricMsg().getExecutorId();
+    case MetricMessageReceived:
+      return message.getMetricMsg().getExecutorId();
+    case RequestTaskGroupSteal:
+      return message.getRequestTaskGroupStealMsg().getExecutorId();
+    case PendingTaskGroupYielded:
+      return message.getPendingTaskGroupYieldedMsg().getExecutorId();
+    default:
+      return "";
+    }
+  }
+
   private void handleControlMessage(final ControlMessage.Message message) {
     switch (message.getType()) {
     case TaskGroupStateChanged:
       final ControlMessage.TaskGroupStateChangedMsg taskGroupStateChangedMsg
           = message.getTaskGroupStateChangedMsg();
+      // The spans are added before the state change, which may complete the job.
+      if (taskGroupStateChangedMsg.getTraceSpanCount() > 0) {
+        for (final JobStateManager jobStateManager : runningJobStateManagers) {
+          if (jobStateManager.onTraceSpansReceived(taskGroupStateChangedMsg.getExecutorId(),
+              taskGroupStateChangedMsg.getTaskGroupId(), taskGroupStateChangedMsg.getAttemptIdx(),
+              taskGroupStateChangedMsg.getTraceSpanList())) {
+            break;
+          }
+        }
+      }
 
       scheduler.onTaskGroupStateChanged(taskGroupStateChangedMsg.getExecutorId(),
           taskGroupStateChangedMsg.getTaskGroupId(),
@@ -264,13 +350,33 @@ public final class RuntimeMaster {
     case DataSizeMetric:
       final ControlMessage.DataSizeMetricMsg dataSizeMetricMsg = message.getDataSizeMetricMsg();
       // TODO #511: Refactor metric aggregation for (general) run-rime optimization.
-      accumulateBarrierMetric(dataSizeMetricMsg.getPartitionSizeInfoList(),
-          dataSizeMetricMsg.getSrcIRVertexId(), dataSizeMetricMsg.getBlockId());
+      if (isBarrierVertex(dataSizeMetricMsg.getSrcIRVertexId())) {
+        accumulateBarrierMetric(dataSizeMetricMsg.getPartitionSizeInfoList(),
+            dataSizeMetricMsg.getSrcIRVertexId(), dataSizeMetricMsg.getBlockId());
+      } else {
+        scheduler.onBlockSizeReported(dataSizeMetricMsg.getBlockId(), dataSizeMetricMsg.getPartitionSizeInfoList());
+      }
       break;
     case MetricMessageReceived:
       final List<ControlMessage.Metric> metricList = message.getMetricMsg().getMetricList();
       metricList.forEach(metric ->
           metricMessageHandler.onMetricMessageReceived(metric.getMetricKey(), metric.getMetricValue()));
+      if (message.getMetricMsg().getNumericMetricCount() > 0) {
+        metricMessageHandler.onNumericMetricsReceived(message.getMetricMsg().getExecutorId(),
+            message.getMetricMsg().getNumericMetricList());
+      }
+      break;
+    case RequestTaskGroupSteal:
+      scheduler.onTaskGroupStealRequested(message.getRequestTaskGroupStealMsg().getExecutorId());
+      break;
+    case PendingTaskGroupYielded:
+      final ControlMessage.PendingTaskGroupYieldedMsg yieldedMsg = message.getPendingTaskGroupYieldedMsg();
+      if (yieldedMsg.hasTaskGroupId()) {
+        scheduler.onTaskGroupYielded(yieldedMsg.getExecutorId(), yieldedMsg.getThiefExecutorId(),
+            yieldedMsg.getTaskGroupId());
+      } else {
+        LOG.debug("{} had no task group to yield to {}", yieldedMsg.getExecutorId(), yieldedMsg.getThiefExecutorId());
+      }
       break;
     default:
       throw new IllegalMessageException(
@@ -279,6 +385,15 @@ public final class RuntimeMaster {
   }
 
 
+  /**
+   * @param srcVertexId the ID of the source vertex of a block.
+   * @return whether the block is written by a barrier vertex collecting metrics.
+   */
+  private boolean isBarrierVertex(final String srcVertexId) {
+    return irVertices.stream().anyMatch(irVertex ->
+        irVertex.getId().equals(srcVertexId) && irVertex instanceof MetricCollectionBarrierVertex);
+  }
+
   /**
    * Accumulates the metric data for a barrier vertex.
    * TODO #511: Refactor metric aggregation for (general) run-rime optimization.
@@ -374,40 +489,4 @@ public final class RuntimeMaster {
             new Throwable("The failure cause for the recoverable failure is unknown"));
     }
   }
-
-  /**
-   * Schedules a periodic DAG logging thread.
-   * TODO #58: Web UI (Real-time visualization)
-   * @param jobStateManager for the job the DAG should be logged.
-   *
-   * @return the scheduled executor service.
-   */
-  private ScheduledExecutorService scheduleDagLogging(final JobStateManager jobStateManager) {
-    final ScheduledExecutorService dagLoggingExecutor = Executors.newSingleThreadScheduledExecutor();
-    dagLoggingExecutor.scheduleAtFixedRate(new Runnable() {
-      private int dagLogFileIndex = 0;
-
-      public void run() {
-        jobStateManager.storeJSON(dagDirectory, String.valueOf(dagLogFileIndex++));
-      }
-    }, DAG_LOGGING_PERIOD, DAG_LOGGING_PERIOD, TimeUnit.MILLISECONDS);
-
-    return dagLoggingExecutor;
-  }
-
-  /**
-   * Map function that converts a json string to a java map object.
-   */
-  final class JsonStringToMapFunction implements Function<String, Map<String, Object>> {
-    @Override
-    public Map<String, Object> apply(final String s) {
-      try {
-        return objectMapper.readValue(s, new TypeReference<Map<String, String>>() { });
-      } catch (final IOException e) {
-        e.printStackTrace();
-        throw new IllegalMessageException(
-            new Exception("The metric message format is incorrect. It should be in Json format: " + s));
-      }
-    }
-  }
 }
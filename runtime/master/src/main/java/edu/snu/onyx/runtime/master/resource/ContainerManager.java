@@ -31,6 +31,7 @@ import org.apache.reef.tang.Configuration;
 import javax.inject.Inject;
 import java.util.*;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
@@ -239,6 +240,13 @@ public final class ContainerManager {
     return executorRepresenterMap;
   }
 
+  /**
+   * @return a snapshot of the running executors.
+   */
+  public synchronized List<ExecutorRepresenter> getExecutorRepresenters() {
+    return new ArrayList<>(executorRepresenterMap.values());
+  }
+
   public synchronized Map<String, ExecutorRepresenter> getFailedExecutorRepresenterMap() {
     return failedExecutorRepresenterMap;
   }
@@ -259,7 +267,10 @@ public final class ContainerManager {
    */
   public synchronized Future<Boolean> terminate() {
     shutdownRunningExecutors();
-    return Executors.newSingleThreadExecutor().submit(() -> waitForAllRequestedResources());
+    final ExecutorService terminationThread = Executors.newSingleThreadExecutor();
+    final Future<Boolean> allResourcesReleased = terminationThread.submit(() -> waitForAllRequestedResources());
+    terminationThread.shutdown();
+    return allResourcesReleased;
   }
 
   private boolean waitForAllRequestedResources() {
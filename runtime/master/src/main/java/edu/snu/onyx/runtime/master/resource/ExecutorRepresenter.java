@@ -24,22 +24,24 @@ import edu.snu.onyx.runtime.common.plan.physical.ScheduledTaskGroup;
 import org.apache.commons.lang3.SerializationUtils;
 import org.apache.reef.driver.context.ActiveContext;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Contains information/state regarding an executor.
  * Such information may include:
  *    a) The executor's resource type.
- *    b) The executor's capacity (ex. number of cores).
- *    c) Task groups scheduled/launched for the executor.
+ *    b) The executor's capacity (ex. number of cores) and memory.
+ *    c) Task groups scheduled/launched for the executor, and the resources they occupy.
  *    d) (Please add other information as we implement more features).
  */
 public final class ExecutorRepresenter {
 
   private final String executorId;
   private final ResourceSpecification resourceSpecification;
-  private final Set<String> runningTaskGroups;
+  private final Map<String, ScheduledTaskGroup> runningTaskGroups;
   private final Set<String> completeTaskGroups;
   private final Set<String> failedTaskGroups;
   private final MessageSender<ControlMessage.Message> messageSender;
@@ -52,19 +54,19 @@ public final class ExecutorRepresenter {
     this.executorId = executorId;
     this.resourceSpecification = resourceSpecification;
     this.messageSender = messageSender;
-    this.runningTaskGroups = new HashSet<>();
+    this.runningTaskGroups = new HashMap<>();
     this.completeTaskGroups = new HashSet<>();
     this.failedTaskGroups = new HashSet<>();
     this.activeContext = activeContext;
   }
 
   public void onExecutorFailed() {
-    runningTaskGroups.forEach(taskGroupId -> failedTaskGroups.add(taskGroupId));
+    failedTaskGroups.addAll(runningTaskGroups.keySet());
     runningTaskGroups.clear();
   }
 
   public void onTaskGroupScheduled(final ScheduledTaskGroup scheduledTaskGroup) {
-    runningTaskGroups.add(scheduledTaskGroup.getTaskGroup().getTaskGroupId());
+    runningTaskGroups.put(scheduledTaskGroup.getTaskGroup().getTaskGroupId(), scheduledTaskGroup);
     failedTaskGroups.remove(scheduledTaskGroup.getTaskGroup().getTaskGroupId());
 
     sendControlMessage(
@@ -88,6 +90,15 @@ public final class ExecutorRepresenter {
     completeTaskGroups.add(taskGroupId);
   }
 
+  /**
+   * Called when a task group assigned to this executor, but not yet started, is given up to another executor.
+   * @param taskGroupId of the task group.
+   * @return the task group, or null if it is not assigned to this executor.
+   */
+  public ScheduledTaskGroup onTaskGroupYielded(final String taskGroupId) {
+    return runningTaskGroups.remove(taskGroupId);
+  }
+
   public void onTaskGroupExecutionFailed(final String taskGroupId) {
     runningTaskGroups.remove(taskGroupId);
     failedTaskGroups.add(taskGroupId);
@@ -97,8 +108,31 @@ public final class ExecutorRepresenter {
     return resourceSpecification.getCapacity();
   }
 
+  /**
+   * @return Allocated memory for the executor, in megabytes.
+   */
+  public int getExecutorMemory() {
+    return resourceSpecification.getMemory();
+  }
+
+  /**
+   * @return the number of cores not occupied by the running task groups.
+   */
+  public double getRemainingCores() {
+    return getExecutorCapacity()
+        - runningTaskGroups.values().stream().mapToDouble(scheduled -> scheduled.getTaskGroup().getCoreDemand()).sum();
+  }
+
+  /**
+   * @return the memory not occupied by the running task groups, in megabytes.
+   */
+  public int getRemainingMemory() {
+    return getExecutorMemory()
+        - runningTaskGroups.values().stream().mapToInt(scheduled -> scheduled.getTaskGroup().getMemoryDemandMb()).sum();
+  }
+
   public Set<String> getRunningTaskGroups() {
-    return runningTaskGroups;
+    return runningTaskGroups.keySet();
   }
 
   public Set<String> getCompleteTaskGroups() {
@@ -29,7 +29,8 @@ public final class ResourceSpecification {
   }
 
   /**
-   * @return The number of TaskGroups that can be run in this container.
+   * @return The number of cores of this container.
+   *         It is the number of TaskGroups that can be run in this container if each of them takes a single core.
    */
   public int getCapacity() {
     return capacity;
@@ -74,7 +75,7 @@ public final class ResourceSpecification {
     }
 
     /**
-     * @param inputCapacity the number of TaskGroups that can be run in this container
+     * @param inputCapacity the number of cores of this container
      * @return {@link Builder} object.
      */
     public Builder setCapacity(final int inputCapacity) {
@@ -17,6 +17,7 @@ package edu.snu.onyx.runtime.master.scheduler;
 
 import edu.snu.onyx.common.Pair;
 import edu.snu.onyx.common.eventhandler.PubSubEventHandlerWrapper;
+import edu.snu.onyx.conf.JobConf;
 import edu.snu.onyx.runtime.common.eventhandler.DynamicOptimizationEvent;
 import edu.snu.onyx.runtime.master.eventhandler.UpdatePhysicalPlanEventHandler;
 import edu.snu.onyx.common.exception.*;
@@ -27,6 +28,7 @@ import edu.snu.onyx.runtime.common.state.TaskGroupState;
 import edu.snu.onyx.runtime.master.BlockManagerMaster;
 import edu.snu.onyx.runtime.master.JobStateManager;
 import org.apache.reef.annotations.audience.DriverSide;
+import org.apache.reef.tang.annotations.Parameter;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
@@ -40,6 +42,8 @@ import static edu.snu.onyx.runtime.common.state.TaskGroupState.State.ON_HOLD;
 /**
  * BatchSingleJobScheduler receives a single {@link PhysicalPlan} to execute and schedules the TaskGroups.
  * The policy by which it schedules them is dependent on the implementation of {@link SchedulingPolicy}.
+ * The next ScheduleGroup is scheduled when the current one completes, or earlier when the fraction of
+ * {@link JobConf.SlowStartFraction} of its TaskGroups has completed.
  */
 @DriverSide
 public final class BatchSingleJobScheduler implements Scheduler {
@@ -58,6 +62,8 @@ public final class BatchSingleJobScheduler implements Scheduler {
    */
   private final BlockManagerMaster blockManagerMaster;
   private final PubSubEventHandlerWrapper pubSubEventHandlerWrapper;
+  private final double slowStartFraction;
+  private final double skewSampleFraction;
 
   /**
    * The below variables depend on the submitted job to execute.
@@ -65,6 +71,12 @@ public final class BatchSingleJobScheduler implements Scheduler {
   private PhysicalPlan physicalPlan;
   private JobStateManager jobStateManager;
   private int initialScheduleGroup;
+  private LoopIterationController loopIterationController; // null if the job has no loop unrolled at runtime.
+
+  /**
+   * The IDs of the stages collecting metrics, of which the dynamic optimization has already been triggered.
+   */
+  private final Set<String> optimizedStageIds = new HashSet<>();
 
   @Inject
   public BatchSingleJobScheduler(final SchedulingPolicy schedulingPolicy,
@@ -72,12 +84,11 @@ public final class BatchSingleJobScheduler implements Scheduler {
                                  final PendingTaskGroupQueue pendingTaskGroupQueue,
                                  final BlockManagerMaster blockManagerMaster,
                                  final PubSubEventHandlerWrapper pubSubEventHandlerWrapper,
-                                 final UpdatePhysicalPlanEventHandler updatePhysicalPlanEventHandler) {
-    this.schedulingPolicy = schedulingPolicy;
-    this.schedulerRunner = schedulerRunner;
-    this.pendingTaskGroupQueue = pendingTaskGroupQueue;
-    this.blockManagerMaster = blockManagerMaster;
-    this.pubSubEventHandlerWrapper = pubSubEventHandlerWrapper;
+                                 final UpdatePhysicalPlanEventHandler updatePhysicalPlanEventHandler,
+                                 @Parameter(JobConf.SlowStartFraction.class) final double slowStartFraction,
+                                 @Parameter(JobConf.SkewSampleFraction.class) final double skewSampleFraction) {
+    this(schedulingPolicy, schedulerRunner, pendingTaskGroupQueue, blockManagerMaster, pubSubEventHandlerWrapper,
+        slowStartFraction, skewSampleFraction);
     updatePhysicalPlanEventHandler.setScheduler(this);
     if (pubSubEventHandlerWrapper.getPubSubEventHandler() != null) {
       pubSubEventHandlerWrapper.getPubSubEventHandler()
@@ -85,6 +96,50 @@ public final class BatchSingleJobScheduler implements Scheduler {
     }
   }
 
+  /**
+   * Constructor for a scheduler that is driven by another {@link Scheduler}, such as {@link MultiJobScheduler}.
+   * The physical plan update events are not subscribed, since they are routed by the driving scheduler.
+   * @param schedulingPolicy          the scheduling policy.
+   * @param schedulerRunner           the scheduler runner.
+   * @param pendingTaskGroupQueue     the queue of the TaskGroups to schedule.
+   * @param blockManagerMaster        the block manager master.
+   * @param pubSubEventHandlerWrapper the wrapper of the pub-sub event handler.
+   * @param slowStartFraction         the fraction of the TaskGroups of a ScheduleGroup to complete
+   *                                  before the next ScheduleGroup is scheduled.
+   * @param skewSampleFraction        the fraction of the TaskGroups of a stage to report their metrics
+   *                                  before the dynamic optimization is triggered.
+   */
+  BatchSingleJobScheduler(final SchedulingPolicy schedulingPolicy,
+                          final SchedulerRunner schedulerRunner,
+                          final PendingTaskGroupQueue pendingTaskGroupQueue,
+                          final BlockManagerMaster blockManagerMaster,
+                          final PubSubEventHandlerWrapper pubSubEventHandlerWrapper,
+                          final double slowStartFraction,
+                          final double skewSampleFraction) {
+    this.schedulingPolicy = schedulingPolicy;
+    this.schedulerRunner = schedulerRunner;
+    this.pendingTaskGroupQueue = pendingTaskGroupQueue;
+    this.blockManagerMaster = blockManagerMaster;
+    this.pubSubEventHandlerWrapper = pubSubEventHandlerWrapper;
+    this.slowStartFraction = slowStartFraction;
+    this.skewSampleFraction = skewSampleFraction;
+  }
+
+  /**
+   * Receives a job to schedule. A single job is executed at a time, so it takes all executors whatever its share is.
+   * @param jobToSchedule the physical plan for the job.
+   * @param scheduledJobStateManager to keep track of the submitted job's states.
+   * @param weight the relative share of the executor slots of the job.
+   * @param priority the priority of the job.
+   */
+  @Override
+  public void scheduleJob(final PhysicalPlan jobToSchedule,
+                          final JobStateManager scheduledJobStateManager,
+                          final int weight,
+                          final int priority) {
+    scheduleJob(jobToSchedule, scheduledJobStateManager);
+  }
+
   /**
    * Receives a job to schedule.
    * @param jobToSchedule the physical plan for the job.
@@ -95,13 +150,20 @@ public final class BatchSingleJobScheduler implements Scheduler {
                                        final JobStateManager scheduledJobStateManager) {
     this.physicalPlan = jobToSchedule;
     this.jobStateManager = scheduledJobStateManager;
+    // The stage IDs are reused by the following jobs on the same executors.
+    this.optimizedStageIds.clear();
+    this.loopIterationController = LoopIterationController.of(jobToSchedule).orElse(null);
+    if (loopIterationController != null) {
+      physicalPlan = loopIterationController.holdBack(jobToSchedule);
+      jobStateManager.updatePhysicalPlan(physicalPlan, blockManagerMaster);
+    }
 
     schedulerRunner.scheduleJob(scheduledJobStateManager);
     pendingTaskGroupQueue.onJobScheduled(physicalPlan);
 
     LOG.info("Job to schedule: {}", jobToSchedule.getId());
 
-    this.initialScheduleGroup = jobToSchedule.getStageDAG().getVertices().stream()
+    this.initialScheduleGroup = physicalPlan.getStageDAG().getVertices().stream()
         .mapToInt(physicalStage -> physicalStage.getScheduleGroupIndex())
         .min().getAsInt();
 
@@ -129,12 +191,12 @@ public final class BatchSingleJobScheduler implements Scheduler {
    * @param tasksPutOnHold the IDs of tasks that are put on hold. It is null otherwise.
    */
   @Override
-  public void onTaskGroupStateChanged(final String executorId,
-                                      final String taskGroupId,
-                                      final TaskGroupState.State newState,
-                                      final int attemptIdx,
-                                      final List<String> tasksPutOnHold,
-                                      final TaskGroupState.RecoverableFailureCause failureCause) {
+  public synchronized void onTaskGroupStateChanged(final String executorId,
+                                                   final String taskGroupId,
+                                                   final TaskGroupState.State newState,
+                                                   final int attemptIdx,
+                                                   final List<String> tasksPutOnHold,
+                                                   final TaskGroupState.RecoverableFailureCause failureCause) {
     final TaskGroup taskGroup = getTaskGroupById(taskGroupId);
 
     switch (newState) {
@@ -187,21 +249,49 @@ public final class BatchSingleJobScheduler implements Scheduler {
     final String stageIdForTaskGroupUponCompletion = taskGroup.getStageId();
     if (jobStateManager.checkStageCompletion(stageIdForTaskGroupUponCompletion)) {
       // if the stage this task group belongs to is complete,
+      if (loopIterationController != null) {
+        onLoopStageComplete(stageIdForTaskGroupUponCompletion);
+      }
       if (!jobStateManager.checkJobTermination()) { // and if the job is not yet complete or failed,
         scheduleNextStage(stageIdForTaskGroupUponCompletion);
       }
+    } else if (slowStartFraction < 1.0) {
+      // the next schedule group may start before this stage completes.
+      scheduleNextStage(stageIdForTaskGroupUponCompletion);
+    }
+  }
+
+  /**
+   * Decides whether to run the next iteration of the loop of the job, and updates the plan upon the decision.
+   * @param completedStageId the ID of the stage that has just completed.
+   */
+  private synchronized void onLoopStageComplete(final String completedStageId) {
+    loopIterationController.onStageComplete(physicalPlan, completedStageId, jobStateManager)
+        .ifPresent(newPhysicalPlan -> {
+          this.physicalPlan = newPhysicalPlan;
+          jobStateManager.updatePhysicalPlan(newPhysicalPlan, blockManagerMaster);
+          pendingTaskGroupQueue.onJobScheduled(newPhysicalPlan);
+        });
+  }
+
+  @Override
+  public synchronized void onBlockSizeReported(final String blockId, final List<Long> partitionSizes) {
+    if (loopIterationController != null) {
+      loopIterationController.onBlockSizeReported(blockId, partitionSizes);
     }
   }
 
   /**
    * Action for after task group execution is put on hold.
+   * The dynamic optimization is triggered once the stage completes, or once the fraction of
+   * {@link JobConf.SkewSampleFraction} of its task groups have been put on hold.
    * @param executorId executor id.
    * @param taskGroup task group.
    * @param tasksPutOnHold the IDs of task that is put on hold.
    */
-  private void onTaskGroupExecutionOnHold(final String executorId,
-                                          final TaskGroup taskGroup,
-                                          final List<String> tasksPutOnHold) {
+  private synchronized void onTaskGroupExecutionOnHold(final String executorId,
+                                                       final TaskGroup taskGroup,
+                                                       final List<String> tasksPutOnHold) {
     LOG.info("{} put on hold in {}", new Object[]{taskGroup.getTaskGroupId(), executorId});
     schedulingPolicy.onTaskGroupExecutionComplete(executorId, taskGroup.getTaskGroupId());
     final String stageIdForTaskGroupUponCompletion = taskGroup.getStageId();
@@ -209,7 +299,17 @@ public final class BatchSingleJobScheduler implements Scheduler {
     final boolean stageComplete =
         jobStateManager.checkStageCompletion(stageIdForTaskGroupUponCompletion);
 
-    if (stageComplete) {
+    if (optimizedStageIds.contains(stageIdForTaskGroupUponCompletion)) {
+      // The plan has already been optimized with the metrics of the sampled task groups.
+      if (stageComplete) {
+        optimizedStageIds.remove(stageIdForTaskGroupUponCompletion);
+      }
+      onTaskGroupExecutionComplete(executorId, taskGroup, true);
+    } else if (stageComplete || isSkewSampleReached(getStageById(stageIdForTaskGroupUponCompletion))) {
+      if (!stageComplete) {
+        LOG.info("Optimizing with the metrics sampled from {} before it completes", stageIdForTaskGroupUponCompletion);
+        optimizedStageIds.add(stageIdForTaskGroupUponCompletion);
+      }
       // get optimization vertex from the task.
       final MetricCollectionBarrierVertex metricCollectionBarrierVertex =
           taskGroup.getTaskDAG().getVertices().stream() // get tasks list
@@ -294,6 +394,16 @@ public final class BatchSingleJobScheduler implements Scheduler {
     schedulingPolicy.onExecutorAdded(executorId);
   }
 
+  @Override
+  public void onTaskGroupStealRequested(final String thiefExecutorId) {
+    schedulingPolicy.onTaskGroupStealRequested(thiefExecutorId);
+  }
+
+  @Override
+  public void onTaskGroupYielded(final String executorId, final String thiefExecutorId, final String taskGroupId) {
+    schedulingPolicy.onTaskGroupYielded(executorId, thiefExecutorId, taskGroupId);
+  }
+
   @Override
   public synchronized void onExecutorRemoved(final String executorId) {
     final Set<String> taskGroupsToReExecute = new HashSet<>();
@@ -304,6 +414,15 @@ public final class BatchSingleJobScheduler implements Scheduler {
     // TaskGroups executing on the removed executor
     taskGroupsToReExecute.addAll(schedulingPolicy.onExecutorRemoved(executorId));
 
+    onTaskGroupsLost(executorId, taskGroupsToReExecute);
+  }
+
+  /**
+   * Re-executes the task groups of this job that are lost by the removal of an executor.
+   * @param executorId of the executor that has been removed.
+   * @param taskGroupsToReExecute the IDs of the task groups to re-execute.
+   */
+  synchronized void onTaskGroupsLost(final String executorId, final Set<String> taskGroupsToReExecute) {
     taskGroupsToReExecute.forEach(failedTaskGroupId ->
       onTaskGroupStateChanged(executorId, failedTaskGroupId, TaskGroupState.State.FAILED_RECOVERABLE,
           SCHEDULE_ATTEMPT_ON_CONTAINER_FAILURE, null, TaskGroupState.RecoverableFailureCause.CONTAINER_FAILURE));
@@ -352,7 +471,8 @@ public final class BatchSingleJobScheduler implements Scheduler {
    * b) returns an empty optional if there are no schedulable stages at the moment.
    *    - if the current schedule group is still executing
    *    - if an ancestor schedule group is still executing
-   * c) returns the next set of schedulable stages (if the current schedule group has completed execution)
+   * c) returns the next set of schedulable stages (if the current schedule group has completed execution,
+   *    or has reached the slow start threshold)
    *
    * The current implementation assumes that the stages that belong to the same schedule group are
    * either mutually independent, or connected by a "push" edge.
@@ -397,8 +517,12 @@ public final class BatchSingleJobScheduler implements Scheduler {
       }
     }
     if (!allStagesComplete) {
-      LOG.info("There are remaining stages in the current schedule group, {}", currentScheduleGroupIndex);
-      return (stagesToSchedule.isEmpty()) ? Optional.empty() : Optional.of(stagesToSchedule);
+      if (!stagesToSchedule.isEmpty()) {
+        return Optional.of(stagesToSchedule);
+      } else if (!isSlowStartReached(currentScheduleGroup)) {
+        LOG.info("There are remaining stages in the current schedule group, {}", currentScheduleGroupIndex);
+        return Optional.empty();
+      }
     }
 
     // By the time the control flow has reached here,
@@ -427,6 +551,60 @@ public final class BatchSingleJobScheduler implements Scheduler {
     return Optional.of(stagesToSchedule);
   }
 
+  /**
+   * Checks whether enough task groups of the stage have been put on hold to trigger the dynamic optimization
+   * with their metrics.
+   * @param stage the stage collecting metrics.
+   * @return whether the fraction of {@link JobConf.SkewSampleFraction} of the task groups have been put on hold.
+   */
+  private boolean isSkewSampleReached(final PhysicalStage stage) {
+    if (skewSampleFraction >= 1.0) {
+      return false;
+    }
+    final long numOnHoldTaskGroups = stage.getTaskGroupList().stream()
+        .filter(taskGroup -> jobStateManager.getTaskGroupState(taskGroup.getTaskGroupId()).getStateMachine()
+            .getCurrentState() == TaskGroupState.State.ON_HOLD)
+        .count();
+    return numOnHoldTaskGroups >= skewSampleFraction * stage.getTaskGroupList().size();
+  }
+
+  /**
+   * Checks whether the next schedule group can start before the given schedule group completes.
+   * It requires every TaskGroup of the schedule group to be dispatched to an executor, so that the early
+   * downstream TaskGroups never take the slots from the upstream ones, and the fraction of
+   * {@link JobConf.SlowStartFraction} of them to be complete.
+   * Schedule groups collecting metrics for dynamic optimization do not start the next one early
+   * until the dynamic optimization is triggered, as the rest of the plan may change upon it.
+   * @param scheduleGroup the stages of the schedule group.
+   * @return whether the next schedule group can be scheduled.
+   */
+  private boolean isSlowStartReached(final List<PhysicalStage> scheduleGroup) {
+    if (slowStartFraction >= 1.0) {
+      return false;
+    }
+    int numTaskGroups = 0;
+    int numCompleteTaskGroups = 0;
+    for (final PhysicalStage stage : scheduleGroup) {
+      for (final TaskGroup taskGroup : stage.getTaskGroupList()) {
+        final boolean waitsForMetric = !optimizedStageIds.contains(stage.getId())
+            && taskGroup.getTaskDAG().getVertices().stream()
+            .anyMatch(task -> task instanceof MetricCollectionBarrierTask);
+        final TaskGroupState.State taskGroupState = (TaskGroupState.State)
+            jobStateManager.getTaskGroupState(taskGroup.getTaskGroupId()).getStateMachine().getCurrentState();
+        final boolean isDone = taskGroupState == TaskGroupState.State.COMPLETE
+            || taskGroupState == TaskGroupState.State.ON_HOLD;
+        if (waitsForMetric || (taskGroupState != TaskGroupState.State.EXECUTING && !isDone)) {
+          return false;
+        }
+        numTaskGroups++;
+        if (isDone) {
+          numCompleteTaskGroups++;
+        }
+      }
+    }
+    return numCompleteTaskGroups >= slowStartFraction * numTaskGroups;
+  }
+
   /**
    * Schedules the given stage.
    * It adds the list of task groups for the stage where the scheduler thread continuously polls from.
@@ -492,6 +670,20 @@ public final class BatchSingleJobScheduler implements Scheduler {
     });
   }
 
+  /**
+   * @return the physical plan of the job being scheduled.
+   */
+  synchronized PhysicalPlan getPhysicalPlan() {
+    return physicalPlan;
+  }
+
+  /**
+   * @return the state manager of the job being scheduled.
+   */
+  synchronized JobStateManager getJobStateManager() {
+    return jobStateManager;
+  }
+
   private TaskGroup getTaskGroupById(final String taskGroupId) {
     for (final PhysicalStage physicalStage : physicalPlan.getStageDAG().getVertices()) {
       for (final TaskGroup taskGroup : physicalStage.getTaskGroupList()) {
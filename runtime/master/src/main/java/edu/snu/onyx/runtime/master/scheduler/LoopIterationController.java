@@ -0,0 +1,484 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.master.scheduler;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.dag.DAGBuilder;
+import edu.snu.onyx.common.exception.IllegalVertexOperationException;
+import edu.snu.onyx.common.exception.SchedulingException;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.LoopConvergenceCondition;
+import edu.snu.onyx.common.ir.vertex.LoopIterationMetric;
+import edu.snu.onyx.common.ir.vertex.executionproperty.LoopIterationProperty;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.plan.RuntimeEdge;
+import edu.snu.onyx.runtime.common.plan.physical.*;
+import edu.snu.onyx.runtime.common.state.StageState;
+import edu.snu.onyx.runtime.master.JobStateManager;
+import org.apache.reef.annotations.audience.DriverSide;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Instantiates the iterations of a loop while the job is being executed, and exits the loop once it converges.
+ *
+ * The compiled plan holds only the first two iterations of the loop, which have been unrolled at compile time
+ * by DynamicLoopUnrollingPass. The stages of the second iteration are the template of the later iterations.
+ * While an iteration runs, the next one is instantiated from the template, and the stages depending on the running
+ * iteration are held back in the schedule groups after an empty one.
+ * Once the running iteration completes, its metric, such as the number of bytes it passes to the next iteration,
+ * is tested with the convergence condition of the loop. Either the next iteration is run and the loop exits from it,
+ * or the next iteration is removed and the loop exits from the completed one.
+ */
+@DriverSide
+final class LoopIterationController {
+  private static final Logger LOG = LoggerFactory.getLogger(LoopIterationController.class.getName());
+  private static final int NOT_IN_LOOP = 0;
+  private static final int FIRST_ITERATION = 1;
+  private static final int TEMPLATE_ITERATION = 2;
+
+  private final int maxNumberOfIterations;
+  private final LoopConvergenceCondition convergenceCondition;
+
+  /**
+   * The stages running the first iteration, and the ones of the template iteration.
+   */
+  private final Set<String> firstIterationStageIds;
+  private final List<PhysicalStage> templateStages;
+  private final Map<String, String> templateVertexIdToStageId;
+  private final Map<String, IRVertex> bodyVertexIdToTemplateVertex;
+
+  /**
+   * The edges from the first iteration to the template one, from outside of the loop to the template iteration,
+   * between the stages of the template iteration, and from the first iteration to outside of the loop.
+   */
+  private final List<PhysicalStageEdge> iterativeEdges;
+  private final List<PhysicalStageEdge> invariantEdges;
+  private final List<PhysicalStageEdge> internalEdges;
+  private final List<PhysicalStageEdge> exitEdges;
+
+  /**
+   * The sizes of the blocks the running iteration passes to the next one,
+   * and the total bytes each completed iteration passed to the next one.
+   */
+  private final Map<String, Long> blockIdToSize;
+  private final List<Long> bytesPerIteration;
+  private int runningIteration;
+  private long runningIterationStartTimeMs;
+  private boolean isDone;
+
+  /**
+   * Constructor.
+   * @param physicalPlan the compiled plan of the job.
+   */
+  private LoopIterationController(final PhysicalPlan physicalPlan) {
+    final List<LoopIterationProperty.Value> loops = physicalPlan.getTaskIRVertexMap().values().stream()
+        .map(irVertex -> irVertex.<LoopIterationProperty.Value>getProperty(ExecutionProperty.Key.LoopIteration))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+    if (loops.stream().map(LoopIterationProperty.Value::getLoopId).distinct().count() != 1) {
+      throw new SchedulingException(new Throwable("Only a single loop of a job can be unrolled at runtime"));
+    }
+    this.maxNumberOfIterations = loops.get(0).getMaxNumberOfIterations();
+    this.convergenceCondition = loops.get(0).getConvergenceCondition();
+    this.firstIterationStageIds = new HashSet<>();
+    this.templateStages = new ArrayList<>();
+    this.templateVertexIdToStageId = new HashMap<>();
+    this.bodyVertexIdToTemplateVertex = new HashMap<>();
+    this.iterativeEdges = new ArrayList<>();
+    this.invariantEdges = new ArrayList<>();
+    this.internalEdges = new ArrayList<>();
+    this.exitEdges = new ArrayList<>();
+    this.blockIdToSize = new HashMap<>();
+    this.bytesPerIteration = new ArrayList<>();
+    this.runningIteration = FIRST_ITERATION;
+    this.runningIterationStartTimeMs = System.currentTimeMillis();
+    this.isDone = false;
+
+    final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = physicalPlan.getStageDAG();
+    stageDAG.topologicalDo(stage -> {
+      final List<IRVertex> irVertices = stage.getTaskGroupList().get(0).getTaskDAG().getVertices().stream()
+          .map(physicalPlan::getIRVertexOf)
+          .collect(Collectors.toList());
+      final Set<Integer> iterations = irVertices.stream()
+          .map(LoopIterationController::getIteration)
+          .collect(Collectors.toSet());
+      if (iterations.contains(FIRST_ITERATION)) {
+        firstIterationStageIds.add(stage.getId());
+      }
+      if (iterations.contains(TEMPLATE_ITERATION)) {
+        if (iterations.size() > 1) {
+          throw new SchedulingException(new Throwable(
+              "A stage of a loop unrolled at runtime should not hold the vertices of others: " + stage.getId()));
+        }
+        templateStages.add(stage);
+        irVertices.forEach(irVertex -> {
+          templateVertexIdToStageId.put(irVertex.getId(), stage.getId());
+          bodyVertexIdToTemplateVertex.put(irVertex.<LoopIterationProperty.Value>getProperty(
+              ExecutionProperty.Key.LoopIteration).getBodyVertexId(), irVertex);
+        });
+      }
+    });
+
+    stageDAG.getVertices().forEach(stage -> stageDAG.getOutgoingEdgesOf(stage).forEach(edge -> {
+      final int srcIteration = getIteration(edge.getSrcVertex());
+      final int dstIteration = getIteration(edge.getDstVertex());
+      if (dstIteration == TEMPLATE_ITERATION) {
+        if (srcIteration == FIRST_ITERATION) {
+          iterativeEdges.add(edge);
+        } else if (srcIteration == TEMPLATE_ITERATION) {
+          internalEdges.add(edge);
+        } else {
+          invariantEdges.add(edge);
+        }
+      } else if (srcIteration == FIRST_ITERATION && dstIteration == NOT_IN_LOOP) {
+        exitEdges.add(edge);
+      }
+    }));
+  }
+
+  /**
+   * @param physicalPlan the compiled plan of a job.
+   * @return the controller of the loop of the job, or an empty optional if the job has no loop unrolled at runtime.
+   */
+  static Optional<LoopIterationController> of(final PhysicalPlan physicalPlan) {
+    final boolean hasLoop = physicalPlan.getTaskIRVertexMap().values().stream()
+        .anyMatch(irVertex -> irVertex.getProperty(ExecutionProperty.Key.LoopIteration) != null);
+    return hasLoop ? Optional.of(new LoopIterationController(physicalPlan)) : Optional.empty();
+  }
+
+  /**
+   * Holds back the stages depending on the first iteration, until it is decided whether to run the second one.
+   * @param physicalPlan the compiled plan of the job.
+   * @return the plan to schedule.
+   */
+  PhysicalPlan holdBack(final PhysicalPlan physicalPlan) {
+    final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = physicalPlan.getStageDAG();
+    return layOut(physicalPlan, stageDAG.getVertices(), getEdges(stageDAG), physicalPlan.getTaskIRVertexMap());
+  }
+
+  /**
+   * Records the size of a block, if it is passed from the running iteration to the next one.
+   * @param blockId        the ID of the block.
+   * @param partitionSizes the sizes of the partitions of the block.
+   */
+  void onBlockSizeReported(final String blockId, final List<Long> partitionSizes) {
+    if (!isDone && getIterativeEdgeIdsInto(runningIteration + 1)
+        .contains(RuntimeIdGenerator.getRuntimeEdgeIdFromBlockId(blockId))) {
+      blockIdToSize.put(blockId, partitionSizes.stream().mapToLong(Long::longValue).sum());
+    }
+  }
+
+  /**
+   * Decides whether to run the next iteration, once the stages of the running iteration complete.
+   * @param physicalPlan     the plan being executed.
+   * @param completedStageId the ID of the stage that has just completed.
+   * @param jobStateManager  the state manager of the job.
+   * @return the plan with the next iteration confirmed or removed, or an empty optional if it is not decided yet.
+   */
+  Optional<PhysicalPlan> onStageComplete(final PhysicalPlan physicalPlan,
+                                         final String completedStageId,
+                                         final JobStateManager jobStateManager) {
+    final Set<String> runningStageIds = getStageIdsOf(runningIteration);
+    if (isDone || !runningStageIds.contains(completedStageId) || !runningStageIds.stream().allMatch(stageId ->
+        jobStateManager.getStageState(stageId).getStateMachine().getCurrentState() == StageState.State.COMPLETE)) {
+      return Optional.empty();
+    }
+
+    // Blocks not reported are empty.
+    bytesPerIteration.add(blockIdToSize.values().stream().mapToLong(Long::longValue).sum());
+    blockIdToSize.clear();
+    final long currentTimeMs = System.currentTimeMillis();
+    final LoopIterationMetric metric = new LoopIterationMetric(runningIteration, bytesPerIteration,
+        currentTimeMs - runningIterationStartTimeMs);
+    runningIterationStartTimeMs = currentTimeMs;
+    final boolean hasConverged = convergenceCondition != null && convergenceCondition.test(metric);
+
+    final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = physicalPlan.getStageDAG();
+    final List<PhysicalStage> stages = new ArrayList<>(stageDAG.getVertices());
+    final List<PhysicalStageEdge> edges = getEdges(stageDAG);
+    final Map<Task, IRVertex> taskIRVertexMap = new HashMap<>(physicalPlan.getTaskIRVertexMap());
+    if (hasConverged) {
+      LOG.info("The loop has converged at {}", metric);
+      final Set<String> nextStageIds = getStageIdsOf(runningIteration + 1);
+      stages.removeIf(stage -> nextStageIds.contains(stage.getId()));
+      edges.removeIf(edge -> nextStageIds.contains(edge.getSrc().getId())
+          || nextStageIds.contains(edge.getDst().getId()));
+      isDone = true;
+    } else {
+      final Set<String> exitEdgeIds = exitEdges.stream()
+          .map(edge -> getIdOf(edge.getId(), FIRST_ITERATION, runningIteration))
+          .collect(Collectors.toSet());
+      edges.removeIf(edge -> exitEdgeIds.contains(edge.getId()));
+      runningIteration++;
+      LOG.info("Running iteration {} of the loop", runningIteration);
+
+      final Map<String, PhysicalStage> idToStage = new HashMap<>();
+      stages.forEach(stage -> idToStage.put(stage.getId(), stage));
+      // The loop now exits from the iteration to run.
+      exitEdges.forEach(exitEdge -> {
+        final IRVertex srcVertex = bodyVertexIdToTemplateVertex.get(getBodyVertexId(exitEdge.getSrcVertex()));
+        edges.add(instantiateEdge(exitEdge, getIdOf(exitEdge.getId(), FIRST_ITERATION, runningIteration),
+            srcVertex, idToStage.get(getStageIdOf(templateVertexIdToStageId.get(srcVertex.getId()), runningIteration)),
+            idToStage.get(exitEdge.getDst().getId())));
+      });
+
+      if (runningIteration < maxNumberOfIterations) {
+        final int nextIteration = runningIteration + 1;
+        templateStages.forEach(templateStage -> {
+          final PhysicalStage stage = instantiateStage(templateStage, nextIteration, taskIRVertexMap);
+          stages.add(stage);
+          idToStage.put(stage.getId(), stage);
+        });
+        internalEdges.forEach(internalEdge -> edges.add(instantiateEdge(internalEdge,
+            getIdOf(internalEdge.getId(), TEMPLATE_ITERATION, nextIteration), internalEdge.getSrcVertex(),
+            idToStage.get(getStageIdOf(internalEdge.getSrc().getId(), nextIteration)),
+            idToStage.get(getStageIdOf(internalEdge.getDst().getId(), nextIteration)))));
+        invariantEdges.forEach(invariantEdge -> edges.add(instantiateEdge(invariantEdge,
+            invariantEdge.getId(), invariantEdge.getSrcVertex(), idToStage.get(invariantEdge.getSrc().getId()),
+            idToStage.get(getStageIdOf(invariantEdge.getDst().getId(), nextIteration)))));
+        iterativeEdges.forEach(iterativeEdge -> {
+          final IRVertex srcVertex =
+              bodyVertexIdToTemplateVertex.get(getBodyVertexId(iterativeEdge.getSrcVertex()));
+          edges.add(instantiateEdge(iterativeEdge, getIdOf(iterativeEdge.getId(), TEMPLATE_ITERATION, nextIteration),
+              srcVertex, idToStage.get(getStageIdOf(templateVertexIdToStageId.get(srcVertex.getId()),
+                  runningIteration)),
+              idToStage.get(getStageIdOf(iterativeEdge.getDst().getId(), nextIteration))));
+        });
+      } else {
+        isDone = true;
+      }
+    }
+    return Optional.of(layOut(physicalPlan, stages, edges, taskIRVertexMap));
+  }
+
+  /**
+   * Lays out the stages in schedule groups by the longest path from the root stages.
+   * Unless the loop is done, the iteration after the running one and the stages depending on the running one
+   * are laid out after an empty schedule group, so that they are not scheduled until the next decision.
+   * @param physicalPlan    the plan being executed.
+   * @param stages          the stages of the plan to lay out.
+   * @param edges           the edges between the stages.
+   * @param taskIRVertexMap the map from the tasks of the stages to their IR vertices.
+   * @return the laid out plan.
+   */
+  private PhysicalPlan layOut(final PhysicalPlan physicalPlan,
+                              final List<PhysicalStage> stages,
+                              final List<PhysicalStageEdge> edges,
+                              final Map<Task, IRVertex> taskIRVertexMap) {
+    final DAGBuilder<PhysicalStage, PhysicalStageEdge> dagBuilder = new DAGBuilder<>();
+    stages.forEach(dagBuilder::addVertex);
+    edges.forEach(dagBuilder::connectVertices);
+    final DAG<PhysicalStage, PhysicalStageEdge> stageDAG = dagBuilder.build();
+
+    final Set<String> heldStageIds = new HashSet<>();
+    if (!isDone) {
+      final Set<String> runningStageIds = getStageIdsOf(runningIteration);
+      heldStageIds.addAll(getStageIdsOf(runningIteration + 1));
+      runningStageIds.forEach(stageId -> stageDAG.getDescendants(stageId).forEach(descendant ->
+          heldStageIds.add(descendant.getId())));
+      new ArrayList<>(heldStageIds).forEach(stageId -> stageDAG.getDescendants(stageId).forEach(descendant ->
+          heldStageIds.add(descendant.getId())));
+      heldStageIds.removeAll(runningStageIds);
+    }
+
+    // The held stages are laid out by the longest path among themselves.
+    final Map<String, Integer> stageIdToDepth = new HashMap<>();
+    stageDAG.topologicalDo(stage -> {
+      final boolean isHeld = heldStageIds.contains(stage.getId());
+      stageIdToDepth.put(stage.getId(), stageDAG.getParents(stage.getId()).stream()
+          .filter(parent -> heldStageIds.contains(parent.getId()) == isHeld)
+          .mapToInt(parent -> stageIdToDepth.get(parent.getId()) + 1)
+          .max().orElse(0));
+    });
+    final int firstHeldScheduleGroup = stageIdToDepth.entrySet().stream()
+        .filter(entry -> !heldStageIds.contains(entry.getKey()))
+        .mapToInt(Map.Entry::getValue)
+        .max().orElse(-1) + 2;
+
+    final Map<String, PhysicalStage> idToStage = new HashMap<>();
+    final DAGBuilder<PhysicalStage, PhysicalStageEdge> laidOutDAGBuilder = new DAGBuilder<>();
+    stageDAG.topologicalDo(stage -> {
+      final int scheduleGroupIndex = heldStageIds.contains(stage.getId())
+          ? firstHeldScheduleGroup + stageIdToDepth.get(stage.getId()) : stageIdToDepth.get(stage.getId());
+      final PhysicalStage laidOutStage = scheduleGroupIndex == stage.getScheduleGroupIndex()
+          ? stage : new PhysicalStage(stage.getId(), stage.getTaskGroupList(), scheduleGroupIndex);
+      idToStage.put(stage.getId(), laidOutStage);
+      laidOutDAGBuilder.addVertex(laidOutStage);
+    });
+    getEdges(stageDAG).forEach(edge -> {
+      final PhysicalStage srcStage = idToStage.get(edge.getSrc().getId());
+      final PhysicalStage dstStage = idToStage.get(edge.getDst().getId());
+      if (srcStage == edge.getSrc() && dstStage == edge.getDst()) {
+        laidOutDAGBuilder.connectVertices(edge);
+      } else {
+        final PhysicalStageEdge laidOutEdge = instantiateEdge(edge, edge.getId(), edge.getSrcVertex(),
+            srcStage, dstStage);
+        laidOutEdge.getTaskGroupIdToKeyRangeMap().putAll(edge.getTaskGroupIdToKeyRangeMap());
+        laidOutEdge.getTaskGroupIdToSrcTaskRangeMap().putAll(edge.getTaskGroupIdToSrcTaskRangeMap());
+        laidOutDAGBuilder.connectVertices(laidOutEdge);
+      }
+    });
+    return new PhysicalPlan(physicalPlan.getId(), laidOutDAGBuilder.build(), taskIRVertexMap);
+  }
+
+  /**
+   * @param iteration the iteration.
+   * @return the IDs of the stages running the iteration.
+   */
+  private Set<String> getStageIdsOf(final int iteration) {
+    if (iteration == FIRST_ITERATION) {
+      return firstIterationStageIds;
+    }
+    return templateStages.stream()
+        .map(templateStage -> getStageIdOf(templateStage.getId(), iteration))
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * @param iteration the iteration.
+   * @return the IDs of the edges from the previous iteration into the iteration.
+   */
+  private Set<String> getIterativeEdgeIdsInto(final int iteration) {
+    return iterativeEdges.stream()
+        .map(iterativeEdge -> getIdOf(iterativeEdge.getId(), TEMPLATE_ITERATION, iteration))
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Instantiates a stage of the template iteration for another iteration.
+   * The tasks of the instantiated stage run the same IR vertices with the template ones.
+   * @param templateStage   the stage of the template iteration.
+   * @param iteration       the iteration to instantiate the stage for.
+   * @param taskIRVertexMap the map from the tasks to their IR vertices, to add the instantiated tasks to.
+   * @return the instantiated stage.
+   */
+  private static PhysicalStage instantiateStage(final PhysicalStage templateStage,
+                                                final int iteration,
+                                                final Map<Task, IRVertex> taskIRVertexMap) {
+    final String stageId = getStageIdOf(templateStage.getId(), iteration);
+    final List<TaskGroup> taskGroups = templateStage.getTaskGroupList().stream().map(templateTaskGroup -> {
+      final String taskGroupId = RuntimeIdGenerator.generateTaskGroupId();
+      final DAG<Task, RuntimeEdge<Task>> templateTaskDAG = templateTaskGroup.getTaskDAG();
+      final DAGBuilder<Task, RuntimeEdge<Task>> taskDAGBuilder = new DAGBuilder<>();
+      final Map<Task, Task> templateToTask = new HashMap<>();
+      templateTaskDAG.topologicalDo(templateTask -> {
+        final Task task = instantiateTask(templateTask, taskGroupId);
+        templateToTask.put(templateTask, task);
+        taskIRVertexMap.put(task, taskIRVertexMap.get(templateTask));
+        taskDAGBuilder.addVertex(task);
+      });
+      templateTaskDAG.getVertices().forEach(templateTask ->
+          templateTaskDAG.getOutgoingEdgesOf(templateTask).forEach(templateEdge ->
+              taskDAGBuilder.connectVertices(new RuntimeEdge<>(
+                  getIdOf(templateEdge.getId(), TEMPLATE_ITERATION, iteration), templateEdge.getExecutionProperties(),
+                  templateToTask.get(templateEdge.getSrc()), templateToTask.get(templateEdge.getDst()),
+                  templateEdge.getCoder(), templateEdge.isSideInput()))));
+      return new TaskGroup(taskGroupId, stageId, templateTaskGroup.getTaskGroupIdx(), taskDAGBuilder.build(),
+          templateTaskGroup.getContainerType(), templateTaskGroup.getCoreDemand(),
+          templateTaskGroup.getMemoryDemandMb(), templateTaskGroup.getColocationGroup().orElse(null));
+    }).collect(Collectors.toList());
+    return new PhysicalStage(stageId, taskGroups, templateStage.getScheduleGroupIndex());
+  }
+
+  /**
+   * @param templateTask the task of the template iteration.
+   * @param taskGroupId  the ID of the task group to instantiate the task in.
+   * @return the instantiated task.
+   */
+  private static Task instantiateTask(final Task templateTask, final String taskGroupId) {
+    final String taskId = RuntimeIdGenerator.generateTaskId();
+    if (templateTask instanceof OperatorTask) {
+      return new OperatorTask(taskId, templateTask.getRuntimeVertexId(), templateTask.getIndex(),
+          ((OperatorTask) templateTask).getParallelism(), ((OperatorTask) templateTask).getTransform(), taskGroupId);
+    } else if (templateTask instanceof BoundedSourceTask) {
+      return new BoundedSourceTask<>(taskId, templateTask.getRuntimeVertexId(), templateTask.getIndex(),
+          ((BoundedSourceTask<?>) templateTask).getReader(), taskGroupId);
+    } else if (templateTask instanceof UnboundedSourceTask) {
+      return new UnboundedSourceTask(taskId, templateTask.getRuntimeVertexId(), templateTask.getIndex(), taskGroupId);
+    } else {
+      throw new IllegalVertexOperationException("This task type is not supported: " + templateTask.getId());
+    }
+  }
+
+  /**
+   * @param templateEdge the edge to instantiate.
+   * @param edgeId       the ID of the instantiated edge.
+   * @param srcVertex    the source IR vertex of the instantiated edge.
+   * @param srcStage     the source stage of the instantiated edge.
+   * @param dstStage     the destination stage of the instantiated edge.
+   * @return the instantiated edge.
+   */
+  private static PhysicalStageEdge instantiateEdge(final PhysicalStageEdge templateEdge,
+                                                   final String edgeId,
+                                                   final IRVertex srcVertex,
+                                                   final PhysicalStage srcStage,
+                                                   final PhysicalStage dstStage) {
+    return new PhysicalStageEdge(edgeId, templateEdge.getExecutionProperties(), srcVertex,
+        templateEdge.getDstVertex(), srcStage, dstStage, templateEdge.getCoder(), templateEdge.isSideInput());
+  }
+
+  /**
+   * @param stageDAG a stage DAG.
+   * @return the edges of the DAG.
+   */
+  private static List<PhysicalStageEdge> getEdges(final DAG<PhysicalStage, PhysicalStageEdge> stageDAG) {
+    return stageDAG.getVertices().stream()
+        .flatMap(stage -> stageDAG.getOutgoingEdgesOf(stage).stream())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @param templateStageId the ID of a stage of the template iteration.
+   * @param iteration       the iteration to instantiate.
+   * @return the ID of the stage in the iteration.
+   */
+  private static String getStageIdOf(final String templateStageId, final int iteration) {
+    return getIdOf(templateStageId, TEMPLATE_ITERATION, iteration);
+  }
+
+  /**
+   * @param templateId        the ID of a stage, a vertex or an edge of an iteration.
+   * @param templateIteration the iteration of the ID.
+   * @param iteration         the iteration to instantiate.
+   * @return the ID in the iteration, which is the given ID in its own iteration.
+   */
+  private static String getIdOf(final String templateId, final int templateIteration, final int iteration) {
+    return iteration == templateIteration
+        ? templateId : RuntimeIdGenerator.generateLoopIterationId(templateId, iteration);
+  }
+
+  /**
+   * @param irVertex an IR vertex.
+   * @return the iteration of the vertex, or {@link #NOT_IN_LOOP} if it is not in a loop.
+   */
+  private static int getIteration(final IRVertex irVertex) {
+    final LoopIterationProperty.Value loopIteration = irVertex.getProperty(ExecutionProperty.Key.LoopIteration);
+    return loopIteration == null ? NOT_IN_LOOP : loopIteration.getIteration();
+  }
+
+  /**
+   * @param irVertex an IR vertex in a loop.
+   * @return the ID of the vertex in the body of the loop, shared by its instances in all the iterations.
+   */
+  private static String getBodyVertexId(final IRVertex irVertex) {
+    return irVertex.<LoopIterationProperty.Value>getProperty(ExecutionProperty.Key.LoopIteration).getBodyVertexId();
+  }
+}
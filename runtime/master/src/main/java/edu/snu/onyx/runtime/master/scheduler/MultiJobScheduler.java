@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.master.scheduler;
+
+import edu.snu.onyx.common.Pair;
+import edu.snu.onyx.common.eventhandler.PubSubEventHandlerWrapper;
+import edu.snu.onyx.common.exception.SchedulingException;
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.plan.physical.PhysicalPlan;
+import edu.snu.onyx.runtime.common.plan.physical.TaskGroup;
+import edu.snu.onyx.runtime.common.state.TaskGroupState;
+import edu.snu.onyx.runtime.master.BlockManagerMaster;
+import edu.snu.onyx.runtime.master.JobStateManager;
+import edu.snu.onyx.runtime.master.eventhandler.UpdatePhysicalPlanEventHandler;
+import org.apache.reef.annotations.audience.DriverSide;
+import org.apache.reef.tang.annotations.Parameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.*;
+
+/**
+ * MultiJobScheduler receives multiple {@link PhysicalPlan}s to execute concurrently on the same executors.
+ * Each job is scheduled by its own {@link BatchSingleJobScheduler}, and the executor slots are shared among
+ * the jobs by {@link MultiJobTaskGroupQueue} with weighted fair sharing and optional priorities.
+ */
+@DriverSide
+public final class MultiJobScheduler implements Scheduler {
+  private static final Logger LOG = LoggerFactory.getLogger(MultiJobScheduler.class.getName());
+
+  private final SchedulingPolicy schedulingPolicy;
+  private final SchedulerRunner schedulerRunner;
+  private final MultiJobTaskGroupQueue multiJobTaskGroupQueue;
+  private final BlockManagerMaster blockManagerMaster;
+  private final PubSubEventHandlerWrapper pubSubEventHandlerWrapper;
+  private final double slowStartFraction;
+  private final double skewSampleFraction;
+
+  /**
+   * The schedulers of the jobs being executed.
+   */
+  private final Map<String, BatchSingleJobScheduler> jobIdToScheduler;
+  private final Map<String, String> taskGroupIdToJobId;
+  private final Map<String, PhysicalPlan> jobIdToRegisteredPlan;
+
+  /**
+   * Constructor.
+   * @param schedulingPolicy               the scheduling policy shared by the jobs.
+   * @param schedulerRunner                the scheduler runner shared by the jobs.
+   * @param multiJobTaskGroupQueue         the queue dividing the executor slots among the jobs.
+   * @param blockManagerMaster             the block manager master.
+   * @param pubSubEventHandlerWrapper      the wrapper of the pub-sub event handler.
+   * @param updatePhysicalPlanEventHandler the handler of the physical plans updated at runtime.
+   * @param slowStartFraction              the fraction of the TaskGroups of a ScheduleGroup to complete
+   *                                       before the next ScheduleGroup is scheduled.
+   * @param skewSampleFraction             the fraction of the TaskGroups of a stage to report their metrics
+   *                                       before the dynamic optimization is triggered.
+   */
+  @Inject
+  public MultiJobScheduler(final SchedulingPolicy schedulingPolicy,
+                           final SchedulerRunner schedulerRunner,
+                           final MultiJobTaskGroupQueue multiJobTaskGroupQueue,
+                           final BlockManagerMaster blockManagerMaster,
+                           final PubSubEventHandlerWrapper pubSubEventHandlerWrapper,
+                           final UpdatePhysicalPlanEventHandler updatePhysicalPlanEventHandler,
+                           @Parameter(JobConf.SlowStartFraction.class) final double slowStartFraction,
+                           @Parameter(JobConf.SkewSampleFraction.class) final double skewSampleFraction) {
+    this.schedulingPolicy = schedulingPolicy;
+    this.schedulerRunner = schedulerRunner;
+    this.multiJobTaskGroupQueue = multiJobTaskGroupQueue;
+    this.blockManagerMaster = blockManagerMaster;
+    this.pubSubEventHandlerWrapper = pubSubEventHandlerWrapper;
+    this.slowStartFraction = slowStartFraction;
+    this.skewSampleFraction = skewSampleFraction;
+    this.jobIdToScheduler = new HashMap<>();
+    this.taskGroupIdToJobId = new HashMap<>();
+    this.jobIdToRegisteredPlan = new HashMap<>();
+    updatePhysicalPlanEventHandler.setScheduler(this);
+    if (pubSubEventHandlerWrapper.getPubSubEventHandler() != null) {
+      pubSubEventHandlerWrapper.getPubSubEventHandler()
+          .subscribe(updatePhysicalPlanEventHandler.getEventClass(), updatePhysicalPlanEventHandler);
+    }
+  }
+
+  @Override
+  public void scheduleJob(final PhysicalPlan physicalPlan,
+                          final JobStateManager jobStateManager) {
+    scheduleJob(physicalPlan, jobStateManager,
+        MultiJobTaskGroupQueue.DEFAULT_WEIGHT, MultiJobTaskGroupQueue.DEFAULT_PRIORITY);
+  }
+
+  @Override
+  public synchronized void scheduleJob(final PhysicalPlan physicalPlan,
+                                       final JobStateManager jobStateManager,
+                                       final int weight,
+                                       final int priority) {
+    final String jobId = physicalPlan.getId();
+    if (jobIdToScheduler.containsKey(jobId)) {
+      throw new SchedulingException(new Throwable(jobId + " is already being scheduled"));
+    }
+    LOG.info("Job to schedule: {} with weight {} and priority {}", new Object[]{jobId, weight, priority});
+
+    final BatchSingleJobScheduler jobScheduler = new BatchSingleJobScheduler(schedulingPolicy, schedulerRunner,
+        multiJobTaskGroupQueue.getQueueOfJob(jobId), blockManagerMaster, pubSubEventHandlerWrapper,
+        slowStartFraction, skewSampleFraction);
+    jobIdToScheduler.put(jobId, jobScheduler);
+    registerTaskGroups(jobId, physicalPlan);
+    multiJobTaskGroupQueue.onJobScheduled(physicalPlan, weight, priority);
+    jobScheduler.scheduleJob(physicalPlan, jobStateManager);
+    onJobStateMaybeChanged(jobId, jobScheduler);
+  }
+
+  @Override
+  public void updateJob(final String jobId,
+                        final PhysicalPlan newPhysicalPlan,
+                        final Pair<String, TaskGroup> taskInfo) {
+    final BatchSingleJobScheduler jobScheduler;
+    synchronized (this) {
+      jobScheduler = getJobScheduler(jobId);
+      registerTaskGroups(jobId, newPhysicalPlan);
+    }
+    jobScheduler.updateJob(jobId, newPhysicalPlan, taskInfo);
+    if (taskInfo != null) {
+      onJobStateMaybeChanged(jobId, jobScheduler);
+    }
+  }
+
+  @Override
+  public synchronized void onExecutorAdded(final String executorId) {
+    schedulingPolicy.onExecutorAdded(executorId);
+  }
+
+  @Override
+  public void onTaskGroupStealRequested(final String thiefExecutorId) {
+    schedulingPolicy.onTaskGroupStealRequested(thiefExecutorId);
+  }
+
+  @Override
+  public void onTaskGroupYielded(final String executorId, final String thiefExecutorId, final String taskGroupId) {
+    schedulingPolicy.onTaskGroupYielded(executorId, thiefExecutorId, taskGroupId);
+  }
+
+  @Override
+  public void onBlockSizeReported(final String blockId, final List<Long> partitionSizes) {
+    final List<BatchSingleJobScheduler> jobSchedulers;
+    synchronized (this) {
+      jobSchedulers = new ArrayList<>(jobIdToScheduler.values());
+    }
+    // Block IDs are not bound to a job, so each job scheduler picks the blocks of its own.
+    jobSchedulers.forEach(jobScheduler -> jobScheduler.onBlockSizeReported(blockId, partitionSizes));
+  }
+
+  @Override
+  public synchronized void onExecutorRemoved(final String executorId) {
+    final Set<String> taskGroupsToReExecute = new HashSet<>();
+
+    // TaskGroups for lost blocks
+    taskGroupsToReExecute.addAll(blockManagerMaster.removeWorker(executorId));
+
+    // TaskGroups executing on the removed executor
+    taskGroupsToReExecute.addAll(schedulingPolicy.onExecutorRemoved(executorId));
+    taskGroupsToReExecute.forEach(multiJobTaskGroupQueue::onTaskGroupExecutionComplete);
+
+    final Map<String, Set<String>> jobIdToTaskGroups = new HashMap<>();
+    taskGroupsToReExecute.forEach(taskGroupId -> {
+      final String jobId = taskGroupIdToJobId.get(taskGroupId);
+      if (jobId != null && jobIdToScheduler.containsKey(jobId)) {
+        jobIdToTaskGroups.computeIfAbsent(jobId, key -> new HashSet<>()).add(taskGroupId);
+      } // else the job has already terminated.
+    });
+    jobIdToTaskGroups.forEach((jobId, taskGroupIds) ->
+        jobIdToScheduler.get(jobId).onTaskGroupsLost(executorId, taskGroupIds));
+  }
+
+  @Override
+  public void onTaskGroupStateChanged(final String executorId,
+                                      final String taskGroupId,
+                                      final TaskGroupState.State newState,
+                                      final int attemptIdx,
+                                      final List<String> tasksPutOnHold,
+                                      final TaskGroupState.RecoverableFailureCause failureCause) {
+    final String jobId;
+    final BatchSingleJobScheduler jobScheduler;
+    synchronized (this) {
+      jobId = taskGroupIdToJobId.get(taskGroupId);
+      if (jobId == null || !jobIdToScheduler.containsKey(jobId)) {
+        LOG.info("{} of a terminated job changed to {}, we will ignore this.", taskGroupId, newState);
+        return;
+      }
+      jobScheduler = jobIdToScheduler.get(jobId);
+    }
+
+    multiJobTaskGroupQueue.onTaskGroupExecutionComplete(taskGroupId);
+    jobScheduler.onTaskGroupStateChanged(executorId, taskGroupId, newState, attemptIdx, tasksPutOnHold, failureCause);
+    onJobStateMaybeChanged(jobId, jobScheduler);
+  }
+
+  /**
+   * Cleans up a job from this scheduler if it has terminated,
+   * or registers the TaskGroups added to its plan while it is being executed.
+   * @param jobId of the job.
+   * @param jobScheduler the scheduler of the job.
+   */
+  private synchronized void onJobStateMaybeChanged(final String jobId,
+                                                   final BatchSingleJobScheduler jobScheduler) {
+    if (jobScheduler.getJobStateManager().checkJobTermination() && jobIdToScheduler.remove(jobId) != null) {
+      LOG.info("{} terminated, releasing its share of the executors.", jobId);
+      multiJobTaskGroupQueue.onJobFinished(jobId);
+      taskGroupIdToJobId.values().removeIf(jobId::equals);
+      jobIdToRegisteredPlan.remove(jobId);
+    } else if (jobIdToScheduler.containsKey(jobId)
+        && jobIdToRegisteredPlan.get(jobId) != jobScheduler.getPhysicalPlan()) {
+      registerTaskGroups(jobId, jobScheduler.getPhysicalPlan());
+    }
+  }
+
+  /**
+   * Maps the TaskGroups of a physical plan of a job to the job.
+   * @param jobId        the ID of the job.
+   * @param physicalPlan the physical plan of the job.
+   */
+  private void registerTaskGroups(final String jobId, final PhysicalPlan physicalPlan) {
+    jobIdToRegisteredPlan.put(jobId, physicalPlan);
+    physicalPlan.getStageDAG().getVertices().forEach(physicalStage ->
+        physicalStage.getTaskGroupList().forEach(taskGroup ->
+            taskGroupIdToJobId.put(taskGroup.getTaskGroupId(), jobId)));
+  }
+
+  /**
+   * @param jobId the ID of a job.
+   * @return the scheduler of the job.
+   * @throws SchedulingException if the job is not being scheduled.
+   */
+  private BatchSingleJobScheduler getJobScheduler(final String jobId) {
+    final BatchSingleJobScheduler jobScheduler = jobIdToScheduler.get(jobId);
+    if (jobScheduler == null) {
+      throw new SchedulingException(new Throwable(jobId + " is not being scheduled"));
+    }
+    return jobScheduler;
+  }
+
+  @Override
+  public synchronized void terminate() {
+    jobIdToScheduler.values().forEach(BatchSingleJobScheduler::terminate);
+  }
+}
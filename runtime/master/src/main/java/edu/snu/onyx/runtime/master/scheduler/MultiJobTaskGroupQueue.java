@@ -0,0 +1,322 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.runtime.master.scheduler;
+
+import edu.snu.onyx.common.exception.SchedulingException;
+import edu.snu.onyx.runtime.common.plan.physical.PhysicalPlan;
+import edu.snu.onyx.runtime.common.plan.physical.ScheduledTaskGroup;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.reef.annotations.audience.DriverSide;
+
+import javax.inject.Inject;
+import java.util.*;
+
+/**
+ * {@link PendingTaskGroupQueue} shared by multiple concurrently running jobs.
+ *
+ * Each job keeps its own {@link SingleJobTaskGroupQueue}, which orders the job's TaskGroups by stage dependency.
+ * Across jobs, the executor slots are shared with weighted fair sharing:
+ * the next TaskGroup is taken from the job with the highest priority,
+ * and among the jobs of the same priority, from the one with the least running TaskGroups per weight.
+ */
+@ThreadSafe
+@DriverSide
+public final class MultiJobTaskGroupQueue implements PendingTaskGroupQueue {
+  public static final int DEFAULT_WEIGHT = 1;
+  public static final int DEFAULT_PRIORITY = 0;
+  private static final long WAIT_TIMEOUT_MS = 100;
+
+  /**
+   * The jobs being scheduled, in the order of registration.
+   */
+  private final Map<String, JobEntry> jobIdToEntry;
+  private final Map<String, String> runningTaskGroupIdToJobId;
+
+  /**
+   * Constructor.
+   */
+  @Inject
+  public MultiJobTaskGroupQueue() {
+    this.jobIdToEntry = new LinkedHashMap<>();
+    this.runningTaskGroupIdToJobId = new HashMap<>();
+  }
+
+  /**
+   * Registers a job with its share of the executor slots.
+   * @param physicalPlanForJob the job to schedule.
+   * @param weight the relative share of the executor slots of the job.
+   * @param priority the priority of the job. The jobs with higher priority are served first.
+   */
+  public synchronized void onJobScheduled(final PhysicalPlan physicalPlanForJob,
+                                          final int weight,
+                                          final int priority) {
+    if (weight <= 0) {
+      throw new SchedulingException(new Throwable("The weight of a job should be positive: " + weight));
+    }
+    final SingleJobTaskGroupQueue jobQueue = new SingleJobTaskGroupQueue();
+    jobQueue.onJobScheduled(physicalPlanForJob);
+    jobIdToEntry.put(physicalPlanForJob.getId(), new JobEntry(jobQueue, weight, priority));
+  }
+
+  @Override
+  public void onJobScheduled(final PhysicalPlan physicalPlanForJob) {
+    onJobScheduled(physicalPlanForJob, DEFAULT_WEIGHT, DEFAULT_PRIORITY);
+  }
+
+  /**
+   * Removes a job that has terminated from this queue.
+   * @param jobId of the job to remove.
+   */
+  public synchronized void onJobFinished(final String jobId) {
+    final JobEntry entry = jobIdToEntry.remove(jobId);
+    if (entry != null) {
+      entry.queue.close();
+      entry.runningTaskGroupIds.forEach(runningTaskGroupIdToJobId::remove);
+    }
+  }
+
+  @Override
+  public synchronized void enqueue(final ScheduledTaskGroup scheduledTaskGroup) {
+    final JobEntry entry = getJobEntry(scheduledTaskGroup.getJobId());
+    // A TaskGroup coming back (e.g., failed to be assigned to an executor) does not occupy a slot any more.
+    final String taskGroupId = scheduledTaskGroup.getTaskGroup().getTaskGroupId();
+    entry.runningTaskGroupIds.remove(taskGroupId);
+    runningTaskGroupIdToJobId.remove(taskGroupId);
+    entry.queue.enqueue(scheduledTaskGroup);
+    notifyAll();
+  }
+
+  /**
+   * Dequeues the next TaskGroup according to the priority and the weighted fair share of the jobs.
+   * Waits for a while if no job has a schedulable TaskGroup.
+   * @return the next TaskGroup to be scheduled, or an empty optional if there is none for now.
+   */
+  @Override
+  public synchronized Optional<ScheduledTaskGroup> dequeue() {
+    Optional<ScheduledTaskGroup> taskGroupToSchedule = pollByShare();
+    if (!taskGroupToSchedule.isPresent()) {
+      waitForTaskGroups();
+      taskGroupToSchedule = pollByShare();
+    }
+    return taskGroupToSchedule;
+  }
+
+  /**
+   * Dequeues the next TaskGroup of a job, regardless of the share of the other jobs.
+   * Waits for a while if the job has no schedulable TaskGroup.
+   * @param jobId of the job.
+   * @return the next TaskGroup of the job, or an empty optional if there is none for now.
+   */
+  private synchronized Optional<ScheduledTaskGroup> dequeue(final String jobId) {
+    Optional<ScheduledTaskGroup> taskGroupToSchedule = poll(getJobEntry(jobId));
+    if (!taskGroupToSchedule.isPresent()) {
+      waitForTaskGroups();
+      // The job may have finished while waiting.
+      taskGroupToSchedule = jobIdToEntry.containsKey(jobId) ? poll(jobIdToEntry.get(jobId)) : Optional.empty();
+    }
+    return taskGroupToSchedule;
+  }
+
+  /**
+   * Waits for a TaskGroup to be enqueued, for at most {@link #WAIT_TIMEOUT_MS} milliseconds.
+   * Must be called holding the lock of this queue.
+   */
+  private void waitForTaskGroups() {
+    try {
+      wait(WAIT_TIMEOUT_MS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SchedulingException(new Throwable("Interrupted while waiting for the next TaskGroup"));
+    }
+  }
+
+  /**
+   * Polls the job queues in the order of priority and then of running TaskGroups per weight.
+   * @return the next TaskGroup to be scheduled, or an empty optional if no job has a schedulable TaskGroup.
+   */
+  private Optional<ScheduledTaskGroup> pollByShare() {
+    final List<JobEntry> entries = new ArrayList<>(jobIdToEntry.values());
+    // The sort is stable, so the jobs of the same share are served in the order of registration.
+    entries.sort(Comparator.comparingInt((JobEntry entry) -> -entry.priority)
+        .thenComparingDouble(entry -> (double) entry.runningTaskGroupIds.size() / entry.weight));
+    for (final JobEntry entry : entries) {
+      final Optional<ScheduledTaskGroup> taskGroup = poll(entry);
+      if (taskGroup.isPresent()) {
+        return taskGroup;
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Polls the queue of a job, and lets the polled TaskGroup occupy a slot of the job.
+   * @param entry of the job.
+   * @return the next TaskGroup of the job, or an empty optional if the job has no schedulable TaskGroup.
+   */
+  private Optional<ScheduledTaskGroup> poll(final JobEntry entry) {
+    final Optional<ScheduledTaskGroup> taskGroup = entry.queue.poll();
+    taskGroup.ifPresent(scheduledTaskGroup -> {
+      final String taskGroupId = scheduledTaskGroup.getTaskGroup().getTaskGroupId();
+      entry.runningTaskGroupIds.add(taskGroupId);
+      runningTaskGroupIdToJobId.put(taskGroupId, scheduledTaskGroup.getJobId());
+    });
+    return taskGroup;
+  }
+
+  /**
+   * Releases the slot held by a TaskGroup, when it completes, fails, or is put on hold.
+   * @param taskGroupId of the TaskGroup.
+   */
+  public synchronized void onTaskGroupExecutionComplete(final String taskGroupId) {
+    final String jobId = runningTaskGroupIdToJobId.remove(taskGroupId);
+    if (jobId != null && jobIdToEntry.containsKey(jobId)) {
+      jobIdToEntry.get(jobId).runningTaskGroupIds.remove(taskGroupId);
+    }
+  }
+
+  /**
+   * @param jobId of the job.
+   * @return the number of TaskGroups of the job occupying executor slots.
+   */
+  public synchronized int getNumOfRunningTaskGroups(final String jobId) {
+    return getJobEntry(jobId).runningTaskGroupIds.size();
+  }
+
+  /**
+   * Gets a view of this queue restricted to a single job.
+   * Stage IDs are only unique within a job, so the per-job operations of a {@link BatchSingleJobScheduler}
+   * must be routed through this view.
+   * @param jobId of the job.
+   * @return the queue for the job.
+   */
+  PendingTaskGroupQueue getQueueOfJob(final String jobId) {
+    return new PendingTaskGroupQueue() {
+      @Override
+      public void enqueue(final ScheduledTaskGroup scheduledTaskGroup) {
+        MultiJobTaskGroupQueue.this.enqueue(scheduledTaskGroup);
+      }
+
+      @Override
+      public Optional<ScheduledTaskGroup> dequeue() {
+        return MultiJobTaskGroupQueue.this.dequeue(jobId);
+      }
+
+      @Override
+      public void onJobScheduled(final PhysicalPlan physicalPlanForJob) {
+        // The job is registered with its share by the scheduler, and only its plan is updated here.
+        synchronized (MultiJobTaskGroupQueue.this) {
+          final JobEntry entry = jobIdToEntry.get(jobId);
+          if (entry != null) {
+            entry.queue.onJobScheduled(physicalPlanForJob);
+          }
+        }
+      }
+
+      @Override
+      public void removeTaskGroupsAndDescendants(final String stageIdOfTaskGroups) {
+        synchronized (MultiJobTaskGroupQueue.this) {
+          getJobEntry(jobId).queue.removeTaskGroupsAndDescendants(stageIdOfTaskGroups);
+        }
+      }
+
+      @Override
+      public boolean isEmpty() {
+        synchronized (MultiJobTaskGroupQueue.this) {
+          return getJobEntry(jobId).queue.isEmpty();
+        }
+      }
+
+      @Override
+      public void close() {
+        onJobFinished(jobId);
+      }
+    };
+  }
+
+  /**
+   * Removes a stage and its descendants from the job which has the stage.
+   * Stage IDs are only unique within a job, so the removal fails if multiple jobs have the stage.
+   * Use {@link #getQueueOfJob(String)} to remove the stage of a specific job.
+   * @param stageIdOfTaskGroups for the stage to begin the removal recursively.
+   */
+  @Override
+  public synchronized void removeTaskGroupsAndDescendants(final String stageIdOfTaskGroups) {
+    final List<String> jobIdsWithStage = new ArrayList<>();
+    jobIdToEntry.forEach((jobId, entry) -> {
+      if (entry.queue.hasStage(stageIdOfTaskGroups)) {
+        jobIdsWithStage.add(jobId);
+      }
+    });
+    if (jobIdsWithStage.size() > 1) {
+      throw new SchedulingException(new Throwable(
+          stageIdOfTaskGroups + " is ambiguous among the jobs " + jobIdsWithStage));
+    }
+    jobIdsWithStage.forEach(jobId -> jobIdToEntry.get(jobId).queue.removeTaskGroupsAndDescendants(stageIdOfTaskGroups));
+  }
+
+  @Override
+  public synchronized boolean isEmpty() {
+    for (final JobEntry entry : jobIdToEntry.values()) {
+      if (!entry.queue.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized void close() {
+    jobIdToEntry.values().forEach(entry -> entry.queue.close());
+    jobIdToEntry.clear();
+    runningTaskGroupIdToJobId.clear();
+  }
+
+  /**
+   * @param jobId the ID of a job.
+   * @return the entry of the job.
+   * @throws SchedulingException if the job is not registered.
+   */
+  private JobEntry getJobEntry(final String jobId) {
+    final JobEntry entry = jobIdToEntry.get(jobId);
+    if (entry == null) {
+      throw new SchedulingException(new Throwable("The job is not registered to the queue: " + jobId));
+    }
+    return entry;
+  }
+
+  /**
+   * The pending TaskGroups and the share of a job.
+   */
+  private static final class JobEntry {
+    private final SingleJobTaskGroupQueue queue;
+    private final int weight;
+    private final int priority;
+    private final Set<String> runningTaskGroupIds;
+
+    /**
+     * Constructor.
+     * @param queue    the queue of the pending TaskGroups of the job.
+     * @param weight   the relative share of the executor slots of the job.
+     * @param priority the priority of the job.
+     */
+    private JobEntry(final SingleJobTaskGroupQueue queue, final int weight, final int priority) {
+      this.queue = queue;
+      this.weight = weight;
+      this.priority = priority;
+      this.runningTaskGroupIds = new HashSet<>();
+    }
+  }
+}
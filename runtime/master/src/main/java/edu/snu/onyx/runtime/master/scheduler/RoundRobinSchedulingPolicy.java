@@ -19,6 +19,10 @@ import edu.snu.onyx.conf.JobConf;
 import edu.snu.onyx.common.exception.SchedulingException;
 import edu.snu.onyx.common.ir.vertex.executionproperty.ExecutorPlacementProperty;
 import edu.snu.onyx.runtime.common.plan.physical.ScheduledTaskGroup;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.message.MessageEnvironment;
+import edu.snu.onyx.runtime.common.plan.physical.TaskGroup;
 import edu.snu.onyx.runtime.master.resource.ContainerManager;
 import edu.snu.onyx.runtime.master.resource.ExecutorRepresenter;
 import org.apache.reef.annotations.audience.DriverSide;
@@ -41,16 +45,31 @@ import java.util.stream.Collectors;
  *
  * This policy keeps a list of available {@link ExecutorRepresenter} for each type of container.
  * The RR policy is used for each container type when trying to schedule a task group.
+ * An executor is selected only if its remaining cores and memory can host the demands of the task group.
+ * With a backlog, each executor is assigned more task groups than its cores, which wait in the executor and
+ * can be stolen by idle executors.
+ * A task group of a colocation group is assigned to the executor which ran the first task group of the same index
+ * in the group, if it can host the task group, so that the data pinned on that executor is read locally.
  */
 @ThreadSafe
 @DriverSide
 public final class RoundRobinSchedulingPolicy implements SchedulingPolicy {
   private static final Logger LOG = LoggerFactory.getLogger(RoundRobinSchedulingPolicy.class.getName());
 
+  /**
+   * Tolerance for the rounding errors of summing fractional core demands.
+   */
+  private static final double CORE_DEMAND_EPSILON = 1e-9;
+
   private final ContainerManager containerManager;
 
   private final int scheduleTimeoutMs;
 
+  /**
+   * The number of cores each executor is assigned beyond its capacity.
+   */
+  private final int executorBacklog;
+
   /**
    * Thread safety is provided by this lock as multiple threads can call the methods in this class concurrently.
    */
@@ -80,16 +99,24 @@ public final class RoundRobinSchedulingPolicy implements SchedulingPolicy {
    */
   private final Map<String, Integer> nextExecutorIndexByContainerType;
 
+  /**
+   * The executor each task group index of each colocation group of each job is pinned to.
+   */
+  private final Map<String, String> colocationKeyToExecutorId;
+
   @Inject
   public RoundRobinSchedulingPolicy(final ContainerManager containerManager,
-                                    @Parameter(JobConf.SchedulerTimeoutMs.class) final int scheduleTimeoutMs) {
+                                    @Parameter(JobConf.SchedulerTimeoutMs.class) final int scheduleTimeoutMs,
+                                    @Parameter(JobConf.ExecutorBacklog.class) final int executorBacklog) {
     this.containerManager = containerManager;
     this.scheduleTimeoutMs = scheduleTimeoutMs;
+    this.executorBacklog = executorBacklog;
     this.lock = new ReentrantLock();
     this.executorIdByContainerType = new HashMap<>();
     this.executorRepresenterMap = new HashMap<>();
     this.conditionByContainerType = new HashMap<>();
     this.nextExecutorIndexByContainerType = new HashMap<>();
+    this.colocationKeyToExecutorId = new HashMap<>();
     initializeContainerTypeIfAbsent(ExecutorPlacementProperty.NONE); // Need this to avoid potential null errors
   }
 
@@ -101,15 +128,16 @@ public final class RoundRobinSchedulingPolicy implements SchedulingPolicy {
   public Optional<String> attemptSchedule(final ScheduledTaskGroup scheduledTaskGroup) {
     lock.lock();
     try {
-      final String containerType = scheduledTaskGroup.getTaskGroup().getContainerType();
+      final TaskGroup taskGroup = scheduledTaskGroup.getTaskGroup();
+      final String containerType = taskGroup.getContainerType();
       initializeContainerTypeIfAbsent(containerType);
 
-      final Optional<String> executorId = selectExecutorByRR(containerType);
+      final Optional<String> executorId = selectExecutor(scheduledTaskGroup);
       if (!executorId.isPresent()) { // If there is no available executor to schedule this task group now,
         final boolean executorAvailable =
             conditionByContainerType.get(containerType).await(scheduleTimeoutMs, TimeUnit.MILLISECONDS);
         if (executorAvailable) { // if an executor has become available before scheduleTimeoutMs,
-          return selectExecutorByRR(containerType);
+          return selectExecutor(scheduledTaskGroup);
         } else {
           return Optional.empty();
         }
@@ -123,13 +151,52 @@ public final class RoundRobinSchedulingPolicy implements SchedulingPolicy {
     }
   }
 
+  /**
+   * Selects the executor a task group is pinned to by its colocation group if it can host the task group,
+   * or an executor by the RR policy otherwise.
+   * @param scheduledTaskGroup to select an executor for.
+   * @return (optionally) the selected executor.
+   */
+  private Optional<String> selectExecutor(final ScheduledTaskGroup scheduledTaskGroup) {
+    final TaskGroup taskGroup = scheduledTaskGroup.getTaskGroup();
+    final Optional<String> colocationKey = getColocationKey(scheduledTaskGroup);
+    if (colocationKey.isPresent()) {
+      final String pinnedExecutorId = colocationKeyToExecutorId.get(colocationKey.get());
+      final ExecutorRepresenter pinnedExecutor =
+          pinnedExecutorId == null ? null : executorRepresenterMap.get(pinnedExecutorId);
+      if (pinnedExecutor != null && canHost(pinnedExecutor, taskGroup)) {
+        return Optional.of(pinnedExecutorId);
+      }
+    }
+    return selectExecutorByRR(taskGroup);
+  }
+
+  /**
+   * @param scheduledTaskGroup the task group.
+   * @return the key of the task group index in its colocation group, if it has one.
+   */
+  private static Optional<String> getColocationKey(final ScheduledTaskGroup scheduledTaskGroup) {
+    final TaskGroup taskGroup = scheduledTaskGroup.getTaskGroup();
+    return taskGroup.getColocationGroup().map(colocationGroup ->
+        getColocationKeyPrefix(scheduledTaskGroup.getJobId()) + colocationGroup + "/" + taskGroup.getTaskGroupIdx());
+  }
+
+  /**
+   * @param jobId the ID of a job.
+   * @return the prefix of the keys of the colocation groups of the job.
+   */
+  private static String getColocationKeyPrefix(final String jobId) {
+    return jobId + "/";
+  }
+
   /**
    * Sticks to the RR policy to select an executor for the next task group.
-   * It checks the task groups running (as compared to each executor's capacity).
-   * @param containerType to select an executor for.
+   * It checks the resources occupied by the task groups running (as compared to each executor's resources).
+   * @param taskGroup to select an executor for.
    * @return (optionally) the selected executor.
    */
-  private Optional<String> selectExecutorByRR(final String containerType) {
+  private Optional<String> selectExecutorByRR(final TaskGroup taskGroup) {
+    final String containerType = taskGroup.getContainerType();
     final List<String> candidateExecutorIds = (containerType.equals(ExecutorPlacementProperty.NONE))
         ? getAllContainers() // all containers
         : executorIdByContainerType.get(containerType); // containers of a particular type
@@ -142,7 +209,7 @@ public final class RoundRobinSchedulingPolicy implements SchedulingPolicy {
         final String selectedExecutorId = candidateExecutorIds.get(index);
 
         final ExecutorRepresenter executor = executorRepresenterMap.get(selectedExecutorId);
-        if (hasFreeSlot(executor)) {
+        if (canHost(executor, taskGroup)) {
           nextExecutorIndex = (index + 1) % numExecutors;
           nextExecutorIndexByContainerType.put(containerType, nextExecutorIndex);
           return Optional.of(selectedExecutorId);
@@ -159,8 +226,20 @@ public final class RoundRobinSchedulingPolicy implements SchedulingPolicy {
         .collect(Collectors.toList()); // convert the stream to a list
   }
 
-  private boolean hasFreeSlot(final ExecutorRepresenter executor) {
-    return executor.getRunningTaskGroups().size() < executor.getExecutorCapacity();
+  /**
+   * Checks whether the remaining resources of an executor, with its backlog, can host a task group.
+   * A task group demanding more than the whole executor is still run alone on an idle executor,
+   * rather than never being scheduled.
+   * @param executor the executor to check.
+   * @param taskGroup the task group to host.
+   * @return whether the task group can be scheduled to the executor.
+   */
+  private boolean canHost(final ExecutorRepresenter executor, final TaskGroup taskGroup) {
+    if (executor.getRunningTaskGroups().isEmpty()) {
+      return true;
+    }
+    return executor.getRemainingCores() + executorBacklog - taskGroup.getCoreDemand() > -CORE_DEMAND_EPSILON
+        && executor.getRemainingMemory() >= taskGroup.getMemoryDemandMb();
   }
 
   private void initializeContainerTypeIfAbsent(final String containerType) {
@@ -210,6 +289,8 @@ public final class RoundRobinSchedulingPolicy implements SchedulingPolicy {
         nextExecutorIndexByContainerType.put(containerType, 0);
       }
       executorIdList.remove(executorId);
+      // The data pinned on the removed executor is lost, so the next task groups are pinned anew.
+      colocationKeyToExecutorId.values().removeIf(executorId::equals);
 
       updateCachedExecutorRepresenterMap();
 
@@ -224,6 +305,18 @@ public final class RoundRobinSchedulingPolicy implements SchedulingPolicy {
     executorRepresenterMap.putAll(containerManager.getExecutorRepresenterMap());
   }
 
+  @Override
+  public void onJobFinished(final String jobId) {
+    lock.lock();
+    try {
+      // The following jobs on the same executors must not be pinned by the task groups of this job.
+      final String jobPrefix = getColocationKeyPrefix(jobId);
+      colocationKeyToExecutorId.keySet().removeIf(colocationKey -> colocationKey.startsWith(jobPrefix));
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public void onTaskGroupScheduled(final String executorId, final ScheduledTaskGroup scheduledTaskGroup) {
     lock.lock();
@@ -232,6 +325,8 @@ public final class RoundRobinSchedulingPolicy implements SchedulingPolicy {
       LOG.info("Scheduling {} to {}",
           new Object[]{scheduledTaskGroup.getTaskGroup().getTaskGroupId(), executorId});
       executor.onTaskGroupScheduled(scheduledTaskGroup);
+      getColocationKey(scheduledTaskGroup).ifPresent(colocationKey ->
+          colocationKeyToExecutorId.putIfAbsent(colocationKey, executorId));
     } finally {
       lock.unlock();
     }
@@ -274,4 +369,62 @@ public final class RoundRobinSchedulingPolicy implements SchedulingPolicy {
       lock.unlock();
     }
   }
+
+  @Override
+  public void onTaskGroupStealRequested(final String thiefExecutorId) {
+    lock.lock();
+    try {
+      final ExecutorRepresenter thief = executorRepresenterMap.get(thiefExecutorId);
+      if (thief == null || thief.getRemainingCores() < CORE_DEMAND_EPSILON) {
+        return;
+      }
+
+      // The victim is the executor of the same container type with the most task groups waiting for its cores.
+      final Optional<ExecutorRepresenter> victim = executorIdByContainerType.get(thief.getContainerType()).stream()
+          .filter(executorId -> !executorId.equals(thiefExecutorId))
+          .map(executorRepresenterMap::get)
+          .filter(executor -> executor.getRemainingCores() < -CORE_DEMAND_EPSILON)
+          .min(Comparator.comparingDouble(ExecutorRepresenter::getRemainingCores));
+      if (victim.isPresent()) {
+        LOG.info("{} requests {} to yield a task group", new Object[]{thiefExecutorId, victim.get().getExecutorId()});
+        victim.get().sendControlMessage(ControlMessage.Message.newBuilder()
+            .setId(RuntimeIdGenerator.generateMessageId())
+            .setListenerId(MessageEnvironment.EXECUTOR_MESSAGE_LISTENER_ID)
+            .setType(ControlMessage.MessageType.YieldPendingTaskGroup)
+            .setYieldPendingTaskGroupMsg(ControlMessage.YieldPendingTaskGroupMsg.newBuilder()
+                .setThiefExecutorId(thiefExecutorId)
+                .build())
+            .build());
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void onTaskGroupYielded(final String executorId, final String thiefExecutorId, final String taskGroupId) {
+    lock.lock();
+    try {
+      final ExecutorRepresenter executor = executorRepresenterMap.get(executorId);
+      if (executor == null) {
+        return; // The executor has been removed, and its task groups are rescheduled.
+      }
+      final ScheduledTaskGroup scheduledTaskGroup = executor.onTaskGroupYielded(taskGroupId);
+      if (scheduledTaskGroup == null) {
+        return;
+      }
+
+      final ExecutorRepresenter thief = executorRepresenterMap.get(thiefExecutorId);
+      if (thief != null && canHost(thief, scheduledTaskGroup.getTaskGroup())) {
+        LOG.info("{} stolen from {} by {}", new Object[]{taskGroupId, executorId, thiefExecutorId});
+        thief.onTaskGroupScheduled(scheduledTaskGroup);
+      } else {
+        // The thief is gone or busy again, so the task group goes back to where it was.
+        executor.onTaskGroupScheduled(scheduledTaskGroup);
+      }
+      signalPossiblyWaitingScheduler(executor.getContainerType());
+    } finally {
+      lock.unlock();
+    }
+  }
 }
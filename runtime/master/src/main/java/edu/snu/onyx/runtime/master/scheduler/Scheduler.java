@@ -40,6 +40,18 @@ public interface Scheduler {
   void scheduleJob(PhysicalPlan physicalPlan,
                    JobStateManager jobStateManager);
 
+  /**
+   * Schedules the given job with a share of the executors, among the jobs being executed at the same time.
+   * @param physicalPlan of the job being submitted.
+   * @param jobStateManager to manage the states of the submitted job.
+   * @param weight the relative share of the executor slots of the job.
+   * @param priority the priority of the job. The jobs with higher priority are served first.
+   */
+  void scheduleJob(PhysicalPlan physicalPlan,
+                   JobStateManager jobStateManager,
+                   int weight,
+                   int priority);
+
   /**
    * Receives and updates the scheduler with a new physical plan for a job.
    * @param jobId the ID of the job to change the physical plan.
@@ -78,6 +90,28 @@ public interface Scheduler {
                                List<String> tasksPutOnHold,
                                TaskGroupState.RecoverableFailureCause failureCause);
 
+  /**
+   * Called when an idle executor requests a TaskGroup to steal from the executors with a backlog.
+   * @param thiefExecutorId of the idle executor.
+   */
+  void onTaskGroupStealRequested(String thiefExecutorId);
+
+  /**
+   * Called when an executor yields a TaskGroup that has not yet started, to be moved to an idle executor.
+   * @param executorId of the executor that yielded the TaskGroup.
+   * @param thiefExecutorId of the idle executor.
+   * @param taskGroupId of the TaskGroup.
+   */
+  void onTaskGroupYielded(String executorId, String thiefExecutorId, String taskGroupId);
+
+  /**
+   * Called when an executor reports the sizes of the partitions of a block it has written,
+   * which is not collected by a {@link edu.snu.onyx.common.ir.vertex.MetricCollectionBarrierVertex}.
+   * @param blockId of the block.
+   * @param partitionSizes the sizes of the partitions of the block, in bytes.
+   */
+  void onBlockSizeReported(String blockId, List<Long> partitionSizes);
+
   /**
    * To be called when a job should be terminated.
    * Any clean up code should be implemented in this method.
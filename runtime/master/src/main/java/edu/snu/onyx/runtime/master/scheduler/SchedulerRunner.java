@@ -22,6 +22,7 @@ import edu.snu.onyx.runtime.master.JobStateManager;
 import org.apache.reef.annotations.audience.DriverSide;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -46,7 +47,7 @@ public final class SchedulerRunner {
   @Inject
   public SchedulerRunner(final SchedulingPolicy schedulingPolicy,
                          final PendingTaskGroupQueue pendingTaskGroupQueue) {
-    this.jobStateManagers = new HashMap<>();
+    this.jobStateManagers = new ConcurrentHashMap<>();
     this.pendingTaskGroupQueue = pendingTaskGroupQueue;
     this.schedulingPolicy = schedulingPolicy;
     this.schedulerThread = Executors.newSingleThreadExecutor();
@@ -66,6 +67,15 @@ public final class SchedulerRunner {
     } // else ignore new incoming jobs when terminated.
   }
 
+  /**
+   * Forgets a finished job, and lets the scheduling policy release what it keeps for the job.
+   * @param jobStateManager of the finished job.
+   */
+  public synchronized void onJobFinished(final JobStateManager jobStateManager) {
+    jobStateManagers.remove(jobStateManager.getJobId());
+    schedulingPolicy.onJobFinished(jobStateManager.getJobId());
+  }
+
   public synchronized void terminate() {
     isTerminated = true;
   }
@@ -64,6 +64,13 @@ public interface SchedulingPolicy {
    */
   Set<String> onExecutorRemoved(String executorId);
 
+  /**
+   * Releases what is kept for a finished job, such as the executors its task groups are pinned to.
+   *
+   * @param jobId of the finished job.
+   */
+  void onJobFinished(String jobId);
+
   /**
    * Marks the executorId scheduled for the taskGroup.
    * Locks this policy from scheduling if there is no more executor currently available for the next taskGroup.
@@ -93,4 +100,22 @@ public interface SchedulingPolicy {
    * @param taskGroupId whose execution has completed.
    */
   void onTaskGroupExecutionFailed(String executorId, String taskGroupId);
+
+  /**
+   * Called when an idle executor requests a task group to steal.
+   * Asks the most backlogged executor of the same resource type to yield one of its task groups not yet started.
+   *
+   * @param thiefExecutorId of the idle executor.
+   */
+  void onTaskGroupStealRequested(String thiefExecutorId);
+
+  /**
+   * Moves a task group yielded by a backlogged executor to the idle executor that requested it.
+   * (Depending on the executor's resource type)
+   *
+   * @param executorId of the executor that yielded the taskGroup.
+   * @param thiefExecutorId of the executor to move the taskGroup to.
+   * @param taskGroupId of the yielded taskGroup.
+   */
+  void onTaskGroupYielded(String executorId, String thiefExecutorId, String taskGroupId);
 }
@@ -35,6 +35,8 @@ import java.util.function.BiFunction;
  * Stages that are mutually independent alternate turns in scheduling each of their TaskGroups.
  * This PQ assumes that stages/task groups of higher priorities are never enqueued without first removing
  * those of lower priorities (which is how Scheduler behaves) for simplicity.
+ * The priorities only apply among the stages of the same ScheduleGroup, so that the TaskGroups of an upstream
+ * ScheduleGroup re-enqueued for failure recovery are not held back by the downstream ones scheduled by slow start.
  */
 @ThreadSafe
 @DriverSide
@@ -87,7 +89,6 @@ public final class SingleJobTaskGroupQueue implements PendingTaskGroupQueue {
    */
   @Override
   public Optional<ScheduledTaskGroup> dequeue() {
-    ScheduledTaskGroup taskGroupToSchedule = null;
     final String stageId;
     try {
       stageId = schedulableStages.takeFirst();
@@ -96,6 +97,25 @@ public final class SingleJobTaskGroupQueue implements PendingTaskGroupQueue {
       throw new SchedulingException(new Throwable("An exception occurred while trying to dequeue the next TaskGroup"));
     }
 
+    return dequeueFromStage(stageId);
+  }
+
+  /**
+   * Dequeues the next TaskGroup to be scheduled without waiting for a stage to become schedulable.
+   * @return the next TaskGroup to be scheduled, or an empty optional if there is no schedulable stage at the moment.
+   */
+  Optional<ScheduledTaskGroup> poll() {
+    final String stageId = schedulableStages.pollFirst();
+    return (stageId == null) ? Optional.empty() : dequeueFromStage(stageId);
+  }
+
+  /**
+   * Dequeues a TaskGroup of the given schedulable stage.
+   * @param stageId the schedulable stage taken from the head of {@link #schedulableStages}.
+   * @return the TaskGroup of the stage, or an empty optional if the stage has no pending TaskGroup.
+   */
+  private Optional<ScheduledTaskGroup> dequeueFromStage(final String stageId) {
+    ScheduledTaskGroup taskGroupToSchedule = null;
     synchronized (stageIdToPendingTaskGroups) {
       final Deque<ScheduledTaskGroup> pendingTaskGroupsForStage = stageIdToPendingTaskGroups.get(stageId);
 
@@ -128,6 +148,15 @@ public final class SingleJobTaskGroupQueue implements PendingTaskGroupQueue {
     }
   }
 
+  /**
+   * @param stageId of the stage.
+   * @return whether the plan of the job has the stage.
+   */
+  boolean hasStage(final String stageId) {
+    return physicalPlan != null
+        && physicalPlan.getStageDAG().getVertices().stream().anyMatch(stage -> stage.getId().equals(stageId));
+  }
+
   /**
    * Recursively removes a stage and its children stages from this PQ.
    * @param stageId for the stage to begin the removal recursively.
@@ -154,8 +183,10 @@ public final class SingleJobTaskGroupQueue implements PendingTaskGroupQueue {
 
     if (isSchedulable(candidateStageId, candidateStageContainerType)) {
       // Check for ancestor stages that became schedulable due to candidateStage's absence from the queue.
+      final int candidateScheduleGroupIndex = jobDAG.getVertexById(candidateStageId).getScheduleGroupIndex();
       jobDAG.getAncestors(candidateStageId).forEach(ancestorStage -> {
-        if (schedulableStages.contains(ancestorStage.getId())) {
+        if (schedulableStages.contains(ancestorStage.getId())
+            && ancestorStage.getScheduleGroupIndex() == candidateScheduleGroupIndex) {
           // Remove the ancestor stage if it is of the same container type.
           if (candidateStageContainerType.equals(ancestorStage.getTaskGroupList().get(0).getContainerType())) {
             schedulableStages.remove(ancestorStage.getId());
@@ -176,8 +207,10 @@ public final class SingleJobTaskGroupQueue implements PendingTaskGroupQueue {
    */
   private boolean isSchedulable(final String candidateStageId, final String candidateStageContainerType) {
     final DAG<PhysicalStage, PhysicalStageEdge> jobDAG = physicalPlan.getStageDAG();
+    final int candidateScheduleGroupIndex = jobDAG.getVertexById(candidateStageId).getScheduleGroupIndex();
     for (final PhysicalStage descendantStage : jobDAG.getDescendants(candidateStageId)) {
-      if (schedulableStages.contains(descendantStage.getId())) {
+      if (schedulableStages.contains(descendantStage.getId())
+          && descendantStage.getScheduleGroupIndex() == candidateScheduleGroupIndex) {
         if (candidateStageContainerType.equals(descendantStage.getTaskGroupList().get(0).getContainerType())) {
           return false;
         }
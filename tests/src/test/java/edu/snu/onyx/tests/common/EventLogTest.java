@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.common;
+
+import edu.snu.onyx.common.EventLog;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link EventLog}.
+ */
+public final class EventLogTest {
+  private static final int NUM_APPENDING_THREADS = 4;
+
+  /**
+   * Every event appended before the log is closed is written, even when it is appended while closing.
+   */
+  @Test(timeout = 10000)
+  public void testAppendWhileClosing() throws Exception {
+    final File directory = Files.createTempDirectory("events").toFile();
+    final ExecutorService appendingThreads = Executors.newFixedThreadPool(NUM_APPENDING_THREADS);
+    try {
+      final EventLog eventLog = EventLog.open(directory.getPath(), "closing");
+      assertTrue(eventLog.isEnabled());
+      final CountDownLatch appendStarted = new CountDownLatch(NUM_APPENDING_THREADS);
+      final List<Future<Integer>> numAppendedEvents = new ArrayList<>(NUM_APPENDING_THREADS);
+      for (int i = 0; i < NUM_APPENDING_THREADS; i++) {
+        final int threadIdx = i;
+        numAppendedEvents.add(appendingThreads.submit(() -> {
+          appendStarted.countDown();
+          int numAppended = 0;
+          while (eventLog.append(() -> "{\"thread\": " + threadIdx + "}")) {
+            numAppended++;
+          }
+          return numAppended;
+        }));
+      }
+      appendStarted.await();
+      eventLog.close();
+
+      int totalAppended = 0;
+      for (final Future<Integer> numAppended : numAppendedEvents) {
+        totalAppended += numAppended.get();
+      }
+      assertFalse(eventLog.append(() -> "{}"));
+      final File eventLogFile = new File(directory, "closing.jsonl");
+      assertEquals(totalAppended, Files.readAllLines(eventLogFile.toPath()).size());
+      eventLogFile.delete();
+    } finally {
+      appendingThreads.shutdownNow();
+      appendingThreads.awaitTermination(1, TimeUnit.SECONDS);
+      directory.delete();
+    }
+  }
+
+  /**
+   * The events of a log opened without a directory are discarded.
+   */
+  @Test
+  public void testDisabled() {
+    final EventLog eventLog = EventLog.open("", "disabled");
+    assertFalse(eventLog.isEnabled());
+    assertFalse(eventLog.append(() -> "{}"));
+    eventLog.close();
+  }
+}
@@ -24,6 +24,7 @@ import edu.snu.onyx.examples.beam.*;
 import edu.snu.onyx.common.dag.DAG;
 import edu.snu.onyx.tests.examples.beam.AlternatingLeastSquareITCase;
 import edu.snu.onyx.tests.examples.beam.ArgBuilder;
+import edu.snu.onyx.tests.examples.beam.JoinITCase;
 import edu.snu.onyx.tests.examples.beam.MapReduceITCase;
 import edu.snu.onyx.tests.examples.beam.MultinomialLogisticRegressionITCase;
 import org.apache.reef.tang.Configuration;
@@ -44,6 +45,14 @@ public final class CompilerTestUtil {
   public static final String disaggPolicy = DisaggregationPolicy.class.getCanonicalName();
   public static final String defaultPolicy = DefaultPolicy.class.getCanonicalName();
   public static final String dataSkewPolicy = DataSkewPolicy.class.getCanonicalName();
+  public static final String partitionCoalescingPolicy = PartitionCoalescingPolicy.class.getCanonicalName();
+  public static final String costBasedParallelismPolicy = CostBasedParallelismPolicy.class.getCanonicalName();
+  public static final String hotKeySplittingPolicy = HotKeySplittingPolicy.class.getCanonicalName();
+  public static final String broadcastJoinPolicy = BroadcastJoinPolicy.class.getCanonicalName();
+  public static final String peerToPeerBroadcastPolicy = PeerToPeerBroadcastPolicy.class.getCanonicalName();
+  public static final String loopInvariantPinningPolicy = LoopInvariantPinningPolicy.class.getCanonicalName();
+  public static final String dynamicLoopPolicy = DynamicLoopPolicy.class.getCanonicalName();
+  public static final String sideInputBroadcastPolicy = SideInputBroadcastPolicy.class.getCanonicalName();
 
   private static DAG<IRVertex, IREdge> compileDAG(final String[] args) throws Exception {
     final String userMainClassName;
@@ -92,6 +101,11 @@ public final class CompilerTestUtil {
     return compileDAG(alsArgBuilder.build());
   }
 
+  public static DAG<IRVertex, IREdge> compileJoinDAG() throws Exception {
+    final ArgBuilder joinArgBuilder = JoinITCase.builder;
+    return compileDAG(joinArgBuilder.build());
+  }
+
   public static DAG<IRVertex, IREdge> compileMLRDAG() throws Exception {
     final ArgBuilder mlrArgBuilder = MultinomialLogisticRegressionITCase.builder;
     return compileDAG(mlrArgBuilder.build());
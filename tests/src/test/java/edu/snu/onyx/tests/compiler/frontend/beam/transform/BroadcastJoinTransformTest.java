@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.compiler.frontend.beam.transform;
+
+import edu.snu.onyx.common.ContextImpl;
+import edu.snu.onyx.common.ir.OutputCollector;
+import edu.snu.onyx.common.ir.vertex.transform.CollectTransform;
+import edu.snu.onyx.compiler.frontend.beam.transform.BroadcastJoinTransform;
+import org.apache.beam.sdk.values.KV;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests {@link BroadcastJoinTransform}.
+ */
+public final class BroadcastJoinTransformTest {
+  private static final int PARALLELISM = 2;
+
+  /**
+   * Tests that the join tasks emit each key once with all of its values, as a GroupByKey does,
+   * including the keys that only appear in the broadcast input.
+   */
+  @Test
+  public void testJoinEmitsEachKeyOnce() {
+    final List<KV<Object, Object>> mainInput = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      mainInput.add(KV.of("key" + (i % 5), "main" + i));
+    }
+    final List<KV<Object, Object>> broadcastInput = Arrays.asList(
+        KV.of("key0", "broadcast0"), KV.of("key3", "broadcast3"), KV.of("onlyBroadcast", "broadcast"));
+
+    final Map<Object, List<Object>> expectedGroups = new HashMap<>();
+    mainInput.forEach(kv -> expectedGroups.computeIfAbsent(kv.getKey(), key -> new ArrayList<>()).add(kv.getValue()));
+    broadcastInput.forEach(kv ->
+        expectedGroups.computeIfAbsent(kv.getKey(), key -> new ArrayList<>()).add(kv.getValue()));
+
+    final Map<Object, List<Object>> joinedGroups = new HashMap<>();
+    for (int taskIndex = 0; taskIndex < PARALLELISM; taskIndex++) {
+      // The main input is hash-partitioned by key into the join tasks.
+      final int index = taskIndex;
+      final List<KV<Object, Object>> partition = new ArrayList<>();
+      mainInput.stream().filter(kv -> Math.abs(kv.getKey().hashCode() % PARALLELISM) == index)
+          .forEach(partition::add);
+
+      final List<KV<Object, List>> outputs = new ArrayList<>();
+      final BroadcastJoinTransform joinTransform = new BroadcastJoinTransform();
+      joinTransform.prepare(new ContextImpl(Collections.singletonMap(new CollectTransform(), broadcastInput),
+          taskIndex, PARALLELISM), new ListOutputCollector<>(outputs));
+      joinTransform.onData(partition, "main");
+      joinTransform.close();
+
+      outputs.forEach(kv -> assertNull(joinedGroups.put(kv.getKey(), new ArrayList<>(kv.getValue()))));
+    }
+
+    assertEquals(expectedGroups.keySet(), joinedGroups.keySet());
+    expectedGroups.forEach((key, values) -> {
+      final List<Object> joinedValues = joinedGroups.get(key);
+      values.sort(Comparator.comparing(Object::toString));
+      joinedValues.sort(Comparator.comparing(Object::toString));
+      assertEquals(values, joinedValues);
+    });
+  }
+
+  /**
+   * An output collector adding the outputs to a list.
+   * @param <O> output type.
+   */
+  private static final class ListOutputCollector<O> implements OutputCollector<O> {
+    private final List<O> outputs;
+
+    /**
+     * Constructor.
+     * @param outputs the list to add the outputs to.
+     */
+    private ListOutputCollector(final List<O> outputs) {
+      this.outputs = outputs;
+    }
+
+    @Override
+    public void emit(final O output) {
+      outputs.add(output);
+    }
+
+    @Override
+    public void emit(final String dstVertexId, final Object output) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.compiler.optimizer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.compiler.optimizer.CompiletimeOptimizer;
+import edu.snu.onyx.tests.compiler.CompilerTestUtil;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests {@link CompiletimeOptimizer}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(JobLauncher.class)
+public final class CompiletimeOptimizerTest {
+  /**
+   * This test ensures that the changes made by each pass are logged.
+   */
+  @Test
+  public void testPassLog() throws Exception {
+    final DAG<IRVertex, IREdge> compiledDAG = CompilerTestUtil.compileALSDAG();
+    final File directory = Files.createTempDirectory("passes").toFile();
+    final DAG<IRVertex, IREdge> processedDAG = CompiletimeOptimizer.optimize(compiledDAG,
+        new TestPolicy(), directory.getPath());
+    final File passLogFile = new File(directory, "ir-passes.jsonl");
+    final List<String> lines = Files.readAllLines(passLogFile.toPath());
+    passLogFile.delete();
+    directory.delete();
+
+    // One event per pass of the policy.
+    assertEquals(2, lines.size());
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final JsonNode scheduleGroupPassApplied = objectMapper.readTree(lines.get(1));
+    assertEquals("ScheduleGroupPass", scheduleGroupPassApplied.get("pass").asText());
+    assertEquals(0, scheduleGroupPassApplied.get("addedVertices").size());
+    assertEquals(0, scheduleGroupPassApplied.get("removed").size());
+    final JsonNode changedProperties = scheduleGroupPassApplied.get("changedProperties");
+    for (final IRVertex irVertex : processedDAG.getVertices()) {
+      final Integer scheduleGroupIndex = irVertex.getProperty(ExecutionProperty.Key.ScheduleGroupIndex);
+      assertEquals(String.valueOf(scheduleGroupIndex),
+          changedProperties.get(irVertex.getId()).get(ExecutionProperty.Key.ScheduleGroupIndex.name()).asText());
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.AnnotatingPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.CoreDemandPass;
+import edu.snu.onyx.tests.compiler.CompilerTestUtil;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test {@link CoreDemandPass}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(JobLauncher.class)
+public final class CoreDemandPassTest {
+  private static final double LIGHT_CORE_DEMAND = 0.25;
+
+  @Test
+  public void testAnnotatingPass() {
+    final AnnotatingPass coreDemandPass = new CoreDemandPass();
+    assertEquals(ExecutionProperty.Key.CoreDemand, coreDemandPass.getExecutionPropertyToModify());
+  }
+
+  /**
+   * The vertices receiving shuffled or broadcast data take a whole core, and the others the given fraction of a core.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testCoreDemand() throws Exception {
+    final DAG<IRVertex, IREdge> processedDAG =
+        new CoreDemandPass(LIGHT_CORE_DEMAND).apply(CompilerTestUtil.compileMRDAG());
+
+    processedDAG.topologicalDo(irVertex -> {
+      final boolean isLight = processedDAG.getIncomingEdgesOf(irVertex).stream()
+          .allMatch(edge -> DataCommunicationPatternProperty.Value.OneToOne
+              .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)));
+      assertEquals(isLight ? LIGHT_CORE_DEMAND : CoreDemandPass.HEAVY_CORE_DEMAND,
+          irVertex.<Double>getProperty(ExecutionProperty.Key.CoreDemand), 0);
+    });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLightCoreDemand() {
+    new CoreDemandPass(2 * CoreDemandPass.HEAVY_CORE_DEMAND);
+  }
+}
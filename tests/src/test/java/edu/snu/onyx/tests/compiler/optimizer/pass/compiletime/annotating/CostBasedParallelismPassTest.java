@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.edge.executionproperty.SelectivityProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.SourceVertex;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.AnnotatingPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.CostBasedParallelismPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.DefaultParallelismPass;
+import edu.snu.onyx.tests.compiler.CompilerTestUtil;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link CostBasedParallelismPass}, in comparison with {@link DefaultParallelismPass}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(JobLauncher.class)
+public final class CostBasedParallelismPassTest {
+  private static final int MAX_PARALLELISM = 4;
+
+  @Test
+  public void testAnnotatingPass() {
+    final AnnotatingPass parallelismPass = new CostBasedParallelismPass();
+    assertEquals(ExecutionProperty.Key.Parallelism, parallelismPass.getExecutionPropertyToModify());
+  }
+
+  /**
+   * The sample inputs are much smaller than the default target bytes per task, so a single task is enough.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testSmallInput() throws Exception {
+    final DAG<IRVertex, IREdge> processedDAG = new CostBasedParallelismPass().apply(CompilerTestUtil.compileMRDAG());
+
+    processedDAG.getTopologicalSort().forEach(irVertex ->
+        assertEquals(1, irVertex.<Integer>getProperty(ExecutionProperty.Key.Parallelism).longValue()));
+  }
+
+  /**
+   * With a tiny target, the vertices receiving shuffled data are sized by their input,
+   * while the default pass only propagates the source parallelism.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testShuffleParallelism() throws Exception {
+    final DAG<IRVertex, IREdge> compiledDAG = CompilerTestUtil.compileMRDAG();
+    final Map<String, Integer> defaultParallelism = new HashMap<>();
+    new DefaultParallelismPass().apply(compiledDAG).topologicalDo(irVertex ->
+        defaultParallelism.put(irVertex.getId(), irVertex.getProperty(ExecutionProperty.Key.Parallelism)));
+
+    final DAG<IRVertex, IREdge> processedDAG = new CostBasedParallelismPass(1, MAX_PARALLELISM).apply(compiledDAG);
+    final List<IRVertex> resizedVertices = new ArrayList<>();
+    processedDAG.topologicalDo(irVertex -> {
+      final Integer parallelism = irVertex.getProperty(ExecutionProperty.Key.Parallelism);
+      assertTrue(parallelism <= MAX_PARALLELISM);
+      if (irVertex instanceof SourceVertex) {
+        assertTrue(parallelism >= defaultParallelism.get(irVertex.getId()));
+      } else if (isShuffleReceiver(processedDAG, irVertex)) {
+        if (parallelism > defaultParallelism.get(irVertex.getId())) {
+          resizedVertices.add(irVertex);
+        }
+      } else {
+        processedDAG.getIncomingEdgesOf(irVertex).stream()
+            .filter(edge -> DataCommunicationPatternProperty.Value.OneToOne
+                .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)))
+            .forEach(edge -> assertEquals(edge.getSrc().<Integer>getProperty(ExecutionProperty.Key.Parallelism), parallelism));
+      }
+    });
+    // The reducer of the words is re-sized, while the one of the empty side source keeps a single task.
+    assertEquals(1, resizedVertices.size());
+    assertEquals(MAX_PARALLELISM,
+        resizedVertices.get(0).<Integer>getProperty(ExecutionProperty.Key.Parallelism).intValue());
+  }
+
+  /**
+   * A selective edge shrinks the parallelism of the vertices downstream.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testSelectivity() throws Exception {
+    final DAG<IRVertex, IREdge> compiledDAG = CompilerTestUtil.compileMRDAG();
+    compiledDAG.getVertices().forEach(irVertex -> compiledDAG.getIncomingEdgesOf(irVertex)
+        .forEach(edge -> edge.setProperty(SelectivityProperty.of(0.0))));
+
+    final DAG<IRVertex, IREdge> processedDAG = new CostBasedParallelismPass(1, MAX_PARALLELISM).apply(compiledDAG);
+    processedDAG.getVertices().stream()
+        .filter(irVertex -> isShuffleReceiver(processedDAG, irVertex))
+        .forEach(irVertex ->
+            assertEquals(1, irVertex.<Integer>getProperty(ExecutionProperty.Key.Parallelism).longValue()));
+  }
+
+  private static boolean isShuffleReceiver(final DAG<IRVertex, IREdge> dag, final IRVertex irVertex) {
+    return !dag.getIncomingEdgesOf(irVertex).isEmpty() && dag.getIncomingEdgesOf(irVertex).stream()
+        .allMatch(edge -> DataCommunicationPatternProperty.Value.Shuffle
+            .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)));
+  }
+}
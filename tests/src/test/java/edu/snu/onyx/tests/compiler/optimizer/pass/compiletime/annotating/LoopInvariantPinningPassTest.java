@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataStoreProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.compiler.optimizer.CompiletimeOptimizer;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.LoopInvariantPinningPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.LoopExtractionPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.LoopOptimizations;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.LoopUnrollingPass;
+import edu.snu.onyx.compiler.optimizer.policy.LoopInvariantPinningPolicy;
+import edu.snu.onyx.tests.compiler.CompilerTestUtil;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link LoopInvariantPinningPass}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(JobLauncher.class)
+public class LoopInvariantPinningPassTest {
+  private static final int NUM_ITERATIONS = 3; // As in the ALS workload.
+  private DAG<IRVertex, IREdge> compiledDAG;
+
+  @Before
+  public void setUp() throws Exception {
+    compiledDAG = CompilerTestUtil.compileALSDAG();
+  }
+
+  private static boolean isOneToOne(final IREdge edge) {
+    return DataCommunicationPatternProperty.Value.OneToOne
+        .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+  }
+
+  private static boolean isColocated(final IREdge edge) {
+    final String srcColocationGroup = edge.getSrc().getProperty(ExecutionProperty.Key.ColocationGroup);
+    return srcColocationGroup != null
+        && srcColocationGroup.equals(edge.getDst().getProperty(ExecutionProperty.Key.ColocationGroup));
+  }
+
+  @Test
+  public void testColocationGroup() throws Exception {
+    final DAG<IRVertex, IREdge> groupedDAG = LoopOptimizations.getLoopInvariantCodeMotionPass()
+        .apply(new LoopExtractionPass().apply(compiledDAG));
+    final DAG<IRVertex, IREdge> unrolledDAG =
+        new LoopUnrollingPass().apply(new LoopInvariantPinningPass().apply(groupedDAG));
+
+    // Every iteration is in the colocation group.
+    final List<IRVertex> colocatedVertices = unrolledDAG.getVertices().stream()
+        .filter(irVertex -> irVertex.getProperty(ExecutionProperty.Key.ColocationGroup) != null)
+        .collect(Collectors.toList());
+    assertFalse(colocatedVertices.isEmpty());
+
+    // The loop-invariant data is produced in the group, and read one-to-one by every iteration.
+    assertTrue(colocatedVertices.stream().anyMatch(irVertex -> unrolledDAG.getOutgoingEdgesOf(irVertex).stream()
+        .filter(edge -> isOneToOne(edge) && isColocated(edge))
+        .count() == NUM_ITERATIONS));
+  }
+
+  @Test
+  public void testPinnedInMemory() throws Exception {
+    final DAG<IRVertex, IREdge> optimizedDAG =
+        CompiletimeOptimizer.optimize(compiledDAG, new LoopInvariantPinningPolicy(), "");
+
+    final List<IREdge> interStageColocatedEdges = optimizedDAG.getVertices().stream()
+        .flatMap(irVertex -> optimizedDAG.getIncomingEdgesOf(irVertex).stream())
+        .filter(edge -> isOneToOne(edge) && isColocated(edge))
+        .filter(edge -> !edge.getSrc().getProperty(ExecutionProperty.Key.StageId)
+            .equals(edge.getDst().getProperty(ExecutionProperty.Key.StageId)))
+        .collect(Collectors.toList());
+    assertTrue(interStageColocatedEdges.size() >= NUM_ITERATIONS);
+    interStageColocatedEdges.forEach(edge -> assertEquals(DataStoreProperty.Value.MemoryStore,
+        edge.getProperty(ExecutionProperty.Key.DataStore)));
+  }
+}
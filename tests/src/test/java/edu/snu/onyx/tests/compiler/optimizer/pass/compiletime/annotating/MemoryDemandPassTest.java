@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.edge.executionproperty.SelectivityProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.AnnotatingPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.CostBasedParallelismPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.MemoryDemandPass;
+import edu.snu.onyx.tests.compiler.CompilerTestUtil;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link MemoryDemandPass}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(JobLauncher.class)
+public final class MemoryDemandPassTest {
+  private static final int MAX_PARALLELISM = 4;
+
+  @Test
+  public void testAnnotatingPass() {
+    final AnnotatingPass memoryDemandPass = new MemoryDemandPass();
+    assertEquals(ExecutionProperty.Key.MemoryDemand, memoryDemandPass.getExecutionPropertyToModify());
+    assertTrue(memoryDemandPass.getPrerequisiteExecutionProperties().contains(ExecutionProperty.Key.Parallelism));
+  }
+
+  /**
+   * Only the tasks of the vertices receiving shuffled or broadcast data hold the data,
+   * which is less than a megabyte for the sample input.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testMemoryDemand() throws Exception {
+    final DAG<IRVertex, IREdge> processedDAG = new MemoryDemandPass()
+        .apply(new CostBasedParallelismPass(1, MAX_PARALLELISM).apply(CompilerTestUtil.compileMRDAG()));
+
+    final List<IRVertex> holdingVertices = new ArrayList<>();
+    processedDAG.topologicalDo(irVertex -> {
+      final int memoryDemandMb = irVertex.getProperty(ExecutionProperty.Key.MemoryDemand);
+      if (isOneToOneReceiver(processedDAG, irVertex)) {
+        assertEquals(0, memoryDemandMb);
+      } else {
+        assertTrue(memoryDemandMb <= 1);
+        if (memoryDemandMb > 0) {
+          holdingVertices.add(irVertex);
+        }
+      }
+    });
+    assertTrue(!holdingVertices.isEmpty());
+  }
+
+  /**
+   * No memory is needed if no data is estimated to flow.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testSelectivity() throws Exception {
+    final DAG<IRVertex, IREdge> compiledDAG = CompilerTestUtil.compileMRDAG();
+    compiledDAG.getVertices().forEach(irVertex -> compiledDAG.getIncomingEdgesOf(irVertex)
+        .forEach(edge -> edge.setProperty(SelectivityProperty.of(0.0))));
+
+    final DAG<IRVertex, IREdge> processedDAG =
+        new MemoryDemandPass().apply(new CostBasedParallelismPass(1, MAX_PARALLELISM).apply(compiledDAG));
+    processedDAG.getVertices().forEach(irVertex ->
+        assertEquals(0, irVertex.<Integer>getProperty(ExecutionProperty.Key.MemoryDemand).intValue()));
+  }
+
+  private static boolean isOneToOneReceiver(final DAG<IRVertex, IREdge> dag, final IRVertex irVertex) {
+    return dag.getIncomingEdgesOf(irVertex).stream()
+        .allMatch(edge -> DataCommunicationPatternProperty.Value.OneToOne
+            .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)));
+  }
+}
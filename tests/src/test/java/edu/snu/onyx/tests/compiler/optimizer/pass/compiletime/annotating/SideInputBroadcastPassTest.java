@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.compiler.optimizer.pass.compiletime.annotating;
+
+import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.dag.DAGBuilder;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.OperatorVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.ParallelismProperty;
+import edu.snu.onyx.common.ir.vertex.transform.Transform;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.AnnotatingPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.annotating.SideInputBroadcastPass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test {@link SideInputBroadcastPass}.
+ */
+public final class SideInputBroadcastPassTest {
+  @Test
+  public void testAnnotatingPass() {
+    final AnnotatingPass sideInputBroadcastPass = new SideInputBroadcastPass();
+    assertEquals(ExecutionProperty.Key.DataCommunicationPattern,
+        sideInputBroadcastPass.getExecutionPropertyToModify());
+  }
+
+  /**
+   * Only the one-to-one side input edges whose ends differ in parallelism are broadcast.
+   */
+  @Test
+  public void testSideInputBroadcast() {
+    final Transform t = mock(Transform.class);
+    final IRVertex mainInput = newVertex(t, 2);
+    final IRVertex narrowSideInput = newVertex(t, 1);
+    final IRVertex parallelSideInput = newVertex(t, 2);
+    final IRVertex reader = newVertex(t, 2);
+
+    final IREdge mainEdge =
+        new IREdge(DataCommunicationPatternProperty.Value.OneToOne, mainInput, reader, Coder.DUMMY_CODER);
+    final IREdge narrowSideInputEdge =
+        new IREdge(DataCommunicationPatternProperty.Value.OneToOne, narrowSideInput, reader, Coder.DUMMY_CODER, true);
+    final IREdge parallelSideInputEdge =
+        new IREdge(DataCommunicationPatternProperty.Value.OneToOne, parallelSideInput, reader, Coder.DUMMY_CODER, true);
+    final DAG<IRVertex, IREdge> dag = new DAGBuilder<IRVertex, IREdge>()
+        .addVertex(mainInput).addVertex(narrowSideInput).addVertex(parallelSideInput).addVertex(reader)
+        .connectVertices(mainEdge).connectVertices(narrowSideInputEdge).connectVertices(parallelSideInputEdge)
+        .buildWithoutSourceSinkCheck();
+
+    new SideInputBroadcastPass().apply(dag);
+
+    assertEquals(DataCommunicationPatternProperty.Value.OneToOne,
+        mainEdge.getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+    assertEquals(DataCommunicationPatternProperty.Value.BroadCast,
+        narrowSideInputEdge.getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+    assertEquals(DataCommunicationPatternProperty.Value.OneToOne,
+        parallelSideInputEdge.getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+  }
+
+  private static IRVertex newVertex(final Transform transform, final int parallelism) {
+    final IRVertex vertex = new OperatorVertex(transform);
+    vertex.setProperty(ParallelismProperty.of(parallelism));
+    return vertex;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.compiler.optimizer.pass.compiletime.reshaping;
+
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.common.coder.ListCoder;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.edge.executionproperty.PartitionerProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.OperatorVertex;
+import edu.snu.onyx.common.ir.vertex.transform.CollectTransform;
+import edu.snu.onyx.compiler.frontend.beam.transform.BroadcastJoinTransform;
+import edu.snu.onyx.compiler.frontend.beam.transform.GroupByKeyTransform;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.BroadcastJoinReshapingPass;
+import edu.snu.onyx.tests.compiler.CompilerTestUtil;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link BroadcastJoinReshapingPass}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(JobLauncher.class)
+public class BroadcastJoinReshapingPassTest {
+  private DAG<IRVertex, IREdge> compiledDAG;
+
+  @Before
+  public void setUp() throws Exception {
+    compiledDAG = CompilerTestUtil.compileJoinDAG();
+  }
+
+  @Test
+  public void testBroadcastJoin() {
+    final List<IRVertex> groupVertices = compiledDAG.getVertices().stream()
+        .filter(v -> v.getProperty(ExecutionProperty.Key.BroadcastJoinTransform) != null)
+        .collect(Collectors.toList());
+    assertEquals(1, groupVertices.size());
+    final IRVertex groupByKey = groupVertices.get(0);
+    final IREdge shuffleEdge = compiledDAG.getIncomingEdgesOf(groupByKey).get(0);
+    final IRVertex flatten = shuffleEdge.getSrc();
+    final List<IREdge> originalOutgoingEdges = compiledDAG.getOutgoingEdgesOf(groupByKey);
+
+    final DAG<IRVertex, IREdge> processedDAG = new BroadcastJoinReshapingPass().apply(compiledDAG);
+    // The flatten and the GroupByKey are replaced by the collect and the join vertices.
+    assertEquals(compiledDAG.getVertices().size(), processedDAG.getVertices().size());
+    assertFalse(processedDAG.getVertices().contains(groupByKey));
+    assertFalse(processedDAG.getVertices().contains(flatten));
+    assertTrue(processedDAG.getVertices().stream().noneMatch(v -> v instanceof OperatorVertex
+        && ((OperatorVertex) v).getTransform() instanceof GroupByKeyTransform));
+    // Only the largest input is shuffled.
+    assertEquals(1, processedDAG.getVertices().stream().mapToLong(v -> processedDAG.getIncomingEdgesOf(v).stream()
+        .filter(edge -> DataCommunicationPatternProperty.Value.Shuffle
+            .equals(edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern))).count()).sum());
+
+    final IRVertex joinVertex = processedDAG.filterVertices(v -> v instanceof OperatorVertex
+        && ((OperatorVertex) v).getTransform() instanceof BroadcastJoinTransform).get(0);
+    final List<IREdge> edgesToJoin = processedDAG.getIncomingEdgesOf(joinVertex);
+    assertEquals(2, edgesToJoin.size());
+    final IREdge sideInputEdge = edgesToJoin.stream().filter(IREdge::isSideInput).findFirst().get();
+    assertEquals(DataCommunicationPatternProperty.Value.OneToOne,
+        sideInputEdge.getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+    assertTrue(sideInputEdge.getCoder() instanceof ListCoder);
+    assertTrue(((OperatorVertex) sideInputEdge.getSrc()).getTransform() instanceof CollectTransform);
+    assertEquals(groupByKey.<Integer>getProperty(ExecutionProperty.Key.Parallelism),
+        joinVertex.getProperty(ExecutionProperty.Key.Parallelism));
+    assertEquals(joinVertex.<Integer>getProperty(ExecutionProperty.Key.Parallelism),
+        sideInputEdge.getSrc().getProperty(ExecutionProperty.Key.Parallelism));
+    processedDAG.getIncomingEdgesOf(sideInputEdge.getSrc()).forEach(edge -> assertEquals(
+        DataCommunicationPatternProperty.Value.BroadCast,
+        edge.getProperty(ExecutionProperty.Key.DataCommunicationPattern)));
+    // The largest input is hash-partitioned by key into the join vertex, as it was into the GroupByKey.
+    final IREdge mainEdge = edgesToJoin.stream().filter(edge -> !edge.isSideInput()).findFirst().get();
+    assertEquals(DataCommunicationPatternProperty.Value.Shuffle,
+        mainEdge.getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+    assertEquals(PartitionerProperty.Value.HashPartitioner, mainEdge.getProperty(ExecutionProperty.Key.Partitioner));
+    assertEquals(shuffleEdge.<Object>getProperty(ExecutionProperty.Key.KeyExtractor),
+        mainEdge.getProperty(ExecutionProperty.Key.KeyExtractor));
+
+    // The join vertex takes over the outputs of the GroupByKey.
+    final List<IREdge> edgesFromJoin = processedDAG.getOutgoingEdgesOf(joinVertex);
+    assertEquals(originalOutgoingEdges.size(), edgesFromJoin.size());
+    assertEquals(originalOutgoingEdges.get(0).getDst(), edgesFromJoin.get(0).getDst());
+  }
+
+  @Test
+  public void testLargeInputsAreShuffled() {
+    final DAG<IRVertex, IREdge> processedDAG = new BroadcastJoinReshapingPass(0).apply(compiledDAG);
+    assertEquals(compiledDAG.getVertices().size(), processedDAG.getVertices().size());
+    assertTrue(processedDAG.getVertices().stream().noneMatch(v -> v instanceof OperatorVertex
+        && ((OperatorVertex) v).getTransform() instanceof BroadcastJoinTransform));
+  }
+
+  @Test
+  public void testInputsNotHashPartitionedAreShuffled() {
+    compiledDAG.getVertices().stream()
+        .filter(v -> v.getProperty(ExecutionProperty.Key.BroadcastJoinTransform) != null)
+        .forEach(v -> compiledDAG.getIncomingEdgesOf(v).forEach(edge ->
+            edge.setProperty(PartitionerProperty.of(PartitionerProperty.Value.DataSkewHashPartitioner))));
+    final DAG<IRVertex, IREdge> processedDAG = new BroadcastJoinReshapingPass().apply(compiledDAG);
+    assertTrue(processedDAG.getVertices().stream().noneMatch(v -> v instanceof OperatorVertex
+        && ((OperatorVertex) v).getTransform() instanceof BroadcastJoinTransform));
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.compiler.optimizer.pass.compiletime.reshaping;
+
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.LoopVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.LoopIterationProperty;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.DynamicLoopUnrollingPass;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.LoopExtractionPass;
+import edu.snu.onyx.tests.compiler.CompilerTestUtil;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link DynamicLoopUnrollingPass}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(JobLauncher.class)
+public class DynamicLoopUnrollingPassTest {
+  private DAG<IRVertex, IREdge> compiledDAG;
+
+  @Before
+  public void setUp() throws Exception {
+    compiledDAG = CompilerTestUtil.compileALSDAG();
+  }
+
+  @Test
+  public void testDynamicLoopUnrollingPass() throws Exception {
+    final DAG<IRVertex, IREdge> loopExtractedDAG = new LoopExtractionPass().apply(compiledDAG);
+    loopExtractedDAG.getVertices().stream()
+        .filter(vertex -> vertex instanceof LoopVertex)
+        .forEach(vertex -> ((LoopVertex) vertex).setConvergenceCondition(metric -> false));
+    final int loopBodySize = loopExtractedDAG.getVertices().stream()
+        .filter(vertex -> vertex instanceof LoopVertex)
+        .mapToInt(vertex -> ((LoopVertex) vertex).getDAG().getVertices().size())
+        .sum();
+    final int numOfVerticesOutOfLoop =
+        loopExtractedDAG.filterVertices(vertex -> !(vertex instanceof LoopVertex)).size();
+    final DAG<IRVertex, IREdge> processedDAG = new DynamicLoopUnrollingPass().apply(loopExtractedDAG);
+
+    // Only the first two of the three iterations are unrolled.
+    assertEquals(new HashSet<>(Arrays.asList(0, 1, 2)), processedDAG.getVertices().stream()
+        .map(DynamicLoopUnrollingPassTest::getIteration).collect(Collectors.toSet()));
+    final List<IRVertex> templateVertices = processedDAG.filterVertices(vertex -> getIteration(vertex) == 2);
+    assertEquals(templateVertices.size(), processedDAG.filterVertices(vertex -> getIteration(vertex) == 1).size());
+    assertEquals(loopBodySize, templateVertices.size());
+    assertEquals(numOfVerticesOutOfLoop + 2 * loopBodySize, processedDAG.getVertices().size());
+    templateVertices.forEach(vertex -> assertEquals(3, vertex.<LoopIterationProperty.Value>getProperty(
+        ExecutionProperty.Key.LoopIteration).getMaxNumberOfIterations()));
+
+    // The second iteration reads from the first one, and the second one does not lead out of the loop.
+    final List<IREdge> edges = processedDAG.getVertices().stream()
+        .flatMap(vertex -> processedDAG.getOutgoingEdgesOf(vertex).stream())
+        .collect(Collectors.toList());
+    assertTrue(edges.stream().anyMatch(edge -> getIteration(edge.getSrc()) == 1 && getIteration(edge.getDst()) == 2));
+    edges.stream().filter(edge -> getIteration(edge.getDst()) == 0)
+        .forEach(edge -> assertNotEquals(2, getIteration(edge.getSrc())));
+  }
+
+  /**
+   * A loop without a convergence condition always runs all of its iterations, so it is unrolled at compile time.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testLoopWithoutConvergenceConditionIsFullyUnrolled() throws Exception {
+    final DAG<IRVertex, IREdge> loopExtractedDAG = new LoopExtractionPass().apply(compiledDAG);
+    final int loopBodySize = loopExtractedDAG.getVertices().stream()
+        .filter(vertex -> vertex instanceof LoopVertex)
+        .mapToInt(vertex -> ((LoopVertex) vertex).getDAG().getVertices().size())
+        .sum();
+    final int numOfVerticesOutOfLoop =
+        loopExtractedDAG.filterVertices(vertex -> !(vertex instanceof LoopVertex)).size();
+    final DAG<IRVertex, IREdge> processedDAG = new DynamicLoopUnrollingPass().apply(loopExtractedDAG);
+
+    assertTrue(processedDAG.getVertices().stream().allMatch(vertex -> getIteration(vertex) == 0));
+    assertEquals(numOfVerticesOutOfLoop + 3 * loopBodySize, processedDAG.getVertices().size());
+  }
+
+  private static int getIteration(final IRVertex vertex) {
+    final LoopIterationProperty.Value loopIteration = vertex.getProperty(ExecutionProperty.Key.LoopIteration);
+    return loopIteration == null ? 0 : loopIteration.getIteration();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.compiler.optimizer.pass.compiletime.reshaping;
+
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.OperatorVertex;
+import edu.snu.onyx.compiler.frontend.beam.transform.MergeGroupsTransform;
+import edu.snu.onyx.compiler.optimizer.pass.compiletime.reshaping.HotKeySplittingReshapingPass;
+import edu.snu.onyx.tests.compiler.CompilerTestUtil;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test {@link HotKeySplittingReshapingPass}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(JobLauncher.class)
+public class HotKeySplittingReshapingPassTest {
+  private DAG<IRVertex, IREdge> compiledDAG;
+
+  @Before
+  public void setUp() throws Exception {
+    compiledDAG = CompilerTestUtil.compileMRDAG();
+  }
+
+  @Test
+  public void testHotKeySplitting() {
+    final List<IRVertex> splittableVertices = compiledDAG.getVertices().stream()
+        .filter(v -> v.getProperty(ExecutionProperty.Key.MergeTransform) != null)
+        .collect(Collectors.toList());
+    assertEquals(1, splittableVertices.size());
+    final IRVertex groupByKey = splittableVertices.get(0);
+    final List<IREdge> originalOutgoingEdges = compiledDAG.getOutgoingEdgesOf(groupByKey);
+
+    final DAG<IRVertex, IREdge> processedDAG = new HotKeySplittingReshapingPass().apply(compiledDAG);
+    assertEquals(compiledDAG.getVertices().size() + 1, processedDAG.getVertices().size());
+
+    // The GroupByKey now shuffles its output by the key to the merge vertex.
+    final List<IREdge> edgesFromGroupByKey = processedDAG.getOutgoingEdgesOf(groupByKey);
+    assertEquals(1, edgesFromGroupByKey.size());
+    final IREdge edgeToMerge = edgesFromGroupByKey.get(0);
+    assertEquals(DataCommunicationPatternProperty.Value.Shuffle,
+        edgeToMerge.getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+    assertTrue(edgeToMerge.getProperty(ExecutionProperty.Key.KeyExtractor) != null);
+    final IRVertex mergeVertex = edgeToMerge.getDst();
+    assertTrue(((OperatorVertex) mergeVertex).getTransform() instanceof MergeGroupsTransform);
+
+    // The merge vertex takes over the outputs of the GroupByKey.
+    final List<IREdge> edgesFromMerge = processedDAG.getOutgoingEdgesOf(mergeVertex);
+    assertEquals(originalOutgoingEdges.size(), edgesFromMerge.size());
+    for (int i = 0; i < edgesFromMerge.size(); i++) {
+      assertEquals(originalOutgoingEdges.get(i).getDst(), edgesFromMerge.get(i).getDst());
+      assertEquals(originalOutgoingEdges.get(i).<DataCommunicationPatternProperty.Value>getProperty(
+          ExecutionProperty.Key.DataCommunicationPattern),
+          edgesFromMerge.get(i).getProperty(ExecutionProperty.Key.DataCommunicationPattern));
+    }
+  }
+}
@@ -32,6 +32,55 @@ public final class PolicyBuilderTest {
     assertEquals(1, dataSkewPolicy.getRuntimePasses().size());
   }
 
+  @Test
+  public void testPartitionCoalescingPolicy() {
+    final Policy partitionCoalescingPolicy = new PartitionCoalescingPolicy();
+    assertEquals(14, partitionCoalescingPolicy.getCompileTimePasses().size());
+    assertEquals(1, partitionCoalescingPolicy.getRuntimePasses().size());
+  }
+
+  @Test
+  public void testHotKeySplittingPolicy() {
+    final Policy hotKeySplittingPolicy = new HotKeySplittingPolicy();
+    assertEquals(15, hotKeySplittingPolicy.getCompileTimePasses().size());
+    assertEquals(1, hotKeySplittingPolicy.getRuntimePasses().size());
+  }
+
+  @Test
+  public void testBroadcastJoinPolicy() {
+    final Policy broadcastJoinPolicy = new BroadcastJoinPolicy();
+    assertEquals(10, broadcastJoinPolicy.getCompileTimePasses().size());
+    assertEquals(0, broadcastJoinPolicy.getRuntimePasses().size());
+  }
+
+  @Test
+  public void testPeerToPeerBroadcastPolicy() {
+    final Policy peerToPeerBroadcastPolicy = new PeerToPeerBroadcastPolicy();
+    assertEquals(13, peerToPeerBroadcastPolicy.getCompileTimePasses().size());
+    assertEquals(0, peerToPeerBroadcastPolicy.getRuntimePasses().size());
+  }
+
+  @Test
+  public void testLoopInvariantPinningPolicy() {
+    final Policy loopInvariantPinningPolicy = new LoopInvariantPinningPolicy();
+    assertEquals(10, loopInvariantPinningPolicy.getCompileTimePasses().size());
+    assertEquals(0, loopInvariantPinningPolicy.getRuntimePasses().size());
+  }
+
+  @Test
+  public void testDynamicLoopPolicy() {
+    final Policy dynamicLoopPolicy = new DynamicLoopPolicy();
+    assertEquals(11, dynamicLoopPolicy.getCompileTimePasses().size());
+    assertEquals(0, dynamicLoopPolicy.getRuntimePasses().size());
+  }
+
+  @Test
+  public void testSideInputBroadcastPolicy() {
+    final Policy sideInputBroadcastPolicy = new SideInputBroadcastPolicy();
+    assertEquals(6, sideInputBroadcastPolicy.getCompileTimePasses().size());
+    assertEquals(0, sideInputBroadcastPolicy.getRuntimePasses().size());
+  }
+
   @Test
   public void testShouldFailPolicy() {
     try {
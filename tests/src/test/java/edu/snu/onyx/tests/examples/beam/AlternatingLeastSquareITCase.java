@@ -61,4 +61,36 @@ public final class AlternatingLeastSquareITCase {
         .addOptimizationPolicy(CompilerTestUtil.padoPolicy)
         .build());
   }
+
+  @Test (timeout = TIMEOUT)
+  public void testPeerToPeerBroadcast() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(AlternatingLeastSquareITCase.class.getSimpleName() + "_peerToPeerBroadcast")
+        .addOptimizationPolicy(CompilerTestUtil.peerToPeerBroadcastPolicy)
+        .build());
+  }
+
+  @Test (timeout = TIMEOUT)
+  public void testLoopInvariantPinning() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(AlternatingLeastSquareITCase.class.getSimpleName() + "_loopInvariantPinning")
+        .addOptimizationPolicy(CompilerTestUtil.loopInvariantPinningPolicy)
+        .build());
+  }
+
+  @Test (timeout = TIMEOUT)
+  public void testDynamicLoop() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(AlternatingLeastSquareITCase.class.getSimpleName() + "_dynamicLoop")
+        .addOptimizationPolicy(CompilerTestUtil.dynamicLoopPolicy)
+        .build());
+  }
+
+  @Test (timeout = TIMEOUT)
+  public void testSideInputBroadcast() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(AlternatingLeastSquareITCase.class.getSimpleName() + "_sideInputBroadcast")
+        .addOptimizationPolicy(CompilerTestUtil.sideInputBroadcastPolicy)
+        .build());
+  }
 }
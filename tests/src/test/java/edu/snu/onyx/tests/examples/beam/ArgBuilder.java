@@ -51,6 +51,16 @@ public class ArgBuilder {
     return this;
   }
 
+  public ArgBuilder addDeployMode(final String deployMode) {
+    args.add(Arrays.asList("-deploy_mode", deployMode));
+    return this;
+  }
+
+  public ArgBuilder addReuseExecutors() {
+    args.add(Arrays.asList("-reuse_executors", "true"));
+    return this;
+  }
+
   public String[] build() {
     // new String[0] is good for performance
     // see http://stackoverflow.com/questions/4042434/converting-arrayliststring-to-string-in-java
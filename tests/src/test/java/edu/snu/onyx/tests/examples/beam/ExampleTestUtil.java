@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.examples.beam;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Utility methods to check the outputs of the example programs.
+ */
+public final class ExampleTestUtil {
+  /**
+   * Private constructor.
+   */
+  private ExampleTestUtil() {
+  }
+
+  /**
+   * Reads the lines of the output files written with the given prefix.
+   * @param outputPrefix the prefix of the output files.
+   * @return the lines of the output files, sorted.
+   * @throws IOException if failed to read the output files.
+   */
+  public static List<String> readOutput(final String outputPrefix) throws IOException {
+    final List<String> lines = new ArrayList<>();
+    for (final Path outputFile : getOutputFiles(outputPrefix)) {
+      lines.addAll(Files.readAllLines(outputFile));
+    }
+    Collections.sort(lines);
+    return lines;
+  }
+
+  /**
+   * Deletes the output files written with the given prefix.
+   * @param outputPrefix the prefix of the output files.
+   * @throws IOException if failed to delete the output files.
+   */
+  public static void deleteOutput(final String outputPrefix) throws IOException {
+    for (final Path outputFile : getOutputFiles(outputPrefix)) {
+      Files.delete(outputFile);
+    }
+  }
+
+  /**
+   * @param outputPrefix the prefix of the output files.
+   * @return the output files written with the given prefix.
+   * @throws IOException if failed to list the output files.
+   */
+  private static List<Path> getOutputFiles(final String outputPrefix) throws IOException {
+    final Path prefixPath = Paths.get(outputPrefix);
+    final List<Path> outputFiles = new ArrayList<>();
+    try (final DirectoryStream<Path> stream =
+             Files.newDirectoryStream(prefixPath.getParent(), prefixPath.getFileName() + "-*-of-*")) {
+      stream.forEach(outputFiles::add);
+    }
+    return outputFiles;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.examples.beam;
+
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.examples.beam.Join;
+import edu.snu.onyx.tests.compiler.CompilerTestUtil;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test Join program with JobLauncher.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(JobLauncher.class)
+public final class JoinITCase {
+  private static final int TIMEOUT = 60000;
+  private static final String scoreInput = CompilerTestUtil.rootDir + "/../examples/src/main/resources/sample_input_mr";
+  private static final String teamInput = CompilerTestUtil.rootDir + "/../examples/src/main/resources/sample_input_join";
+  private static final String output = CompilerTestUtil.rootDir + "/../examples/src/main/resources/sample_output";
+
+  public static ArgBuilder builder = new ArgBuilder()
+      .addJobId(JoinITCase.class.getSimpleName())
+      .addUserMain(Join.class.getCanonicalName())
+      .addUserArgs(scoreInput, teamInput, output);
+
+  @Before
+  public void setUp() throws Exception {
+    builder = new ArgBuilder()
+        .addUserMain(Join.class.getCanonicalName())
+        .addUserArgs(scoreInput, teamInput, output);
+  }
+
+  @Test (timeout = TIMEOUT)
+  public void test() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(JoinITCase.class.getSimpleName())
+        .addOptimizationPolicy(CompilerTestUtil.defaultPolicy)
+        .build());
+  }
+
+  /**
+   * Testing the broadcast join of the small input, against the join shuffling all of its inputs.
+   * The jobs run in a single JVM, where their outputs are finalized for the comparison.
+   * @throws Exception exception on the way.
+   */
+  @Test (timeout = TIMEOUT)
+  public void testBroadcastJoin() throws Exception {
+    final String shuffleOutput = output + "_shuffleJoin";
+    final String broadcastOutput = output + "_broadcastJoin";
+    try {
+      JobLauncher.main(new ArgBuilder()
+          .addJobId(JoinITCase.class.getSimpleName() + "_shuffleJoin")
+          .addUserMain(Join.class.getCanonicalName())
+          .addUserArgs(scoreInput, teamInput, shuffleOutput)
+          .addOptimizationPolicy(CompilerTestUtil.defaultPolicy)
+          .addDeployMode("inprocess")
+          .build());
+      JobLauncher.main(new ArgBuilder()
+          .addJobId(JoinITCase.class.getSimpleName() + "_broadcastJoin")
+          .addUserMain(Join.class.getCanonicalName())
+          .addUserArgs(scoreInput, teamInput, broadcastOutput)
+          .addOptimizationPolicy(CompilerTestUtil.broadcastJoinPolicy)
+          .addDeployMode("inprocess")
+          .build());
+
+      // The broadcast join outputs the same as the join shuffling all of its inputs.
+      final List<String> expectedOutput = getExpectedOutput();
+      assertEquals(expectedOutput, ExampleTestUtil.readOutput(shuffleOutput));
+      assertEquals(expectedOutput, ExampleTestUtil.readOutput(broadcastOutput));
+    } finally {
+      ExampleTestUtil.deleteOutput(shuffleOutput);
+      ExampleTestUtil.deleteOutput(broadcastOutput);
+    }
+  }
+
+  /**
+   * @return the sorted output lines expected from the Join program on the inputs.
+   * @throws IOException if failed to read the inputs.
+   */
+  private static List<String> getExpectedOutput() throws IOException {
+    final Map<String, Long> nameToTotalScore = new HashMap<>();
+    for (final String line : Files.readAllLines(Paths.get(scoreInput))) {
+      final String[] words = line.split(" +");
+      nameToTotalScore.merge(words[0], Long.parseLong(words[2]), Long::sum);
+    }
+    final List<String> expectedOutput = new ArrayList<>();
+    for (final String line : Files.readAllLines(Paths.get(teamInput))) {
+      final String[] words = line.split(" +");
+      expectedOutput.add(words[0] + " " + words[1] + " " + nameToTotalScore.getOrDefault(words[0], 0L));
+    }
+    Collections.sort(expectedOutput);
+    return expectedOutput;
+  }
+}
@@ -24,6 +24,17 @@ import org.junit.runner.RunWith;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  * Test MapReduce program with JobLauncher.
  */
@@ -31,6 +42,7 @@ import org.powermock.modules.junit4.PowerMockRunner;
 @PrepareForTest(JobLauncher.class)
 public final class MapReduceITCase {
   private static final int TIMEOUT = 60000;
+  private static final int NUM_REPEATED_RUNS = 3;
   private static final String input = CompilerTestUtil.rootDir + "/../examples/src/main/resources/sample_input_mr";
   private static final String output = CompilerTestUtil.rootDir + "/../examples/src/main/resources/sample_output";
 
@@ -78,6 +90,68 @@ public final class MapReduceITCase {
         .build());
   }
 
+  @Test (timeout = TIMEOUT)
+  public void testCostBasedParallelism() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(MapReduceITCase.class.getSimpleName() + "_costbased")
+        .addOptimizationPolicy(CompilerTestUtil.costBasedParallelismPolicy)
+        .build());
+  }
+
+  /**
+   * Testing the master and the executors running in a single JVM.
+   * @throws Exception exception on the way.
+   */
+  @Test (timeout = TIMEOUT)
+  public void testInProcess() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(MapReduceITCase.class.getSimpleName() + "_inprocess")
+        .addOptimizationPolicy(CompilerTestUtil.defaultPolicy)
+        .addDeployMode("inprocess")
+        .build());
+  }
+
+  /**
+   * Testing jobs run back to back on the master and the executors kept running in a single JVM.
+   * @throws Exception exception on the way.
+   */
+  @Test (timeout = TIMEOUT)
+  public void testInProcessReuseExecutors() throws Exception {
+    final String reuseOutput = output + "_reuse";
+    try {
+      JobLauncher.main(new ArgBuilder()
+          .addJobId(MapReduceITCase.class.getSimpleName() + "_inprocess_reuse")
+          .addUserMain(RepeatedUserMain.class.getName())
+          .addUserArgs(String.valueOf(NUM_REPEATED_RUNS), MapReduce.class.getCanonicalName(), input, reuseOutput)
+          .addOptimizationPolicy(CompilerTestUtil.defaultPolicy)
+          .addDeployMode("inprocess")
+          .addReuseExecutors()
+          .build());
+
+      final List<String> expectedOutput = getExpectedOutput();
+      for (int i = 0; i < NUM_REPEATED_RUNS; i++) {
+        assertEquals(expectedOutput, ExampleTestUtil.readOutput(RepeatedUserMain.getOutputPath(reuseOutput, i)));
+      }
+    } finally {
+      for (int i = 0; i < NUM_REPEATED_RUNS; i++) {
+        ExampleTestUtil.deleteOutput(RepeatedUserMain.getOutputPath(reuseOutput, i));
+      }
+    }
+  }
+
+  /**
+   * Testing the blocks pushed between the executors running in a single JVM.
+   * @throws Exception exception on the way.
+   */
+  @Test (timeout = TIMEOUT)
+  public void testInProcessSailfish() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(MapReduceITCase.class.getSimpleName() + "_inprocess_sailfish")
+        .addOptimizationPolicy(CompilerTestUtil.sailfishPolicy)
+        .addDeployMode("inprocess")
+        .build());
+  }
+
   /**
    * Testing data skew dynamic optimization.
    * @throws Exception exception on the way.
@@ -89,4 +163,44 @@ public final class MapReduceITCase {
         .addOptimizationPolicy(CompilerTestUtil.dataSkewPolicy)
         .build());
   }
+
+  /**
+   * Testing partition coalescing dynamic optimization.
+   * @throws Exception exception on the way.
+   */
+  @Test (timeout = TIMEOUT)
+  public void testPartitionCoalescing() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(MapReduceITCase.class.getSimpleName() + "_coalescing")
+        .addOptimizationPolicy(CompilerTestUtil.partitionCoalescingPolicy)
+        .build());
+  }
+
+  /**
+   * Testing hot key splitting.
+   * @throws Exception exception on the way.
+   */
+  @Test (timeout = TIMEOUT)
+  public void testHotKeySplitting() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(MapReduceITCase.class.getSimpleName() + "_hotKeySplitting")
+        .addOptimizationPolicy(CompilerTestUtil.hotKeySplittingPolicy)
+        .build());
+  }
+
+  /**
+   * @return the sorted output lines expected from the MapReduce program on the input.
+   * @throws IOException if failed to read the input.
+   */
+  private static List<String> getExpectedOutput() throws IOException {
+    final Map<String, Long> documentIdToCount = new TreeMap<>();
+    for (final String line : Files.readAllLines(Paths.get(input))) {
+      final String[] words = line.split(" +");
+      documentIdToCount.merge(words[0] + "#" + words[1], Long.parseLong(words[2]), Long::sum);
+    }
+    final List<String> expectedOutput = new ArrayList<>();
+    documentIdToCount.forEach((documentId, count) -> expectedOutput.add(documentId + ": " + count));
+    Collections.sort(expectedOutput);
+    return expectedOutput;
+  }
 }
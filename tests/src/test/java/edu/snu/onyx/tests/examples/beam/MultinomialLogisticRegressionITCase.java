@@ -62,4 +62,20 @@ public final class MultinomialLogisticRegressionITCase {
         .addOptimizationPolicy(CompilerTestUtil.padoPolicy)
         .build());
   }
+
+  @Test (timeout = TIMEOUT)
+  public void testLoopInvariantPinning() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(MultinomialLogisticRegressionITCase.class.getSimpleName() + "_loopInvariantPinning")
+        .addOptimizationPolicy(CompilerTestUtil.loopInvariantPinningPolicy)
+        .build());
+  }
+
+  @Test (timeout = TIMEOUT)
+  public void testDynamicLoop() throws Exception {
+    JobLauncher.main(builder
+        .addJobId(MultinomialLogisticRegressionITCase.class.getSimpleName() + "_dynamicLoop")
+        .addOptimizationPolicy(CompilerTestUtil.dynamicLoopPolicy)
+        .build());
+  }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.examples.beam;
+
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.examples.beam.Reachability;
+import edu.snu.onyx.tests.compiler.CompilerTestUtil;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Reachability program with JobLauncher.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(JobLauncher.class)
+public final class ReachabilityITCase {
+  private static final int TIMEOUT = 60000;
+  private static final String SOURCE_VERTEX = "a";
+  private static final int MAX_ITERATIONS = 10;
+  private static final Pattern ITERATION_STAGE_ID = Pattern.compile("Stage-\\d+-Iteration(\\d+)");
+  private static final String input =
+      CompilerTestUtil.rootDir + "/../examples/src/main/resources/sample_input_reachability";
+  private static final String output = CompilerTestUtil.rootDir + "/../examples/src/main/resources/sample_output";
+  private static final String dagDirectory = CompilerTestUtil.rootDir + "/../dag/reachability";
+
+  /**
+   * Testing the loop unrolled at runtime, which exits once no new vertex is reached.
+   * The job runs in a single JVM, where its output is finalized for the comparison.
+   * @throws Exception exception on the way.
+   */
+  @Test (timeout = TIMEOUT)
+  public void testConvergence() throws Exception {
+    final String convergenceOutput = output + "_reachability";
+    try {
+      JobLauncher.main(new ArgBuilder()
+          .addJobId(ReachabilityITCase.class.getSimpleName())
+          .addUserMain(Reachability.class.getCanonicalName())
+          .addUserArgs(input, SOURCE_VERTEX, String.valueOf(MAX_ITERATIONS), convergenceOutput)
+          .addOptimizationPolicy(CompilerTestUtil.dynamicLoopPolicy)
+          .addDAGDirectory(dagDirectory)
+          .addDeployMode("inprocess")
+          .build());
+
+      final Map<String, Integer> vertexToDistance = getDistancesFromSource();
+      assertEquals(new ArrayList<>(new TreeSet<>(vertexToDistance.keySet())),
+          ExampleTestUtil.readOutput(convergenceOutput));
+      // The vertices farthest from the source are reached in an iteration, and the next iteration reaches nothing
+      // new and converges, long before the maximum number of iterations.
+      final int convergedIteration = Collections.max(vertexToDistance.values()) + 1;
+      assertTrue(convergedIteration < MAX_ITERATIONS);
+      assertEquals(convergedIteration, getLastIterationOfFinalPlan());
+    } finally {
+      ExampleTestUtil.deleteOutput(convergenceOutput);
+      FileUtils.deleteDirectory(new File(dagDirectory));
+    }
+  }
+
+  /**
+   * @return the distances of the vertices reachable from the source vertex in the input graph.
+   * @throws IOException if failed to read the input.
+   */
+  private static Map<String, Integer> getDistancesFromSource() throws IOException {
+    final Map<String, List<String>> vertexToNeighbors = new HashMap<>();
+    for (final String line : Files.readAllLines(Paths.get(input))) {
+      final String[] words = line.split(" +");
+      vertexToNeighbors.computeIfAbsent(words[0], vertex -> new ArrayList<>()).add(words[1]);
+    }
+    final Map<String, Integer> vertexToDistance = new HashMap<>();
+    final Deque<String> toVisit = new ArrayDeque<>();
+    vertexToDistance.put(SOURCE_VERTEX, 0);
+    toVisit.add(SOURCE_VERTEX);
+    while (!toVisit.isEmpty()) {
+      final String vertex = toVisit.poll();
+      for (final String neighbor : vertexToNeighbors.getOrDefault(vertex, Collections.emptyList())) {
+        if (!vertexToDistance.containsKey(neighbor)) {
+          vertexToDistance.put(neighbor, vertexToDistance.get(vertex) + 1);
+          toVisit.add(neighbor);
+        }
+      }
+    }
+    return vertexToDistance;
+  }
+
+  /**
+   * @return the last iteration of the loop in the final plan of the job stored in the DAG directory.
+   * @throws IOException if failed to read the plan.
+   */
+  private static int getLastIterationOfFinalPlan() throws IOException {
+    int lastIteration = 2;
+    try (final DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(dagDirectory), "*-final.json")) {
+      for (final Path planFile : stream) {
+        final Matcher matcher = ITERATION_STAGE_ID.matcher(new String(Files.readAllBytes(planFile)));
+        while (matcher.find()) {
+          lastIteration = Math.max(lastIteration, Integer.parseInt(matcher.group(1)));
+        }
+      }
+    }
+    return lastIteration;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.examples.beam;
+
+import edu.snu.onyx.client.JobLauncher;
+import edu.snu.onyx.driver.InProcessLauncher;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * A user program running the jobs of another user program back to back,
+ * to test the executors reused across the jobs.
+ * Its arguments are the number of runs, the class of the other user program, and the arguments of the program.
+ * The last argument of the program, its output path, is suffixed with "_" and the index of each run.
+ * After each run, it checks that the in-process executors are reused and the blocks of the finished job are removed.
+ */
+public final class RepeatedUserMain {
+  private static final long BLOCK_REMOVAL_TIMEOUT_MS = 10000;
+  private static final long BLOCK_REMOVAL_POLL_INTERVAL_MS = 100;
+
+  /**
+   * Private constructor.
+   */
+  private RepeatedUserMain() {
+  }
+
+  /**
+   * Main function.
+   * @param args arguments.
+   * @throws Exception exception on the way.
+   */
+  public static void main(final String[] args) throws Exception {
+    final int numRuns = Integer.parseInt(args[0]);
+    final Method userMain = Class.forName(args[1]).getMethod("main", String[].class);
+    final String outputPath = args[args.length - 1];
+    InProcessLauncher firstSession = null;
+    int numExecutors = 0;
+    for (int i = 0; i < numRuns; i++) {
+      final String[] userArgs = Arrays.copyOfRange(args, 2, args.length);
+      userArgs[userArgs.length - 1] = getOutputPath(outputPath, i);
+      userMain.invoke(null, (Object) userArgs);
+
+      final InProcessLauncher session = JobLauncher.getInProcessSession();
+      assertNotNull(session);
+      if (firstSession == null) {
+        firstSession = session;
+        numExecutors = session.getNumExecutors();
+      }
+      assertSame(firstSession, session);
+      assertEquals(numExecutors, session.getNumExecutors());
+      assertEquals(0, session.getNumBlocksInMaster());
+      // The executors remove the blocks of a finished job in the background.
+      final long deadline = System.currentTimeMillis() + BLOCK_REMOVAL_TIMEOUT_MS;
+      while (session.getNumBlocksInExecutors() > 0 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(BLOCK_REMOVAL_POLL_INTERVAL_MS);
+      }
+      assertEquals(0, session.getNumBlocksInExecutors());
+    }
+  }
+
+  /**
+   * @param outputPath the output path given to this program.
+   * @param runIndex   the index of a run.
+   * @return the output path of the run.
+   */
+  public static String getOutputPath(final String outputPath, final int runIndex) {
+    return outputPath + "_" + runIndex;
+  }
+}
@@ -117,13 +117,34 @@ public final class RuntimeTestUtil {
                                                         final TaskGroupState.State newState,
                                                         final int attemptIdx,
                                                         final TaskGroupState.RecoverableFailureCause cause) {
+    sendTaskGroupStateEventToScheduler(scheduler, containerManager, taskGroupId, newState, attemptIdx,
+        Collections.emptyList(), cause);
+  }
+
+  /**
+   * Sends task group state change event to scheduler, with the IDs of the tasks put on hold.
+   * This replaces executor's task group state messages for testing purposes.
+   * @param scheduler for the submitted job.
+   * @param containerManager used for testing purposes.
+   * @param taskGroupId for the task group to change the state.
+   * @param newState for the task group.
+   * @param tasksPutOnHold the IDs of the tasks put on hold, if the task group is put on hold.
+   * @param cause in the case of a recoverable failure.
+   */
+  public static void sendTaskGroupStateEventToScheduler(final Scheduler scheduler,
+                                                        final ContainerManager containerManager,
+                                                        final String taskGroupId,
+                                                        final TaskGroupState.State newState,
+                                                        final int attemptIdx,
+                                                        final List<String> tasksPutOnHold,
+                                                        final TaskGroupState.RecoverableFailureCause cause) {
     ExecutorRepresenter scheduledExecutor;
     do {
       scheduledExecutor = findExecutorForTaskGroup(containerManager, taskGroupId);
     } while (scheduledExecutor == null);
 
     scheduler.onTaskGroupStateChanged(scheduledExecutor.getExecutorId(), taskGroupId,
-        newState, attemptIdx, Collections.emptyList(), cause);
+        newState, attemptIdx, tasksPutOnHold, cause);
   }
 
   public static void mockSchedulerRunner(final PendingTaskGroupQueue pendingTaskGroupQueue,
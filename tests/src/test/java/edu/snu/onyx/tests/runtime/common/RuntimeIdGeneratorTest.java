@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.common;
+
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the parsing and the interning of the IDs in {@link RuntimeIdGenerator}.
+ */
+public final class RuntimeIdGeneratorTest {
+
+  @Test
+  public void testParseBlockId() {
+    final String runtimeEdgeId = RuntimeIdGenerator.generateRuntimeEdgeId("edge-d3");
+    final String blockId = RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 12);
+    assertEquals(runtimeEdgeId, RuntimeIdGenerator.getRuntimeEdgeIdFromBlockId(blockId));
+    assertEquals(12, RuntimeIdGenerator.getTaskIndexFromBlockId(blockId));
+  }
+
+  @Test
+  public void testParseBlockIdOfLoopIteration() {
+    final String runtimeEdgeId = RuntimeIdGenerator.generateLoopIterationId(
+        RuntimeIdGenerator.generateRuntimeEdgeId("edge_7"), 2);
+    final String blockId = RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 0);
+    assertEquals(runtimeEdgeId, RuntimeIdGenerator.getRuntimeEdgeIdFromBlockId(blockId));
+    assertEquals(0, RuntimeIdGenerator.getTaskIndexFromBlockId(blockId));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseInvalidBlockId() {
+    RuntimeIdGenerator.getRuntimeEdgeIdFromBlockId("TaskGroup-1");
+  }
+
+  /**
+   * A copy of a generated ID, like the one deserialized from a message, is interned to the instance kept as a key.
+   */
+  @Test
+  public void testInternGeneratedIds() {
+    final String blockId = RuntimeIdGenerator.intern(
+        RuntimeIdGenerator.generateBlockId(RuntimeIdGenerator.generateRuntimeEdgeId("edge-5"), 3));
+    assertSame(blockId, RuntimeIdGenerator.intern(new String(blockId)));
+    final String taskGroupId = RuntimeIdGenerator.intern(RuntimeIdGenerator.generateTaskGroupId());
+    assertSame(taskGroupId, RuntimeIdGenerator.intern(new String(taskGroupId)));
+
+    final String runtimeEdgeId = new String(RuntimeIdGenerator.generateRuntimeEdgeId("edge-6"));
+    assertSame(RuntimeIdGenerator.intern(runtimeEdgeId), RuntimeIdGenerator.intern(new String(runtimeEdgeId)));
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.common.message;
+
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.message.*;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageDispatcher;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageEnvironment;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link MessageBatcher} through {@link PersistentConnectionToMasterMap}.
+ */
+public final class MessageBatcherTest {
+  private static final String EXECUTOR_ID = "Executor";
+  private static final long LONG_WINDOW_MS = 60000;
+  private static final int MAX_BATCH_SIZE = 4;
+
+  private LocalMessageDispatcher messageDispatcher;
+  private List<ControlMessage.Message> receivedMessages;
+
+  @Before
+  public void setUp() {
+    messageDispatcher = new LocalMessageDispatcher();
+    receivedMessages = Collections.synchronizedList(new ArrayList<>());
+    final MessageEnvironment masterEnvironment =
+        new LocalMessageEnvironment(MessageEnvironment.MASTER_COMMUNICATION_ID, messageDispatcher);
+    for (final String listenerId : Arrays.asList(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID,
+        MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID)) {
+      masterEnvironment.setupListener(listenerId, new MessageListener<ControlMessage.Message>() {
+        @Override
+        public void onMessage(final ControlMessage.Message message) {
+          assertEquals(listenerId, message.getListenerId());
+          receivedMessages.add(message);
+        }
+
+        @Override
+        public void onMessageWithContext(final ControlMessage.Message message, final MessageContext messageContext) {
+          receivedMessages.add(message);
+          messageContext.reply(message);
+        }
+      });
+    }
+  }
+
+  /**
+   * Tests that the messages to the listeners of the master are sent together, in order, when the batch is full.
+   */
+  @Test
+  public void testBatchSize() {
+    final PersistentConnectionToMasterMap connectionToMaster = createConnectionToMaster(LONG_WINDOW_MS);
+    final List<ControlMessage.Message> sentMessages = new ArrayList<>();
+    for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+      final String listenerId = i % 2 == 0 ? MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID
+          : MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID;
+      sentMessages.add(send(connectionToMaster, listenerId));
+      if (i < MAX_BATCH_SIZE - 1) {
+        assertTrue(receivedMessages.isEmpty());
+      }
+    }
+    assertEquals(sentMessages, receivedMessages);
+  }
+
+  /**
+   * Tests that a message is sent on its own once the window is over.
+   */
+  @Test(timeout = 10000)
+  public void testBatchWindow() throws Exception {
+    final PersistentConnectionToMasterMap connectionToMaster = createConnectionToMaster(10);
+    final ControlMessage.Message sentMessage =
+        send(connectionToMaster, MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID);
+    while (receivedMessages.isEmpty()) {
+      Thread.sleep(10);
+    }
+    assertEquals(Collections.singletonList(sentMessage), receivedMessages);
+  }
+
+  /**
+   * Tests that the pending messages are sent before a request and on a flush.
+   */
+  @Test
+  public void testFlush() throws Exception {
+    final PersistentConnectionToMasterMap connectionToMaster = createConnectionToMaster(LONG_WINDOW_MS);
+    final ControlMessage.Message sentMessage =
+        send(connectionToMaster, MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID);
+    final ControlMessage.Message request = message(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID);
+    assertEquals(request, connectionToMaster
+        .getMessageSender(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID).request(request).get());
+    assertEquals(Arrays.asList(sentMessage, request), receivedMessages);
+
+    final ControlMessage.Message lastMessage =
+        send(connectionToMaster, MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID);
+    connectionToMaster.flush();
+    assertEquals(Arrays.asList(sentMessage, request, lastMessage), receivedMessages);
+  }
+
+  private PersistentConnectionToMasterMap createConnectionToMaster(final long windowMs) {
+    return new PersistentConnectionToMasterMap(
+        new LocalMessageEnvironment(EXECUTOR_ID, messageDispatcher), windowMs, MAX_BATCH_SIZE);
+  }
+
+  private static ControlMessage.Message send(final PersistentConnectionToMasterMap connectionToMaster,
+                                             final String listenerId) {
+    final ControlMessage.Message message = message(listenerId);
+    connectionToMaster.getMessageSender(listenerId).send(message);
+    return message;
+  }
+
+  private static ControlMessage.Message message(final String listenerId) {
+    return ControlMessage.Message.newBuilder()
+        .setId(RuntimeIdGenerator.generateMessageId())
+        .setListenerId(listenerId)
+        .setType(listenerId.equals(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+            ? ControlMessage.MessageType.TaskGroupStateChanged : ControlMessage.MessageType.BlockStateChanged)
+        .build();
+  }
+}
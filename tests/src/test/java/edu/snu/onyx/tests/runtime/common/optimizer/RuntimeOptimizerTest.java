@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.common.optimizer;
+
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.optimizer.RuntimeOptimizer;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test {@link RuntimeOptimizer}.
+ */
+public class RuntimeOptimizerTest {
+  private final String runtimeEdgeId = RuntimeIdGenerator.generateRuntimeEdgeId("edge");
+
+  /**
+   * The blocks that have not reported their metrics are extrapolated from the reported ones.
+   */
+  @Test
+  public void testExtrapolateMetricData() {
+    final Map<String, List<Long>> sampledMetricData = new HashMap<>();
+    sampledMetricData.put(RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 0), Arrays.asList(2L, 10L, 4L));
+    sampledMetricData.put(RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 2), Arrays.asList(4L, 20L, 0L));
+
+    final Map<String, List<Long>> metricData = RuntimeOptimizer.extrapolateMetricData(sampledMetricData,
+        Collections.singletonMap(runtimeEdgeId, 4));
+
+    assertEquals(4, metricData.size());
+    assertEquals(Arrays.asList(2L, 10L, 4L), metricData.get(RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 0)));
+    assertEquals(Arrays.asList(3L, 15L, 2L), metricData.get(RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 1)));
+    assertEquals(Arrays.asList(4L, 20L, 0L), metricData.get(RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 2)));
+    assertEquals(Arrays.asList(3L, 15L, 2L), metricData.get(RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 3)));
+  }
+
+  /**
+   * The metric data is kept as it is once all of the blocks have reported.
+   */
+  @Test
+  public void testCompleteMetricData() {
+    final Map<String, List<Long>> completeMetricData = new HashMap<>();
+    completeMetricData.put(RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 0), Arrays.asList(1L, 2L));
+    completeMetricData.put(RuntimeIdGenerator.generateBlockId(runtimeEdgeId, 1), Arrays.asList(3L, 4L));
+
+    assertEquals(completeMetricData, RuntimeOptimizer.extrapolateMetricData(completeMetricData,
+        Collections.singletonMap(runtimeEdgeId, 2)));
+  }
+}
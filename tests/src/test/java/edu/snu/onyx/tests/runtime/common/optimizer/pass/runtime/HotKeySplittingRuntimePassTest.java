@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.common.optimizer.pass.runtime;
+
+import edu.snu.onyx.common.Pair;
+import edu.snu.onyx.runtime.common.data.HashRange;
+import edu.snu.onyx.runtime.common.data.KeyRange;
+import edu.snu.onyx.runtime.common.optimizer.pass.runtime.HotKeySplittingRuntimePass;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test {@link HotKeySplittingRuntimePass}.
+ */
+public class HotKeySplittingRuntimePassTest {
+  // The sizes of 5 hash values written by 3 source tasks. The hash value 2 holds a hot key: 90 out of 102.
+  private final long[][] testSizes = {
+      {1L, 1L, 30L, 1L, 1L},
+      {1L, 1L, 30L, 1L, 1L},
+      {1L, 1L, 30L, 1L, 1L}
+  };
+
+  /**
+   * With 4 task groups, the hot hash value is split in two by the source tasks.
+   */
+  @Test
+  public void testHotKeySplitting() {
+    final List<Pair<KeyRange, Pair<Integer, Integer>>> assignments =
+        new HotKeySplittingRuntimePass().calculateAssignments(testSizes, 4);
+
+    assertEquals(4, assignments.size());
+    assertAssignment(assignments.get(0), 0, 2, 0, 3);
+    assertAssignment(assignments.get(1), 2, 3, 0, 2);
+    assertAssignment(assignments.get(2), 2, 3, 2, 3);
+    assertAssignment(assignments.get(3), 3, 5, 0, 3);
+  }
+
+  /**
+   * The hot hash value can not be split further than the number of source tasks,
+   * and the task groups left are not assigned any data.
+   */
+  @Test
+  public void testSplitBySourceTasks() {
+    final List<Pair<KeyRange, Pair<Integer, Integer>>> assignments =
+        new HotKeySplittingRuntimePass().calculateAssignments(testSizes, 6);
+
+    assertEquals(6, assignments.size());
+    assertAssignment(assignments.get(0), 0, 2, 0, 3);
+    assertAssignment(assignments.get(1), 2, 3, 0, 1);
+    assertAssignment(assignments.get(2), 2, 3, 1, 2);
+    assertAssignment(assignments.get(3), 2, 3, 2, 3);
+    assertAssignment(assignments.get(4), 3, 5, 0, 3);
+    assertEquals(HashRange.of(5, 5), assignments.get(5).left());
+    assertEquals(Pair.of(0, 0), assignments.get(5).right());
+  }
+
+  private static void assertAssignment(final Pair<KeyRange, Pair<Integer, Integer>> assignment,
+                                       final int hashBegin, final int hashEnd,
+                                       final int srcTaskBegin, final int srcTaskEnd) {
+    assertEquals(HashRange.of(hashBegin, hashEnd), assignment.left());
+    assertEquals(Pair.of(srcTaskBegin, srcTaskEnd), assignment.right());
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.common.optimizer.pass.runtime;
+
+import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.dag.DAGBuilder;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
+import edu.snu.onyx.common.ir.executionproperty.ExecutionProperty;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.OperatorVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.ParallelismProperty;
+import edu.snu.onyx.common.ir.vertex.transform.Transform;
+import edu.snu.onyx.compiler.optimizer.CompiletimeOptimizer;
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.data.KeyRange;
+import edu.snu.onyx.runtime.common.optimizer.pass.runtime.PartitionCoalescingRuntimePass;
+import edu.snu.onyx.runtime.common.plan.physical.*;
+import edu.snu.onyx.tests.compiler.optimizer.TestPolicy;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test {@link PartitionCoalescingRuntimePass}.
+ */
+public final class PartitionCoalescingRuntimePassTest {
+  private static final int PRODUCER_PARALLELISM = 3;
+  private static final int RECEIVER_PARALLELISM = 4;
+  private static final int HASH_RANGE_COUNT = 8;
+  private static final long PARTITION_SIZE = 10;
+
+  private PhysicalPlan physicalPlan;
+  private PhysicalStageEdge shuffleEdge;
+  private Map<String, List<Long>> metricData;
+
+  @Before
+  public void setUp() throws Exception {
+    final DAGBuilder<IRVertex, IREdge> irDAGBuilder = new DAGBuilder<>();
+    final IRVertex producer = new OperatorVertex(mock(Transform.class));
+    producer.setProperty(ParallelismProperty.of(PRODUCER_PARALLELISM));
+    irDAGBuilder.addVertex(producer);
+    final IRVertex receiver = new OperatorVertex(mock(Transform.class));
+    receiver.setProperty(ParallelismProperty.of(RECEIVER_PARALLELISM));
+    irDAGBuilder.addVertex(receiver);
+    irDAGBuilder.connectVertices(
+        new IREdge(DataCommunicationPatternProperty.Value.Shuffle, producer, receiver, Coder.DUMMY_CODER));
+    final DAG<IRVertex, IREdge> irDAG = CompiletimeOptimizer.optimize(irDAGBuilder.buildWithoutSourceSinkCheck(),
+        new TestPolicy(), "");
+
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileParameter(JobConf.DAGDirectory.class, "");
+    final PhysicalPlanGenerator physicalPlanGenerator = injector.getInstance(PhysicalPlanGenerator.class);
+    final DAG<PhysicalStage, PhysicalStageEdge> physicalDAG = irDAG.convert(physicalPlanGenerator);
+    physicalPlan = new PhysicalPlan("TestPlan", physicalDAG, physicalPlanGenerator.getTaskIRVertexMap());
+    shuffleEdge = physicalDAG.getVertices().stream()
+        .flatMap(stage -> physicalDAG.getIncomingEdgesOf(stage).stream())
+        .findFirst().get();
+
+    // Each producer writes PARTITION_SIZE bytes for each hash range.
+    metricData = new HashMap<>();
+    for (int srcTaskIdx = 0; srcTaskIdx < PRODUCER_PARALLELISM; srcTaskIdx++) {
+      metricData.put(RuntimeIdGenerator.generateBlockId(shuffleEdge.getId(), srcTaskIdx),
+          Collections.nCopies(HASH_RANGE_COUNT, PARTITION_SIZE));
+    }
+  }
+
+  /**
+   * The receiver of a small shuffle is coalesced into fewer task groups, which read all hash ranges.
+   */
+  @Test
+  public void testCoalescing() {
+    // 240 bytes in total, to be read by 2 task groups of 120 bytes.
+    final PhysicalPlan newPlan = new PartitionCoalescingRuntimePass(120).apply(physicalPlan, metricData);
+    final PhysicalStage receiverStage = getReceiverStage(newPlan);
+
+    assertEquals(2, receiverStage.getTaskGroupList().size());
+    receiverStage.getTaskGroupList().get(0).getTaskDAG().getVertices().forEach(task -> assertEquals(2,
+        newPlan.getIRVertexOf(task).<Integer>getProperty(ExecutionProperty.Key.Parallelism).intValue()));
+
+    final Map<String, KeyRange> keyRanges = shuffleEdge.getTaskGroupIdToKeyRangeMap();
+    final KeyRange firstRange = keyRanges.get(receiverStage.getTaskGroupList().get(0).getTaskGroupId());
+    final KeyRange secondRange = keyRanges.get(receiverStage.getTaskGroupList().get(1).getTaskGroupId());
+    assertEquals(0, firstRange.rangeBeginInclusive());
+    assertEquals(HASH_RANGE_COUNT / 2, firstRange.rangeEndExclusive());
+    assertEquals(HASH_RANGE_COUNT / 2, secondRange.rangeBeginInclusive());
+    assertEquals(HASH_RANGE_COUNT, secondRange.rangeEndExclusive());
+  }
+
+  /**
+   * A shuffle large enough for all task groups is not coalesced.
+   */
+  @Test
+  public void testNoCoalescing() {
+    final PhysicalPlan newPlan = new PartitionCoalescingRuntimePass(1).apply(physicalPlan, metricData);
+    assertEquals(RECEIVER_PARALLELISM, getReceiverStage(newPlan).getTaskGroupList().size());
+  }
+
+  private PhysicalStage getReceiverStage(final PhysicalPlan plan) {
+    return plan.getStageDAG().getVertices().stream()
+        .filter(stage -> stage.getId().equals(shuffleEdge.getDst().getId()))
+        .findFirst().get();
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.executor;
+
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.metric.LatencyHistogram;
+import edu.snu.onyx.runtime.executor.MetricRegistry;
+import edu.snu.onyx.runtime.master.MetricManagerMaster;
+import edu.snu.onyx.runtime.master.MetricMessageHandler;
+import org.apache.reef.tang.Tang;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link MetricRegistry}, and the aggregation of the metrics drained from it in {@link MetricManagerMaster}.
+ */
+public final class MetricRegistryTest {
+  private static final String COUNTER = MetricRegistry.RECORDS_IN + "Vertex";
+  private static final String HISTOGRAM = MetricRegistry.FETCH_LATENCY_NANOS + "Edge";
+
+  /**
+   * The counters and histograms are drained as the increments since the previous drain.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testDrain() throws Exception {
+    final MetricRegistry registry = Tang.Factory.getTang().newInjector().getInstance(MetricRegistry.class);
+    registry.counter(COUNTER).add(3);
+    registry.counter(COUNTER).add(4);
+    registry.histogram(HISTOGRAM).record(100);
+
+    final List<ControlMessage.NumericMetric> firstDrain = registry.drain();
+    assertEquals(7, getMetric(firstDrain, COUNTER).getValue());
+    assertEquals(1, getMetric(firstDrain, HISTOGRAM).getHistogram().getBucketIdxCount());
+    assertEquals(100, getMetric(firstDrain, HISTOGRAM).getHistogram().getSum());
+    assertTrue(getMetric(firstDrain, MetricRegistry.GC_COUNT).getValue() >= 0);
+
+    // Unchanged counters and histograms are omitted, while gauges are always read.
+    registry.counter(COUNTER).add(1);
+    final List<ControlMessage.NumericMetric> secondDrain = registry.drain();
+    assertEquals(1, getMetric(secondDrain, COUNTER).getValue());
+    assertEquals(0, secondDrain.stream().filter(metric -> metric.getName().equals(HISTOGRAM)).count());
+    assertEquals(ControlMessage.NumericMetricType.GAUGE, getMetric(secondDrain, MetricRegistry.GC_COUNT).getType());
+  }
+
+  /**
+   * The percentiles of a histogram are estimated within the precision of its buckets.
+   */
+  @Test
+  public void testHistogramPercentiles() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    IntStream.rangeClosed(1, 100000).forEach(histogram::record);
+
+    assertEquals(100000, histogram.getCount());
+    assertEquals(100000L * 100001 / 2, histogram.getSum());
+    for (final double percentile : new double[]{1, 50, 90, 99, 100}) {
+      final double expected = percentile * 1000;
+      final long estimated = histogram.getValueAtPercentile(percentile);
+      assertTrue(estimated <= expected);
+      assertTrue(estimated >= expected * 15 / 16);
+    }
+  }
+
+  /**
+   * The master sums the counters and merges the histograms of the executors.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testAggregationInMaster() throws Exception {
+    final MetricMessageHandler master =
+        Tang.Factory.getTang().newInjector().getInstance(MetricManagerMaster.class);
+    for (final String executorId : new String[]{"Executor-1", "Executor-2"}) {
+      final MetricRegistry registry = Tang.Factory.getTang().newInjector().getInstance(MetricRegistry.class);
+      registry.counter(COUNTER).add(10);
+      registry.histogram(HISTOGRAM).record(1024);
+      master.onNumericMetricsReceived(executorId, registry.drain());
+    }
+
+    assertEquals(20, master.getCounter(COUNTER));
+    assertEquals(2, master.getHistogram(HISTOGRAM).getCount());
+    assertEquals(1024, master.getHistogram(HISTOGRAM).getValueAtPercentile(50));
+    assertEquals(2, master.getGauge(MetricRegistry.GC_COUNT).size());
+  }
+
+  private static ControlMessage.NumericMetric getMetric(final List<ControlMessage.NumericMetric> metrics,
+                                                       final String name) {
+    final List<ControlMessage.NumericMetric> matching =
+        metrics.stream().filter(metric -> metric.getName().equals(name)).collect(Collectors.toList());
+    assertEquals(1, matching.size());
+    return matching.get(0);
+  }
+}
@@ -28,11 +28,13 @@ import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
 import edu.snu.onyx.runtime.common.plan.RuntimeEdge;
 import edu.snu.onyx.runtime.common.plan.physical.*;
 import edu.snu.onyx.runtime.common.state.TaskState;
+import edu.snu.onyx.runtime.executor.MetricRegistry;
 import edu.snu.onyx.runtime.executor.TaskGroupExecutor;
 import edu.snu.onyx.runtime.executor.TaskGroupStateManager;
 import edu.snu.onyx.runtime.executor.datatransfer.DataTransferFactory;
 import edu.snu.onyx.runtime.executor.datatransfer.InputReader;
 import edu.snu.onyx.runtime.executor.datatransfer.OutputWriter;
+import org.apache.reef.tang.Tang;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -70,6 +72,7 @@ public final class TaskGroupExecutorTest {
   private TaskGroupStateManager taskGroupStateManager;
   private Map<String, List<TaskState.State>> taskIdToStateList;
   private List<TaskState.State> expectedTaskStateList;
+  private MetricRegistry metricRegistry;
 
   @Before
   public void setUp() throws Exception {
@@ -100,6 +103,8 @@ public final class TaskGroupExecutorTest {
     when(dataTransferFactory.createReader(any(), any(), any())).then(new InterStageReaderAnswer());
     when(dataTransferFactory.createLocalWriter(any(), any())).then(new WriterAnswer());
     when(dataTransferFactory.createWriter(any(), any(), any())).then(new WriterAnswer());
+
+    metricRegistry = Tang.Factory.getTang().newInjector().getInstance(MetricRegistry.class);
   }
 
   /**
@@ -133,12 +138,13 @@ public final class TaskGroupExecutorTest {
     // Execute the task group.
     final TaskGroupExecutor taskGroupExecutor = new TaskGroupExecutor(
         sourceTaskGroup, taskGroupStateManager, Collections.emptyList(), Collections.singletonList(stageOutEdge),
-        dataTransferFactory);
+        dataTransferFactory, metricRegistry);
     taskGroupExecutor.execute();
 
     // Check the output.
     assertEquals(1, taskIdToOutputData.get(sourceTaskId).size());
     assertEquals(elements, taskIdToOutputData.get(sourceTaskId).get(0));
+    assertEquals(DATA_SIZE, metricRegistry.counter(MetricRegistry.RECORDS_OUT + sourceIrVertexId).sum());
     // Check the state transition.
     taskIdToStateList.forEach((taskId, taskStateList) -> assertEquals(expectedTaskStateList, taskStateList));
   }
@@ -169,9 +175,9 @@ public final class TaskGroupExecutorTest {
     final String stageId = RuntimeIdGenerator.generateStageId(1);
 
     final OperatorTask operatorTask1 =
-        new OperatorTask(operatorTaskId1, operatorIRVertexId1, 0, new SimpleTransform(), taskGroupId);
+        new OperatorTask(operatorTaskId1, operatorIRVertexId1, 0, 1, new SimpleTransform(), taskGroupId);
     final OperatorTask operatorTask2 =
-        new OperatorTask(operatorTaskId2, operatorIRVertexId2, 0, new SimpleTransform(), taskGroupId);
+        new OperatorTask(operatorTaskId2, operatorIRVertexId2, 0, 1, new SimpleTransform(), taskGroupId);
 
     final Coder coder = mock(Coder.class);
     ExecutionPropertyMap edgeProperties = new ExecutionPropertyMap(runtimeIREdgeId);
@@ -191,7 +197,7 @@ public final class TaskGroupExecutorTest {
     // Execute the task group.
     final TaskGroupExecutor taskGroupExecutor = new TaskGroupExecutor(
         operatorTaskGroup, taskGroupStateManager, Collections.singletonList(stageInEdge),
-        Collections.singletonList(stageOutEdge), dataTransferFactory);
+        Collections.singletonList(stageOutEdge), dataTransferFactory, metricRegistry);
     taskGroupExecutor.execute();
 
     // Check the output.
@@ -205,6 +211,11 @@ public final class TaskGroupExecutorTest {
     assertEquals(elements, concatStream.collect(Collectors.toList()));
     assertEquals(1, taskIdToOutputData.get(operatorTaskId2).size());
     assertEquals(elements, taskIdToOutputData.get(operatorTaskId2).get(0));
+    // Check the metrics.
+    assertEquals(DATA_SIZE, metricRegistry.counter(MetricRegistry.RECORDS_IN + operatorIRVertexId1).sum());
+    assertEquals(DATA_SIZE, metricRegistry.counter(MetricRegistry.RECORDS_OUT + operatorIRVertexId2).sum());
+    assertEquals(SOURCE_PARALLELISM,
+        metricRegistry.histogram(MetricRegistry.INPUT_WAIT_NANOS + operatorIRVertexId1).getCount());
     // Check the state transition.
     taskIdToStateList.forEach((taskId, taskStateList) -> assertEquals(expectedTaskStateList, taskStateList));
   }
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.executor.data;
+
+import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.compiler.frontend.beam.coder.BeamCoder;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.data.HashRange;
+import edu.snu.onyx.runtime.common.message.MessageEnvironment;
+import edu.snu.onyx.runtime.common.message.PersistentConnectionToMasterMap;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageDispatcher;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageEnvironment;
+import edu.snu.onyx.runtime.common.state.BlockState;
+import edu.snu.onyx.runtime.executor.data.DataUtil;
+import edu.snu.onyx.runtime.executor.data.NonSerializedPartition;
+import edu.snu.onyx.runtime.executor.data.SerializedPartition;
+import edu.snu.onyx.runtime.executor.data.block.FileBlock;
+import edu.snu.onyx.runtime.executor.data.metadata.PartitionMetadata;
+import edu.snu.onyx.runtime.executor.data.metadata.RemoteFileMetadata;
+import edu.snu.onyx.runtime.master.BlockManagerMaster;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.commons.io.FileUtils;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static edu.snu.onyx.tests.runtime.RuntimeTestUtil.getRangedNumList;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Load test for the partition reservation of {@link RemoteFileMetadata}.
+ * Writes a block having many hash partitions to a local directory standing in for the shared volume,
+ * reserving the partitions one by one and all at once, and checks the reserved offsets
+ * and the partition metadata committed to the metadata server.
+ */
+public final class RemoteFileMetadataLoadTest {
+  private static final String TMP_FILE_DIRECTORY = "./tmpReservationFiles";
+  private static final Coder CODER = new BeamCoder(KvCoder.of(VarIntCoder.of(), VarIntCoder.of()));
+  private static final int NUM_PARTITIONS = 1000;
+  private static final int NUM_ELEMENTS_PER_PARTITION = 10;
+  private BlockManagerMaster blockManagerMaster;
+  private PersistentConnectionToMasterMap writerSideConnection;
+  private PersistentConnectionToMasterMap readerSideConnection;
+  private List<SerializedPartition<Integer>> serializedPartitions;
+
+  @Before
+  public void setUp() throws Exception {
+    final LocalMessageDispatcher messageDispatcher = new LocalMessageDispatcher();
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileInstance(MessageEnvironment.class,
+        new LocalMessageEnvironment(MessageEnvironment.MASTER_COMMUNICATION_ID, messageDispatcher));
+    blockManagerMaster = injector.getInstance(BlockManagerMaster.class);
+    writerSideConnection =
+        new PersistentConnectionToMasterMap(new LocalMessageEnvironment("writer", messageDispatcher));
+    readerSideConnection =
+        new PersistentConnectionToMasterMap(new LocalMessageEnvironment("reader", messageDispatcher));
+
+    final List<NonSerializedPartition<Integer>> partitions = new ArrayList<>(NUM_PARTITIONS);
+    for (int hashValue = 0; hashValue < NUM_PARTITIONS; hashValue++) {
+      partitions.add(new NonSerializedPartition(hashValue, getRangedNumList(
+          hashValue * NUM_ELEMENTS_PER_PARTITION, (hashValue + 1) * NUM_ELEMENTS_PER_PARTITION)));
+    }
+    serializedPartitions = new ArrayList<>(NUM_PARTITIONS);
+    DataUtil.convertToSerPartitions(CODER, partitions).forEach(serializedPartitions::add);
+    new File(TMP_FILE_DIRECTORY).mkdirs();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(new File(TMP_FILE_DIRECTORY));
+  }
+
+  /**
+   * Reserves the partitions of a block one by one, and those of another block all at once.
+   * Both ways have to lay out the partitions back to back in the order of the partitions,
+   * and the metadata server has to publish the committed partitions with the reserved offsets.
+   * @throws Exception exception on the way.
+   */
+  @Test(timeout = 60000)
+  public void testBatchedReservation() throws Exception {
+    final RemoteFileMetadata<Integer> oneByOneMetadata = createMetadata("one by one");
+    final List<PartitionMetadata<Integer>> oneByOne = new ArrayList<>(NUM_PARTITIONS);
+    for (final SerializedPartition<Integer> serializedPartition : serializedPartitions) {
+      oneByOne.addAll(oneByOneMetadata.reservePartitions(Collections.singletonList(serializedPartition)));
+    }
+    final String batchedBlockId = createBlockId("batched");
+    blockManagerMaster.onBlockStateChanged(batchedBlockId, BlockState.State.SCHEDULED, null);
+    final RemoteFileMetadata<Integer> batchedMetadata =
+        new RemoteFileMetadata<>(false, batchedBlockId, "writer", writerSideConnection);
+    final List<PartitionMetadata<Integer>> batched = batchedMetadata.reservePartitions(serializedPartitions);
+
+    assertEquals(NUM_PARTITIONS, oneByOne.size());
+    assertEquals(NUM_PARTITIONS, batched.size());
+    long expectedOffset = 0;
+    for (int i = 0; i < NUM_PARTITIONS; i++) {
+      final SerializedPartition<Integer> serializedPartition = serializedPartitions.get(i);
+      for (final PartitionMetadata<Integer> reserved : Arrays.asList(oneByOne.get(i), batched.get(i))) {
+        assertEquals(serializedPartition.getKey(), reserved.getKey());
+        assertEquals(expectedOffset, reserved.getOffset());
+        assertEquals(serializedPartition.getLength(), reserved.getPartitionSize());
+        assertEquals(serializedPartition.getElementsTotal(), reserved.getElementsTotal());
+      }
+      expectedOffset += serializedPartition.getLength();
+    }
+
+    // Commits the partitions in the reverse order, so that the server publishes them only when the first is in.
+    final List<PartitionMetadata> toCommit = new ArrayList<>(batched);
+    Collections.reverse(toCommit);
+    batchedMetadata.commitPartitions(toCommit);
+    blockManagerMaster.onBlockStateChanged(batchedBlockId, BlockState.State.COMMITTED, "writer");
+    final List<PartitionMetadata<Integer>> committed = new ArrayList<>(NUM_PARTITIONS);
+    new RemoteFileMetadata<Integer>(false, batchedBlockId, "reader", readerSideConnection)
+        .getPartitionMetadataIterable().forEach(committed::add);
+    assertEquals(NUM_PARTITIONS, committed.size());
+    for (int i = 0; i < NUM_PARTITIONS; i++) {
+      assertEquals(batched.get(i).getKey(), committed.get(i).getKey());
+      assertEquals(batched.get(i).getOffset(), committed.get(i).getOffset());
+      assertEquals(batched.get(i).getPartitionSize(), committed.get(i).getPartitionSize());
+      assertEquals(batched.get(i).getElementsTotal(), committed.get(i).getElementsTotal());
+    }
+  }
+
+  /**
+   * Writes a block having many partitions to the local directory and reads it from another executor.
+   * @throws Exception exception on the way.
+   */
+  @Test(timeout = 60000)
+  public void testWriteAndRead() throws Exception {
+    final String blockId = createBlockId("write");
+    final String filePath = DataUtil.blockIdToFilePath(blockId, TMP_FILE_DIRECTORY);
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.SCHEDULED, null);
+
+    final FileBlock<Integer> writerSideBlock = new FileBlock<>(CODER, filePath,
+        new RemoteFileMetadata<>(false, blockId, "writer", writerSideConnection));
+    writerSideBlock.putSerializedPartitions(serializedPartitions);
+    writerSideBlock.commit();
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.COMMITTED, "writer");
+
+    final RemoteFileMetadata<Integer> readerSideMetadata =
+        new RemoteFileMetadata<>(false, blockId, "reader", readerSideConnection);
+    long expectedOffset = 0;
+    int hashValue = 0;
+    for (final PartitionMetadata<Integer> partitionMetadata : readerSideMetadata.getPartitionMetadataIterable()) {
+      assertEquals(hashValue, (int) partitionMetadata.getKey());
+      assertEquals(expectedOffset, partitionMetadata.getOffset());
+      expectedOffset += partitionMetadata.getPartitionSize();
+      hashValue++;
+    }
+    assertEquals(NUM_PARTITIONS, hashValue);
+    assertEquals(expectedOffset, new File(filePath).length());
+
+    final FileBlock<Integer> readerSideBlock = new FileBlock<>(CODER, filePath, readerSideMetadata);
+    final List<NonSerializedPartition<Integer>> readPartitions = new ArrayList<>(NUM_PARTITIONS);
+    readerSideBlock.getPartitions(HashRange.all()).forEach(readPartitions::add);
+
+    assertEquals(NUM_PARTITIONS, readPartitions.size());
+    for (int i = 0; i < NUM_PARTITIONS; i++) {
+      assertEquals(i, (int) readPartitions.get(i).getKey());
+      assertEquals(getRangedNumList(i * NUM_ELEMENTS_PER_PARTITION, (i + 1) * NUM_ELEMENTS_PER_PARTITION),
+          readPartitions.get(i).getData());
+    }
+    readerSideBlock.deleteFile();
+  }
+
+  private String createBlockId(final String edgeId) {
+    final String blockId = RuntimeIdGenerator.generateBlockId(RuntimeIdGenerator.generateRuntimeEdgeId(edgeId), 0);
+    blockManagerMaster.initializeState(blockId, "Unused");
+    return blockId;
+  }
+
+  private RemoteFileMetadata<Integer> createMetadata(final String edgeId) {
+    return new RemoteFileMetadata<>(false, createBlockId(edgeId), "writer", writerSideConnection);
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.executor.data;
+
+import edu.snu.onyx.common.coder.Coder;
+import edu.snu.onyx.common.ir.edge.executionproperty.UsedDataHandlingProperty;
+import edu.snu.onyx.compiler.frontend.beam.coder.BeamCoder;
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.executor.MetricMessageSender;
+import edu.snu.onyx.runtime.executor.data.SideInputCache;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.ListCoder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static edu.snu.onyx.tests.runtime.RuntimeTestUtil.getRangedNumList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests {@link SideInputCache}.
+ */
+public final class SideInputCacheTest {
+  private static final Coder CODER = new BeamCoder(ListCoder.of(KvCoder.of(VarIntCoder.of(), VarIntCoder.of())));
+  private static final UsedDataHandlingProperty.Value KEEP = UsedDataHandlingProperty.Value.Keep;
+  private static final int SIDE_INPUT_SIZE = 100;
+  private MetricMessageSender metricMessageSender;
+  private SideInputCache sideInputCache;
+  private AtomicInteger numLoads;
+
+  @Before
+  public void setUp() throws Exception {
+    metricMessageSender = mock(MetricMessageSender.class);
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileParameter(JobConf.ExecutorId.class, "executor");
+    // Enough for two side inputs of 100 pairs of small integers, but not for three.
+    injector.bindVolatileParameter(JobConf.SideInputCacheBytes.class, 512L);
+    injector.bindVolatileInstance(MetricMessageSender.class, metricMessageSender);
+    sideInputCache = injector.getInstance(SideInputCache.class);
+    numLoads = new AtomicInteger(0);
+  }
+
+  private Supplier<CompletableFuture<Object>> loader() {
+    return () -> {
+      numLoads.incrementAndGet();
+      return CompletableFuture.completedFuture(getRangedNumList(0, SIDE_INPUT_SIZE));
+    };
+  }
+
+  /**
+   * Tests whether the tasks reading the same block share a single side input.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testSharing() throws Exception {
+    final String blockId = RuntimeIdGenerator.generateBlockId(RuntimeIdGenerator.generateRuntimeEdgeId("a"), 0);
+    final Object first = sideInputCache.acquire(blockId, KEEP, CODER, loader()).get();
+    final Object second = sideInputCache.acquire(blockId, KEEP, CODER, loader()).get();
+    sideInputCache.release(blockId);
+    sideInputCache.release(blockId);
+
+    // A task of a later TaskGroup reuses the retained side input.
+    final Object third = sideInputCache.acquire(blockId, KEEP, CODER, loader()).get();
+    sideInputCache.release(blockId);
+
+    assertSame(first, second);
+    assertSame(first, third);
+    assertEquals(1, numLoads.get());
+    assertEquals(2, sideInputCache.getTotalHits());
+    final ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+    CODER.encode(first, encoded);
+    assertEquals(2 * encoded.size(), sideInputCache.getTotalBytesSaved());
+  }
+
+  /**
+   * Tests whether a block to be discarded after use is read by each task, not shared.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testDiscardBypass() throws Exception {
+    final String blockId = RuntimeIdGenerator.generateBlockId(RuntimeIdGenerator.generateRuntimeEdgeId("b"), 0);
+    sideInputCache.acquire(blockId, UsedDataHandlingProperty.Value.Discard, CODER, loader()).get();
+    sideInputCache.acquire(blockId, UsedDataHandlingProperty.Value.Discard, CODER, loader()).get();
+    sideInputCache.release(blockId);
+    sideInputCache.release(blockId);
+
+    assertEquals(2, numLoads.get());
+    assertEquals(0, sideInputCache.getTotalHits());
+    assertFalse(sideInputCache.contains(blockId));
+  }
+
+  /**
+   * Tests whether the least recently used side inputs are evicted only when no task uses them.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testEviction() throws Exception {
+    final String edgeId = RuntimeIdGenerator.generateRuntimeEdgeId("c");
+    final List<String> blockIds = IntStream.range(0, 3)
+        .mapToObj(idx -> RuntimeIdGenerator.generateBlockId(edgeId, idx))
+        .collect(Collectors.toList());
+
+    // Three side inputs in use exceed the capacity, but none of them is evicted.
+    for (final String blockId : blockIds) {
+      sideInputCache.acquire(blockId, KEEP, CODER, loader()).get();
+    }
+    blockIds.forEach(blockId -> assertTrue(sideInputCache.contains(blockId)));
+
+    // The first one, the least recently used, is evicted once all of them are released.
+    blockIds.forEach(sideInputCache::release);
+    assertFalse(sideInputCache.contains(blockIds.get(0)));
+    assertTrue(sideInputCache.contains(blockIds.get(1)));
+    assertTrue(sideInputCache.contains(blockIds.get(2)));
+    verify(metricMessageSender, times(1)).send(anyString(), anyString());
+
+    // An evicted side input is read again.
+    sideInputCache.acquire(blockIds.get(0), KEEP, CODER, loader()).get();
+    sideInputCache.release(blockIds.get(0));
+    assertEquals(4, numLoads.get());
+  }
+}
@@ -42,8 +42,10 @@ import edu.snu.onyx.runtime.common.plan.physical.Task;
 import edu.snu.onyx.runtime.common.plan.physical.TaskGroup;
 import edu.snu.onyx.runtime.executor.Executor;
 import edu.snu.onyx.runtime.executor.MetricManagerWorker;
+import edu.snu.onyx.runtime.executor.MetricRegistry;
 import edu.snu.onyx.runtime.executor.data.BlockManagerWorker;
 import edu.snu.onyx.runtime.executor.data.CoderManager;
+import edu.snu.onyx.runtime.executor.data.SideInputCache;
 import edu.snu.onyx.runtime.executor.datatransfer.DataTransferFactory;
 import edu.snu.onyx.runtime.executor.datatransfer.InputReader;
 import edu.snu.onyx.runtime.executor.datatransfer.OutputWriter;
@@ -117,6 +119,7 @@ public final class DataTransferTest {
   private BlockManagerWorker worker1;
   private BlockManagerWorker worker2;
   private HashMap<BlockManagerWorker, CoderManager> coderManagers = new HashMap<>();
+  private HashMap<BlockManagerWorker, SideInputCache> sideInputCaches = new HashMap<>();
 
   @Before
   public void setUp() throws InjectionException {
@@ -127,18 +130,18 @@ public final class DataTransferTest {
     final MetricMessageHandler metricMessageHandler = mock(MetricMessageHandler.class);
     final PubSubEventHandlerWrapper pubSubEventHandler = mock(PubSubEventHandlerWrapper.class);
     final UpdatePhysicalPlanEventHandler updatePhysicalPlanEventHandler = mock(UpdatePhysicalPlanEventHandler.class);
-    final SchedulingPolicy schedulingPolicy = new RoundRobinSchedulingPolicy(containerManager, SCHEDULE_TIMEOUT);
+    final SchedulingPolicy schedulingPolicy = new RoundRobinSchedulingPolicy(containerManager, SCHEDULE_TIMEOUT, 0);
     final PendingTaskGroupQueue taskGroupQueue = new SingleJobTaskGroupQueue();
     final SchedulerRunner schedulerRunner = new SchedulerRunner(schedulingPolicy, taskGroupQueue);
     final Scheduler scheduler =
         new BatchSingleJobScheduler(schedulingPolicy, schedulerRunner, taskGroupQueue, master,
-            pubSubEventHandler, updatePhysicalPlanEventHandler);
+            pubSubEventHandler, updatePhysicalPlanEventHandler, 1.0, 1.0);
     final AtomicInteger executorCount = new AtomicInteger(0);
 
     // Necessary for wiring up the message environments
     final RuntimeMaster runtimeMaster =
         new RuntimeMaster(scheduler, schedulerRunner, taskGroupQueue,
-            containerManager, master, metricMessageHandler, messageEnvironment, EMPTY_DAG_DIRECTORY);
+            containerManager, master, metricMessageHandler, messageEnvironment, EMPTY_DAG_DIRECTORY, 1, false);
 
     final Injector injector1 = Tang.Factory.getTang().newInjector();
     injector1.bindVolatileInstance(MessageEnvironment.class, messageEnvironment);
@@ -176,12 +179,17 @@ public final class DataTransferTest {
     injector.bindVolatileParameter(JobConf.GlusterVolumeDirectory.class, TMP_REMOTE_FILE_DIRECTORY);
     final BlockManagerWorker blockManagerWorker;
     final MetricManagerWorker metricManagerWorker;
+    final MetricRegistry metricRegistry;
     final CoderManager coderManager;
+    final SideInputCache sideInputCache;
     try {
       blockManagerWorker = injector.getInstance(BlockManagerWorker.class);
       metricManagerWorker =  injector.getInstance(MetricManagerWorker.class);
+      metricRegistry = injector.getInstance(MetricRegistry.class);
       coderManager = injector.getInstance(CoderManager.class);
       coderManagers.put(blockManagerWorker, coderManager);
+      sideInputCache = injector.getInstance(SideInputCache.class);
+      sideInputCaches.put(blockManagerWorker, sideInputCache);
     } catch (final InjectionException e) {
       throw new RuntimeException(e);
     }
@@ -190,11 +198,15 @@ public final class DataTransferTest {
     final Executor executor = new Executor(
         executorId,
         EXECUTOR_CAPACITY,
+        0,
         conToMaster,
         messageEnvironment,
         coderManager,
-        new DataTransferFactory(HASH_RANGE_MULTIPLIER, blockManagerWorker),
-        metricManagerWorker);
+        blockManagerWorker,
+        sideInputCache,
+        new DataTransferFactory(HASH_RANGE_MULTIPLIER, blockManagerWorker, sideInputCache),
+        metricManagerWorker,
+        metricRegistry);
     injector.bindVolatileInstance(Executor.class, executor);
 
     return blockManagerWorker;
@@ -312,7 +324,8 @@ public final class DataTransferTest {
     final List<List> dataReadList = new ArrayList<>();
     IntStream.range(0, PARALLELISM_TEN).forEach(dstTaskIndex -> {
       final InputReader reader =
-          new InputReader(dstTaskIndex, taskGroupPrefix + dstTaskIndex, srcVertex, dummyEdge, receiver);
+          new InputReader(dstTaskIndex, taskGroupPrefix + dstTaskIndex, srcVertex, dummyEdge, receiver,
+              sideInputCaches.get(receiver));
 
       if (DataCommunicationPatternProperty.Value.OneToOne.equals(commPattern)) {
         assertEquals(1, reader.getSourceParallelism());
@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.master;
+
+import com.google.protobuf.ByteString;
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.message.MessageContext;
+import edu.snu.onyx.runtime.common.message.MessageEnvironment;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageDispatcher;
+import edu.snu.onyx.runtime.common.message.local.LocalMessageEnvironment;
+import edu.snu.onyx.runtime.common.state.BlockState;
+import edu.snu.onyx.runtime.master.BlockManagerMaster;
+import org.apache.log4j.Level;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Load test for {@link BlockManagerMaster}.
+ * Issues many metadata operations from concurrent threads, as executors do through
+ * {@code ReservePartition}, {@code CommitPartition}, {@code RequestBlockLocation} and {@code BlockStateChanged},
+ * and checks the states, the locations and the partition metadata of the blocks after the concurrent updates.
+ */
+public final class BlockManagerMasterLoadTest {
+  private static final int NUM_THREADS = 8;
+  private static final int NUM_BLOCKS_PER_THREAD = 256;
+  private static final int NUM_ROUNDS = 64;
+  private static final int NUM_PARTITIONS_PER_BLOCK = 2;
+  private static final int PARTITION_SIZE = 1024;
+  private static final ByteString PARTITION_KEY = ByteString.copyFrom(new byte[]{0, 0, 0, 0});
+  private static final org.apache.log4j.Logger MASTER_LOGGER =
+      org.apache.log4j.Logger.getLogger(BlockManagerMaster.class.getName());
+  private BlockManagerMaster blockManagerMaster;
+  private Level masterLogLevel;
+
+  @Before
+  public void setUp() throws Exception {
+    // Per-transition debug logs would slow down the test too much.
+    masterLogLevel = MASTER_LOGGER.getLevel();
+    MASTER_LOGGER.setLevel(Level.INFO);
+    final LocalMessageDispatcher messageDispatcher = new LocalMessageDispatcher();
+    final LocalMessageEnvironment messageEnvironment =
+        new LocalMessageEnvironment(MessageEnvironment.MASTER_COMMUNICATION_ID, messageDispatcher);
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileInstance(MessageEnvironment.class, messageEnvironment);
+    blockManagerMaster = injector.getInstance(BlockManagerMaster.class);
+  }
+
+  @After
+  public void tearDown() {
+    MASTER_LOGGER.setLevel(masterLogLevel);
+  }
+
+  /**
+   * Each thread repeatedly schedules, writes, commits, looks up and removes its own blocks,
+   * and finally commits them once more.
+   * Then each block has to be committed in the executor of its thread, with the partitions of its last write.
+   * @throws Exception exception on the way.
+   */
+  @Test(timeout = 120000)
+  public void testConcurrentMetadataOperations() throws Exception {
+    final ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+    final Map<String, String> blockIdToExecutorId = new ConcurrentHashMap<>();
+    final Map<String, String> blockIdToTaskGroupId = new ConcurrentHashMap<>();
+    final List<Future<?>> futures = new ArrayList<>(NUM_THREADS);
+
+    for (int threadIdx = 0; threadIdx < NUM_THREADS; threadIdx++) {
+      final String executorId = RuntimeIdGenerator.generateExecutorId();
+      futures.add(executorService.submit(() -> {
+        final List<String> blockIds = new ArrayList<>(NUM_BLOCKS_PER_THREAD);
+        final List<String> taskGroupIds = new ArrayList<>(NUM_BLOCKS_PER_THREAD);
+        final String edgeId = RuntimeIdGenerator.generateRuntimeEdgeId(executorId);
+        for (int i = 0; i < NUM_BLOCKS_PER_THREAD; i++) {
+          final String taskGroupId = RuntimeIdGenerator.generateTaskGroupId();
+          final String blockId = RuntimeIdGenerator.generateBlockId(edgeId, i);
+          blockManagerMaster.initializeState(blockId, taskGroupId);
+          blockIds.add(blockId);
+          taskGroupIds.add(taskGroupId);
+          blockIdToExecutorId.put(blockId, executorId);
+          blockIdToTaskGroupId.put(blockId, taskGroupId);
+        }
+
+        final ReplyCollector replyCollector = new ReplyCollector();
+        for (int round = 0; round < NUM_ROUNDS; round++) {
+          for (int i = 0; i < NUM_BLOCKS_PER_THREAD; i++) {
+            final String blockId = blockIds.get(i);
+            writeBlock(executorId, blockId, taskGroupIds.get(i), replyCollector);
+            blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.REMOVED, executorId);
+            blockManagerMaster.onRemovePartitionMetadata(newRemovePartitionMetadataMessage(blockId));
+          }
+        }
+        for (int i = 0; i < NUM_BLOCKS_PER_THREAD; i++) {
+          writeBlock(executorId, blockIds.get(i), taskGroupIds.get(i), replyCollector);
+        }
+      }));
+    }
+    for (final Future<?> future : futures) {
+      future.get();
+    }
+    executorService.shutdown();
+
+    assertEquals(NUM_THREADS * NUM_BLOCKS_PER_THREAD, blockIdToExecutorId.size());
+    final ReplyCollector replyCollector = new ReplyCollector();
+    for (final Map.Entry<String, String> entry : blockIdToExecutorId.entrySet()) {
+      final String blockId = entry.getKey();
+      assertEquals(entry.getValue(), blockManagerMaster.getBlockLocationFuture(blockId).getNow(null));
+      assertEquals(Collections.singleton(blockIdToTaskGroupId.get(blockId)),
+          blockManagerMaster.getProducerTaskGroupIds(blockId));
+
+      blockManagerMaster.onRequestPartitionMetadata(newRequestPartitionMetadataMessage(blockId), replyCollector);
+      final List<ControlMessage.PartitionMetadataMsg> partitionMetadata =
+          replyCollector.lastMetadataResponse.getPartitionMetadataList();
+      assertEquals(NUM_PARTITIONS_PER_BLOCK, partitionMetadata.size());
+      for (int p = 0; p < NUM_PARTITIONS_PER_BLOCK; p++) {
+        assertEquals(p * PARTITION_SIZE, partitionMetadata.get(p).getOffset());
+        assertEquals(PARTITION_SIZE, partitionMetadata.get(p).getPartitionSize());
+      }
+    }
+  }
+
+  /**
+   * Many threads reserve and commit the partitions of the same block at once, as the writers of a remote block do.
+   * The reserved regions have to be disjoint and laid out back to back, with all the partitions committed.
+   * @throws Exception exception on the way.
+   */
+  @Test(timeout = 120000)
+  public void testConcurrentReservationsOfSharedBlock() throws Exception {
+    final String blockId = RuntimeIdGenerator.generateBlockId(RuntimeIdGenerator.generateRuntimeEdgeId("shared"), 0);
+    blockManagerMaster.initializeState(blockId, RuntimeIdGenerator.generateTaskGroupId());
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.SCHEDULED, null);
+    final ExecutorService executorService = Executors.newFixedThreadPool(NUM_THREADS);
+    final List<Future<List<Long>>> futures = new ArrayList<>(NUM_THREADS);
+
+    for (int threadIdx = 0; threadIdx < NUM_THREADS; threadIdx++) {
+      final String executorId = RuntimeIdGenerator.generateExecutorId();
+      futures.add(executorService.submit(() -> {
+        final ReplyCollector replyCollector = new ReplyCollector();
+        final List<Long> positions = new ArrayList<>(NUM_BLOCKS_PER_THREAD);
+        for (int i = 0; i < NUM_BLOCKS_PER_THREAD; i++) {
+          blockManagerMaster.onReservePartition(newReservePartitionMessage(executorId, blockId), replyCollector);
+          final ControlMessage.ReservePartitionResponseMsg response = replyCollector.lastReserveResponse;
+          positions.add(response.getPositionToWrite());
+          blockManagerMaster.onCommitPartitions(newCommitPartitionMessage(blockId,
+              getPartitionIndices(response.getPartitionIdx())));
+        }
+        return positions;
+      }));
+    }
+    final Set<Long> positions = new HashSet<>();
+    for (final Future<List<Long>> future : futures) {
+      positions.addAll(future.get());
+    }
+    executorService.shutdown();
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.COMMITTED, "writer");
+
+    final int numReservations = NUM_THREADS * NUM_BLOCKS_PER_THREAD;
+    final long reservationSize = (long) NUM_PARTITIONS_PER_BLOCK * PARTITION_SIZE;
+    assertEquals(numReservations, positions.size());
+    for (int i = 0; i < numReservations; i++) {
+      assertTrue(positions.contains(i * reservationSize));
+    }
+    final ReplyCollector replyCollector = new ReplyCollector();
+    blockManagerMaster.onRequestPartitionMetadata(newRequestPartitionMetadataMessage(blockId), replyCollector);
+    final List<ControlMessage.PartitionMetadataMsg> partitionMetadata =
+        replyCollector.lastMetadataResponse.getPartitionMetadataList();
+    assertEquals(numReservations * NUM_PARTITIONS_PER_BLOCK, partitionMetadata.size());
+    for (int p = 0; p < partitionMetadata.size(); p++) {
+      assertEquals((long) p * PARTITION_SIZE, partitionMetadata.get(p).getOffset());
+    }
+  }
+
+  /**
+   * Schedules, reserves, commits and looks up a block, checking the replies of the master.
+   * @param executorId     the executor writing the block.
+   * @param blockId        the block to write.
+   * @param taskGroupId    the task group producing the block.
+   * @param replyCollector the context collecting the replies.
+   */
+  private void writeBlock(final String executorId,
+                          final String blockId,
+                          final String taskGroupId,
+                          final ReplyCollector replyCollector) {
+    blockManagerMaster.onProducerTaskGroupScheduled(taskGroupId);
+    blockManagerMaster.onReservePartition(newReservePartitionMessage(executorId, blockId), replyCollector);
+    // The partition metadata of the previous write are removed, so each write starts from the beginning.
+    assertEquals(0, replyCollector.lastReserveResponse.getPartitionIdx());
+    assertEquals(0, replyCollector.lastReserveResponse.getPositionToWrite());
+    blockManagerMaster.onCommitPartitions(newCommitPartitionMessage(blockId, getPartitionIndices(0)));
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.COMMITTED, executorId);
+    assertEquals(executorId, blockManagerMaster.getBlockLocationFuture(blockId).getNow(null));
+  }
+
+  private static List<Integer> getPartitionIndices(final int firstPartitionIdx) {
+    final List<Integer> partitionIndices = new ArrayList<>(NUM_PARTITIONS_PER_BLOCK);
+    for (int p = 0; p < NUM_PARTITIONS_PER_BLOCK; p++) {
+      partitionIndices.add(firstPartitionIdx + p);
+    }
+    return partitionIndices;
+  }
+
+  private static ControlMessage.Message newReservePartitionMessage(final String executorId,
+                                                                   final String blockId) {
+    final ControlMessage.ReservePartitionMsg.Builder reservePartitionMsgBuilder =
+        ControlMessage.ReservePartitionMsg.newBuilder()
+            .setExecutorId(executorId)
+            .setBlockId(blockId);
+    for (int p = 0; p < NUM_PARTITIONS_PER_BLOCK; p++) {
+      reservePartitionMsgBuilder.addPartitionMetadata(ControlMessage.PartitionMetadataMsg.newBuilder()
+          .setKey(PARTITION_KEY)
+          .setPartitionSize(PARTITION_SIZE)
+          .setNumElements(16)
+          .build());
+    }
+    return ControlMessage.Message.newBuilder()
+        .setId(RuntimeIdGenerator.generateMessageId())
+        .setListenerId(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID)
+        .setType(ControlMessage.MessageType.ReservePartition)
+        .setReservePartitionMsg(reservePartitionMsgBuilder.build())
+        .build();
+  }
+
+  private static ControlMessage.Message newCommitPartitionMessage(final String blockId,
+                                                                 final List<Integer> partitionIndices) {
+    return ControlMessage.Message.newBuilder()
+        .setId(RuntimeIdGenerator.generateMessageId())
+        .setListenerId(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID)
+        .setType(ControlMessage.MessageType.CommitPartition)
+        .setCommitPartitionMsg(ControlMessage.CommitPartitionMsg.newBuilder()
+            .setBlockId(blockId)
+            .addAllPartitionIdx(partitionIndices)
+            .build())
+        .build();
+  }
+
+  private static ControlMessage.Message newRequestPartitionMetadataMessage(final String blockId) {
+    return ControlMessage.Message.newBuilder()
+        .setId(RuntimeIdGenerator.generateMessageId())
+        .setListenerId(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID)
+        .setType(ControlMessage.MessageType.RequestPartitionMetadata)
+        .setRequestPartitionMetadataMsg(ControlMessage.RequestPartitionMetadataMsg.newBuilder()
+            .setExecutorId("reader")
+            .setBlockId(blockId)
+            .build())
+        .build();
+  }
+
+  private static ControlMessage.Message newRemovePartitionMetadataMessage(final String blockId) {
+    return ControlMessage.Message.newBuilder()
+        .setId(RuntimeIdGenerator.generateMessageId())
+        .setListenerId(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID)
+        .setType(ControlMessage.MessageType.RemovePartitionMetadata)
+        .setRemovePartitionMetadataMsg(ControlMessage.RemovePartitionMetadataMsg.newBuilder()
+            .setBlockId(blockId)
+            .build())
+        .build();
+  }
+
+  /**
+   * A {@link MessageContext} remembering the last replies to the reservations and the metadata requests.
+   */
+  private static final class ReplyCollector implements MessageContext {
+    private ControlMessage.ReservePartitionResponseMsg lastReserveResponse;
+    private ControlMessage.MetadataResponseMsg lastMetadataResponse;
+
+    @Override
+    public <U> void reply(final U replyMessage) {
+      final ControlMessage.Message message = (ControlMessage.Message) replyMessage;
+      if (message.getType() == ControlMessage.MessageType.ReservePartitionResponse) {
+        lastReserveResponse = message.getReservePartitionResponseMsg();
+      } else {
+        lastMetadataResponse = message.getMetadataResponseMsg();
+      }
+    }
+  }
+}
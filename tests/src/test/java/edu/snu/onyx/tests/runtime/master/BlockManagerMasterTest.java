@@ -16,6 +16,7 @@
 package edu.snu.onyx.tests.runtime.master;
 
 import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
 import edu.snu.onyx.runtime.common.exception.AbsentBlockException;
 import edu.snu.onyx.runtime.common.message.MessageEnvironment;
 import edu.snu.onyx.runtime.common.message.local.LocalMessageDispatcher;
@@ -27,6 +28,11 @@ import org.apache.reef.tang.Tang;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
@@ -152,4 +158,57 @@ public final class BlockManagerMasterTest {
     checkBlockAbsentException(blockManagerMaster.getBlockLocationFuture(blockId), blockId,
         BlockState.State.REMOVED);
   }
+
+  private void finishPeerFetch(final String blockId, final String executorId) {
+    blockManagerMaster.onPeerFetchFinished(ControlMessage.Message.newBuilder()
+        .setId(RuntimeIdGenerator.generateMessageId())
+        .setListenerId(MessageEnvironment.BLOCK_MANAGER_MASTER_MESSAGE_LISTENER_ID)
+        .setType(ControlMessage.MessageType.PeerFetchFinished)
+        .setPeerFetchFinishedMsg(ControlMessage.PeerFetchFinishedMsg.newBuilder()
+            .setExecutorId(executorId)
+            .setBlockId(blockId)
+            .setReplicated(true))
+        .build());
+  }
+
+  /**
+   * Test scenario where a broadcast block spreads from its owner to the executors in a fan-out tree.
+   * @throws Exception
+   */
+  @Test
+  public void testPeerToPeerFanOut() throws Exception {
+    final String edgeId = RuntimeIdGenerator.generateRuntimeEdgeId("Edge-2");
+    final String taskGroupId = RuntimeIdGenerator.generateTaskGroupId();
+    final String ownerId = RuntimeIdGenerator.generateExecutorId();
+    final String blockId = RuntimeIdGenerator.generateBlockId(edgeId, 0);
+    final List<String> requesterIds = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      requesterIds.add(RuntimeIdGenerator.generateExecutorId());
+    }
+
+    // A request before the block is committed is pending.
+    blockManagerMaster.initializeState(blockId, taskGroupId);
+    blockManagerMaster.onProducerTaskGroupScheduled(taskGroupId);
+    final CompletableFuture<String> future0 = blockManagerMaster.getPeerLocationFuture(blockId, requesterIds.get(0));
+    checkPendingFuture(future0);
+
+    // The owner serves up to the default fan-out of 2 executors at once.
+    blockManagerMaster.onBlockStateChanged(blockId, BlockState.State.COMMITTED, ownerId);
+    checkBlockLocation(future0, ownerId);
+    checkBlockLocation(blockManagerMaster.getPeerLocationFuture(blockId, requesterIds.get(1)), ownerId);
+    final CompletableFuture<String> future2 = blockManagerMaster.getPeerLocationFuture(blockId, requesterIds.get(2));
+    checkPendingFuture(future2);
+
+    // An executor which fetched the block serves it onward, and frees a slot of the owner.
+    finishPeerFetch(blockId, requesterIds.get(0));
+    assertTrue(future2.isDone());
+    final CompletableFuture<String> future3 = blockManagerMaster.getPeerLocationFuture(blockId, requesterIds.get(3));
+    final Set<String> sources = new HashSet<>(Arrays.asList(future2.get(), future3.get()));
+    assertEquals(new HashSet<>(Arrays.asList(ownerId, requesterIds.get(0))), sources);
+
+    // The replicas are dropped with the block.
+    blockManagerMaster.removeWorker(ownerId);
+    checkBlockAbsentException(blockManagerMaster.getPeerLocationFuture(blockId, requesterIds.get(1)), blockId,
+        BlockState.State.LOST);
+  }
 }
@@ -15,6 +15,8 @@
  */
 package edu.snu.onyx.tests.runtime.master;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.snu.onyx.common.coder.Coder;
 import edu.snu.onyx.common.ir.edge.IREdge;
 import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
@@ -25,6 +27,7 @@ import edu.snu.onyx.compiler.frontend.beam.transform.DoTransform;
 import edu.snu.onyx.common.ir.vertex.transform.Transform;
 import edu.snu.onyx.compiler.optimizer.CompiletimeOptimizer;
 import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
 import edu.snu.onyx.runtime.common.message.MessageEnvironment;
 import edu.snu.onyx.runtime.common.message.local.LocalMessageDispatcher;
 import edu.snu.onyx.runtime.common.message.local.LocalMessageEnvironment;
@@ -46,6 +49,11 @@ import org.junit.runner.RunWith;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
@@ -179,4 +187,145 @@ public final class JobStateManagerTest {
     state = jobStateManager.waitUntilFinish();
     assertEquals(state.getStateMachine().getCurrentState(), JobState.State.COMPLETE);
   }
+
+  /**
+   * The trace of a job holds the stages in the master lane, and the TaskGroups in the lanes of their executors,
+   * along with the spans measured by the executors.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testTrace() throws Exception {
+    final Transform t = mock(Transform.class);
+    final IRVertex v1 = new OperatorVertex(t);
+    v1.setProperty(ParallelismProperty.of(2));
+    irDAGBuilder.addVertex(v1);
+    final IRVertex v2 = new OperatorVertex(t);
+    v2.setProperty(ParallelismProperty.of(1));
+    irDAGBuilder.addVertex(v2);
+    irDAGBuilder.connectVertices(
+        new IREdge(DataCommunicationPatternProperty.Value.Shuffle, v1, v2, Coder.DUMMY_CODER));
+    final DAG<IRVertex, IREdge> irDAG = CompiletimeOptimizer.optimize(irDAGBuilder.buildWithoutSourceSinkCheck(),
+        new TestPolicy(), "");
+    final DAG<PhysicalStage, PhysicalStageEdge> physicalDAG = irDAG.convert(physicalPlanGenerator);
+    final JobStateManager jobStateManager = new JobStateManager(
+        new PhysicalPlan("TracePlan", physicalDAG, physicalPlanGenerator.getTaskIRVertexMap()),
+        blockManagerMaster, metricMessageHandler, MAX_SCHEDULE_ATTEMPT);
+
+    // Both TaskGroups of the first stage run at once in Executor-1.
+    final List<PhysicalStage> stageList = physicalDAG.getTopologicalSort();
+    final long startMicros = System.currentTimeMillis() * 1000;
+    for (final PhysicalStage physicalStage : stageList) {
+      jobStateManager.onStageStateChanged(physicalStage.getId(), StageState.State.EXECUTING);
+      final List<TaskGroup> taskGroupList = physicalStage.getTaskGroupList();
+      final List<String> executorIds = new ArrayList<>();
+      for (final TaskGroup taskGroup : taskGroupList) {
+        jobStateManager.onTaskGroupStateChanged(taskGroup, TaskGroupState.State.EXECUTING);
+        executorIds.add(stageList.indexOf(physicalStage) == 0 ? "Executor-1" : "Executor-2");
+      }
+      for (final TaskGroup taskGroup : taskGroupList) {
+        final List<ControlMessage.TraceSpanMsg> spans = Arrays.asList(
+            span(taskGroup.getTaskGroupId(), ControlMessage.TraceSpanCategory.TASK_GROUP, startMicros, 100)
+                .toBuilder().setFetchWaitMicros(10).setWriteMicros(20).build(),
+            span("Task", ControlMessage.TraceSpanCategory.TASK, startMicros, 100),
+            span("Edge", ControlMessage.TraceSpanCategory.FETCH, startMicros, 10),
+            span("Edge", ControlMessage.TraceSpanCategory.FETCH, startMicros, 10));
+        assertTrue(jobStateManager.onTraceSpansReceived(
+            executorIds.get(taskGroup.getTaskGroupIdx()), taskGroup.getTaskGroupId(), 0, spans));
+        jobStateManager.onTaskGroupStateChanged(taskGroup, TaskGroupState.State.COMPLETE);
+      }
+    }
+    assertFalse(jobStateManager.onTraceSpansReceived("Executor-1", "TaskGroup-Unknown", 0, new ArrayList<>()));
+
+    final File directory = Files.createTempDirectory("trace").toFile();
+    jobStateManager.storeTrace(directory.getPath());
+    final File traceFile = new File(directory, "TracePlan-trace.json");
+    final JsonNode events = new ObjectMapper().readTree(traceFile).get("traceEvents");
+    traceFile.delete();
+    directory.delete();
+
+    int numStages = 0;
+    int numTaskGroups = 0;
+    int numFetchBegins = 0;
+    final List<Integer> executor1Lanes = new ArrayList<>();
+    for (final JsonNode event : events) {
+      final String category = event.path("cat").asText();
+      if ("stage".equals(category)) {
+        numStages++;
+        assertEquals(0, event.get("pid").asInt());
+        if (event.get("name").asText().equals(stageList.get(1).getId())) {
+          assertEquals(stageList.get(0).getId(), event.get("args").get("parents").get(0).asText());
+        }
+      } else if ("task_group".equals(category)) {
+        numTaskGroups++;
+        assertTrue(event.get("args").has("readyMicros"));
+        assertTrue(event.get("args").has("dispatchMicros"));
+        assertEquals(10, event.get("args").get("fetchWaitMicros").asLong());
+        if (event.get("pid").asInt() == 1) {
+          executor1Lanes.add(event.get("tid").asInt());
+        }
+      } else if ("fetch".equals(category) && "b".equals(event.get("ph").asText())) {
+        numFetchBegins++;
+      }
+    }
+    assertEquals(2, numStages);
+    assertEquals(3, numTaskGroups);
+    assertEquals(6, numFetchBegins);
+    // The overlapping TaskGroups are in different lanes.
+    assertEquals(2, executor1Lanes.stream().distinct().count());
+  }
+
+  @Test
+  public void testEventLog() throws Exception {
+    final Transform t = mock(Transform.class);
+    final IRVertex v1 = new OperatorVertex(t);
+    v1.setProperty(ParallelismProperty.of(2));
+    irDAGBuilder.addVertex(v1);
+    final IRVertex v2 = new OperatorVertex(t);
+    v2.setProperty(ParallelismProperty.of(1));
+    irDAGBuilder.addVertex(v2);
+    irDAGBuilder.connectVertices(
+        new IREdge(DataCommunicationPatternProperty.Value.Shuffle, v1, v2, Coder.DUMMY_CODER));
+    final DAG<IRVertex, IREdge> irDAG = CompiletimeOptimizer.optimize(irDAGBuilder.buildWithoutSourceSinkCheck(),
+        new TestPolicy(), "");
+    final DAG<PhysicalStage, PhysicalStageEdge> physicalDAG = irDAG.convert(physicalPlanGenerator);
+    final JobStateManager jobStateManager = new JobStateManager(
+        new PhysicalPlan("EventLogPlan", physicalDAG, physicalPlanGenerator.getTaskIRVertexMap()),
+        blockManagerMaster, metricMessageHandler, MAX_SCHEDULE_ATTEMPT);
+
+    final File directory = Files.createTempDirectory("events").toFile();
+    jobStateManager.startEventLog(directory.getPath());
+    for (final PhysicalStage physicalStage : physicalDAG.getTopologicalSort()) {
+      jobStateManager.onStageStateChanged(physicalStage.getId(), StageState.State.EXECUTING);
+      for (final TaskGroup taskGroup : physicalStage.getTaskGroupList()) {
+        jobStateManager.onTaskGroupStateChanged(taskGroup, TaskGroupState.State.EXECUTING);
+        jobStateManager.onTaskGroupStateChanged(taskGroup, TaskGroupState.State.COMPLETE);
+      }
+    }
+    jobStateManager.closeEventLog();
+    final File eventLogFile = new File(directory, "EventLogPlan-events.jsonl");
+    final List<String> lines = Files.readAllLines(eventLogFile.toPath());
+    eventLogFile.delete();
+    directory.delete();
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final JsonNode jobStarted = objectMapper.readTree(lines.get(0));
+    assertEquals("JobStarted", jobStarted.get("type").asText());
+    assertEquals(2, jobStarted.get("plan").get("vertices").size());
+    final Map<String, Integer> typeToCount = new HashMap<>();
+    for (final String line : lines) {
+      typeToCount.merge(objectMapper.readTree(line).get("type").asText(), 1, Integer::sum);
+    }
+    // The job, which is already executing when the log starts, and the stages complete along with the TaskGroups.
+    assertEquals(Integer.valueOf(1), typeToCount.get("JobStateChanged"));
+    assertEquals(Integer.valueOf(4), typeToCount.get("StageStateChanged"));
+    assertEquals(Integer.valueOf(6), typeToCount.get("TaskGroupStateChanged"));
+  }
+
+  private static ControlMessage.TraceSpanMsg span(final String name,
+                                                  final ControlMessage.TraceSpanCategory category,
+                                                  final long startMicros,
+                                                  final long durationMicros) {
+    return ControlMessage.TraceSpanMsg.newBuilder()
+        .setName(name).setCategory(category).setStartMicros(startMicros).setDurationMicros(durationMicros).build();
+  }
 }
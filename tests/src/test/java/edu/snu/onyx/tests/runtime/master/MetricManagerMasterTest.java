@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.master;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.master.JobStateManager;
+import edu.snu.onyx.runtime.master.MetricManagerMaster;
+import edu.snu.onyx.runtime.master.MetricMessageHandler;
+import org.apache.commons.io.IOUtils;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link MetricManagerMaster}.
+ */
+public final class MetricManagerMasterTest {
+  private static final String COUNTER = "RecordsIn/vertex1";
+  private static final String GAUGE = "GcCount";
+  private static final String DURATION = JobStateManager.TASK_GROUP_DURATION_NANOS + "Stage-0";
+  private MetricMessageHandler metricMessageHandler;
+
+  @Before
+  public void setUp() throws Exception {
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileParameter(JobConf.MetricSeriesLength.class, 2);
+    metricMessageHandler = injector.getInstance(MetricManagerMaster.class);
+  }
+
+  /**
+   * The metrics are exported in the Prometheus text format, one family for each kind of metric.
+   */
+  @Test
+  public void testPrometheusText() {
+    metricMessageHandler.onNumericMetricsReceived("Executor-1", Arrays.asList(counter(3), gauge(5)));
+    metricMessageHandler.onNumericMetricsReceived("Executor-2", Arrays.asList(counter(4), gauge(6)));
+    metricMessageHandler.onDurationMeasured(DURATION, 1024);
+
+    final String text = metricMessageHandler.toPrometheusText();
+    assertTrue(text.contains("# TYPE onyx_records_in_total counter\n"));
+    assertTrue(text.contains("onyx_records_in_total{id=\"vertex1\"} 7\n"));
+    assertTrue(text.contains("# TYPE onyx_gc_count gauge\n"));
+    assertTrue(text.contains("onyx_gc_count{executor=\"Executor-2\"} 6\n"));
+    assertTrue(text.contains("# TYPE onyx_task_group_duration_nanos summary\n"));
+    assertTrue(text.contains("onyx_task_group_duration_nanos{id=\"Stage-0\",quantile=\"0.99\"} 1024\n"));
+    assertTrue(text.contains("onyx_task_group_duration_nanos_count{id=\"Stage-0\"} 1\n"));
+  }
+
+  /**
+   * The metrics are exported in JSON for the web UI.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testJson() throws Exception {
+    metricMessageHandler.onNumericMetricsReceived("Executor-1", Arrays.asList(counter(3), gauge(5)));
+    metricMessageHandler.onDurationMeasured(DURATION, 1024);
+    metricMessageHandler.onDurationMeasured(DURATION, 2048);
+
+    final JsonNode json = new ObjectMapper().readTree(metricMessageHandler.toJson());
+    assertEquals(3, json.get("counters").get(COUNTER).get("total").asLong());
+    assertEquals(1, json.get("counters").get(COUNTER).get("series").size());
+    assertEquals(5, json.get("gauges").get(GAUGE).get("Executor-1").asLong());
+    assertEquals(2, json.get("histograms").get(DURATION).get("count").asLong());
+    assertEquals(2048, json.get("histograms").get(DURATION).get("max").asLong());
+  }
+
+  /**
+   * The memory kept for the string metrics and the counter series is bounded.
+   */
+  @Test
+  public void testBoundedMetrics() {
+    for (int i = 0; i < 100; i++) {
+      metricMessageHandler.onMetricMessageReceived("TaskGroup-0", String.valueOf(i));
+    }
+    assertEquals(16, metricMessageHandler.getMetricByKey("TaskGroup-0").size());
+    assertEquals("99", metricMessageHandler.getMetricByKey("TaskGroup-0").get(15));
+
+    // The increments within a second update the last sample.
+    metricMessageHandler.onNumericMetricsReceived("Executor-1", Collections.singletonList(counter(1)));
+    metricMessageHandler.onNumericMetricsReceived("Executor-1", Collections.singletonList(counter(1)));
+    assertEquals(1, metricMessageHandler.getCounterSeries(COUNTER).size());
+    assertEquals(2L, (long) metricMessageHandler.getCounterSeries(COUNTER).get(0).right());
+
+    metricMessageHandler.terminate();
+    assertNull(metricMessageHandler.getMetricByKey("TaskGroup-0"));
+    assertEquals(0, metricMessageHandler.getCounter(COUNTER));
+  }
+
+  /**
+   * Resetting the metrics before a new job discards those of the previous jobs, and keeps the handler running.
+   */
+  @Test
+  public void testReset() {
+    metricMessageHandler.onMetricMessageReceived("TaskGroup-0", "0");
+    metricMessageHandler.onNumericMetricsReceived("Executor-1", Arrays.asList(counter(3), gauge(5)));
+    metricMessageHandler.onDurationMeasured(DURATION, 1024);
+
+    metricMessageHandler.reset();
+    assertNull(metricMessageHandler.getMetricByKey("TaskGroup-0"));
+    assertEquals(0, metricMessageHandler.getCounter(COUNTER));
+    assertTrue(metricMessageHandler.getGauge(GAUGE).isEmpty());
+    assertNull(metricMessageHandler.getHistogram(DURATION));
+
+    metricMessageHandler.onNumericMetricsReceived("Executor-1", Collections.singletonList(counter(1)));
+    assertEquals(1, metricMessageHandler.getCounter(COUNTER));
+  }
+
+  /**
+   * The metrics are served on the loopback interface.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testServeOnLoopback() throws Exception {
+    final int port;
+    try (final ServerSocket serverSocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+      port = serverSocket.getLocalPort();
+    }
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileParameter(JobConf.MetricServerPort.class, port);
+    final MetricMessageHandler servingHandler = injector.getInstance(MetricManagerMaster.class);
+    try {
+      servingHandler.onNumericMetricsReceived("Executor-1", Collections.singletonList(counter(3)));
+      final HttpURLConnection connection = (HttpURLConnection)
+          new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), port, "/metrics").openConnection();
+      assertEquals(200, connection.getResponseCode());
+      try (final InputStream inputStream = connection.getInputStream()) {
+        final String text = new String(IOUtils.toByteArray(inputStream), StandardCharsets.UTF_8);
+        assertTrue(text.contains("onyx_records_in_total{id=\"vertex1\"} 3\n"));
+      }
+    } finally {
+      servingHandler.terminate();
+    }
+  }
+
+  private static ControlMessage.NumericMetric counter(final long value) {
+    return ControlMessage.NumericMetric.newBuilder()
+        .setName(COUNTER).setType(ControlMessage.NumericMetricType.COUNTER).setValue(value).build();
+  }
+
+  private static ControlMessage.NumericMetric gauge(final long value) {
+    return ControlMessage.NumericMetric.newBuilder()
+        .setName(GAUGE).setType(ControlMessage.NumericMetricType.GAUGE).setValue(value).build();
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.master;
+
+import edu.snu.onyx.runtime.common.RuntimeIdGenerator;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.message.MessageEnvironment;
+import edu.snu.onyx.runtime.common.state.TaskGroupState;
+import edu.snu.onyx.runtime.master.PartitionedEventExecutor;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link PartitionedEventExecutor}, by replaying recorded streams of TaskGroup state changes from many
+ * executors onto the state machines of the TaskGroups, as the runtime master does.
+ */
+public final class PartitionedEventExecutorTest {
+  private static final int NUM_PARTITIONS = 4;
+  private static final int NUM_PRODUCERS = 4;
+  private static final int NUM_EXECUTORS = 16;
+  private static final int NUM_TASK_GROUPS_PER_EXECUTOR = 256;
+  private static final double FAILURE_RATIO = 0.2;
+
+  /**
+   * The messages of each executor are sent by one of the producers, interleaved with those of the other executors
+   * the producer sends. Each executor runs its TaskGroups one by one, some of which fail and are retried.
+   * The messages of an executor should be handled in the order they were recorded, so that no transition is illegal
+   * and the final states are those of the sequential replay.
+   * @throws Exception exception on the way.
+   */
+  @Test(timeout = 60000)
+  public void testReplayTaskGroupStateChanges() throws Exception {
+    final Random random = new Random(0);
+    final Map<String, List<ControlMessage.Message>> executorIdToMessages = new HashMap<>();
+    for (int executorIdx = 0; executorIdx < NUM_EXECUTORS; executorIdx++) {
+      final String executorId = "Executor-" + executorIdx;
+      final List<ControlMessage.Message> messages = new ArrayList<>();
+      for (int taskGroupIdx = 0; taskGroupIdx < NUM_TASK_GROUPS_PER_EXECUTOR; taskGroupIdx++) {
+        final String taskGroupId = executorId + "-TaskGroup-" + taskGroupIdx;
+        int attemptIdx = 0;
+        messages.add(createMessage(executorId, taskGroupId, ControlMessage.TaskGroupStateFromExecutor.EXECUTING,
+            attemptIdx));
+        while (random.nextDouble() < FAILURE_RATIO) {
+          messages.add(createMessage(executorId, taskGroupId,
+              ControlMessage.TaskGroupStateFromExecutor.FAILED_RECOVERABLE, attemptIdx));
+          attemptIdx++;
+          messages.add(createMessage(executorId, taskGroupId, ControlMessage.TaskGroupStateFromExecutor.READY,
+              attemptIdx));
+          messages.add(createMessage(executorId, taskGroupId, ControlMessage.TaskGroupStateFromExecutor.EXECUTING,
+              attemptIdx));
+        }
+        messages.add(createMessage(executorId, taskGroupId, ControlMessage.TaskGroupStateFromExecutor.COMPLETE,
+            attemptIdx));
+      }
+      executorIdToMessages.put(executorId, messages);
+    }
+    final Map<String, TaskGroupState.State> expectedStates = replay(executorIdToMessages);
+
+    final Map<String, TaskGroupState> taskGroupStates = createTaskGroupStates(executorIdToMessages);
+    final Map<String, List<ControlMessage.Message>> executorIdToHandledMessages = new ConcurrentHashMap<>();
+    final Set<String> handlingThreads = ConcurrentHashMap.newKeySet();
+    final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    final int numMessages = executorIdToMessages.values().stream().mapToInt(List::size).sum();
+    final CountDownLatch handledLatch = new CountDownLatch(numMessages);
+    final PartitionedEventExecutor eventExecutor = new PartitionedEventExecutor("TestEvent", NUM_PARTITIONS);
+
+    final ExecutorService producers = Executors.newFixedThreadPool(NUM_PRODUCERS);
+    final List<Future<?>> futures = new ArrayList<>(NUM_PRODUCERS);
+    for (int producerIdx = 0; producerIdx < NUM_PRODUCERS; producerIdx++) {
+      final int currentProducerIdx = producerIdx;
+      futures.add(producers.submit(() -> {
+        final Random producerRandom = new Random(currentProducerIdx);
+        final List<Iterator<ControlMessage.Message>> streams = new ArrayList<>();
+        for (int executorIdx = currentProducerIdx; executorIdx < NUM_EXECUTORS; executorIdx += NUM_PRODUCERS) {
+          streams.add(executorIdToMessages.get("Executor-" + executorIdx).iterator());
+        }
+        while (!streams.isEmpty()) {
+          final int streamIdx = producerRandom.nextInt(streams.size());
+          final Iterator<ControlMessage.Message> stream = streams.get(streamIdx);
+          final ControlMessage.Message message = stream.next();
+          if (!stream.hasNext()) {
+            streams.remove(streamIdx);
+          }
+          final String executorId = message.getTaskGroupStateChangedMsg().getExecutorId();
+          eventExecutor.execute(executorId, () -> {
+            try {
+              handlingThreads.add(Thread.currentThread().getName());
+              executorIdToHandledMessages.computeIfAbsent(executorId, key -> new ArrayList<>()).add(message);
+              final ControlMessage.TaskGroupStateChangedMsg stateChangedMsg = message.getTaskGroupStateChangedMsg();
+              taskGroupStates.get(stateChangedMsg.getTaskGroupId()).getStateMachine()
+                  .setState(TaskGroupState.State.valueOf(stateChangedMsg.getState().name()));
+            } catch (final Throwable e) {
+              errors.add(e);
+            } finally {
+              handledLatch.countDown();
+            }
+          });
+        }
+      }));
+    }
+    for (final Future<?> future : futures) {
+      future.get();
+    }
+    producers.shutdown();
+    handledLatch.await();
+    eventExecutor.shutdown();
+
+    assertTrue("Illegal transitions: " + errors, errors.isEmpty());
+    assertEquals(executorIdToMessages, executorIdToHandledMessages);
+    taskGroupStates.forEach((taskGroupId, taskGroupState) ->
+        assertEquals(expectedStates.get(taskGroupId), taskGroupState.getStateMachine().getCurrentState()));
+    assertTrue(handlingThreads.size() > 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoPartition() {
+    new PartitionedEventExecutor("TestEvent", 0);
+  }
+
+  /**
+   * Replays the messages sequentially, in the order they were recorded.
+   * @param executorIdToMessages the recorded messages of each executor.
+   * @return the final states of the TaskGroups.
+   */
+  private static Map<String, TaskGroupState.State> replay(
+      final Map<String, List<ControlMessage.Message>> executorIdToMessages) {
+    final Map<String, TaskGroupState> taskGroupStates = createTaskGroupStates(executorIdToMessages);
+    executorIdToMessages.values().forEach(messages -> messages.forEach(message -> {
+      final ControlMessage.TaskGroupStateChangedMsg stateChangedMsg = message.getTaskGroupStateChangedMsg();
+      taskGroupStates.get(stateChangedMsg.getTaskGroupId()).getStateMachine()
+          .setState(TaskGroupState.State.valueOf(stateChangedMsg.getState().name()));
+    }));
+    final Map<String, TaskGroupState.State> finalStates = new HashMap<>();
+    taskGroupStates.forEach((taskGroupId, taskGroupState) ->
+        finalStates.put(taskGroupId, (TaskGroupState.State) taskGroupState.getStateMachine().getCurrentState()));
+    return finalStates;
+  }
+
+  private static Map<String, TaskGroupState> createTaskGroupStates(
+      final Map<String, List<ControlMessage.Message>> executorIdToMessages) {
+    final Map<String, TaskGroupState> taskGroupStates = new HashMap<>();
+    executorIdToMessages.values().forEach(messages -> messages.forEach(message ->
+        taskGroupStates.putIfAbsent(message.getTaskGroupStateChangedMsg().getTaskGroupId(), new TaskGroupState())));
+    return taskGroupStates;
+  }
+
+  private static ControlMessage.Message createMessage(final String executorId,
+                                                      final String taskGroupId,
+                                                      final ControlMessage.TaskGroupStateFromExecutor state,
+                                                      final int attemptIdx) {
+    return ControlMessage.Message.newBuilder()
+        .setId(RuntimeIdGenerator.generateMessageId())
+        .setListenerId(MessageEnvironment.RUNTIME_MASTER_MESSAGE_LISTENER_ID)
+        .setType(ControlMessage.MessageType.TaskGroupStateChanged)
+        .setTaskGroupStateChangedMsg(ControlMessage.TaskGroupStateChangedMsg.newBuilder()
+            .setExecutorId(executorId)
+            .setTaskGroupId(taskGroupId)
+            .setState(state)
+            .setAttemptIdx(attemptIdx))
+        .build();
+  }
+}
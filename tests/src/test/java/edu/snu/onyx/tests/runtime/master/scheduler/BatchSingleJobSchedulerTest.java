@@ -15,11 +15,13 @@
  */
 package edu.snu.onyx.tests.runtime.master.scheduler;
 
+import edu.snu.onyx.common.Pair;
 import edu.snu.onyx.common.coder.Coder;
 import edu.snu.onyx.common.eventhandler.PubSubEventHandlerWrapper;
 import edu.snu.onyx.common.ir.edge.IREdge;
 import edu.snu.onyx.common.ir.edge.executionproperty.DataCommunicationPatternProperty;
 import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.MetricCollectionBarrierVertex;
 import edu.snu.onyx.common.ir.vertex.OperatorVertex;
 import edu.snu.onyx.common.ir.vertex.executionproperty.ExecutorPlacementProperty;
 import edu.snu.onyx.common.ir.vertex.executionproperty.ParallelismProperty;
@@ -31,9 +33,11 @@ import edu.snu.onyx.compiler.optimizer.examples.EmptyComponents;
 import edu.snu.onyx.conf.JobConf;
 import edu.snu.onyx.tests.runtime.RuntimeTestUtil;
 import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.eventhandler.DynamicOptimizationEvent;
 import edu.snu.onyx.runtime.common.message.MessageSender;
 import edu.snu.onyx.runtime.common.plan.physical.*;
 import edu.snu.onyx.runtime.common.state.StageState;
+import edu.snu.onyx.runtime.common.state.TaskGroupState;
 import edu.snu.onyx.runtime.master.JobStateManager;
 import edu.snu.onyx.runtime.master.MetricMessageHandler;
 import edu.snu.onyx.runtime.master.BlockManagerMaster;
@@ -49,6 +53,7 @@ import org.apache.reef.driver.context.ActiveContext;
 import org.apache.reef.tang.Injector;
 import org.apache.reef.tang.Tang;
 import org.apache.reef.tang.exceptions.InjectionException;
+import org.apache.reef.wake.impl.PubSubEventHandler;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -59,9 +64,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -97,13 +108,13 @@ public final class BatchSingleJobSchedulerTest {
     containerManager = mock(ContainerManager.class);
     metricMessageHandler = mock(MetricMessageHandler.class);
     pendingTaskGroupQueue = new SingleJobTaskGroupQueue();
-    schedulingPolicy = new RoundRobinSchedulingPolicy(containerManager, TEST_TIMEOUT_MS);
+    schedulingPolicy = new RoundRobinSchedulingPolicy(containerManager, TEST_TIMEOUT_MS, 0);
     schedulerRunner = new SchedulerRunner(schedulingPolicy, pendingTaskGroupQueue);
     pubSubEventHandler = mock(PubSubEventHandlerWrapper.class);
     updatePhysicalPlanEventHandler = mock(UpdatePhysicalPlanEventHandler.class);
     scheduler =
         new BatchSingleJobScheduler(schedulingPolicy, schedulerRunner, pendingTaskGroupQueue,
-            blockManagerMaster, pubSubEventHandler, updatePhysicalPlanEventHandler);
+            blockManagerMaster, pubSubEventHandler, updatePhysicalPlanEventHandler, 1.0, 1.0);
 
     final Map<String, ExecutorRepresenter> executorRepresenterMap = new HashMap<>();
     when(containerManager.getExecutorRepresenterMap()).thenReturn(executorRepresenterMap);
@@ -243,6 +254,182 @@ public final class BatchSingleJobSchedulerTest {
     scheduleAndCheckJobTermination(pushIRDAG);
   }
 
+  /**
+   * Tests whether the next ScheduleGroup starts once the slow start fraction of the TaskGroups has completed,
+   * while the rest of the previous ScheduleGroup is still running.
+   */
+  @Test(timeout=10000)
+  public void testSlowStart() throws Exception {
+    scheduler = new BatchSingleJobScheduler(schedulingPolicy, schedulerRunner, pendingTaskGroupQueue,
+        blockManagerMaster, pubSubEventHandler, updatePhysicalPlanEventHandler, 0.5, 1.0);
+
+    final Transform t = new EmptyComponents.EmptyTransform("empty");
+    final IRVertex v1 = new OperatorVertex(t);
+    v1.setProperty(ParallelismProperty.of(3));
+    v1.setProperty(ExecutorPlacementProperty.of(ExecutorPlacementProperty.COMPUTE));
+    irDAGBuilder.addVertex(v1);
+
+    final IRVertex v2 = new OperatorVertex(t);
+    v2.setProperty(ParallelismProperty.of(2));
+    v2.setProperty(ExecutorPlacementProperty.of(ExecutorPlacementProperty.TRANSIENT));
+    irDAGBuilder.addVertex(v2);
+
+    final IREdge e1 = new IREdge(DataCommunicationPatternProperty.Value.Shuffle, v1, v2, Coder.DUMMY_CODER);
+    irDAGBuilder.connectVertices(e1);
+
+    final DAG<IRVertex, IREdge> irDAG = CompiletimeOptimizer.optimize(irDAGBuilder.buildWithoutSourceSinkCheck(),
+        new TestPolicy(), "");
+    final DAG<PhysicalStage, PhysicalStageEdge> physicalDAG = irDAG.convert(physicalPlanGenerator);
+    final PhysicalPlan plan = new PhysicalPlan("TestPlan", physicalDAG, physicalPlanGenerator.getTaskIRVertexMap());
+    final JobStateManager jobStateManager = new JobStateManager(plan, blockManagerMaster, metricMessageHandler, 1);
+    scheduler.scheduleJob(plan, jobStateManager);
+
+    final List<PhysicalStage> stages = physicalDAG.getTopologicalSort();
+    final PhysicalStage mapStage = stages.get(0);
+    final PhysicalStage reduceStage = stages.get(1);
+    final List<TaskGroup> mapTaskGroups = mapStage.getTaskGroupList();
+    mapTaskGroups.forEach(taskGroup -> {
+      while (jobStateManager.getTaskGroupState(taskGroup.getTaskGroupId()).getStateMachine().getCurrentState()
+          != TaskGroupState.State.EXECUTING) {
+
+      }
+    });
+
+    // One of three map TaskGroups is not enough.
+    RuntimeTestUtil.sendTaskGroupStateEventToScheduler(scheduler, containerManager,
+        mapTaskGroups.get(0).getTaskGroupId(), TaskGroupState.State.COMPLETE, MAGIC_SCHEDULE_ATTEMPT_INDEX, null);
+    assertEquals(StageState.State.READY,
+        jobStateManager.getStageState(reduceStage.getId()).getStateMachine().getCurrentState());
+
+    // The reduce stage starts with two of three map TaskGroups complete.
+    RuntimeTestUtil.sendTaskGroupStateEventToScheduler(scheduler, containerManager,
+        mapTaskGroups.get(1).getTaskGroupId(), TaskGroupState.State.COMPLETE, MAGIC_SCHEDULE_ATTEMPT_INDEX, null);
+    assertEquals(StageState.State.EXECUTING,
+        jobStateManager.getStageState(mapStage.getId()).getStateMachine().getCurrentState());
+    assertEquals(StageState.State.EXECUTING,
+        jobStateManager.getStageState(reduceStage.getId()).getStateMachine().getCurrentState());
+
+    RuntimeTestUtil.sendStageCompletionEventToScheduler(
+        jobStateManager, scheduler, containerManager, mapStage, MAGIC_SCHEDULE_ATTEMPT_INDEX);
+    RuntimeTestUtil.sendStageCompletionEventToScheduler(
+        jobStateManager, scheduler, containerManager, reduceStage, MAGIC_SCHEDULE_ATTEMPT_INDEX);
+    while (!jobStateManager.checkJobTermination()) {
+
+    }
+    assertTrue(jobStateManager.checkJobTermination());
+    RuntimeTestUtil.cleanup();
+  }
+
+  /**
+   * Tests whether the dynamic optimization is triggered once the skew sample fraction of the TaskGroups
+   * collecting metrics have been put on hold, only once for the stage, and whether the next ScheduleGroup
+   * starts early with the TaskGroups put on hold counted as done.
+   */
+  @Test(timeout=10000)
+  public void testSkewSampleAndSlowStartOnHold() throws Exception {
+    final PubSubEventHandler dynamicOptimizationEventHandler = mock(PubSubEventHandler.class);
+    when(pubSubEventHandler.getPubSubEventHandler()).thenReturn(dynamicOptimizationEventHandler);
+    scheduler = new BatchSingleJobScheduler(schedulingPolicy, schedulerRunner, pendingTaskGroupQueue,
+        blockManagerMaster, pubSubEventHandler, updatePhysicalPlanEventHandler, 0.5, 0.5);
+
+    final Transform t = new EmptyComponents.EmptyTransform("empty");
+    final IRVertex v1 = new OperatorVertex(t);
+    v1.setProperty(ParallelismProperty.of(4));
+    v1.setProperty(ExecutorPlacementProperty.of(ExecutorPlacementProperty.COMPUTE));
+    irDAGBuilder.addVertex(v1);
+
+    final IRVertex barrier = new MetricCollectionBarrierVertex();
+    barrier.setProperty(ParallelismProperty.of(4));
+    barrier.setProperty(ExecutorPlacementProperty.of(ExecutorPlacementProperty.COMPUTE));
+    irDAGBuilder.addVertex(barrier);
+
+    final IRVertex v2 = new OperatorVertex(t);
+    v2.setProperty(ParallelismProperty.of(2));
+    v2.setProperty(ExecutorPlacementProperty.of(ExecutorPlacementProperty.TRANSIENT));
+    irDAGBuilder.addVertex(v2);
+
+    final IREdge e1 = new IREdge(DataCommunicationPatternProperty.Value.OneToOne, v1, barrier, Coder.DUMMY_CODER);
+    irDAGBuilder.connectVertices(e1);
+
+    final IREdge e2 = new IREdge(DataCommunicationPatternProperty.Value.Shuffle, barrier, v2, Coder.DUMMY_CODER);
+    irDAGBuilder.connectVertices(e2);
+
+    final DAG<IRVertex, IREdge> irDAG = CompiletimeOptimizer.optimize(irDAGBuilder.buildWithoutSourceSinkCheck(),
+        new TestPolicy(), "");
+    final DAG<PhysicalStage, PhysicalStageEdge> physicalDAG = irDAG.convert(physicalPlanGenerator);
+    final PhysicalPlan plan = new PhysicalPlan("TestPlan", physicalDAG, physicalPlanGenerator.getTaskIRVertexMap());
+    final JobStateManager jobStateManager = new JobStateManager(plan, blockManagerMaster, metricMessageHandler, 1);
+    scheduler.scheduleJob(plan, jobStateManager);
+
+    final List<PhysicalStage> stages = physicalDAG.getTopologicalSort();
+    final PhysicalStage mapStage = stages.get(0);
+    final PhysicalStage reduceStage = stages.get(1);
+    final List<TaskGroup> mapTaskGroups = mapStage.getTaskGroupList();
+    final List<String> barrierTaskIds = mapTaskGroups.stream()
+        .flatMap(taskGroup -> taskGroup.getTaskDAG().getVertices().stream())
+        .filter(task -> task instanceof MetricCollectionBarrierTask)
+        .map(Task::getId)
+        .collect(Collectors.toList());
+    waitForTaskGroupState(jobStateManager, mapTaskGroups.subList(0, 3), TaskGroupState.State.EXECUTING);
+
+    // One of four map TaskGroups on hold is not enough to sample the metrics.
+    RuntimeTestUtil.sendTaskGroupStateEventToScheduler(scheduler, containerManager,
+        mapTaskGroups.get(0).getTaskGroupId(), TaskGroupState.State.ON_HOLD, MAGIC_SCHEDULE_ATTEMPT_INDEX,
+        barrierTaskIds, null);
+    verify(dynamicOptimizationEventHandler, never()).onNext(any());
+
+    // Two of four map TaskGroups on hold trigger the dynamic optimization before the map stage completes.
+    final TaskGroup sampledTaskGroup = mapTaskGroups.get(1);
+    RuntimeTestUtil.sendTaskGroupStateEventToScheduler(scheduler, containerManager,
+        sampledTaskGroup.getTaskGroupId(), TaskGroupState.State.ON_HOLD, MAGIC_SCHEDULE_ATTEMPT_INDEX,
+        barrierTaskIds, null);
+    verify(dynamicOptimizationEventHandler, times(1)).onNext(any(DynamicOptimizationEvent.class));
+    assertEquals(StageState.State.EXECUTING,
+        jobStateManager.getStageState(mapStage.getId()).getStateMachine().getCurrentState());
+    assertEquals(StageState.State.READY,
+        jobStateManager.getStageState(reduceStage.getId()).getStateMachine().getCurrentState());
+
+    // The reduce stage starts upon the optimized plan, with the two map TaskGroups on hold counted as done.
+    waitForTaskGroupState(jobStateManager, mapTaskGroups, TaskGroupState.State.EXECUTING,
+        TaskGroupState.State.ON_HOLD);
+    final String sampledExecutorId = containerManager.getExecutorRepresenterMap().values().stream()
+        .filter(executor -> executor.getCompleteTaskGroups().contains(sampledTaskGroup.getTaskGroupId()))
+        .map(ExecutorRepresenter::getExecutorId)
+        .findFirst().get();
+    scheduler.updateJob(plan.getId(), plan, Pair.of(sampledExecutorId, sampledTaskGroup));
+    assertEquals(StageState.State.EXECUTING,
+        jobStateManager.getStageState(reduceStage.getId()).getStateMachine().getCurrentState());
+
+    // The rest of the map TaskGroups put on hold do not trigger the dynamic optimization again.
+    mapTaskGroups.subList(2, 4).forEach(taskGroup ->
+        RuntimeTestUtil.sendTaskGroupStateEventToScheduler(scheduler, containerManager,
+            taskGroup.getTaskGroupId(), TaskGroupState.State.ON_HOLD, MAGIC_SCHEDULE_ATTEMPT_INDEX,
+            barrierTaskIds, null));
+    verify(dynamicOptimizationEventHandler, times(1)).onNext(any(DynamicOptimizationEvent.class));
+    assertEquals(StageState.State.COMPLETE,
+        jobStateManager.getStageState(mapStage.getId()).getStateMachine().getCurrentState());
+
+    RuntimeTestUtil.sendStageCompletionEventToScheduler(
+        jobStateManager, scheduler, containerManager, reduceStage, MAGIC_SCHEDULE_ATTEMPT_INDEX);
+    while (!jobStateManager.checkJobTermination()) {
+
+    }
+    assertTrue(jobStateManager.checkJobTermination());
+    RuntimeTestUtil.cleanup();
+  }
+
+  private void waitForTaskGroupState(final JobStateManager jobStateManager,
+                                     final List<TaskGroup> taskGroups,
+                                     final TaskGroupState.State... states) {
+    final List<TaskGroupState.State> stateList = Arrays.asList(states);
+    taskGroups.forEach(taskGroup -> {
+      while (!stateList.contains(
+          jobStateManager.getTaskGroupState(taskGroup.getTaskGroupId()).getStateMachine().getCurrentState())) {
+
+      }
+    });
+  }
+
   private void scheduleAndCheckJobTermination(final DAG<IRVertex, IREdge> irDAG) throws InjectionException {
     final DAG<PhysicalStage, PhysicalStageEdge> physicalDAG = irDAG.convert(physicalPlanGenerator);
 
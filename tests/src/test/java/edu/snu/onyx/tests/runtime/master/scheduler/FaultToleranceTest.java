@@ -121,11 +121,11 @@ public final class FaultToleranceTest {
     when(containerManager.getFailedExecutorRepresenterMap()).thenReturn(executorRepresenterMap);
 
     pendingTaskGroupQueue = new SingleJobTaskGroupQueue();
-    schedulingPolicy = new RoundRobinSchedulingPolicy(containerManager, TEST_TIMEOUT_MS);
+    schedulingPolicy = new RoundRobinSchedulingPolicy(containerManager, TEST_TIMEOUT_MS, 0);
     schedulerRunner = mock(SchedulerRunner.class);//new SchedulerRunner(schedulingPolicy, pendingTaskGroupQueue);
     scheduler =
         new BatchSingleJobScheduler(schedulingPolicy, schedulerRunner, pendingTaskGroupQueue,
-            blockManagerMaster, pubSubEventHandler, updatePhysicalPlanEventHandler);
+            blockManagerMaster, pubSubEventHandler, updatePhysicalPlanEventHandler, 1.0, 1.0);
 
     // Add nodes
     scheduler.onExecutorAdded(a1.getExecutorId());
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.master.scheduler;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.dag.DAGBuilder;
+import edu.snu.onyx.common.eventhandler.PubSubEventHandlerWrapper;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.OperatorVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.ExecutorPlacementProperty;
+import edu.snu.onyx.common.ir.vertex.executionproperty.ParallelismProperty;
+import edu.snu.onyx.compiler.optimizer.CompiletimeOptimizer;
+import edu.snu.onyx.compiler.optimizer.examples.EmptyComponents;
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.comm.ControlMessage;
+import edu.snu.onyx.runtime.common.message.MessageSender;
+import edu.snu.onyx.runtime.common.plan.physical.*;
+import edu.snu.onyx.runtime.common.state.TaskGroupState;
+import edu.snu.onyx.runtime.master.BlockManagerMaster;
+import edu.snu.onyx.runtime.master.JobStateManager;
+import edu.snu.onyx.runtime.master.MetricMessageHandler;
+import edu.snu.onyx.runtime.master.eventhandler.UpdatePhysicalPlanEventHandler;
+import edu.snu.onyx.runtime.master.resource.ContainerManager;
+import edu.snu.onyx.runtime.master.resource.ExecutorRepresenter;
+import edu.snu.onyx.runtime.master.resource.ResourceSpecification;
+import edu.snu.onyx.runtime.master.scheduler.*;
+import edu.snu.onyx.tests.compiler.optimizer.TestPolicy;
+import edu.snu.onyx.tests.runtime.RuntimeTestUtil;
+import org.apache.reef.driver.context.ActiveContext;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests {@link MultiJobScheduler}.
+ */
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ContainerManager.class, BlockManagerMaster.class,
+    PubSubEventHandlerWrapper.class, UpdatePhysicalPlanEventHandler.class, MetricMessageHandler.class})
+public final class MultiJobSchedulerTest {
+  private static final int TEST_TIMEOUT_MS = 500;
+  private static final int NUM_SLOTS = 2;
+
+  // This schedule index will make sure that task group events are not ignored
+  private static final int MAGIC_SCHEDULE_ATTEMPT_INDEX = Integer.MAX_VALUE;
+
+  private Scheduler scheduler;
+  private ContainerManager containerManager;
+  private MetricMessageHandler metricMessageHandler;
+  private MultiJobTaskGroupQueue multiJobTaskGroupQueue;
+  private BlockManagerMaster blockManagerMaster = mock(BlockManagerMaster.class);
+  private final MessageSender<ControlMessage.Message> mockMsgSender = mock(MessageSender.class);
+  private PhysicalPlanGenerator physicalPlanGenerator;
+
+  @Before
+  public void setUp() throws Exception {
+    RuntimeTestUtil.initialize();
+    containerManager = mock(ContainerManager.class);
+    metricMessageHandler = mock(MetricMessageHandler.class);
+    multiJobTaskGroupQueue = new MultiJobTaskGroupQueue();
+    final SchedulingPolicy schedulingPolicy = new RoundRobinSchedulingPolicy(containerManager, TEST_TIMEOUT_MS, 0);
+    final SchedulerRunner schedulerRunner = new SchedulerRunner(schedulingPolicy, multiJobTaskGroupQueue);
+    scheduler = new MultiJobScheduler(schedulingPolicy, schedulerRunner, multiJobTaskGroupQueue,
+        blockManagerMaster, mock(PubSubEventHandlerWrapper.class), mock(UpdatePhysicalPlanEventHandler.class),
+        1.0, 1.0);
+
+    final Map<String, ExecutorRepresenter> executorRepresenterMap = new HashMap<>();
+    when(containerManager.getExecutorRepresenterMap()).thenReturn(executorRepresenterMap);
+    final ActiveContext activeContext = mock(ActiveContext.class);
+    final ResourceSpecification computeSpec = new ResourceSpecification(ExecutorPlacementProperty.COMPUTE, 1, 0);
+    for (int i = 0; i < NUM_SLOTS; i++) {
+      final ExecutorRepresenter executor =
+          new ExecutorRepresenter("a" + i, computeSpec, mockMsgSender, activeContext);
+      executorRepresenterMap.put(executor.getExecutorId(), executor);
+      scheduler.onExecutorAdded(executor.getExecutorId());
+    }
+
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileParameter(JobConf.DAGDirectory.class, "");
+    physicalPlanGenerator = injector.getInstance(PhysicalPlanGenerator.class);
+  }
+
+  /**
+   * Builds a physical plan with a single stage, whose ID is the same in every plan.
+   * @param planId the id of the plan.
+   * @param parallelism the number of TaskGroups of the stage.
+   * @return the physical plan.
+   * @throws Exception exception on the way.
+   */
+  private PhysicalPlan buildSingleStagePlan(final String planId, final int parallelism) throws Exception {
+    final DAGBuilder<IRVertex, IREdge> irDAGBuilder = new DAGBuilder<>();
+    final IRVertex v1 = new OperatorVertex(new EmptyComponents.EmptyTransform("empty"));
+    v1.setProperty(ParallelismProperty.of(parallelism));
+    v1.setProperty(ExecutorPlacementProperty.of(ExecutorPlacementProperty.COMPUTE));
+    irDAGBuilder.addVertex(v1);
+    final DAG<IRVertex, IREdge> irDAG = CompiletimeOptimizer.optimize(irDAGBuilder.buildWithoutSourceSinkCheck(),
+        new TestPolicy(), "");
+    final DAG<PhysicalStage, PhysicalStageEdge> physicalDAG = irDAG.convert(physicalPlanGenerator);
+    return new PhysicalPlan(planId, physicalDAG, physicalPlanGenerator.getTaskIRVertexMap());
+  }
+
+  private List<String> getTaskGroupIdsInState(final PhysicalPlan plan,
+                                              final JobStateManager jobStateManager,
+                                              final TaskGroupState.State state) {
+    return plan.getStageDAG().getVertices().stream()
+        .flatMap(stage -> stage.getTaskGroupList().stream())
+        .map(TaskGroup::getTaskGroupId)
+        .filter(taskGroupId ->
+            jobStateManager.getTaskGroupState(taskGroupId).getStateMachine().getCurrentState() == state)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Tests whether a job of higher priority submitted while another job occupies all executor slots
+   * takes the slots released by the other job first, and both jobs complete on the shared executors.
+   * @throws Exception exception on the way.
+   */
+  @Test(timeout=10000)
+  public void testConcurrentJobsWithPriority() throws Exception {
+    final PhysicalPlan batchPlan = buildSingleStagePlan("BatchJob", 4);
+    final PhysicalPlan urgentPlan = buildSingleStagePlan("UrgentJob", 2);
+    final JobStateManager batchJob = new JobStateManager(batchPlan, blockManagerMaster, metricMessageHandler, 1);
+    final JobStateManager urgentJob = new JobStateManager(urgentPlan, blockManagerMaster, metricMessageHandler, 1);
+
+    scheduler.scheduleJob(batchPlan, batchJob,
+        MultiJobTaskGroupQueue.DEFAULT_WEIGHT, MultiJobTaskGroupQueue.DEFAULT_PRIORITY);
+    while (getTaskGroupIdsInState(batchPlan, batchJob, TaskGroupState.State.EXECUTING).size() < NUM_SLOTS) {
+
+    }
+    scheduler.scheduleJob(urgentPlan, urgentJob, MultiJobTaskGroupQueue.DEFAULT_WEIGHT, 1);
+
+    // Releases the slots of the batch job one by one, until the urgent job runs all of its TaskGroups.
+    // With equal priorities, the batch job would take back a slot before the urgent job takes its second one.
+    while (getTaskGroupIdsInState(urgentPlan, urgentJob, TaskGroupState.State.EXECUTING).size() < 2) {
+      final String batchTaskGroupId =
+          getTaskGroupIdsInState(batchPlan, batchJob, TaskGroupState.State.EXECUTING).get(0);
+      RuntimeTestUtil.sendTaskGroupStateEventToScheduler(scheduler, containerManager, batchTaskGroupId,
+          TaskGroupState.State.COMPLETE, MAGIC_SCHEDULE_ATTEMPT_INDEX, null);
+      while (getTaskGroupIdsInState(batchPlan, batchJob, TaskGroupState.State.EXECUTING).size()
+          + getTaskGroupIdsInState(urgentPlan, urgentJob, TaskGroupState.State.EXECUTING).size() < NUM_SLOTS) {
+
+      }
+    }
+    assertTrue(getTaskGroupIdsInState(batchPlan, batchJob, TaskGroupState.State.READY).size() > 0);
+
+    // Both jobs have a stage of the same ID, which is completed for each job separately.
+    final PhysicalStage urgentStage = urgentPlan.getStageDAG().getVertices().get(0);
+    final PhysicalStage batchStage = batchPlan.getStageDAG().getVertices().get(0);
+    assertEquals(urgentStage.getId(), batchStage.getId());
+    RuntimeTestUtil.sendStageCompletionEventToScheduler(
+        urgentJob, scheduler, containerManager, urgentStage, MAGIC_SCHEDULE_ATTEMPT_INDEX);
+    while (!urgentJob.checkJobTermination()) {
+
+    }
+    RuntimeTestUtil.sendStageCompletionEventToScheduler(
+        batchJob, scheduler, containerManager, batchStage, MAGIC_SCHEDULE_ATTEMPT_INDEX);
+    while (!batchJob.checkJobTermination()) {
+
+    }
+    assertTrue(multiJobTaskGroupQueue.isEmpty());
+    RuntimeTestUtil.cleanup();
+  }
+}
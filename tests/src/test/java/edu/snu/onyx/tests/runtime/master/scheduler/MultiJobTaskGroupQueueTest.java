@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2017 Seoul National University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.snu.onyx.tests.runtime.master.scheduler;
+
+import edu.snu.onyx.common.dag.DAG;
+import edu.snu.onyx.common.dag.DAGBuilder;
+import edu.snu.onyx.common.exception.SchedulingException;
+import edu.snu.onyx.common.ir.edge.IREdge;
+import edu.snu.onyx.common.ir.vertex.IRVertex;
+import edu.snu.onyx.common.ir.vertex.OperatorVertex;
+import edu.snu.onyx.common.ir.vertex.executionproperty.ExecutorPlacementProperty;
+import edu.snu.onyx.common.ir.vertex.executionproperty.ParallelismProperty;
+import edu.snu.onyx.common.ir.vertex.transform.Transform;
+import edu.snu.onyx.compiler.optimizer.CompiletimeOptimizer;
+import edu.snu.onyx.conf.JobConf;
+import edu.snu.onyx.runtime.common.plan.physical.*;
+import edu.snu.onyx.runtime.master.scheduler.MultiJobTaskGroupQueue;
+import edu.snu.onyx.runtime.master.scheduler.PendingTaskGroupQueue;
+import edu.snu.onyx.tests.compiler.optimizer.TestPolicy;
+import org.apache.reef.tang.Injector;
+import org.apache.reef.tang.Tang;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests {@link MultiJobTaskGroupQueue}.
+ */
+public final class MultiJobTaskGroupQueueTest {
+  private static final int PARALLELISM = 6;
+  private MultiJobTaskGroupQueue multiJobTaskGroupQueue;
+  private PhysicalPlanGenerator physicalPlanGenerator;
+
+  @Before
+  public void setUp() throws Exception {
+    multiJobTaskGroupQueue = new MultiJobTaskGroupQueue();
+    final Injector injector = Tang.Factory.getTang().newInjector();
+    injector.bindVolatileParameter(JobConf.DAGDirectory.class, "");
+    physicalPlanGenerator = injector.getInstance(PhysicalPlanGenerator.class);
+  }
+
+  /**
+   * Builds a physical plan with a single stage of {@link #PARALLELISM} TaskGroups.
+   * @param planId the id of the plan.
+   * @return the physical plan.
+   * @throws Exception exception on the way.
+   */
+  private PhysicalPlan buildSingleStagePlan(final String planId) throws Exception {
+    final DAGBuilder<IRVertex, IREdge> irDAGBuilder = new DAGBuilder<>();
+    final IRVertex v1 = new OperatorVertex(mock(Transform.class));
+    v1.setProperty(ParallelismProperty.of(PARALLELISM));
+    v1.setProperty(ExecutorPlacementProperty.of(ExecutorPlacementProperty.COMPUTE));
+    irDAGBuilder.addVertex(v1);
+    final DAG<IRVertex, IREdge> irDAG = CompiletimeOptimizer.optimize(irDAGBuilder.buildWithoutSourceSinkCheck(),
+        new TestPolicy(), "");
+    final DAG<PhysicalStage, PhysicalStageEdge> physicalDAG = irDAG.convert(physicalPlanGenerator);
+    return new PhysicalPlan(planId, physicalDAG, physicalPlanGenerator.getTaskIRVertexMap());
+  }
+
+  private void enqueueAll(final PhysicalPlan plan) {
+    plan.getStageDAG().getVertices().forEach(stage -> stage.getTaskGroupList().forEach(taskGroup ->
+        multiJobTaskGroupQueue.enqueue(new ScheduledTaskGroup(plan.getId(), taskGroup, null, null, 0))));
+  }
+
+  private List<String> dequeueJobIds(final int numToDequeue) {
+    final List<String> jobIds = new ArrayList<>();
+    for (int i = 0; i < numToDequeue; i++) {
+      jobIds.add(multiJobTaskGroupQueue.dequeue().get().getJobId());
+    }
+    return jobIds;
+  }
+
+  /**
+   * Tests whether the executor slots are shared by the weights of the jobs.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testWeightedFairSharing() throws Exception {
+    final PhysicalPlan heavyJob = buildSingleStagePlan("HeavyJob");
+    final PhysicalPlan lightJob = buildSingleStagePlan("LightJob");
+    multiJobTaskGroupQueue.onJobScheduled(heavyJob, 2, MultiJobTaskGroupQueue.DEFAULT_PRIORITY);
+    multiJobTaskGroupQueue.onJobScheduled(lightJob, 1, MultiJobTaskGroupQueue.DEFAULT_PRIORITY);
+    enqueueAll(heavyJob);
+    enqueueAll(lightJob);
+
+    // The heavy job takes two slots for each slot of the light job.
+    final List<String> jobIds = dequeueJobIds(6);
+    assertEquals(4, jobIds.stream().filter("HeavyJob"::equals).count());
+    assertEquals(2, jobIds.stream().filter("LightJob"::equals).count());
+    assertEquals(4, multiJobTaskGroupQueue.getNumOfRunningTaskGroups("HeavyJob"));
+
+    // A TaskGroup failed to be assigned is put back, and does not hold a slot any more.
+    final ScheduledTaskGroup notAssigned = multiJobTaskGroupQueue.dequeue().get();
+    assertEquals("HeavyJob", notAssigned.getJobId());
+    multiJobTaskGroupQueue.enqueue(notAssigned);
+    assertEquals(4, multiJobTaskGroupQueue.getNumOfRunningTaskGroups("HeavyJob"));
+
+    // Once the heavy job finishes, the remaining TaskGroups of the light job take all slots.
+    multiJobTaskGroupQueue.onJobFinished("HeavyJob");
+    assertEquals(4, dequeueJobIds(4).stream().filter("LightJob"::equals).count());
+    assertFalse(multiJobTaskGroupQueue.dequeue().isPresent());
+  }
+
+  /**
+   * Tests whether a job of higher priority is served first, and a completed TaskGroup releases its slot.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testPriority() throws Exception {
+    final PhysicalPlan batchJob = buildSingleStagePlan("BatchJob");
+    final PhysicalPlan urgentJob = buildSingleStagePlan("UrgentJob");
+    multiJobTaskGroupQueue.onJobScheduled(batchJob);
+    multiJobTaskGroupQueue.onJobScheduled(urgentJob, MultiJobTaskGroupQueue.DEFAULT_WEIGHT, 1);
+    enqueueAll(batchJob);
+    enqueueAll(urgentJob);
+
+    final List<String> taskGroupIds = new ArrayList<>();
+    for (int i = 0; i < PARALLELISM; i++) {
+      final ScheduledTaskGroup scheduledTaskGroup = multiJobTaskGroupQueue.dequeue().get();
+      assertEquals("UrgentJob", scheduledTaskGroup.getJobId());
+      taskGroupIds.add(scheduledTaskGroup.getTaskGroup().getTaskGroupId());
+    }
+    assertEquals("BatchJob", multiJobTaskGroupQueue.dequeue().get().getJobId());
+
+    taskGroupIds.forEach(multiJobTaskGroupQueue::onTaskGroupExecutionComplete);
+    assertEquals(0, multiJobTaskGroupQueue.getNumOfRunningTaskGroups("UrgentJob"));
+    assertEquals(1, multiJobTaskGroupQueue.getNumOfRunningTaskGroups("BatchJob"));
+  }
+
+  /**
+   * Tests whether a stage is removed from the job which has the stage, and the removal of a stage
+   * which multiple jobs have is refused.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testRemoveStage() throws Exception {
+    final PhysicalPlan firstJob = buildSingleStagePlan("FirstJob");
+    final PhysicalPlan secondJob = buildSingleStagePlan("SecondJob");
+    multiJobTaskGroupQueue.onJobScheduled(firstJob);
+    multiJobTaskGroupQueue.onJobScheduled(secondJob);
+    enqueueAll(firstJob);
+    enqueueAll(secondJob);
+
+    final String stageId = firstJob.getStageDAG().getVertices().get(0).getId();
+    assertEquals(stageId, secondJob.getStageDAG().getVertices().get(0).getId());
+    try {
+      multiJobTaskGroupQueue.removeTaskGroupsAndDescendants(stageId);
+      fail("The stage of two jobs should not be removed");
+    } catch (final SchedulingException e) {
+      assertEquals(PARALLELISM * 2, dequeueJobIds(PARALLELISM * 2).size());
+    }
+
+    enqueueAll(secondJob);
+    multiJobTaskGroupQueue.onJobFinished("FirstJob");
+    multiJobTaskGroupQueue.removeTaskGroupsAndDescendants(stageId);
+    assertTrue(multiJobTaskGroupQueue.isEmpty());
+    assertFalse(multiJobTaskGroupQueue.dequeue().isPresent());
+  }
+
+  /**
+   * Tests whether the scheduler runner and the multi-job scheduler share the same queue when injected.
+   * @throws Exception exception on the way.
+   */
+  @Test
+  public void testInjection() throws Exception {
+    final Injector multiJobInjector = Tang.Factory.getTang().newInjector(Tang.Factory.getTang()
+        .newConfigurationBuilder()
+        .bindImplementation(PendingTaskGroupQueue.class, MultiJobTaskGroupQueue.class)
+        .build());
+    final PendingTaskGroupQueue queue = multiJobInjector.getInstance(PendingTaskGroupQueue.class);
+    assertTrue(queue instanceof MultiJobTaskGroupQueue);
+    assertSame(queue, multiJobInjector.getInstance(MultiJobTaskGroupQueue.class));
+  }
+}
@@ -29,11 +29,13 @@ import org.apache.reef.driver.context.ActiveContext;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -52,19 +54,19 @@ public final class RoundRobinSchedulingPolicyTest {
   private SchedulingPolicy schedulingPolicy;
   private ContainerManager containerManager = mock(ContainerManager.class);
   private final MessageSender<ControlMessage.Message> mockMsgSender = mock(MessageSender.class);
+  private final Map<String, ExecutorRepresenter> executorRepresenterMap = new HashMap<>();
+  private final ActiveContext activeContext = mock(ActiveContext.class);
 
   // This schedule index will make sure that task group events are not ignored
   private static final int MAGIC_SCHEDULE_ATTEMPT_INDEX = Integer.MAX_VALUE;
 
   @Before
   public void setUp() {
-    final Map<String, ExecutorRepresenter> executorRepresenterMap = new HashMap<>();
     when(containerManager.getExecutorRepresenterMap()).thenReturn(executorRepresenterMap);
     when(containerManager.getFailedExecutorRepresenterMap()).thenReturn(executorRepresenterMap);
 
-    schedulingPolicy = new RoundRobinSchedulingPolicy(containerManager, TIMEOUT_MS);
+    schedulingPolicy = new RoundRobinSchedulingPolicy(containerManager, TIMEOUT_MS, 0);
 
-    final ActiveContext activeContext = mock(ActiveContext.class);
     Mockito.doThrow(new RuntimeException()).when(activeContext).close();
 
     final ResourceSpecification computeSpec = new ResourceSpecification(ExecutorPlacementProperty.COMPUTE, 1, 0);
@@ -229,6 +231,155 @@ public final class RoundRobinSchedulingPolicyTest {
     verify(mockMsgSender, times(8)).send(anyObject());
   }
 
+  /**
+   * Tests whether task groups are packed into an executor according to their core and memory demands.
+   */
+  @Test
+  public void testResourceDemands() {
+    final ResourceSpecification reservedSpec = new ResourceSpecification(ExecutorPlacementProperty.RESERVED, 2, 1024);
+    final ExecutorRepresenter c1 = new ExecutorRepresenter("c1", reservedSpec, mockMsgSender, activeContext);
+    executorRepresenterMap.put(c1.getExecutorId(), c1);
+    schedulingPolicy.onExecutorAdded(c1.getExecutorId());
+
+    // Light task groups taking half a core share the cores of the executor.
+    final List<ScheduledTaskGroup> lightTaskGroups = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      lightTaskGroups.add(wrap(new TaskGroup("L" + i, "Stage L", i, null, ExecutorPlacementProperty.RESERVED,
+          0.5, 128)));
+    }
+    for (final ScheduledTaskGroup lightTaskGroup : lightTaskGroups) {
+      final Optional<String> executorId = schedulingPolicy.attemptSchedule(lightTaskGroup);
+      assertEquals("c1", executorId.get());
+      schedulingPolicy.onTaskGroupScheduled(executorId.get(), lightTaskGroup);
+    }
+    final ScheduledTaskGroup fifthLightTaskGroup =
+        wrap(new TaskGroup("L4", "Stage L", 4, null, ExecutorPlacementProperty.RESERVED, 0.5, 128));
+    assertFalse(schedulingPolicy.attemptSchedule(fifthLightTaskGroup).isPresent());
+    lightTaskGroups.forEach(lightTaskGroup -> schedulingPolicy.onTaskGroupExecutionComplete("c1",
+        lightTaskGroup.getTaskGroup().getTaskGroupId()));
+
+    // A memory-heavy task group does not share the executor with another one, even with a free core.
+    final ScheduledTaskGroup heavyTaskGroup1 =
+        wrap(new TaskGroup("H1", "Stage H", 0, null, ExecutorPlacementProperty.RESERVED, 1.0, 768));
+    final ScheduledTaskGroup heavyTaskGroup2 =
+        wrap(new TaskGroup("H2", "Stage H", 1, null, ExecutorPlacementProperty.RESERVED, 1.0, 768));
+    final Optional<String> heavyExecutorId = schedulingPolicy.attemptSchedule(heavyTaskGroup1);
+    assertEquals("c1", heavyExecutorId.get());
+    schedulingPolicy.onTaskGroupScheduled(heavyExecutorId.get(), heavyTaskGroup1);
+    assertFalse(schedulingPolicy.attemptSchedule(heavyTaskGroup2).isPresent());
+    assertEquals(1.0, c1.getRemainingCores(), 0.0);
+    assertEquals(256, c1.getRemainingMemory());
+
+    // A task group demanding more than the executor runs alone once the executor becomes idle.
+    schedulingPolicy.onTaskGroupExecutionComplete("c1", "H1");
+    final ScheduledTaskGroup hugeTaskGroup =
+        wrap(new TaskGroup("X1", "Stage X", 0, null, ExecutorPlacementProperty.RESERVED, 4.0, 4096));
+    assertEquals("c1", schedulingPolicy.attemptSchedule(hugeTaskGroup).get());
+  }
+
+  /**
+   * Tests whether executors are assigned a backlog of task groups, which an idle executor steals.
+   */
+  @Test
+  public void testWorkStealing() {
+    final SchedulingPolicy backlogPolicy = new RoundRobinSchedulingPolicy(containerManager, TIMEOUT_MS, 1);
+    backlogPolicy.onExecutorAdded("a1");
+    backlogPolicy.onExecutorAdded("a2");
+
+    // Each executor with a single core holds one more task group in its backlog.
+    final List<ScheduledTaskGroup> taskGroups = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      final ScheduledTaskGroup taskGroup =
+          wrap(new TaskGroup("S" + i, "Stage S", i, null, ExecutorPlacementProperty.COMPUTE));
+      final Optional<String> executorId = backlogPolicy.attemptSchedule(taskGroup);
+      assertTrue(executorId.isPresent());
+      backlogPolicy.onTaskGroupScheduled(executorId.get(), taskGroup);
+      taskGroups.add(taskGroup);
+    }
+    final ExecutorRepresenter a1 = executorRepresenterMap.get("a1");
+    final ExecutorRepresenter a2 = executorRepresenterMap.get("a2");
+    assertEquals(2, a1.getRunningTaskGroups().size());
+    assertEquals(2, a2.getRunningTaskGroups().size());
+
+    // a1 becomes idle, and asks a2 to yield a task group.
+    a1.getRunningTaskGroups().stream().collect(Collectors.toList())
+        .forEach(taskGroupId -> backlogPolicy.onTaskGroupExecutionComplete("a1", taskGroupId));
+    reset(mockMsgSender);
+    backlogPolicy.onTaskGroupStealRequested("a1");
+    final ArgumentCaptor<ControlMessage.Message> messageCaptor = ArgumentCaptor.forClass(ControlMessage.Message.class);
+    verify(mockMsgSender).send(messageCaptor.capture());
+    assertEquals(ControlMessage.MessageType.YieldPendingTaskGroup, messageCaptor.getValue().getType());
+    assertEquals("a1", messageCaptor.getValue().getYieldPendingTaskGroupMsg().getThiefExecutorId());
+
+    // The yielded task group moves to a1.
+    final String yieldedTaskGroupId = a2.getRunningTaskGroups().iterator().next();
+    backlogPolicy.onTaskGroupYielded("a2", "a1", yieldedTaskGroupId);
+    assertEquals(Collections.singleton(yieldedTaskGroupId), a1.getRunningTaskGroups());
+    assertEquals(1, a2.getRunningTaskGroups().size());
+    assertFalse(a2.getRunningTaskGroups().contains(yieldedTaskGroupId));
+
+    // No executor has a backlog any more.
+    reset(mockMsgSender);
+    backlogPolicy.onTaskGroupStealRequested("a1");
+    verify(mockMsgSender, never()).send(anyObject());
+  }
+
+  /**
+   * Tests whether the task groups of the same index in a colocation group are assigned to the same executor.
+   */
+  @Test
+  public void testColocation() {
+    final Map<Integer, String> indexToExecutorId = new HashMap<>();
+    for (int i = 0; i < 3; i++) {
+      final ScheduledTaskGroup producer = wrap(new TaskGroup("P" + i, "Stage P", i, null,
+          ExecutorPlacementProperty.COMPUTE, TaskGroup.DEFAULT_CORE_DEMAND, TaskGroup.DEFAULT_MEMORY_DEMAND_MB, "Loop"));
+      final String executorId = schedulingPolicy.attemptSchedule(producer).get();
+      schedulingPolicy.onTaskGroupScheduled(executorId, producer);
+      indexToExecutorId.put(i, executorId);
+    }
+    indexToExecutorId.forEach((index, executorId) ->
+        schedulingPolicy.onTaskGroupExecutionComplete(executorId, "P" + index));
+
+    // The task groups of a later iteration follow those of the same index, regardless of the RR order.
+    for (int i = 2; i >= 0; i--) {
+      final ScheduledTaskGroup consumer = wrap(new TaskGroup("C" + i, "Stage C", i, null,
+          ExecutorPlacementProperty.COMPUTE, TaskGroup.DEFAULT_CORE_DEMAND, TaskGroup.DEFAULT_MEMORY_DEMAND_MB, "Loop"));
+      final String executorId = schedulingPolicy.attemptSchedule(consumer).get();
+      assertEquals(indexToExecutorId.get(i), executorId);
+      schedulingPolicy.onTaskGroupScheduled(executorId, consumer);
+    }
+
+    // A task group runs elsewhere rather than waiting for the executor it is pinned to.
+    schedulingPolicy.onTaskGroupExecutionComplete(indexToExecutorId.get(1), "C1");
+    final ScheduledTaskGroup busy = wrap(new TaskGroup("D0", "Stage D", 0, null,
+        ExecutorPlacementProperty.COMPUTE, TaskGroup.DEFAULT_CORE_DEMAND, TaskGroup.DEFAULT_MEMORY_DEMAND_MB, "Loop"));
+    assertEquals(indexToExecutorId.get(1), schedulingPolicy.attemptSchedule(busy).get());
+  }
+
+  /**
+   * Tests whether the task groups of a finished job no longer pin the task groups of the same colocation key,
+   * which a following job on the same executors may reuse.
+   */
+  @Test
+  public void testColocationReleasedOnJobFinished() {
+    final Map<Integer, String> indexToExecutorId = new HashMap<>();
+    for (int i = 0; i < 3; i++) {
+      final ScheduledTaskGroup producer = wrap(new TaskGroup("P" + i, "Stage P", i, null,
+          ExecutorPlacementProperty.COMPUTE, TaskGroup.DEFAULT_CORE_DEMAND, TaskGroup.DEFAULT_MEMORY_DEMAND_MB, "Loop"));
+      final String executorId = schedulingPolicy.attemptSchedule(producer).get();
+      schedulingPolicy.onTaskGroupScheduled(executorId, producer);
+      indexToExecutorId.put(i, executorId);
+    }
+    indexToExecutorId.forEach((index, executorId) ->
+        schedulingPolicy.onTaskGroupExecutionComplete(executorId, "P" + index));
+    schedulingPolicy.onJobFinished("TestPlan");
+
+    // The task group follows the RR order, which comes back to the first executor, instead of its former pin.
+    final ScheduledTaskGroup consumer = wrap(new TaskGroup("C2", "Stage C", 2, null,
+        ExecutorPlacementProperty.COMPUTE, TaskGroup.DEFAULT_CORE_DEMAND, TaskGroup.DEFAULT_MEMORY_DEMAND_MB, "Loop"));
+    assertEquals(indexToExecutorId.get(0), schedulingPolicy.attemptSchedule(consumer).get());
+  }
+
   private ScheduledTaskGroup wrap(final TaskGroup taskGroup) {
     return new ScheduledTaskGroup("TestPlan", taskGroup, Collections.emptyList(), Collections.emptyList(),
         MAGIC_SCHEDULE_ATTEMPT_INDEX);